@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The benchmark of {@link BreakPolicy#checkState(PomodoroState)} .
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BreakPolicyBenchmark {
+
+    /**
+     * The pomodoro state allowed by every policy checked
+     */
+    private PomodoroState allowedState;
+
+    /**
+     * The pomodoro state rejected by every policy
+     */
+    private PomodoroState rejectedState;
+
+    @Setup
+    public void setUp() {
+        this.allowedState = PomodoroState.CONCENTRATING;
+        this.rejectedState = PomodoroState.INITIALIZED;
+    }
+
+    @Benchmark
+    public PomodoroState checkStateAllowed() {
+        BreakPolicy.START_BREAK.checkState(this.allowedState);
+        BreakPolicy.IS_BREAK_ONGOING.checkState(this.allowedState);
+        return this.allowedState;
+    }
+
+    @Benchmark
+    public PomodoroException checkStateRejected() {
+        try {
+            BreakPolicy.START_BREAK.checkState(this.rejectedState);
+            return null;
+        } catch (PomodoroException e) {
+            return e;
+        }
+    }
+}
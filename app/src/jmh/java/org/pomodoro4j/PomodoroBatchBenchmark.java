@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * The benchmark of a tick over concentrating sessions none of which is due,
+ * polling each session with {@link Pomodoro#shouldStartBreak()} against
+ * {@link PomodoroBatch#evaluate(java.util.Collection, long)} .
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PomodoroBatchBenchmark {
+
+    /**
+     * The number of sessions
+     */
+    @Param({ "1000", "100000" })
+    private int sessions;
+
+    /**
+     * The clock of the sessions
+     */
+    private PomodoroClock clock;
+
+    /**
+     * The concentrating sessions
+     */
+    private List<Pomodoro> pomodoros;
+
+    @Setup
+    public void setUp() {
+        this.clock = PomodoroClock.system();
+        this.pomodoros = PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder().build(), this.clock)
+                .getInstances(this.sessions);
+        this.pomodoros.forEach(Pomodoro::performs);
+    }
+
+    @Benchmark
+    public void pollEach(final Blackhole blackhole) {
+        for (final Pomodoro pomodoro : this.pomodoros) {
+            blackhole.consume(pomodoro.shouldStartBreak());
+        }
+    }
+
+    @Benchmark
+    public List<Pomodoro> evaluateBatch() {
+        return PomodoroBatch.evaluate(this.pomodoros, this.clock.nanoTime());
+    }
+}
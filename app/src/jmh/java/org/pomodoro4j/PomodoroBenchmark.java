@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.pomodoro4j.conf.Configuration;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * The benchmark of the hot paths of {@link Pomodoro} .
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PomodoroBenchmark {
+
+    /**
+     * The configuration
+     */
+    private Configuration configuration;
+
+    /**
+     * The factory
+     */
+    private PomodoroFactory pomodoroFactory;
+
+    /**
+     * The pomodoro on a break
+     */
+    private Pomodoro breakingPomodoro;
+
+    /**
+     * The pomodoro concentrating
+     */
+    private Pomodoro concentratingPomodoro;
+
+    @Setup
+    public void setUp() {
+        this.configuration = ConfigurationBuilder.newBuilder().build();
+        this.pomodoroFactory = PomodoroFactory.newInstance(this.configuration);
+
+        this.breakingPomodoro = this.pomodoroFactory.getInstance();
+        this.breakingPomodoro.performs();
+        this.breakingPomodoro.startBreak();
+
+        this.concentratingPomodoro = this.pomodoroFactory.getInstance();
+        this.concentratingPomodoro.performs();
+    }
+
+    @Benchmark
+    public boolean shouldEndBreak() {
+        return this.breakingPomodoro.shouldEndBreak();
+    }
+
+    @Benchmark
+    public boolean shouldStartBreak() {
+        return this.concentratingPomodoro.shouldStartBreak();
+    }
+
+    @Benchmark
+    public boolean isBreaking() {
+        return this.breakingPomodoro.isBreaking();
+    }
+
+    @Benchmark
+    public TransitionResult tryStartBreakRejected() {
+        return this.breakingPomodoro.tryStartBreak();
+    }
+
+    @Benchmark
+    public Pomodoro getInstance() {
+        return this.pomodoroFactory.getInstance();
+    }
+
+    @Benchmark
+    public Pomodoro newPomodoroImpl() {
+        return new PomodoroImpl(this.configuration);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * The benchmark of {@link PomodoroCodec} against the Java serialization.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PomodoroCodecBenchmark {
+
+    /**
+     * The pomodoro on a break
+     */
+    private Pomodoro pomodoro;
+
+    /**
+     * The buffer encoded into
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * The pomodoro encoded by the codec
+     */
+    private ByteBuffer encoded;
+
+    /**
+     * The pomodoro encoded by the Java serialization
+     */
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.pomodoro = PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder().build()).getInstance();
+        this.pomodoro.performs();
+        this.pomodoro.startBreak();
+
+        this.buffer = ByteBuffer.allocate(PomodoroCodec.MAX_ENCODED_SIZE);
+        this.encoded = ByteBuffer.allocate(PomodoroCodec.MAX_ENCODED_SIZE);
+        PomodoroCodec.encode(this.pomodoro, this.encoded);
+        this.encoded.flip();
+
+        this.serialized = this.serializationEncode();
+    }
+
+    @Benchmark
+    public ByteBuffer codecEncode() {
+        this.buffer.clear();
+        PomodoroCodec.encode(this.pomodoro, this.buffer);
+        return this.buffer;
+    }
+
+    @Benchmark
+    public Pomodoro codecDecode() {
+        return PomodoroCodec.decode(this.encoded.duplicate());
+    }
+
+    @Benchmark
+    public byte[] serializationEncode() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+
+        try (ObjectOutputStream stream = new ObjectOutputStream(bytes)) {
+            stream.writeObject(this.pomodoro);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object serializationDecode() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(this.serialized))) {
+            return stream.readObject();
+        }
+    }
+}
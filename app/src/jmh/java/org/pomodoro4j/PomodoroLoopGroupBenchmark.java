@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * The benchmark of the commands sent by several threads to the sessions of a
+ * {@link PomodoroLoopGroup} , showing how the throughput grows with the number
+ * of loops.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class PomodoroLoopGroupBenchmark {
+
+    /**
+     * The number of sessions
+     */
+    private static final int SESSIONS = 10_000;
+
+    /**
+     * The number of loops
+     */
+    @Param({ "1", "4" })
+    private int loops;
+
+    /**
+     * The loop group
+     */
+    private PomodoroLoopGroup loopGroup;
+
+    @Setup
+    public void setUp() {
+        this.loopGroup = PomodoroLoopGroup.newInstance(this.loops, PomodoroFactory.newInstance());
+
+        for (long id = 0; id < SESSIONS; id++) {
+            this.loopGroup.start(id, (source, from, to) -> {
+            });
+        }
+
+        for (long id = 0; id < SESSIONS; id++) {
+            this.loopGroup.getState(id).join();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.loopGroup.close();
+    }
+
+    @Benchmark
+    public long submit() {
+        final long sessionId = ThreadLocalRandom.current().nextInt(SESSIONS);
+        return this.loopGroup.submit(sessionId, Pomodoro::getNanoseconds).join();
+    }
+}
@@ -25,81 +25,115 @@ enum BreakPolicy {
     /**
      * {@link BreakSupport#shouldStartBreak()}
      */
-    SHOULD_START_BREAK {
-        @Override
-        public void checkState(@NonNull final PomodoroState pomodoroState) {
-            if (pomodoroState == PomodoroState.CONCENTRATING || pomodoroState == PomodoroState.STOPPED) {
-                return;
-            }
-
-            throw new PomodoroException();
-        }
-    },
+    SHOULD_START_BREAK(PomodoroState.CONCENTRATING, PomodoroState.STOPPED),
 
     /**
      * {@link BreakSupport#isBreakOngoing()}
      */
-    IS_BREAK_ONGOING {
-        @Override
-        public void checkState(@NonNull final PomodoroState pomodoroState) {
-            if (pomodoroState == PomodoroState.CONCENTRATING || pomodoroState == PomodoroState.BREAKING
-                    || pomodoroState == PomodoroState.LONGER_BREAKING || pomodoroState == PomodoroState.STOPPED
-                    || pomodoroState == PomodoroState.FINISHED) {
-                return;
-            }
-
-            throw new PomodoroException();
-        }
-    },
+    IS_BREAK_ONGOING(PomodoroState.CONCENTRATING, PomodoroState.BREAKING, PomodoroState.LONGER_BREAKING,
+            PomodoroState.STOPPED, PomodoroState.FINISHED),
 
     /**
      * {@link BreakSupport#shouldEndBreak()}
      */
-    SHOULD_END_BREAK {
-        @Override
-        public void checkState(@NonNull final PomodoroState pomodoroState) {
-            if (pomodoroState == PomodoroState.BREAKING || pomodoroState == PomodoroState.LONGER_BREAKING
-                    || pomodoroState == PomodoroState.STOPPED) {
-                return;
-            }
-
-            throw new PomodoroException();
-        }
-    },
+    SHOULD_END_BREAK(PomodoroState.BREAKING, PomodoroState.LONGER_BREAKING, PomodoroState.STOPPED),
 
     /**
      * {@link BreakSupport#startBreak()}
      */
-    START_BREAK {
-        @Override
-        public void checkState(@NonNull final PomodoroState pomodoroState) {
-            if (pomodoroState == PomodoroState.CONCENTRATING || pomodoroState == PomodoroState.STOPPED) {
-                return;
-            }
-
-            throw new PomodoroException();
-        }
-    },
+    START_BREAK(PomodoroState.CONCENTRATING, PomodoroState.STOPPED),
 
     /**
      * {@link BreakSupport#endBreak()}
      */
-    END_BREAK {
-        @Override
-        public void checkState(@NonNull final PomodoroState pomodoroState) {
-            if (pomodoroState == PomodoroState.BREAKING || pomodoroState == PomodoroState.LONGER_BREAKING
-                    || pomodoroState == PomodoroState.STOPPED) {
-                return;
-            }
-
-            throw new PomodoroException();
+    END_BREAK(PomodoroState.BREAKING, PomodoroState.LONGER_BREAKING, PomodoroState.STOPPED);
+
+    /**
+     * The name of the system property enabling the stackless exceptions
+     */
+    static final String STACKLESS_EXCEPTIONS_PROPERTY = "org.pomodoro4j.stacklessExceptions";
+
+    /**
+     * The flag whether the preallocated stackless exceptions are thrown
+     */
+    private static final boolean STACKLESS_EXCEPTIONS = Boolean.getBoolean(STACKLESS_EXCEPTIONS_PROPERTY);
+
+    /**
+     * The bitmask of the allowed states indexed by ordinal
+     */
+    private final int allowedStates;
+
+    /**
+     * The preallocated stackless exception thrown by this policy
+     */
+    private final PomodoroException stacklessException = PomodoroException
+            .stackless("The operation is not allowed in the current state: " + this.name());
+
+    /**
+     * The constructor.
+     *
+     * @param allowedStates The allowed states
+     */
+    private BreakPolicy(final PomodoroState... allowedStates) {
+        int bitmask = 0;
+
+        for (final PomodoroState allowedState : allowedStates) {
+            bitmask |= 1 << allowedState.ordinal();
         }
-    };
+
+        this.allowedStates = bitmask;
+    }
+
+    /**
+     * Checks if the state of the Pomodoro allows a specific task.
+     *
+     * @param pomodoroState The pomodoro state
+     * @return {@code true} if the state allows the task, otherwise {@code false}
+     */
+    public boolean isAllowed(@NonNull final PomodoroState pomodoroState) {
+        return this.isAllowed(pomodoroState.ordinal());
+    }
+
+    /**
+     * Checks if the state ordinal of the Pomodoro allows a specific task.
+     *
+     * @param stateOrdinal The ordinal of the pomodoro state
+     * @return {@code true} if the state allows the task, otherwise {@code false}
+     */
+    boolean isAllowed(final int stateOrdinal) {
+        return (this.allowedStates >>> stateOrdinal & 1) != 0;
+    }
 
     /**
      * Checks the state of the Pomodoro when executing a specific task.
      *
+     * <p>
+     * If the system property {@value #STACKLESS_EXCEPTIONS_PROPERTY} is
+     * {@code true} , a preallocated {@link PomodoroException} without the stack
+     * trace is thrown instead of a new one.
+     *
      * @param pomodoroState The pomodoro state
+     *
+     * @exception PomodoroException If the state does not allow the task
+     */
+    public void checkState(@NonNull final PomodoroState pomodoroState) {
+        if (this.isAllowed(pomodoroState)) {
+            return;
+        }
+
+        if (STACKLESS_EXCEPTIONS) {
+            throw this.stacklessException;
+        }
+
+        throw new PomodoroException();
+    }
+
+    /**
+     * Returns the preallocated stackless exception thrown by this policy.
+     *
+     * @return The preallocated stackless exception
      */
-    public abstract void checkState(@NonNull final PomodoroState pomodoroState);
+    PomodoroException getStacklessException() {
+        return this.stacklessException;
+    }
 }
@@ -51,6 +51,48 @@ public interface BreakSupport {
      */
     public void endBreak();
 
+    /**
+     * Starts the break if the current state allows it, without throwing
+     * {@link PomodoroException} .
+     *
+     * <p>
+     * The default implementation delegates to {@link #startBreak()} and maps
+     * {@link PomodoroException} to {@link TransitionResult#REJECTED} .
+     *
+     * @return {@link TransitionResult#REJECTED} if the current state does not
+     *         allow starting the break, otherwise the result of the transition
+     * @since 1.1.0
+     */
+    public default TransitionResult tryStartBreak() {
+        try {
+            this.startBreak();
+            return TransitionResult.APPLIED;
+        } catch (PomodoroException e) {
+            return TransitionResult.REJECTED;
+        }
+    }
+
+    /**
+     * Ends the break if the current state allows it, without throwing
+     * {@link PomodoroException} .
+     *
+     * <p>
+     * The default implementation delegates to {@link #endBreak()} and maps
+     * {@link PomodoroException} to {@link TransitionResult#REJECTED} .
+     *
+     * @return {@link TransitionResult#REJECTED} if the current state does not
+     *         allow ending the break, otherwise the result of the transition
+     * @since 1.1.0
+     */
+    public default TransitionResult tryEndBreak() {
+        try {
+            this.endBreak();
+            return TransitionResult.APPLIED;
+        } catch (PomodoroException e) {
+            return TransitionResult.REJECTED;
+        }
+    }
+
     /**
      * Starts the break if should start.
      */
@@ -0,0 +1,666 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.pomodoro4j.conf.Configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The thread-safe implementation of {@link Pomodoro} .
+ *
+ * <p>
+ * The pomodoro state, the break count and the deadline of the phase are packed
+ * into a single {@code long} word, and every transition is applied to the word
+ * with a compare-and-set following the same rules as {@link BreakPolicy} , so
+ * the pomodoro can be shared between threads without locks. The non-throwing
+ * transitions are idempotent: {@link #tryStartBreak()} while a break is
+ * ongoing, or {@link #tryEndBreak()} once the break has ended, returns
+ * {@link TransitionResult#DUPLICATE} without changing anything, so the thread
+ * losing a race to the same transition is never rejected.
+ * {@link #startBreak()} and {@link #endBreak()} throw
+ * {@link PomodoroException} in those states as {@link PomodoroImpl} does. The
+ * timing follows
+ * {@link PomodoroImpl} , except that the deadline is kept in microseconds from
+ * the start, and the break count saturates at {@value #MAX_BREAK_COUNT} .
+ *
+ * <p>
+ * The deadline has 40 bits in the word, so every phase must end within about
+ * 12.7 days from the start of the pomodoro set. A transition starting a phase
+ * whose deadline is beyond that range throws {@link IllegalStateException}
+ * without changing anything, and the pomodoro must be reset to be used again.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString
+public final class ConcurrentPomodoro implements Pomodoro {
+
+    /**
+     * serialVersionUID
+     */
+    private static final long serialVersionUID = 0L;
+
+    /**
+     * The number of bits of the state in the word
+     */
+    private static final int STATE_BITS = 4;
+
+    /**
+     * The mask of the state in the word
+     */
+    private static final long STATE_MASK = (1L << STATE_BITS) - 1;
+
+    /**
+     * The number of bits of the break count in the word
+     */
+    private static final int BREAK_COUNT_BITS = 20;
+
+    /**
+     * The maximum break count
+     */
+    static final int MAX_BREAK_COUNT = (1 << BREAK_COUNT_BITS) - 1;
+
+    /**
+     * The shift of the deadline in the word
+     */
+    private static final int DEADLINE_SHIFT = STATE_BITS + BREAK_COUNT_BITS;
+
+    /**
+     * The deadline in the word of a state without a deadline
+     */
+    private static final long NO_DEADLINE_MICROS = (1L << (Long.SIZE - DEADLINE_SHIFT)) - 1;
+
+    /**
+     * The maximum deadline in microseconds from the start
+     */
+    private static final long MAX_DEADLINE_MICROS = NO_DEADLINE_MICROS - 1;
+
+    /**
+     * The time not set
+     */
+    private static final long UNSET = Long.MIN_VALUE;
+
+    /**
+     * The pomodoro states indexed by ordinal
+     */
+    private static final PomodoroState[] STATES = PomodoroState.values();
+
+    /**
+     * The handle of {@link #word}
+     */
+    private static final VarHandle WORD;
+
+    /**
+     * The handle of {@link #timing}
+     */
+    private static final VarHandle TIMING;
+
+    /**
+     * The handle of {@link #stopNanoseconds}
+     */
+    private static final VarHandle STOP_NANOSECONDS;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            WORD = lookup.findVarHandle(ConcurrentPomodoro.class, "word", long.class);
+            TIMING = lookup.findVarHandle(ConcurrentPomodoro.class, "timing", Timing.class);
+            STOP_NANOSECONDS = lookup.findVarHandle(ConcurrentPomodoro.class, "stopNanoseconds", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The configuration
+     */
+    private final Configuration configuration;
+
+    /**
+     * The clock
+     */
+    @ToString.Exclude
+    private final PomodoroClock clock;
+
+    /**
+     * The break count and the pomodoro state
+     */
+    @ToString.Exclude
+    private volatile long word = pack(PomodoroState.INITIALIZED, 0, NO_DEADLINE_MICROS);
+
+    /**
+     * The start time, or {@code null} if not started
+     */
+    @ToString.Exclude
+    private volatile Timing timing;
+
+    /**
+     * The time the timer was stopped in nanoseconds
+     */
+    @ToString.Exclude
+    private volatile long stopNanoseconds = UNSET;
+
+    /**
+     * The split time in nanoseconds
+     */
+    @ToString.Exclude
+    private volatile long splitNanoseconds;
+
+    /**
+     * The constructor.
+     *
+     * @param configuration The configuration
+     * @param clock         The clock
+     */
+    private ConcurrentPomodoro(final Configuration configuration, final PomodoroClock clock) {
+        this.configuration = configuration;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the new instance of {@link ConcurrentPomodoro} based on the
+     * configuration passed as an argument.
+     *
+     * @param configuration The configuration
+     * @return The new instance of {@link ConcurrentPomodoro}
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public static ConcurrentPomodoro newInstance(@NonNull final Configuration configuration) {
+        return new ConcurrentPomodoro(configuration, PomodoroClock.system());
+    }
+
+    /**
+     * Returns the new instance of {@link ConcurrentPomodoro} based on the
+     * configuration and the clock passed as arguments.
+     *
+     * @param configuration The configuration
+     * @param clock         The clock
+     * @return The new instance of {@link ConcurrentPomodoro}
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public static ConcurrentPomodoro newInstance(@NonNull final Configuration configuration,
+            @NonNull final PomodoroClock clock) {
+        return new ConcurrentPomodoro(configuration, clock);
+    }
+
+    /**
+     * Returns the pomodoro state.
+     *
+     * @return The pomodoro state
+     */
+    @ToString.Include
+    public PomodoroState getState() {
+        return stateOf(this.word);
+    }
+
+    /**
+     * Returns the break count.
+     *
+     * @return The break count
+     */
+    @ToString.Include
+    public int getBreakCount() {
+        return countOf(this.word);
+    }
+
+    @Override
+    public boolean performs() {
+        long current = this.word;
+
+        while (stateOf(current) == PomodoroState.INITIALIZED) {
+            // The timing is published before the state so that it is visible once concentrating
+            final Timing created = new Timing(this.clock.nanoTime(), this.clock.currentTimeMillis());
+            final Timing witnessTiming = (Timing) TIMING.compareAndExchange(this, null, created);
+            final Timing started = witnessTiming == null ? created : witnessTiming;
+
+            final long witness = (long) WORD.compareAndExchange(this, current,
+                    pack(PomodoroState.CONCENTRATING, countOf(current), this.toDeadlineMicros(started,
+                            started.startNanoseconds, PomodoroState.CONCENTRATING)));
+
+            if (witness == current) {
+                return true;
+            }
+
+            current = witness;
+        }
+
+        return stateOf(current) != PomodoroState.FINISHED;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Stopping the timer which has already been stopped does nothing.
+     *
+     * @exception IllegalStateException If the timer has not been started
+     */
+    @Override
+    public void stop() {
+        if (this.timing == null) {
+            throw new IllegalStateException("The timer has not been started.");
+        }
+
+        STOP_NANOSECONDS.compareAndSet(this, UNSET, this.clock.nanoTime());
+
+        long current = this.word;
+
+        while (stateOf(current) != PomodoroState.STOPPED) {
+            final long witness = (long) WORD.compareAndExchange(this, current,
+                    (current & ~STATE_MASK) | PomodoroState.STOPPED.ordinal());
+
+            if (witness == current) {
+                return;
+            }
+
+            current = witness;
+        }
+    }
+
+    @Override
+    public void reset() {
+        // The state is published last so that a concurrent start is not overwritten
+        this.stopNanoseconds = UNSET;
+        this.splitNanoseconds = 0;
+        this.timing = null;
+        this.word = pack(PomodoroState.INITIALIZED, 0, NO_DEADLINE_MICROS);
+    }
+
+    @Override
+    public long getStartMilliseconds() {
+        final Timing current = this.timing;
+
+        if (current == null) {
+            throw new IllegalStateException("The timer has not been started.");
+        }
+
+        return current.startMilliseconds;
+    }
+
+    @Override
+    public long getStartNanoseconds() {
+        return TimeUnit.MILLISECONDS.toNanos(this.getStartMilliseconds());
+    }
+
+    @Override
+    public long getMilliseconds() {
+        return TimeUnit.NANOSECONDS.toMillis(this.getNanoseconds());
+    }
+
+    @Override
+    public long getNanoseconds() {
+        final Timing current = this.timing;
+
+        if (current == null) {
+            return 0;
+        }
+
+        final long stopped = this.stopNanoseconds;
+        return (stopped == UNSET ? this.clock.nanoTime() : stopped) - current.startNanoseconds;
+    }
+
+    @Override
+    public long getSplitMilliseconds() {
+        return TimeUnit.NANOSECONDS.toMillis(this.splitNanoseconds);
+    }
+
+    @Override
+    public long getSplitNanoseconds() {
+        return this.splitNanoseconds;
+    }
+
+    @Override
+    public boolean shouldStartBreak() {
+        final long current = this.word;
+        BreakPolicy.SHOULD_START_BREAK.checkState(stateOf(current));
+
+        final Timing started = this.timing;
+        return started != null && Deadlines.isReached(started.startNanoseconds + this.getNanoseconds(),
+                toDeadlineNanos(started, current));
+    }
+
+    @Override
+    public boolean isBreaking() {
+        final PomodoroState pomodoroState = stateOf(this.word);
+        BreakPolicy.IS_BREAK_ONGOING.checkState(pomodoroState);
+
+        return pomodoroState == PomodoroState.BREAKING || pomodoroState == PomodoroState.LONGER_BREAKING;
+    }
+
+    @Override
+    public boolean shouldEndBreak() {
+        final long current = this.word;
+        BreakPolicy.SHOULD_END_BREAK.checkState(stateOf(current));
+
+        final long split = this.getNanoseconds();
+        this.splitNanoseconds = split;
+
+        final Timing started = this.timing;
+        return started != null
+                && Deadlines.isReached(started.startNanoseconds + split, toDeadlineNanos(started, current));
+    }
+
+    @Override
+    public void startBreak() {
+        this.transitStartBreak(true);
+    }
+
+    @Override
+    public void endBreak() {
+        this.transitEndBreak(true);
+    }
+
+    @Override
+    public TransitionResult tryStartBreak() {
+        return this.transitStartBreak(false);
+    }
+
+    @Override
+    public TransitionResult tryEndBreak() {
+        return this.transitEndBreak(false);
+    }
+
+    @Override
+    public long getNextDeadlineNanos() {
+        final long current = this.word;
+
+        switch (stateOf(current)) {
+        case CONCENTRATING:
+        case BREAKING:
+        case LONGER_BREAKING:
+            final Timing started = this.timing;
+            return started == null ? NO_DEADLINE : toDeadlineNanos(started, current);
+        default:
+            return NO_DEADLINE;
+        }
+    }
+
+    @Override
+    public boolean awaitNextTransition(final long timeout, @NonNull final TimeUnit unit)
+            throws InterruptedException {
+        return Deadlines.await(this.clock, this.getNextDeadlineNanos(), timeout, unit);
+    }
+
+    @Override
+    public void startBreakIfShould() {
+        if (this.shouldStartBreak()) {
+            this.startBreak();
+        }
+    }
+
+    @Override
+    public void endBreakIfShould() {
+        if (this.shouldEndBreak()) {
+            this.endBreak();
+        }
+    }
+
+    /**
+     * Starts the break with a compare-and-set on the word.
+     *
+     * @param throwing The flag whether {@link PomodoroException} is thrown when
+     *                 rejected
+     * @return The result of the transition
+     *
+     * @exception PomodoroException If rejected while throwing
+     */
+    private TransitionResult transitStartBreak(final boolean throwing) {
+        final long nowNanos = this.clock.nanoTime();
+        final Timing started = this.timing;
+        long current = this.word;
+
+        while (true) {
+            final PomodoroState pomodoroState = stateOf(current);
+
+            if (!throwing
+                    && (pomodoroState == PomodoroState.BREAKING || pomodoroState == PomodoroState.LONGER_BREAKING)) {
+                // The break has already been started by this or another call
+                return TransitionResult.DUPLICATE;
+            }
+
+            if (!BreakPolicy.START_BREAK.isAllowed(pomodoroState)) {
+                if (throwing) {
+                    BreakPolicy.START_BREAK.checkState(pomodoroState);
+                }
+
+                return TransitionResult.REJECTED;
+            }
+
+            final long next = this.nextOnStartBreak(current, started, nowNanos);
+            final long witness = (long) WORD.compareAndExchange(this, current, next);
+
+            if (witness == current) {
+                return TransitionResult.APPLIED;
+            }
+
+            current = witness;
+        }
+    }
+
+    /**
+     * Ends the break with a compare-and-set on the word.
+     *
+     * @param throwing The flag whether {@link PomodoroException} is thrown when
+     *                 rejected
+     * @return The result of the transition
+     *
+     * @exception PomodoroException If rejected while throwing
+     */
+    private TransitionResult transitEndBreak(final boolean throwing) {
+        final long nowNanos = this.clock.nanoTime();
+        final Timing started = this.timing;
+        long current = this.word;
+
+        while (true) {
+            final PomodoroState pomodoroState = stateOf(current);
+
+            if (!throwing && (pomodoroState == PomodoroState.FINISHED
+                    || pomodoroState == PomodoroState.CONCENTRATING && countOf(current) > 0)) {
+                // The break has already been ended by this or another call
+                return TransitionResult.DUPLICATE;
+            }
+
+            if (!BreakPolicy.END_BREAK.isAllowed(pomodoroState)) {
+                if (throwing) {
+                    BreakPolicy.END_BREAK.checkState(pomodoroState);
+                }
+
+                return TransitionResult.REJECTED;
+            }
+
+            final long next = this.nextOnEndBreak(current, started, nowNanos);
+            final long witness = (long) WORD.compareAndExchange(this, current, next);
+
+            if (witness == current) {
+                return TransitionResult.APPLIED;
+            }
+
+            current = witness;
+        }
+    }
+
+    /**
+     * Starts or ends the break with a single compare-and-set if the deadline of
+     * the current phase has been reached at the time passed as an argument,
+     * without reading the clock. The next phase is started at the time.
+     *
+     * @param nowNanos The time in nanoseconds of the clock
+     * @return {@code true} if the phase has been changed by this call, otherwise
+     *         {@code false}
+     */
+    boolean applyDueTransition(final long nowNanos) {
+        final long current = this.word;
+        final Timing started = this.timing;
+
+        if (started == null || !Deadlines.isReached(nowNanos, toDeadlineNanos(started, current))) {
+            return false;
+        }
+
+        final long next;
+
+        switch (stateOf(current)) {
+        case CONCENTRATING:
+            next = this.nextOnStartBreak(current, started, nowNanos);
+            break;
+        case BREAKING:
+        case LONGER_BREAKING:
+            next = this.nextOnEndBreak(current, started, nowNanos);
+            break;
+        default:
+            return false;
+        }
+
+        return WORD.compareAndSet(this, current, next);
+    }
+
+    /**
+     * Returns the word after the break starts at the time.
+     *
+     * @param current  The current word
+     * @param started  The start time
+     * @param nowNanos The time the break starts in nanoseconds of the clock
+     * @return The word after the break starts
+     */
+    private long nextOnStartBreak(final long current, final Timing started, final long nowNanos) {
+        final int breakCount = countOf(current);
+        final PomodoroState nextState = breakCount >= this.configuration.getCountUntilLongerBreak()
+                ? PomodoroState.LONGER_BREAKING
+                : PomodoroState.BREAKING;
+        return pack(nextState, Math.min(breakCount + 1, MAX_BREAK_COUNT),
+                this.toDeadlineMicros(started, nowNanos, nextState));
+    }
+
+    /**
+     * Returns the word after the break ends at the time.
+     *
+     * @param current  The current word
+     * @param started  The start time
+     * @param nowNanos The time the break ends in nanoseconds of the clock
+     * @return The word after the break ends
+     */
+    private long nextOnEndBreak(final long current, final Timing started, final long nowNanos) {
+        return stateOf(current) == PomodoroState.LONGER_BREAKING
+                ? pack(PomodoroState.FINISHED, 0, NO_DEADLINE_MICROS)
+                : pack(PomodoroState.CONCENTRATING, countOf(current),
+                        this.toDeadlineMicros(started, nowNanos, PomodoroState.CONCENTRATING));
+    }
+
+    /**
+     * Returns the deadline of the phase starting at the time, in microseconds
+     * from the start of the timer rounded up.
+     *
+     * @param started       The start time
+     * @param nowNanos      The time the phase starts in nanoseconds of the clock
+     * @param pomodoroState The pomodoro state of the phase
+     * @return The deadline in microseconds from the start
+     *
+     * @exception IllegalStateException If the deadline is beyond the range of the
+     *                                  word
+     */
+    private long toDeadlineMicros(final Timing started, final long nowNanos, final PomodoroState pomodoroState) {
+        final long phaseNanoseconds = PomodoroBaseImpl.getPhaseNanoseconds(this.configuration, pomodoroState);
+
+        if (started == null || phaseNanoseconds < 0) {
+            return NO_DEADLINE_MICROS;
+        }
+
+        final long deadlineNanos = nowNanos - started.startNanoseconds + phaseNanoseconds;
+        final long deadlineMicros = (deadlineNanos + 999) / 1000;
+
+        if (deadlineMicros > MAX_DEADLINE_MICROS) {
+            throw new IllegalStateException("The deadline must be within " + MAX_DEADLINE_MICROS
+                    + " microseconds from the start.");
+        }
+
+        return Math.max(0, deadlineMicros);
+    }
+
+    /**
+     * Returns the deadline packed into the word in nanoseconds of the clock.
+     *
+     * @param started The start time
+     * @param word    The word
+     * @return The deadline in nanoseconds of the clock, or {@link #NO_DEADLINE}
+     */
+    private static long toDeadlineNanos(final Timing started, final long word) {
+        final long deadlineMicros = word >>> DEADLINE_SHIFT;
+        return deadlineMicros == NO_DEADLINE_MICROS ? NO_DEADLINE
+                : started.startNanoseconds + TimeUnit.MICROSECONDS.toNanos(deadlineMicros);
+    }
+
+    /**
+     * Packs the pomodoro state, the break count and the deadline into a word.
+     *
+     * @param pomodoroState  The pomodoro state
+     * @param breakCount     The break count
+     * @param deadlineMicros The deadline in microseconds from the start
+     * @return The word
+     */
+    private static long pack(final PomodoroState pomodoroState, final int breakCount, final long deadlineMicros) {
+        return deadlineMicros << DEADLINE_SHIFT | (long) breakCount << STATE_BITS | pomodoroState.ordinal();
+    }
+
+    /**
+     * Returns the pomodoro state packed into the word.
+     *
+     * @param word The word
+     * @return The pomodoro state
+     */
+    private static PomodoroState stateOf(final long word) {
+        return STATES[(int) (word & STATE_MASK)];
+    }
+
+    /**
+     * Returns the break count packed into the word.
+     *
+     * @param word The word
+     * @return The break count
+     */
+    private static int countOf(final long word) {
+        return (int) (word >>> STATE_BITS) & MAX_BREAK_COUNT;
+    }
+
+    /**
+     * The time the timer was started.
+     */
+    @AllArgsConstructor
+    private static final class Timing implements Serializable {
+
+        /**
+         * serialVersionUID
+         */
+        private static final long serialVersionUID = 0L;
+
+        /**
+         * The time the timer was started in nanoseconds of the clock
+         */
+        private final long startNanoseconds;
+
+        /**
+         * The time the timer was started in milliseconds
+         */
+        private final long startMilliseconds;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+/**
+ * The utility to wait for the deadline of a phase.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class Deadlines {
+
+    /**
+     * Checks if the deadline has been reached at the time.
+     *
+     * @param nowNanos      The time in nanoseconds of the clock
+     * @param deadlineNanos The deadline in nanoseconds of the clock
+     * @return {@code true} if the deadline has been reached, otherwise
+     *         {@code false}
+     */
+    static boolean isReached(final long nowNanos, final long deadlineNanos) {
+        return deadlineNanos != Pomodoro.NO_DEADLINE && nowNanos - deadlineNanos >= 0;
+    }
+
+    /**
+     * Parks the current thread until the deadline is reached on the clock, or the
+     * timeout elapses in real time.
+     *
+     * @param clock         The clock
+     * @param deadlineNanos The deadline in nanoseconds of the clock
+     * @param timeout       The maximum time to wait
+     * @param unit          The unit of the timeout
+     * @return {@code true} if the deadline has been reached, or {@code false} if
+     *         the timeout elapsed first or there is no deadline
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     * @exception InterruptedException If the current thread is interrupted while
+     *                                 waiting
+     */
+    static boolean await(@NonNull final PomodoroClock clock, final long deadlineNanos, final long timeout,
+            @NonNull final TimeUnit unit) throws InterruptedException {
+        if (deadlineNanos == Pomodoro.NO_DEADLINE) {
+            return false;
+        }
+
+        final long timeoutNanos = unit.toNanos(timeout);
+        final long startNanos = System.nanoTime();
+
+        while (true) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            final long remainingNanos = deadlineNanos - clock.nanoTime();
+
+            if (remainingNanos <= 0) {
+                return true;
+            }
+
+            final long timeoutRemainingNanos = timeoutNanos - (System.nanoTime() - startNanos);
+
+            if (timeoutRemainingNanos <= 0) {
+                return false;
+            }
+
+            LockSupport.parkNanos(Deadlines.class, Math.min(remainingNanos, timeoutRemainingNanos));
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The reusable {@link Pomodoro} view of a pomodoro stored in
+ * {@link OffHeapPomodoroStore} .
+ *
+ * <p>
+ * The view holds nothing but the store and the current handle, and
+ * {@link #moveTo(long)} points it at another pomodoro without allocating. Every
+ * method reads and writes the slot of the current handle directly, so the view
+ * is only valid while the handle is live and must not be shared between
+ * threads. Once the slot is released the view behaves as a
+ * {@link PomodoroState#FINISHED} pomodoro, except that the accessors of the
+ * timer throw {@link IllegalStateException} .
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class OffHeapPomodoro implements Pomodoro {
+
+    /**
+     * The serial version UID
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The store
+     */
+    private final transient OffHeapPomodoroStore store;
+
+    /**
+     * The handle
+     */
+    @ToString.Include
+    private long handle = -1;
+
+    /**
+     * The constructor.
+     *
+     * @param store The store
+     */
+    OffHeapPomodoro(final OffHeapPomodoroStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Points this view at the pomodoro of the handle.
+     *
+     * @param handle The handle
+     * @return This view
+     */
+    public OffHeapPomodoro moveTo(final long handle) {
+        this.handle = handle;
+        return this;
+    }
+
+    /**
+     * Returns the handle this view currently points at.
+     *
+     * @return The handle
+     */
+    public long getHandle() {
+        return this.handle;
+    }
+
+    /**
+     * Returns the state of the current pomodoro.
+     *
+     * @return The pomodoro state
+     */
+    public PomodoroState getState() {
+        return this.store.getState(this.handle);
+    }
+
+    @Override
+    public boolean performs() {
+        return this.store.performs(this.handle);
+    }
+
+    @Override
+    public void stop() {
+        this.store.stop(this.handle);
+    }
+
+    @Override
+    public void reset() {
+        this.store.reset(this.handle);
+    }
+
+    @Override
+    public long getStartMilliseconds() {
+        return this.store.getStartMilliseconds(this.handle);
+    }
+
+    @Override
+    public long getStartNanoseconds() {
+        return this.store.getStartNanoseconds(this.handle);
+    }
+
+    @Override
+    public long getMilliseconds() {
+        return TimeUnit.NANOSECONDS.toMillis(this.store.getNanoseconds(this.handle));
+    }
+
+    @Override
+    public long getNanoseconds() {
+        return this.store.getNanoseconds(this.handle);
+    }
+
+    @Override
+    public long getSplitMilliseconds() {
+        return TimeUnit.NANOSECONDS.toMillis(this.store.getSplitNanoseconds(this.handle));
+    }
+
+    @Override
+    public long getSplitNanoseconds() {
+        return this.store.getSplitNanoseconds(this.handle);
+    }
+
+    @Override
+    public boolean shouldStartBreak() {
+        return this.store.shouldStartBreak(this.handle);
+    }
+
+    @Override
+    public boolean isBreaking() {
+        return this.store.isBreaking(this.handle);
+    }
+
+    @Override
+    public boolean shouldEndBreak() {
+        return this.store.shouldEndBreak(this.handle);
+    }
+
+    @Override
+    public void startBreak() {
+        this.store.startBreak(this.handle);
+    }
+
+    @Override
+    public void endBreak() {
+        this.store.endBreak(this.handle);
+    }
+
+    @Override
+    public long getNextDeadlineNanos() {
+        return this.store.getNextDeadlineNanos(this.handle);
+    }
+
+    @Override
+    public boolean awaitNextTransition(final long timeout, @NonNull final TimeUnit unit)
+            throws InterruptedException {
+        return Deadlines.await(this.store.getClock(), this.getNextDeadlineNanos(), timeout, unit);
+    }
+
+    @Override
+    public TransitionResult tryStartBreak() {
+        return this.store.tryStartBreak(this.handle);
+    }
+
+    @Override
+    public TransitionResult tryEndBreak() {
+        return this.store.tryEndBreak(this.handle);
+    }
+
+    @Override
+    public void startBreakIfShould() {
+        if (this.shouldStartBreak()) {
+            this.startBreak();
+        }
+    }
+
+    @Override
+    public void endBreakIfShould() {
+        if (this.shouldEndBreak()) {
+            this.endBreak();
+        }
+    }
+}
@@ -0,0 +1,779 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.pomodoro4j.conf.Configuration;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The store keeping the state of pomodoros outside of the Java heap.
+ *
+ * <p>
+ * Each pomodoro occupies a fixed-width slot of a direct {@link ByteBuffer} that
+ * holds its state, phase, configuration id and timestamps, so the pomodoros
+ * add nothing to the heap that the garbage collector has to trace. A
+ * pomodoro is addressed by a {@code long} handle combining the slot index and
+ * the generation of the slot, and {@link OffHeapPomodoro} provides a reusable
+ * {@link Pomodoro} view of any handle without allocating per access.
+ *
+ * <p>
+ * The slot of a pomodoro is released as soon as it reaches
+ * {@link PomodoroState#FINISHED} , and can be reused by the next
+ * {@link #add(int)} . A handle whose slot has been released reads as
+ * {@link PomodoroState#FINISHED} from then on. Like {@link PomodoroTable} the
+ * deadline of each phase is counted from the start of the phase. This class is
+ * not thread-safe and is meant to be owned by a single thread.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class OffHeapPomodoroStore {
+
+    /**
+     * The offset of the state ordinal
+     */
+    private static final int STATE_OFFSET = 0;
+
+    /**
+     * The offset of the phase of the schedule, or the next free slot of a free
+     * slot
+     */
+    private static final int PHASE_OFFSET = 4;
+
+    /**
+     * The offset of the configuration id
+     */
+    private static final int CONFIGURATION_ID_OFFSET = 8;
+
+    /**
+     * The offset of the generation
+     */
+    private static final int GENERATION_OFFSET = 12;
+
+    /**
+     * The offset of the start time in nanoseconds
+     */
+    private static final int START_NANOS_OFFSET = 16;
+
+    /**
+     * The offset of the start time in milliseconds
+     */
+    private static final int START_MILLIS_OFFSET = 24;
+
+    /**
+     * The offset of the phase start time in nanoseconds
+     */
+    private static final int PHASE_START_NANOS_OFFSET = 32;
+
+    /**
+     * The offset of the split time in nanoseconds
+     */
+    private static final int SPLIT_NANOS_OFFSET = 40;
+
+    /**
+     * The number of bytes of a slot
+     */
+    static final int SLOT_BYTES = 48;
+
+    /**
+     * The state ordinal of a free slot
+     */
+    private static final int FREE = -1;
+
+    /**
+     * The end of the free list
+     */
+    private static final int NO_FREE_SLOT = -1;
+
+    /**
+     * The pomodoro states indexed by ordinal
+     */
+    private static final PomodoroState[] STATES = PomodoroState.values();
+
+    /**
+     * The clock
+     */
+    private final PomodoroClock clock;
+
+    /**
+     * The slots
+     */
+    private final ByteBuffer slots;
+
+    /**
+     * The capacity
+     */
+    @ToString.Include
+    private final int capacity;
+
+    /**
+     * The schedules indexed by configuration id
+     */
+    private PhaseSchedule[] schedules = new PhaseSchedule[0];
+
+    /**
+     * The number of registered configurations
+     */
+    private int configurationCount;
+
+    /**
+     * The number of slots ever used
+     */
+    private int highWaterMark;
+
+    /**
+     * The head of the free list
+     */
+    private int freeHead = NO_FREE_SLOT;
+
+    /**
+     * The number of live pomodoros
+     */
+    @ToString.Include
+    private int size;
+
+    /**
+     * The constructor.
+     *
+     * @param clock    The clock
+     * @param capacity The capacity
+     */
+    private OffHeapPomodoroStore(final PomodoroClock clock, final int capacity) {
+        this.clock = clock;
+        this.capacity = capacity;
+        this.slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Returns the new instance of {@link OffHeapPomodoroStore} holding up to the
+     * number of pomodoros passed as an argument and measuring the time with the
+     * system clock.
+     *
+     * @param capacity The capacity
+     * @return The new instance of {@link OffHeapPomodoroStore}
+     *
+     * @exception IllegalArgumentException If the capacity is out of range
+     */
+    public static OffHeapPomodoroStore newInstance(final int capacity) {
+        return newInstance(PomodoroClock.system(), capacity);
+    }
+
+    /**
+     * Returns the new instance of {@link OffHeapPomodoroStore} based on the clock
+     * and the capacity passed as arguments.
+     *
+     * @param clock    The clock
+     * @param capacity The capacity
+     * @return The new instance of {@link OffHeapPomodoroStore}
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the capacity is out of range
+     */
+    public static OffHeapPomodoroStore newInstance(@NonNull final PomodoroClock clock, final int capacity) {
+        if (capacity <= 0 || capacity > Integer.MAX_VALUE / SLOT_BYTES) {
+            throw new IllegalArgumentException("The capacity is out of range: " + capacity);
+        }
+
+        return new OffHeapPomodoroStore(clock, capacity);
+    }
+
+    /**
+     * Registers the configuration and returns its id. The configuration is
+     * compiled into {@link PhaseSchedule} , so later changes to the configuration
+     * are not reflected.
+     *
+     * @param configuration The configuration
+     * @return The configuration id
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the count until longer break is too
+     *                                     large
+     */
+    public int register(@NonNull final Configuration configuration) {
+        return this.register(PhaseSchedule.newInstance(configuration));
+    }
+
+    /**
+     * Registers the schedule and returns its configuration id.
+     *
+     * @param schedule The schedule
+     * @return The configuration id
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public int register(@NonNull final PhaseSchedule schedule) {
+        final int configurationId = this.configurationCount;
+
+        if (configurationId == this.schedules.length) {
+            this.schedules = Arrays.copyOf(this.schedules, Math.max(4, configurationId * 2));
+        }
+
+        this.schedules[configurationId] = schedule;
+        this.configurationCount++;
+        return configurationId;
+    }
+
+    /**
+     * Adds a new pomodoro in the {@link PomodoroState#INITIALIZED} state and
+     * returns its handle.
+     *
+     * @param configurationId The configuration id
+     * @return The handle
+     *
+     * @exception IllegalArgumentException If the configuration id is not
+     *                                     registered
+     * @exception IllegalStateException    If this store is full
+     */
+    public long add(final int configurationId) {
+        if (configurationId < 0 || configurationId >= this.configurationCount) {
+            throw new IllegalArgumentException("Unknown configuration id: " + configurationId);
+        }
+
+        final int slot;
+
+        if (this.freeHead != NO_FREE_SLOT) {
+            slot = this.freeHead;
+            this.freeHead = this.slots.getInt(offset(slot) + PHASE_OFFSET);
+        } else if (this.highWaterMark < this.capacity) {
+            slot = this.highWaterMark++;
+        } else {
+            throw new IllegalStateException("The store is full.");
+        }
+
+        final int offset = offset(slot);
+        final int generation = this.slots.getInt(offset + GENERATION_OFFSET) + 1;
+
+        this.slots.putInt(offset + STATE_OFFSET, PomodoroState.INITIALIZED.ordinal());
+        this.slots.putInt(offset + PHASE_OFFSET, 0);
+        this.slots.putInt(offset + CONFIGURATION_ID_OFFSET, configurationId);
+        this.slots.putInt(offset + GENERATION_OFFSET, generation);
+        this.clearTimes(offset);
+
+        this.size++;
+        return ((long) generation << Integer.SIZE) | slot;
+    }
+
+    /**
+     * Removes the pomodoro of the handle and releases its slot. Nothing happens if
+     * the slot has already been released.
+     *
+     * @param handle The handle
+     */
+    public void remove(final long handle) {
+        if (this.isLive(handle)) {
+            this.release(slot(handle));
+        }
+    }
+
+    /**
+     * Checks if the slot of the handle has not been released.
+     *
+     * @param handle The handle
+     * @return {@code true} if the slot of the handle has not been released,
+     *         otherwise {@code false}
+     */
+    public boolean isLive(final long handle) {
+        final int slot = slot(handle);
+
+        if (slot < 0 || slot >= this.highWaterMark) {
+            return false;
+        }
+
+        final int offset = offset(slot);
+        return this.slots.getInt(offset + STATE_OFFSET) != FREE
+                && this.slots.getInt(offset + GENERATION_OFFSET) == (int) (handle >>> Integer.SIZE);
+    }
+
+    /**
+     * Returns the number of live pomodoros in this store.
+     *
+     * @return The number of live pomodoros
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the capacity of this store.
+     *
+     * @return The capacity
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the new view of the pomodoros in this store. A view can be moved to
+     * any handle and reused, so a single view per thread is enough.
+     *
+     * @return The new view
+     */
+    public OffHeapPomodoro newView() {
+        return new OffHeapPomodoro(this);
+    }
+
+    /**
+     * Returns the state of the pomodoro of the handle. A handle whose slot has
+     * been released is {@link PomodoroState#FINISHED} .
+     *
+     * @param handle The handle
+     * @return The pomodoro state
+     */
+    public PomodoroState getState(final long handle) {
+        if (!this.isLive(handle)) {
+            return PomodoroState.FINISHED;
+        }
+
+        return STATES[this.slots.getInt(offset(slot(handle)) + STATE_OFFSET)];
+    }
+
+    /**
+     * Returns the break count of the pomodoro of the handle.
+     *
+     * @param handle The handle
+     * @return The break count, or {@code 0} if the slot has been released
+     */
+    public int getBreakCount(final long handle) {
+        if (!this.isLive(handle)) {
+            return 0;
+        }
+
+        final int offset = offset(slot(handle));
+        return this.getSchedule(offset).getBreakCount(this.slots.getInt(offset + PHASE_OFFSET));
+    }
+
+    /**
+     * Returns the time the current phase of the pomodoro of the handle reaches its
+     * deadline.
+     *
+     * @param handle The handle
+     * @return The deadline in nanoseconds of the clock, or
+     *         {@link Pomodoro#NO_DEADLINE} if the pomodoro is not concentrating or
+     *         breaking
+     */
+    public long getNextDeadlineNanos(final long handle) {
+        if (!this.isLive(handle)) {
+            return Pomodoro.NO_DEADLINE;
+        }
+
+        final int offset = offset(slot(handle));
+        final int state = this.slots.getInt(offset + STATE_OFFSET);
+
+        if (state != PomodoroState.CONCENTRATING.ordinal() && state != PomodoroState.BREAKING.ordinal()
+                && state != PomodoroState.LONGER_BREAKING.ordinal()) {
+            return Pomodoro.NO_DEADLINE;
+        }
+
+        return this.slots.getLong(offset + PHASE_START_NANOS_OFFSET) + this.getPhaseNanos(offset);
+    }
+
+    /**
+     * Applies every due transition in one linear pass over all slots, and notifies
+     * the listener of each applied transition. The new phase is considered to
+     * start at its deadline, and the slots of the pomodoros reaching
+     * {@link PomodoroState#FINISHED} are released after the listener is notified.
+     *
+     * @param nowNanos The current time in nanoseconds of the clock
+     * @param listener The listener receiving the handles
+     * @return The number of applied transitions
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public int sweep(final long nowNanos, @NonNull final Listener listener) {
+        int transitions = 0;
+
+        for (int slot = 0, end = this.highWaterMark; slot < end; slot++) {
+            final int offset = offset(slot);
+            final int state = this.slots.getInt(offset + STATE_OFFSET);
+
+            if (state != PomodoroState.CONCENTRATING.ordinal() && state != PomodoroState.BREAKING.ordinal()
+                    && state != PomodoroState.LONGER_BREAKING.ordinal()) {
+                continue;
+            }
+
+            final long deadlineNanos = this.slots.getLong(offset + PHASE_START_NANOS_OFFSET)
+                    + this.getPhaseNanos(offset);
+
+            if (nowNanos - deadlineNanos < 0) {
+                continue;
+            }
+
+            final long handle = ((long) this.slots.getInt(offset + GENERATION_OFFSET) << Integer.SIZE) | slot;
+
+            if (state == PomodoroState.CONCENTRATING.ordinal()) {
+                this.applyStartBreak(offset, deadlineNanos);
+            } else {
+                this.applyEndBreak(offset, deadlineNanos);
+            }
+
+            final int next = this.slots.getInt(offset + STATE_OFFSET);
+            listener.onTransition(handle, STATES[state], STATES[next]);
+
+            if (next == PomodoroState.FINISHED.ordinal()) {
+                this.release(slot);
+            }
+
+            transitions++;
+        }
+
+        return transitions;
+    }
+
+    /**
+     * The listener notified on each transition applied by
+     * {@link OffHeapPomodoroStore#sweep(long, Listener)} .
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called after the pomodoro of the handle has changed its state.
+         *
+         * @param handle The handle
+         * @param from   The pomodoro state before the change
+         * @param to     The pomodoro state after the change
+         */
+        public void onTransition(long handle, PomodoroState from, PomodoroState to);
+    }
+
+    /**
+     * Returns the clock of this store.
+     *
+     * @return The clock
+     */
+    PomodoroClock getClock() {
+        return this.clock;
+    }
+
+    /**
+     * @see Pomodoro#performs()
+     */
+    boolean performs(final long handle) {
+        if (!this.isLive(handle)) {
+            return false;
+        }
+
+        final int offset = offset(slot(handle));
+
+        if (this.slots.getInt(offset + STATE_OFFSET) == PomodoroState.INITIALIZED.ordinal()) {
+            final long nowNanos = this.clock.nanoTime();
+            this.slots.putLong(offset + START_NANOS_OFFSET, nowNanos);
+            this.slots.putLong(offset + START_MILLIS_OFFSET, this.clock.currentTimeMillis());
+            this.slots.putLong(offset + PHASE_START_NANOS_OFFSET, nowNanos);
+            this.slots.putInt(offset + STATE_OFFSET, PomodoroState.CONCENTRATING.ordinal());
+        }
+
+        return true;
+    }
+
+    /**
+     * @see Pomodoro#stop()
+     *
+     * @exception IllegalStateException If the pomodoro of the handle is not
+     *                                  running
+     */
+    void stop(final long handle) {
+        final int offset = this.liveOffset(handle);
+        final int stateOrdinal = this.slots.getInt(offset + STATE_OFFSET);
+
+        if (stateOrdinal == PomodoroState.INITIALIZED.ordinal() || stateOrdinal == PomodoroState.STOPPED.ordinal()) {
+            throw new IllegalStateException("The pomodoro is not running: " + handle);
+        }
+
+        this.slots.putLong(offset + PHASE_START_NANOS_OFFSET, this.clock.nanoTime());
+        this.slots.putInt(offset + STATE_OFFSET, PomodoroState.STOPPED.ordinal());
+    }
+
+    /**
+     * @see Pomodoro#reset()
+     */
+    void reset(final long handle) {
+        final int offset = this.liveOffset(handle);
+
+        this.slots.putInt(offset + STATE_OFFSET, PomodoroState.INITIALIZED.ordinal());
+        this.slots.putInt(offset + PHASE_OFFSET, 0);
+        this.clearTimes(offset);
+    }
+
+    /**
+     * @see Pomodoro#shouldStartBreak()
+     */
+    boolean shouldStartBreak(final long handle) {
+        BreakPolicy.SHOULD_START_BREAK.checkState(this.getState(handle));
+        return this.isPhaseOver(offset(slot(handle)));
+    }
+
+    /**
+     * @see Pomodoro#isBreaking()
+     */
+    boolean isBreaking(final long handle) {
+        final PomodoroState pomodoroState = this.getState(handle);
+        BreakPolicy.IS_BREAK_ONGOING.checkState(pomodoroState);
+
+        return pomodoroState == PomodoroState.BREAKING || pomodoroState == PomodoroState.LONGER_BREAKING;
+    }
+
+    /**
+     * @see Pomodoro#shouldEndBreak()
+     */
+    boolean shouldEndBreak(final long handle) {
+        BreakPolicy.SHOULD_END_BREAK.checkState(this.getState(handle));
+
+        final int offset = offset(slot(handle));
+        this.slots.putLong(offset + SPLIT_NANOS_OFFSET,
+                this.clock.nanoTime() - this.slots.getLong(offset + START_NANOS_OFFSET));
+
+        return this.isPhaseOver(offset);
+    }
+
+    /**
+     * @see Pomodoro#startBreak()
+     */
+    void startBreak(final long handle) {
+        BreakPolicy.START_BREAK.checkState(this.getState(handle));
+        this.applyStartBreak(offset(slot(handle)), this.clock.nanoTime());
+    }
+
+    /**
+     * @see Pomodoro#endBreak()
+     */
+    void endBreak(final long handle) {
+        BreakPolicy.END_BREAK.checkState(this.getState(handle));
+        this.applyEndBreakAndRelease(slot(handle));
+    }
+
+    /**
+     * @see Pomodoro#tryStartBreak()
+     */
+    TransitionResult tryStartBreak(final long handle) {
+        if (!BreakPolicy.START_BREAK.isAllowed(this.getState(handle))) {
+            return TransitionResult.REJECTED;
+        }
+
+        this.applyStartBreak(offset(slot(handle)), this.clock.nanoTime());
+        return TransitionResult.APPLIED;
+    }
+
+    /**
+     * @see Pomodoro#tryEndBreak()
+     */
+    TransitionResult tryEndBreak(final long handle) {
+        if (!BreakPolicy.END_BREAK.isAllowed(this.getState(handle))) {
+            return TransitionResult.REJECTED;
+        }
+
+        this.applyEndBreakAndRelease(slot(handle));
+        return TransitionResult.APPLIED;
+    }
+
+    /**
+     * Ends the break of the slot without checking the state, and releases the
+     * slot if the pomodoro has finished.
+     *
+     * @param slot The slot
+     */
+    private void applyEndBreakAndRelease(final int slot) {
+        this.applyEndBreak(offset(slot), this.clock.nanoTime());
+
+        if (this.slots.getInt(offset(slot) + STATE_OFFSET) == PomodoroState.FINISHED.ordinal()) {
+            this.release(slot);
+        }
+    }
+
+    /**
+     * Returns the time the pomodoro of the handle was started in milliseconds.
+     *
+     * @param handle The handle
+     * @return The time the pomodoro was started in milliseconds
+     */
+    long getStartMilliseconds(final long handle) {
+        return this.slots.getLong(this.liveOffset(handle) + START_MILLIS_OFFSET);
+    }
+
+    /**
+     * Returns the time the pomodoro of the handle was started in nanoseconds.
+     *
+     * @param handle The handle
+     * @return The time the pomodoro was started in nanoseconds
+     */
+    long getStartNanoseconds(final long handle) {
+        return this.slots.getLong(this.liveOffset(handle) + START_NANOS_OFFSET);
+    }
+
+    /**
+     * Returns the time on the timer of the pomodoro of the handle in nanoseconds.
+     *
+     * @param handle The handle
+     * @return The time on the timer in nanoseconds
+     */
+    long getNanoseconds(final long handle) {
+        final int offset = this.liveOffset(handle);
+        final int state = this.slots.getInt(offset + STATE_OFFSET);
+
+        if (state == PomodoroState.INITIALIZED.ordinal()) {
+            return 0;
+        }
+
+        final long endNanos = state == PomodoroState.STOPPED.ordinal()
+                ? this.slots.getLong(offset + PHASE_START_NANOS_OFFSET)
+                : this.clock.nanoTime();
+
+        return endNanos - this.slots.getLong(offset + START_NANOS_OFFSET);
+    }
+
+    /**
+     * Returns the split time of the pomodoro of the handle in nanoseconds.
+     *
+     * @param handle The handle
+     * @return The split time in nanoseconds
+     */
+    long getSplitNanoseconds(final long handle) {
+        return this.slots.getLong(this.liveOffset(handle) + SPLIT_NANOS_OFFSET);
+    }
+
+    /**
+     * Starts the break without checking the state.
+     *
+     * @param offset   The offset of the slot
+     * @param nowNanos The time the break starts in nanoseconds
+     */
+    private void applyStartBreak(final int offset, final long nowNanos) {
+        this.moveTo(offset, this.getSchedule(offset).getNextBreak(this.slots.getInt(offset + PHASE_OFFSET)), nowNanos);
+    }
+
+    /**
+     * Ends the break without checking the state.
+     *
+     * @param offset   The offset of the slot
+     * @param nowNanos The time the break ends in nanoseconds
+     */
+    private void applyEndBreak(final int offset, final long nowNanos) {
+        this.moveTo(offset, this.getSchedule(offset).getNextConcentration(this.slots.getInt(offset + PHASE_OFFSET)),
+                nowNanos);
+    }
+
+    /**
+     * Moves the slot to the phase.
+     *
+     * @param offset   The offset of the slot
+     * @param phase    The phase, or the size of the schedule to finish
+     * @param nowNanos The time the phase starts in nanoseconds
+     */
+    private void moveTo(final int offset, final int phase, final long nowNanos) {
+        this.slots.putInt(offset + STATE_OFFSET, this.getSchedule(offset).getStateOrdinal(phase));
+        this.slots.putInt(offset + PHASE_OFFSET, phase);
+        this.slots.putLong(offset + PHASE_START_NANOS_OFFSET, nowNanos);
+    }
+
+    /**
+     * Checks if the current phase of the slot is over.
+     *
+     * @param offset The offset of the slot
+     * @return {@code true} if the current phase is over, otherwise {@code false}
+     */
+    private boolean isPhaseOver(final int offset) {
+        return this.clock.nanoTime() - this.slots.getLong(offset + PHASE_START_NANOS_OFFSET) >= this
+                .getPhaseNanos(offset);
+    }
+
+    /**
+     * Returns the duration of the current phase of the slot.
+     *
+     * @param offset The offset of the slot
+     * @return The duration of the current phase in nanoseconds
+     */
+    private long getPhaseNanos(final int offset) {
+        return this.getSchedule(offset).getNanoseconds(this.slots.getInt(offset + PHASE_OFFSET));
+    }
+
+    /**
+     * Returns the schedule of the slot.
+     *
+     * @param offset The offset of the slot
+     * @return The schedule
+     */
+    private PhaseSchedule getSchedule(final int offset) {
+        return this.schedules[this.slots.getInt(offset + CONFIGURATION_ID_OFFSET)];
+    }
+
+    /**
+     * Releases the slot and pushes it to the free list.
+     *
+     * @param slot The slot
+     */
+    private void release(final int slot) {
+        final int offset = offset(slot);
+
+        this.slots.putInt(offset + STATE_OFFSET, FREE);
+        this.slots.putInt(offset + PHASE_OFFSET, this.freeHead);
+        this.freeHead = slot;
+        this.size--;
+    }
+
+    /**
+     * Clears the timestamps of the slot.
+     *
+     * @param offset The offset of the slot
+     */
+    private void clearTimes(final int offset) {
+        this.slots.putLong(offset + START_NANOS_OFFSET, 0);
+        this.slots.putLong(offset + START_MILLIS_OFFSET, 0);
+        this.slots.putLong(offset + PHASE_START_NANOS_OFFSET, 0);
+        this.slots.putLong(offset + SPLIT_NANOS_OFFSET, 0);
+    }
+
+    /**
+     * Returns the offset of the slot of the live handle.
+     *
+     * @param handle The handle
+     * @return The offset of the slot
+     *
+     * @exception IllegalStateException If the slot of the handle has been released
+     */
+    private int liveOffset(final long handle) {
+        if (!this.isLive(handle)) {
+            throw new IllegalStateException("The slot of the handle has been released: " + handle);
+        }
+
+        return offset(slot(handle));
+    }
+
+    /**
+     * Returns the slot of the handle.
+     *
+     * @param handle The handle
+     * @return The slot
+     */
+    private static int slot(final long handle) {
+        return (int) handle;
+    }
+
+    /**
+     * Returns the offset of the slot.
+     *
+     * @param slot The slot
+     * @return The offset of the slot
+     */
+    private static int offset(final int slot) {
+        return slot * SLOT_BYTES;
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.pomodoro4j.conf.Configuration;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The sequence of the phases of a Pomodoro set compiled into transition tables.
+ *
+ * <p>
+ * A schedule alternates concentrations and breaks, starting with a
+ * concentration and ending with a break, and the Pomodoro set is finished when
+ * the last break ends. Any cycle shape, such as 52/17 cycles or several tiers
+ * of longer breaks, can be described with {@link Builder} without a new
+ * {@link PomodoroState} . The phases are numbered from {@code 0} , and each
+ * transition is looked up from a table indexed by the current phase. The tables
+ * end with a terminal row at {@link #size()} standing for
+ * {@link PomodoroState#FINISHED} , which every transition leads back to.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode
+public final class PhaseSchedule implements Serializable {
+
+    /**
+     * serialVersionUID
+     */
+    private static final long serialVersionUID = 0L;
+
+    /**
+     * The maximum number of phases
+     */
+    static final int MAX_PHASES = 1 << 16;
+
+    /**
+     * The pomodoro states indexed by ordinal
+     */
+    private static final PomodoroState[] STATES = PomodoroState.values();
+
+    /**
+     * The number of phases
+     */
+    @ToString.Include
+    private final int size;
+
+    /**
+     * The state ordinals indexed by phase
+     */
+    private final byte[] states;
+
+    /**
+     * The durations in nanoseconds indexed by phase
+     */
+    private final long[] nanoseconds;
+
+    /**
+     * The break counts indexed by phase
+     */
+    private final int[] breakCounts;
+
+    /**
+     * The phases the break starts to, indexed by phase
+     */
+    private final int[] nextBreaks;
+
+    /**
+     * The phases the break ends to, indexed by phase
+     */
+    private final int[] nextConcentrations;
+
+    /**
+     * The constructor.
+     *
+     * @param states      The state ordinals indexed by phase
+     * @param nanoseconds The durations in nanoseconds indexed by phase
+     */
+    private PhaseSchedule(final byte[] states, final long[] nanoseconds) {
+        final int size = states.length;
+
+        this.size = size;
+        this.states = Arrays.copyOf(states, size + 1);
+        this.nanoseconds = Arrays.copyOf(nanoseconds, size + 1);
+        this.breakCounts = new int[size + 1];
+        this.nextBreaks = new int[size + 1];
+        this.nextConcentrations = new int[size + 1];
+
+        int breakCount = 0;
+
+        for (int phase = 0; phase < size; phase++) {
+            final boolean concentrating = states[phase] == PomodoroState.CONCENTRATING.ordinal();
+
+            if (!concentrating) {
+                breakCount++;
+            }
+
+            // The phases alternate, so the next phase of the other kind is one or two ahead
+            this.breakCounts[phase] = breakCount;
+            this.nextBreaks[phase] = Math.min(size, concentrating ? phase + 1 : phase + 2);
+            this.nextConcentrations[phase] = Math.min(size, concentrating ? phase + 2 : phase + 1);
+        }
+
+        this.states[size] = (byte) PomodoroState.FINISHED.ordinal();
+        this.nanoseconds[size] = Long.MAX_VALUE;
+        this.breakCounts[size] = 0;
+        this.nextBreaks[size] = size;
+        this.nextConcentrations[size] = size;
+    }
+
+    /**
+     * Returns the new instance of {@link Builder} .
+     *
+     * @return The new instance of {@link Builder}
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the new instance of {@link PhaseSchedule} following the
+     * configuration passed as an argument, which has as many breaks as the count
+     * until longer break and then a concentration and a longer break.
+     *
+     * @param configuration The configuration
+     * @return The new instance of {@link PhaseSchedule}
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the count until longer break is too
+     *                                     large
+     */
+    public static PhaseSchedule newInstance(@NonNull final Configuration configuration) {
+        final int countUntilLongerBreak = configuration.getCountUntilLongerBreak();
+
+        if (countUntilLongerBreak < 0 || countUntilLongerBreak > MAX_PHASES / 2 - 1) {
+            throw new IllegalArgumentException(
+                    "The count until longer break is out of range: " + countUntilLongerBreak);
+        }
+
+        final Builder builder = newBuilder();
+
+        for (int i = 0; i < countUntilLongerBreak; i++) {
+            builder.addConcentration(configuration.getConcentrationMinutes(), TimeUnit.MINUTES)
+                    .addBreak(configuration.getBreakMinutes(), TimeUnit.MINUTES);
+        }
+
+        return builder.addConcentration(configuration.getConcentrationMinutes(), TimeUnit.MINUTES)
+                .addLongerBreak(configuration.getLongerBreakMinutes(), TimeUnit.MINUTES).build();
+    }
+
+    /**
+     * Returns the number of phases.
+     *
+     * @return The number of phases
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the state of the phase.
+     *
+     * @param phase The phase
+     * @return The pomodoro state, or {@link PomodoroState#FINISHED} if the phase is
+     *         {@link #size()}
+     *
+     * @exception IndexOutOfBoundsException If the phase is out of range
+     */
+    public PomodoroState getState(final int phase) {
+        return STATES[this.states[phase]];
+    }
+
+    /**
+     * Returns the duration of the phase in nanoseconds.
+     *
+     * @param phase The phase
+     * @return The duration of the phase in nanoseconds, or {@link Long#MAX_VALUE}
+     *         if the phase is {@link #size()}
+     *
+     * @exception IndexOutOfBoundsException If the phase is out of range
+     */
+    public long getNanoseconds(final int phase) {
+        return this.nanoseconds[phase];
+    }
+
+    /**
+     * Returns the state ordinal of the phase.
+     *
+     * @param phase The phase
+     * @return The state ordinal
+     */
+    int getStateOrdinal(final int phase) {
+        return this.states[phase];
+    }
+
+    /**
+     * Returns the number of breaks started until the phase.
+     *
+     * @param phase The phase
+     * @return The break count, or {@code 0} if the phase is {@link #size()}
+     */
+    int getBreakCount(final int phase) {
+        return this.breakCounts[phase];
+    }
+
+    /**
+     * Returns the phase {@link BreakSupport#startBreak()} moves to from the phase.
+     *
+     * @param phase The phase
+     * @return The next break, or {@link #size()} if there is no break left
+     */
+    int getNextBreak(final int phase) {
+        return this.nextBreaks[phase];
+    }
+
+    /**
+     * Returns the phase {@link BreakSupport#endBreak()} moves to from the phase.
+     *
+     * @param phase The phase
+     * @return The next concentration, or {@link #size()} if there is no
+     *         concentration left
+     */
+    int getNextConcentration(final int phase) {
+        return this.nextConcentrations[phase];
+    }
+
+    /**
+     * The builder of {@link PhaseSchedule} .
+     */
+    @ToString
+    @NoArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Builder {
+
+        /**
+         * The state ordinals indexed by phase
+         */
+        private byte[] states = new byte[8];
+
+        /**
+         * The durations in nanoseconds indexed by phase
+         */
+        private long[] nanoseconds = new long[8];
+
+        /**
+         * The number of phases
+         */
+        private int size;
+
+        /**
+         * The flag whether the schedule has been built
+         */
+        private boolean built;
+
+        /**
+         * Adds a concentration.
+         *
+         * @param duration The duration
+         * @param unit     The unit of the duration
+         * @return This instance
+         *
+         * @exception NullPointerException     If {@code null} is passed as an argument
+         * @exception IllegalArgumentException If the duration is negative
+         * @exception IllegalStateException    If the last phase is a concentration
+         */
+        public Builder addConcentration(final long duration, @NonNull final TimeUnit unit) {
+            if (this.size > 0 && this.isConcentration(this.size - 1)) {
+                throw new IllegalStateException("A concentration must follow a break.");
+            }
+
+            return this.add(PomodoroState.CONCENTRATING, duration, unit);
+        }
+
+        /**
+         * Adds a break.
+         *
+         * @param duration The duration
+         * @param unit     The unit of the duration
+         * @return This instance
+         *
+         * @exception NullPointerException     If {@code null} is passed as an argument
+         * @exception IllegalArgumentException If the duration is negative
+         * @exception IllegalStateException    If the last phase is not a
+         *                                     concentration
+         */
+        public Builder addBreak(final long duration, @NonNull final TimeUnit unit) {
+            this.checkBreakAllowed();
+            return this.add(PomodoroState.BREAKING, duration, unit);
+        }
+
+        /**
+         * Adds a longer break.
+         *
+         * @param duration The duration
+         * @param unit     The unit of the duration
+         * @return This instance
+         *
+         * @exception NullPointerException     If {@code null} is passed as an argument
+         * @exception IllegalArgumentException If the duration is negative
+         * @exception IllegalStateException    If the last phase is not a
+         *                                     concentration
+         */
+        public Builder addLongerBreak(final long duration, @NonNull final TimeUnit unit) {
+            this.checkBreakAllowed();
+            return this.add(PomodoroState.LONGER_BREAKING, duration, unit);
+        }
+
+        /**
+         * Repeats the phases added so far, so that they appear the number of times
+         * passed as an argument in total.
+         *
+         * @param times The number of times
+         * @return This instance
+         *
+         * @exception IllegalArgumentException If the number of times is not positive
+         *                                     or too large
+         * @exception IllegalStateException    If the last phase is not a break
+         */
+        public Builder repeat(final int times) {
+            this.checkNotBuilt();
+
+            if (times <= 0 || (long) this.size * times > MAX_PHASES) {
+                throw new IllegalArgumentException("The number of times is out of range: " + times);
+            }
+
+            if (this.size == 0 || this.isConcentration(this.size - 1)) {
+                throw new IllegalStateException("Only phases ending with a break can be repeated.");
+            }
+
+            final int length = this.size;
+            this.ensureCapacity(length * times);
+
+            for (int i = 1; i < times; i++) {
+                System.arraycopy(this.states, 0, this.states, length * i, length);
+                System.arraycopy(this.nanoseconds, 0, this.nanoseconds, length * i, length);
+            }
+
+            this.size = length * times;
+            return this;
+        }
+
+        /**
+         * Builds the schedule based on the phases.
+         *
+         * <p>
+         * This {@link #build()} will always fail at runtime if this method is called
+         * after the {@link #build()} has already been called.
+         *
+         * @return The built schedule
+         *
+         * @exception IllegalStateException If the last phase is not a break
+         */
+        public PhaseSchedule build() {
+            this.checkNotBuilt();
+
+            if (this.size == 0 || this.isConcentration(this.size - 1)) {
+                throw new IllegalStateException("A schedule must end with a break.");
+            }
+
+            this.built = true;
+            return new PhaseSchedule(Arrays.copyOf(this.states, this.size),
+                    Arrays.copyOf(this.nanoseconds, this.size));
+        }
+
+        /**
+         * Adds a phase.
+         *
+         * @param pomodoroState The pomodoro state
+         * @param duration      The duration
+         * @param unit          The unit of the duration
+         * @return This instance
+         */
+        private Builder add(final PomodoroState pomodoroState, final long duration, final TimeUnit unit) {
+            this.checkNotBuilt();
+
+            if (duration < 0) {
+                throw new IllegalArgumentException("The duration must not be negative.");
+            }
+
+            if (this.size == MAX_PHASES) {
+                throw new IllegalStateException("Too many phases.");
+            }
+
+            this.ensureCapacity(this.size + 1);
+            this.states[this.size] = (byte) pomodoroState.ordinal();
+            this.nanoseconds[this.size] = unit.toNanos(duration);
+            this.size++;
+
+            return this;
+        }
+
+        /**
+         * Checks if a break can be added.
+         */
+        private void checkBreakAllowed() {
+            if (this.size == 0 || !this.isConcentration(this.size - 1)) {
+                throw new IllegalStateException("A break must follow a concentration.");
+            }
+        }
+
+        /**
+         * Checks if the phase is a concentration.
+         *
+         * @param phase The phase
+         * @return {@code true} if the phase is a concentration, otherwise
+         *         {@code false}
+         */
+        private boolean isConcentration(final int phase) {
+            return this.states[phase] == PomodoroState.CONCENTRATING.ordinal();
+        }
+
+        /**
+         * Grows the arrays to the capacity.
+         *
+         * @param capacity The capacity
+         */
+        private void ensureCapacity(final int capacity) {
+            if (capacity > this.states.length) {
+                final int length = Math.max(capacity, this.states.length * 2);
+                this.states = Arrays.copyOf(this.states, length);
+                this.nanoseconds = Arrays.copyOf(this.nanoseconds, length);
+            }
+        }
+
+        /**
+         * Checks if the schedule has already been built. If the schedule has already
+         * been built, it will always fail at runtime.
+         */
+        private void checkNotBuilt() {
+            if (this.built) {
+                throw new IllegalStateException("Cannot use this builder any longer, build() has already been called.");
+            }
+        }
+    }
+}
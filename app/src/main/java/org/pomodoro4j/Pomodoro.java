@@ -15,6 +15,7 @@
 package org.pomodoro4j;
 
 import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Kato Shinya
@@ -22,6 +23,11 @@ import java.io.Serializable;
  */
 public interface Pomodoro extends BreakSupport, Serializable {
 
+    /**
+     * The deadline of a state without a deadline
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
     /**
      * Starts a pomodoro set and returns {@code true} for as long as this started
      * pomodoro set is ongoing.
@@ -99,4 +105,48 @@ public interface Pomodoro extends BreakSupport, Serializable {
      * @return the split time in nanoseconds
      */
     public long getSplitNanoseconds();
+
+    /**
+     * Returns the time the current phase reaches its deadline, when
+     * {@link #shouldStartBreak()} or {@link #shouldEndBreak()} starts to return
+     * {@code true} . The deadline is computed once when the phase starts.
+     *
+     * @return The deadline in nanoseconds of the clock, or {@link #NO_DEADLINE} if
+     *         the pomodoro is not concentrating or breaking
+     * @since 1.1.0
+     */
+    public default long getNextDeadlineNanos() {
+        return NO_DEADLINE;
+    }
+
+    /**
+     * Blocks the current thread until the current phase reaches its deadline, or
+     * the timeout elapses. The thread is parked until the deadline instead of
+     * polling, and wakes up within sub-millisecond accuracy of it.
+     *
+     * <p>
+     * The default implementation waits for the deadline on the system clock, or
+     * parks for the whole timeout if {@link #getNextDeadlineNanos()} is not
+     * overridden.
+     *
+     * @param timeout The maximum time to wait
+     * @param unit    The unit of the timeout
+     * @return {@code true} if the deadline has been reached, or {@code false} if
+     *         the timeout elapsed first or the current state has no deadline
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     * @exception InterruptedException If the current thread is interrupted while
+     *                                 waiting
+     * @since 1.1.0
+     */
+    public default boolean awaitNextTransition(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadlineNanos = this.getNextDeadlineNanos();
+
+        if (deadlineNanos != NO_DEADLINE) {
+            return Deadlines.await(PomodoroClock.system(), deadlineNanos, timeout, unit);
+        }
+
+        unit.sleep(timeout);
+        return false;
+    }
 }
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The asynchronous facade of {@link Pomodoro} .
+ *
+ * <p>
+ * Instead of dedicating a thread to {@link Pomodoro#shouldStartBreak()} and
+ * {@link Pomodoro#shouldEndBreak()} , the pomodoro is driven by a
+ * {@link PomodoroScheduler} and each phase change completes a
+ * {@link CompletableFuture} , so callers can compose on the phase changes
+ * without blocking a thread.
+ *
+ * <pre>
+ * final PomodoroAsync pomodoroAsync = PomodoroAsync.newInstance(PomodoroFactory.newInstance().getInstance());
+ * pomodoroAsync.onBreakStart().thenAccept(state -&gt; notifyBreak(state));
+ * pomodoroAsync.start();
+ * </pre>
+ *
+ * <p>
+ * Each call to {@link #onBreakStart()} or {@link #onBreakEnd()} returns a new
+ * future of the next occurrence of the event, so cancelling a returned future
+ * does not affect the other callers. Futures of events that can no longer occur
+ * are cancelled when the Pomodoro cycle is finished or cancelled, or completed
+ * exceptionally if the cycle failed.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString
+public final class PomodoroAsync {
+
+    /**
+     * The pomodoro
+     */
+    private final Pomodoro pomodoro;
+
+    /**
+     * The scheduler
+     */
+    @ToString.Exclude
+    private final PomodoroScheduler scheduler;
+
+    /**
+     * The flag whether the pomodoro has been scheduled
+     */
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    /**
+     * The completion of the Pomodoro cycle
+     */
+    @ToString.Exclude
+    private final CompletableFuture<Pomodoro> cycle = new CompletableFuture<>();
+
+    /**
+     * The completion of the Pomodoro cycle observed by the callers, completed
+     * after the pending futures have been terminated
+     */
+    @ToString.Exclude
+    private final CompletableFuture<Pomodoro> cycleFinished = new CompletableFuture<>();
+
+    /**
+     * The pending future of the next break start
+     */
+    @ToString.Exclude
+    private final AtomicReference<CompletableFuture<PomodoroState>> nextBreakStart = new AtomicReference<>(
+            new CompletableFuture<>());
+
+    /**
+     * The pending future of the next break end
+     */
+    @ToString.Exclude
+    private final AtomicReference<CompletableFuture<PomodoroState>> nextBreakEnd = new AtomicReference<>(
+            new CompletableFuture<>());
+
+    /**
+     * The constructor.
+     *
+     * @param pomodoro  The pomodoro
+     * @param scheduler The scheduler
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    private PomodoroAsync(@NonNull final Pomodoro pomodoro, @NonNull final PomodoroScheduler scheduler) {
+        this.pomodoro = pomodoro;
+        this.scheduler = scheduler;
+        this.cycle.whenComplete((result, throwable) -> {
+            final Throwable cause = throwable != null ? throwable
+                    : new CancellationException("The Pomodoro cycle has finished.");
+            terminate(this.nextBreakStart, cause);
+            terminate(this.nextBreakEnd, cause);
+            relay(result, throwable, this.cycleFinished);
+        });
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroAsync} driven by the scheduler
+     * shared by the whole application.
+     *
+     * @param pomodoro The pomodoro
+     * @return The new instance of {@link PomodoroAsync}
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public static PomodoroAsync newInstance(@NonNull final Pomodoro pomodoro) {
+        return new PomodoroAsync(pomodoro, SharedScheduler.INSTANCE);
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroAsync} driven by the scheduler
+     * passed as an argument.
+     *
+     * @param pomodoro  The pomodoro
+     * @param scheduler The scheduler
+     * @return The new instance of {@link PomodoroAsync}
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public static PomodoroAsync newInstance(@NonNull final Pomodoro pomodoro,
+            @NonNull final PomodoroScheduler scheduler) {
+        return new PomodoroAsync(pomodoro, scheduler);
+    }
+
+    /**
+     * Returns the pomodoro driven by this facade.
+     *
+     * @return The pomodoro
+     */
+    public Pomodoro getPomodoro() {
+        return this.pomodoro;
+    }
+
+    /**
+     * Schedules the Pomodoro cycle. If the pomodoro has not been started yet it
+     * is started immediately.
+     *
+     * @return The future completed when the Pomodoro cycle is finished
+     *
+     * @exception IllegalStateException    If this facade has already been started
+     * @exception IllegalArgumentException If the pomodoro is not created by
+     *                                     {@link PomodoroFactory}
+     */
+    public CompletableFuture<Pomodoro> start() {
+        if (!this.started.compareAndSet(false, true)) {
+            throw new IllegalStateException("The pomodoro has already been started.");
+        }
+
+        final CompletableFuture<Pomodoro> completion = this.scheduler.schedule(this.pomodoro,
+                (source, from, to) -> this.onPhaseChanged(from, to));
+
+        completion.whenComplete((result, throwable) -> relay(result, throwable, this.cycle));
+
+        this.cycle.whenComplete((result, throwable) -> completion.cancel(false));
+        return this.onCycleFinished();
+    }
+
+    /**
+     * Returns the future completed with the break state when the next break
+     * starts.
+     *
+     * @return The future completed with {@link PomodoroState#BREAKING} or
+     *         {@link PomodoroState#LONGER_BREAKING} when the next break starts
+     */
+    public CompletableFuture<PomodoroState> onBreakStart() {
+        return observe(this.nextBreakStart.get());
+    }
+
+    /**
+     * Returns the future completed with the following state when the current or
+     * next break ends.
+     *
+     * @return The future completed with {@link PomodoroState#CONCENTRATING} or
+     *         {@link PomodoroState#FINISHED} when the next break ends
+     */
+    public CompletableFuture<PomodoroState> onBreakEnd() {
+        return observe(this.nextBreakEnd.get());
+    }
+
+    /**
+     * Returns the future completed when the Pomodoro cycle is finished.
+     *
+     * @return The future completed with the pomodoro when the Pomodoro cycle is
+     *         finished
+     */
+    public CompletableFuture<Pomodoro> onCycleFinished() {
+        return observe(this.cycleFinished);
+    }
+
+    /**
+     * Stops the scheduling of the pomodoro. The pending futures are cancelled.
+     *
+     * @return {@code true} if the Pomodoro cycle has been cancelled by this call,
+     *         otherwise {@code false}
+     */
+    public boolean cancel() {
+        return this.cycle.completeExceptionally(new CancellationException("The Pomodoro cycle has been cancelled."));
+    }
+
+    /**
+     * Completes the pending future of the event corresponding to the phase
+     * change.
+     *
+     * @param from The pomodoro state before the change
+     * @param to   The pomodoro state after the change
+     */
+    private void onPhaseChanged(final PomodoroState from, final PomodoroState to) {
+        switch (to) {
+        case BREAKING:
+        case LONGER_BREAKING:
+            fire(this.nextBreakStart, to);
+            break;
+        case CONCENTRATING:
+        case FINISHED:
+            if (from == PomodoroState.BREAKING || from == PomodoroState.LONGER_BREAKING) {
+                fire(this.nextBreakEnd, to);
+            }
+
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Completes the pending future with the value and installs the future of the
+     * next occurrence. Nothing is done once the reference has been terminated.
+     *
+     * @param pending The reference to the pending future
+     * @param value   The value
+     */
+    private static <T> void fire(final AtomicReference<CompletableFuture<T>> pending, final T value) {
+        while (true) {
+            final CompletableFuture<T> current = pending.get();
+
+            if (current.isDone()) {
+                // Terminated by the completion of the cycle
+                return;
+            }
+
+            if (pending.compareAndSet(current, new CompletableFuture<>())) {
+                current.complete(value);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Replaces the pending future with the one completed exceptionally, so that
+     * the event is never fired again.
+     *
+     * @param pending The reference to the pending future
+     * @param cause   The cause
+     */
+    private static <T> void terminate(final AtomicReference<CompletableFuture<T>> pending, final Throwable cause) {
+        final CompletableFuture<T> terminal = new CompletableFuture<>();
+        terminal.completeExceptionally(cause);
+        pending.getAndSet(terminal).completeExceptionally(cause);
+    }
+
+    /**
+     * Returns the new future completed in the same way as the source. Cancelling
+     * the returned future does not affect the source.
+     *
+     * @param source The source
+     * @return The new future completed in the same way as the source
+     */
+    private static <T> CompletableFuture<T> observe(final CompletableFuture<T> source) {
+        final CompletableFuture<T> observer = new CompletableFuture<>();
+        source.whenComplete((value, throwable) -> relay(value, throwable, observer));
+        return observer;
+    }
+
+    /**
+     * Completes the target with the outcome of another future.
+     *
+     * @param value     The value
+     * @param throwable The exception, or {@code null} if completed normally
+     * @param target    The target
+     */
+    private static <T> void relay(final T value, final Throwable throwable, final CompletableFuture<T> target) {
+        if (throwable == null) {
+            target.complete(value);
+        } else {
+            target.completeExceptionally(throwable);
+        }
+    }
+
+    /**
+     * The holder of the scheduler shared by the whole application, created on
+     * first use.
+     */
+    private static final class SharedScheduler {
+
+        /**
+         * The shared scheduler
+         */
+        private static final PomodoroScheduler INSTANCE = PomodoroScheduler.newInstance();
+    }
+}
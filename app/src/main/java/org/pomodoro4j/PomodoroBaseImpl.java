@@ -14,9 +14,11 @@
 
 package org.pomodoro4j;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
-import org.apache.commons.lang3.time.StopWatch;
 import org.pomodoro4j.conf.Configuration;
 
 import lombok.AccessLevel;
@@ -24,7 +26,6 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
-import lombok.Setter;
 import lombok.ToString;
 
 /**
@@ -36,18 +37,32 @@ import lombok.ToString;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public abstract class PomodoroBaseImpl implements PomodoroBase {
 
+    /**
+     * The empty hooks
+     */
+    private static final TransitionHook[] NO_TRANSITION_HOOKS = new TransitionHook[0];
+
+    /**
+     * The time not read from the clock yet
+     */
+    private static final long UNSET = Long.MIN_VALUE;
+
     /**
      * The pomodoro timer
      */
-    private final StopWatch POMODORO_TIMER = StopWatch.create();
+    private PomodoroTimer pomodoroTimer;
 
     /**
      * The pomodoro state
      */
-    @Setter(AccessLevel.PROTECTED)
     @Getter(AccessLevel.PROTECTED)
     private PomodoroState pomodoroState = PomodoroState.INITIALIZED;
 
+    /**
+     * The deadline of the current phase in nanoseconds of the clock
+     */
+    private long nextDeadlineNanos = Pomodoro.NO_DEADLINE;
+
     /**
      * The break counter
      */
@@ -63,8 +78,32 @@ public abstract class PomodoroBaseImpl implements PomodoroBase {
     /**
      * The configuration
      */
+    @Getter(AccessLevel.PROTECTED)
     private Configuration configuration;
 
+    /**
+     * The id identifying this pomodoro in the flight recordings, set to the id of
+     * the session by the registry, the journal, the snapshotter and the loop
+     * group, or assigned when the first event is recorded
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile long sessionId;
+
+    /**
+     * The flag indicating whether the id in the flight recordings is assigned
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile boolean sessionIdAssigned;
+
+    /**
+     * The hooks notified on each phase change
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile TransitionHook[] transitionHooks = NO_TRANSITION_HOOKS;
+
     /**
      * The constructor.
      *
@@ -73,14 +112,27 @@ public abstract class PomodoroBaseImpl implements PomodoroBase {
      * @exception NullPointerException If {@code null} is passed as an argument
      */
     protected PomodoroBaseImpl(@NonNull final Configuration configuration) {
+        this(configuration, PomodoroClock.system());
+    }
+
+    /**
+     * The constructor.
+     *
+     * @param configuration the configuration
+     * @param clock         the clock
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    protected PomodoroBaseImpl(@NonNull final Configuration configuration, @NonNull final PomodoroClock clock) {
         this.configuration = configuration;
+        this.pomodoroTimer = PomodoroTimer.newInstance(clock);
     }
 
     @Override
     public boolean shouldStartBreak() {
         this.checkState(BreakPolicy.SHOULD_START_BREAK);
-        return TimeUnit.NANOSECONDS.toMinutes(POMODORO_TIMER.getNanoTime()) >= this.configuration
-                .getConcentrationMinutes();
+        return Deadlines.isReached(this.pomodoroTimer.getStartNanoTime() + this.pomodoroTimer.getNanoTime(),
+                this.nextDeadlineNanos);
     }
 
     @Override
@@ -93,46 +145,102 @@ public abstract class PomodoroBaseImpl implements PomodoroBase {
     public boolean shouldEndBreak() {
         this.checkState(BreakPolicy.SHOULD_END_BREAK);
 
-        POMODORO_TIMER.split();
+        this.pomodoroTimer.split();
 
         try {
-            if (this.pomodoroState == PomodoroState.LONGER_BREAKING) {
-                return TimeUnit.NANOSECONDS.toMinutes(POMODORO_TIMER.getSplitNanoTime()) >= this.configuration
-                        .getLongerBreakMinutes();
-            }
-
-            return TimeUnit.NANOSECONDS.toMinutes(POMODORO_TIMER.getSplitNanoTime()) >= this.configuration
-                    .getBreakMinutes();
+            return Deadlines.isReached(this.pomodoroTimer.getStartNanoTime() + this.pomodoroTimer.getSplitNanoTime(),
+                    this.nextDeadlineNanos);
         } finally {
-            this.splitTime.setMilliseconds(POMODORO_TIMER.getSplitTime());
-            this.splitTime.setNanoseconds(POMODORO_TIMER.getSplitNanoTime());
-            POMODORO_TIMER.unsplit();
+            this.splitTime.setMilliseconds(this.pomodoroTimer.getSplitTime());
+            this.splitTime.setNanoseconds(this.pomodoroTimer.getSplitNanoTime());
+            this.pomodoroTimer.unsplit();
         }
     }
 
     @Override
     public void startBreak() {
         this.checkState(BreakPolicy.START_BREAK);
-
-        if (this.breakCounter.getCount() >= this.configuration.getCountUntilLongerBreak()) {
-            this.breakCounter.increment();
-            this.pomodoroState = PomodoroState.LONGER_BREAKING;
-        } else {
-            this.breakCounter.increment();
-            this.pomodoroState = PomodoroState.BREAKING;
-        }
+        this.applyStartBreak();
     }
 
     @Override
     public void endBreak() {
         this.checkState(BreakPolicy.END_BREAK);
+        this.applyEndBreak();
+    }
 
-        if (this.pomodoroState == PomodoroState.LONGER_BREAKING) {
-            this.pomodoroState = PomodoroState.FINISHED;
-            this.breakCounter.reset();
-        } else {
-            this.pomodoroState = PomodoroState.CONCENTRATING;
+    @Override
+    public TransitionResult tryStartBreak() {
+        if (!BreakPolicy.START_BREAK.isAllowed(this.pomodoroState)) {
+            this.recordRejection(BreakPolicy.START_BREAK);
+            return TransitionResult.REJECTED;
         }
+
+        this.applyStartBreak();
+        return TransitionResult.APPLIED;
+    }
+
+    @Override
+    public TransitionResult tryEndBreak() {
+        if (!BreakPolicy.END_BREAK.isAllowed(this.pomodoroState)) {
+            this.recordRejection(BreakPolicy.END_BREAK);
+            return TransitionResult.REJECTED;
+        }
+
+        this.applyEndBreak();
+        return TransitionResult.APPLIED;
+    }
+
+    /**
+     * @see Pomodoro#getNextDeadlineNanos()
+     */
+    public long getNextDeadlineNanos() {
+        switch (this.pomodoroState) {
+        case CONCENTRATING:
+        case BREAKING:
+        case LONGER_BREAKING:
+            return this.nextDeadlineNanos;
+        default:
+            return Pomodoro.NO_DEADLINE;
+        }
+    }
+
+    /**
+     * Starts or ends the break if the deadline of the current phase has been
+     * reached at the time passed as an argument, without reading the clock. The
+     * next phase is started at the time.
+     *
+     * @param nowNanos The time in nanoseconds of the clock
+     * @return {@code true} if the phase has changed, otherwise {@code false}
+     */
+    boolean applyDueTransition(final long nowNanos) {
+        switch (this.pomodoroState) {
+        case CONCENTRATING:
+            if (Deadlines.isReached(nowNanos, this.nextDeadlineNanos)) {
+                this.applyStartBreak(nowNanos);
+                return true;
+            }
+
+            return false;
+        case BREAKING:
+        case LONGER_BREAKING:
+            if (Deadlines.isReached(nowNanos, this.nextDeadlineNanos)) {
+                this.applyEndBreak(nowNanos);
+                return true;
+            }
+
+            return false;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * @see Pomodoro#awaitNextTransition(long, TimeUnit)
+     */
+    public boolean awaitNextTransition(final long timeout, @NonNull final TimeUnit unit)
+            throws InterruptedException {
+        return Deadlines.await(this.pomodoroTimer.getClock(), this.getNextDeadlineNanos(), timeout, unit);
     }
 
     @Override
@@ -150,12 +258,268 @@ public abstract class PomodoroBaseImpl implements PomodoroBase {
     }
 
     /**
-     * Returns the instance of {@link StopWatch} .
+     * Sets the pomodoro state. The deadline of the phase is computed from the
+     * configuration when a concentration or a break starts, and is kept while
+     * stopped. {@link PomodoroTransitionEvent} is committed when it is enabled in
+     * the flight recorder.
+     *
+     * @param pomodoroState The pomodoro state
+     */
+    protected void setPomodoroState(@NonNull final PomodoroState pomodoroState) {
+        this.setPomodoroState(pomodoroState, UNSET);
+    }
+
+    /**
+     * Sets the pomodoro state at the time passed as an argument, or at the time
+     * read from the clock when needed if the time is {@link #UNSET} .
+     *
+     * @param pomodoroState The pomodoro state
+     * @param timeNanos     The time of the change in nanoseconds of the clock, or
+     *                      {@link #UNSET}
+     */
+    private void setPomodoroState(final PomodoroState pomodoroState, final long timeNanos) {
+        final PomodoroState from = this.pomodoroState;
+        this.pomodoroState = pomodoroState;
+
+        final long phaseNanoseconds = getPhaseNanoseconds(this.configuration, pomodoroState);
+        final TransitionHook[] hooks = this.transitionHooks;
+        final boolean hooked = from != pomodoroState && hooks.length > 0;
+        final PomodoroTransitionEvent event = new PomodoroTransitionEvent();
+        final boolean recorded = event.shouldCommit();
+        final long nowNanos = timeNanos != UNSET ? timeNanos
+                : phaseNanoseconds >= 0 || hooked || recorded ? this.pomodoroTimer.getClock().nanoTime() : 0L;
+
+        if (recorded) {
+            event.sessionId = this.getSessionId();
+            event.from = from.name();
+            event.to = pomodoroState.name();
+            event.breakCount = this.breakCounter.getCount();
+            event.overrun = getPhaseNanoseconds(this.configuration, from) >= 0 ? nowNanos - this.nextDeadlineNanos
+                    : 0L;
+            event.commit();
+        }
+
+        if (phaseNanoseconds >= 0) {
+            this.nextDeadlineNanos = nowNanos + phaseNanoseconds;
+        } else if (pomodoroState != PomodoroState.STOPPED) {
+            this.nextDeadlineNanos = Pomodoro.NO_DEADLINE;
+        }
+
+        if (hooked) {
+            for (final TransitionHook hook : hooks) {
+                hook.onTransition((Pomodoro) this, from, pomodoroState, nowNanos);
+            }
+        }
+    }
+
+    /**
+     * Adds the hook notified on each phase change of this pomodoro unless it has
+     * already been added. The hook is called on the thread changing the phase,
+     * so it must not block.
+     *
+     * @param transitionHook The hook
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    synchronized void addTransitionHook(@NonNull final TransitionHook transitionHook) {
+        final TransitionHook[] hooks = this.transitionHooks;
+
+        for (final TransitionHook hook : hooks) {
+            if (hook == transitionHook) {
+                return;
+            }
+        }
+
+        final TransitionHook[] newHooks = Arrays.copyOf(hooks, hooks.length + 1);
+        newHooks[hooks.length] = transitionHook;
+        this.transitionHooks = newHooks;
+    }
+
+    /**
+     * Removes the hook added by {@link #addTransitionHook(TransitionHook)} .
+     *
+     * @param transitionHook The hook
+     * @return {@code true} if the hook has been removed, otherwise {@code false}
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    synchronized boolean removeTransitionHook(@NonNull final TransitionHook transitionHook) {
+        final TransitionHook[] hooks = this.transitionHooks;
+
+        for (int i = 0; i < hooks.length; i++) {
+            if (hooks[i] == transitionHook) {
+                final TransitionHook[] newHooks = Arrays.copyOf(hooks, hooks.length - 1);
+                System.arraycopy(hooks, i + 1, newHooks, i, hooks.length - i - 1);
+                this.transitionHooks = hooks.length == 1 ? NO_TRANSITION_HOOKS : newHooks;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if any hook is added to this pomodoro.
+     *
+     * @return {@code true} if any hook is added, otherwise {@code false}
+     */
+    boolean hasTransitionHooks() {
+        return this.transitionHooks.length > 0;
+    }
+
+    /**
+     * Clears the split time and the id in the flight recordings so that this
+     * pomodoro can be reset and handed out again as if it were newly created. The
+     * hooks are left to their owners.
+     */
+    synchronized void recycle() {
+        this.splitTime.setMilliseconds(0L);
+        this.splitTime.setNanoseconds(0L);
+        this.sessionId = 0L;
+        this.sessionIdAssigned = false;
+    }
+
+    /**
+     * Returns the time the current phase started in nanoseconds of the clock.
+     *
+     * @return The time the current phase started in nanoseconds of the clock, or
+     *         the time this pomodoro was started if the state has no deadline
+     */
+    long getPhaseStartNanos() {
+        final long phaseNanoseconds = getPhaseNanoseconds(this.configuration, this.pomodoroState);
+        return phaseNanoseconds >= 0 ? this.nextDeadlineNanos - phaseNanoseconds
+                : this.pomodoroTimer.getStartNanoTime();
+    }
+
+    /**
+     * Returns the time the current phase started in milliseconds, between the
+     * time and midnight, January 1, 1970 UTC.
+     *
+     * @return The time the current phase started in milliseconds, or {@code 0} if
+     *         this pomodoro has not been started
+     */
+    long getPhaseStartMilliseconds() {
+        if (!this.pomodoroTimer.isStarted()) {
+            return 0L;
+        }
+
+        return this.pomodoroTimer.getStartTime()
+                + TimeUnit.NANOSECONDS.toMillis(this.getPhaseStartNanos() - this.pomodoroTimer.getStartNanoTime());
+    }
+
+    /**
+     * Restores the state of this pomodoro recovered from a snapshot without
+     * notifying the hooks. The timer and the deadline are rebased on the clock of
+     * this pomodoro.
      *
-     * @return The instance of {@link StopWatch}
+     * @param pomodoroState           The pomodoro state
+     * @param breakCount              The number of breaks taken
+     * @param startMilliseconds       The time this pomodoro was started in
+     *                                milliseconds, between the time and midnight,
+     *                                January 1, 1970 UTC
+     * @param elapsedNanoseconds      The time elapsed since this pomodoro was
+     *                                started in nanoseconds
+     * @param phaseElapsedNanoseconds The time elapsed since the current phase
+     *                                started in nanoseconds
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    void restore(@NonNull final PomodoroState pomodoroState, final int breakCount, final long startMilliseconds,
+            final long elapsedNanoseconds, final long phaseElapsedNanoseconds) {
+        this.breakCounter.reset();
+
+        for (int i = 0; i < breakCount; i++) {
+            this.breakCounter.increment();
+        }
+
+        if (pomodoroState == PomodoroState.INITIALIZED) {
+            this.pomodoroTimer.reset();
+        } else {
+            this.pomodoroTimer.restore(startMilliseconds, elapsedNanoseconds, pomodoroState != PomodoroState.STOPPED);
+        }
+
+        this.pomodoroState = pomodoroState;
+
+        final long phaseNanoseconds = getPhaseNanoseconds(this.configuration, pomodoroState);
+        this.nextDeadlineNanos = phaseNanoseconds >= 0
+                ? this.pomodoroTimer.getClock().nanoTime() - phaseElapsedNanoseconds + phaseNanoseconds
+                : Pomodoro.NO_DEADLINE;
+    }
+
+    /**
+     * Returns the instance of {@link PomodoroTimer} .
+     *
+     * @return The instance of {@link PomodoroTimer}
+     */
+    PomodoroTimer getPomodoroTimer() {
+        return this.pomodoroTimer;
+    }
+
+    /**
+     * Returns the duration of the phase in nanoseconds.
+     *
+     * @param configuration The configuration
+     * @param pomodoroState The pomodoro state
+     * @return The duration of the phase in nanoseconds, or {@code -1} if the state
+     *         has no deadline
+     */
+    static long getPhaseNanoseconds(@NonNull final Configuration configuration,
+            @NonNull final PomodoroState pomodoroState) {
+        switch (pomodoroState) {
+        case CONCENTRATING:
+            return configuration.getConcentrationNanoseconds();
+        case BREAKING:
+            return configuration.getBreakNanoseconds();
+        case LONGER_BREAKING:
+            return configuration.getLongerBreakNanoseconds();
+        default:
+            return -1;
+        }
+    }
+
+    /**
+     * Starts the break without checking the state.
      */
-    protected StopWatch getPomodoroTimer() {
-        return POMODORO_TIMER;
+    private void applyStartBreak() {
+        this.applyStartBreak(UNSET);
+    }
+
+    /**
+     * Starts the break at the time without checking the state.
+     *
+     * @param timeNanos The time of the change in nanoseconds of the clock, or
+     *                  {@link #UNSET}
+     */
+    private void applyStartBreak(final long timeNanos) {
+        if (this.breakCounter.getCount() >= this.configuration.getCountUntilLongerBreak()) {
+            this.breakCounter.increment();
+            this.setPomodoroState(PomodoroState.LONGER_BREAKING, timeNanos);
+        } else {
+            this.breakCounter.increment();
+            this.setPomodoroState(PomodoroState.BREAKING, timeNanos);
+        }
+    }
+
+    /**
+     * Ends the break without checking the state.
+     */
+    private void applyEndBreak() {
+        this.applyEndBreak(UNSET);
+    }
+
+    /**
+     * Ends the break at the time without checking the state.
+     *
+     * @param timeNanos The time of the change in nanoseconds of the clock, or
+     *                  {@link #UNSET}
+     */
+    private void applyEndBreak(final long timeNanos) {
+        if (this.pomodoroState == PomodoroState.LONGER_BREAKING) {
+            this.setPomodoroState(PomodoroState.FINISHED, timeNanos);
+            this.breakCounter.reset();
+        } else {
+            this.setPomodoroState(PomodoroState.CONCENTRATING, timeNanos);
+        }
     }
 
     /**
@@ -165,6 +529,67 @@ public abstract class PomodoroBaseImpl implements PomodoroBase {
      * @exception PomodoroException If the Pomodoro set has not been started
      */
     private void checkState(@NonNull final BreakPolicy breakPolicy) {
-        breakPolicy.checkState(this.pomodoroState);
+        try {
+            breakPolicy.checkState(this.pomodoroState);
+        } catch (PomodoroException e) {
+            this.recordRejection(breakPolicy);
+            throw e;
+        }
+    }
+
+    /**
+     * Records the rejection of the operation in the current state.
+     *
+     * @param breakPolicy The rejected operation
+     */
+    private void recordRejection(final BreakPolicy breakPolicy) {
+        final PomodoroRejectionEvent event = new PomodoroRejectionEvent();
+
+        if (event.shouldCommit()) {
+            event.sessionId = this.getSessionId();
+            event.operation = breakPolicy.name();
+            event.state = this.pomodoroState.name();
+            event.breakCount = this.breakCounter.getCount();
+            event.commit();
+        }
+    }
+
+    /**
+     * Sets the id identifying this pomodoro in the flight recordings, so that the
+     * recorded events can be correlated with the session holding this pomodoro.
+     *
+     * @param sessionId The id of the session
+     */
+    void setSessionId(final long sessionId) {
+        this.sessionId = sessionId;
+        this.sessionIdAssigned = true;
+    }
+
+    /**
+     * Returns the id identifying this pomodoro in the flight recordings,
+     * assigning it on the first call if no session holds this pomodoro.
+     *
+     * @return The id identifying this pomodoro in the flight recordings
+     */
+    private long getSessionId() {
+        if (!this.sessionIdAssigned) {
+            this.setSessionId(PomodoroTransitionEvent.nextSessionId());
+        }
+
+        return this.sessionId;
+    }
+
+    /**
+     * Restores this pomodoro from the stream. The hooks are not serialized, so a
+     * deserialized pomodoro starts without hooks.
+     *
+     * @param stream The stream
+     *
+     * @exception IOException            If the stream cannot be read
+     * @exception ClassNotFoundException If a class in the stream cannot be found
+     */
+    private void readObject(final ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        this.transitionHooks = NO_TRANSITION_HOOKS;
     }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+/**
+ * The evaluation of the transitions of many pomodoros against a single clock
+ * reading.
+ *
+ * <p>
+ * A tick loop calling {@link Pomodoro#shouldStartBreak()} and
+ * {@link Pomodoro#shouldEndBreak()} on every session reads the clock for each
+ * call, and each session is judged at a slightly different time.
+ * {@link #evaluate(Collection, long)} judges every session against the same
+ * time, read once by the caller, and applies the due transitions without
+ * reading the clock or touching the split time.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PomodoroBatch {
+
+    /**
+     * Starts the break of each concentrating pomodoro and ends the break of each
+     * breaking pomodoro whose deadline has been reached at the time passed as an
+     * argument. The next phase of each changed pomodoro starts at the time. The
+     * time must be read from the clock shared by the pomodoros, for example with
+     * {@link PomodoroClock#nanoTime()} .
+     *
+     * @param pomodoros The pomodoros
+     * @param nowNanos  The time in nanoseconds of the clock of the pomodoros
+     * @return The pomodoros whose phase has changed, in iteration order
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     *                                     or contained in the pomodoros
+     * @exception IllegalArgumentException If any of the pomodoros is not created
+     *                                     by {@link PomodoroFactory}
+     */
+    public static List<Pomodoro> evaluate(@NonNull final Collection<? extends Pomodoro> pomodoros,
+            final long nowNanos) {
+        for (final Pomodoro pomodoro : pomodoros) {
+            if (pomodoro == null) {
+                throw new NullPointerException("The pomodoros must not contain null.");
+            }
+
+            if (!(pomodoro instanceof PomodoroBaseImpl) && !(pomodoro instanceof ConcurrentPomodoro)) {
+                throw new IllegalArgumentException(
+                        "Unsupported pomodoro implementation: " + pomodoro.getClass().getName());
+            }
+        }
+
+        final List<Pomodoro> changed = new ArrayList<>();
+
+        for (final Pomodoro pomodoro : pomodoros) {
+            if (pomodoro instanceof PomodoroBaseImpl ? ((PomodoroBaseImpl) pomodoro).applyDueTransition(nowNanos)
+                    : ((ConcurrentPomodoro) pomodoro).applyDueTransition(nowNanos)) {
+                changed.add(pomodoro);
+            }
+        }
+
+        return changed;
+    }
+}
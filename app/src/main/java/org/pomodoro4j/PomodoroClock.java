@@ -0,0 +1,57 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.io.Serializable;
+
+/**
+ * The clock measuring the time of pomodoros.
+ *
+ * <p>
+ * The {@link #system()} clock is backed by the monotonic
+ * {@link System#nanoTime()} and is used by default. The
+ * {@link VirtualPomodoroClock} only moves when it is advanced manually, which
+ * allows whole Pomodoro cycles to be replayed without waiting.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public interface PomodoroClock extends Serializable {
+
+    /**
+     * Returns the current value of the monotonic time source in nanoseconds. The
+     * value is only meaningful as the difference between two readings.
+     *
+     * @return The current value of the monotonic time source in nanoseconds
+     */
+    public long nanoTime();
+
+    /**
+     * Returns the current time in milliseconds, between the current time and
+     * midnight, January 1, 1970 UTC.
+     *
+     * @return The current time in milliseconds
+     */
+    public long currentTimeMillis();
+
+    /**
+     * Returns the clock backed by the system time.
+     *
+     * @return The clock backed by the system time
+     */
+    public static PomodoroClock system() {
+        return SystemPomodoroClock.INSTANCE;
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.nio.ByteBuffer;
+
+import org.pomodoro4j.conf.Configuration;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+/**
+ * The compact binary codec of {@link Pomodoro} and {@link Configuration} .
+ *
+ * <p>
+ * Unlike the Java serialization, only the values needed to rebuild a session
+ * are written, as variable-length integers after a version byte, so a session
+ * is encoded in a few dozen bytes read and written straight from a
+ * {@link ByteBuffer} . A decoded session is rebased on the wall clock in the
+ * same way as {@link PomodoroSnapshotter#restore(java.nio.file.Path)} .
+ *
+ * <pre>
+ * version:u8 state:u8 breakCount:varint configuration
+ *   [startMillis:varint phaseOffsetMillis:varint elapsedNanos:varint
+ *    splitMillis:varint splitNanos:varint]   (unless INITIALIZED)
+ * configuration = concentration:varint break:varint longerBreak:varint
+ *   countUntilLongerBreak:varint
+ * </pre>
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PomodoroCodec {
+
+    /**
+     * The version of the format
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The maximum number of bytes of an encoded pomodoro
+     */
+    public static final int MAX_ENCODED_SIZE = 2 + 5 * 5 + 10 * 5;
+
+    /**
+     * The pomodoro states indexed by ordinal
+     */
+    private static final PomodoroState[] STATES = PomodoroState.values();
+
+    /**
+     * Encodes the pomodoro into the buffer from its position.
+     *
+     * @param pomodoro The pomodoro
+     * @param buffer   The buffer
+     *
+     * @exception NullPointerException              If {@code null} is passed as
+     *                                              an argument
+     * @exception IllegalArgumentException          If the pomodoro is not created
+     *                                              by {@link PomodoroFactory}
+     * @exception java.nio.BufferOverflowException If the buffer is too small
+     */
+    public static void encode(@NonNull final Pomodoro pomodoro, @NonNull final ByteBuffer buffer) {
+        if (!(pomodoro instanceof PomodoroBaseImpl)) {
+            throw new IllegalArgumentException("Unsupported pomodoro implementation: " + pomodoro.getClass().getName());
+        }
+
+        final PomodoroBaseImpl pomodoroBase = (PomodoroBaseImpl) pomodoro;
+        final PomodoroState pomodoroState = pomodoroBase.getPomodoroState();
+
+        buffer.put((byte) VERSION);
+        buffer.put((byte) pomodoroState.ordinal());
+        putVarInt(buffer, pomodoroBase.getBreakCounter().getCount());
+        encodeConfiguration(pomodoroBase.getConfiguration(), buffer);
+
+        final PomodoroTimer timer = pomodoroBase.getPomodoroTimer();
+
+        if (pomodoroState != PomodoroState.INITIALIZED && timer.isStarted()) {
+            final long startMillis = timer.getStartTime();
+            final SplitTime splitTime = pomodoroBase.getSplitTime();
+
+            putVarLong(buffer, startMillis);
+            putVarLong(buffer, pomodoroBase.getPhaseStartMilliseconds() - startMillis);
+            putVarLong(buffer, timer.getNanoTime());
+            putVarLong(buffer, splitTime.getMilliseconds());
+            putVarLong(buffer, splitTime.getNanoseconds());
+        }
+    }
+
+    /**
+     * Decodes the pomodoro from the buffer at its position with the system clock.
+     *
+     * @param buffer The buffer
+     * @return The decoded pomodoro
+     *
+     * @exception NullPointerException               If {@code null} is passed as
+     *                                               an argument
+     * @exception IllegalArgumentException           If the version is not
+     *                                               supported or the data is
+     *                                               corrupted
+     * @exception java.nio.BufferUnderflowException If the data is truncated
+     */
+    public static Pomodoro decode(@NonNull final ByteBuffer buffer) {
+        return decode(buffer, PomodoroClock.system());
+    }
+
+    /**
+     * Decodes the pomodoro from the buffer at its position. The timer of the
+     * decoded pomodoro is rebased on the clock passed as an argument.
+     *
+     * @param buffer The buffer
+     * @param clock  The clock of the decoded pomodoro
+     * @return The decoded pomodoro
+     *
+     * @exception NullPointerException               If {@code null} is passed as
+     *                                               an argument
+     * @exception IllegalArgumentException           If the version is not
+     *                                               supported or the data is
+     *                                               corrupted
+     * @exception java.nio.BufferUnderflowException If the data is truncated
+     */
+    public static Pomodoro decode(@NonNull final ByteBuffer buffer, @NonNull final PomodoroClock clock) {
+        final int version = buffer.get() & 0xFF;
+
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported codec version: " + version);
+        }
+
+        final int stateOrdinal = buffer.get() & 0xFF;
+
+        if (stateOrdinal >= STATES.length) {
+            throw new IllegalArgumentException("Unknown pomodoro state: " + stateOrdinal);
+        }
+
+        final PomodoroState pomodoroState = STATES[stateOrdinal];
+        final int breakCount = getVarInt(buffer);
+        final Configuration configuration = decodeConfiguration(buffer);
+
+        if (pomodoroState == PomodoroState.INITIALIZED) {
+            final PomodoroImpl pomodoro = new PomodoroImpl(configuration, clock);
+            pomodoro.restore(pomodoroState, breakCount, 0L, 0L, 0L);
+            return pomodoro;
+        }
+
+        final long startMillis = getVarLong(buffer);
+        final long phaseStartMillis = startMillis + getVarLong(buffer);
+        final long elapsedNanos = getVarLong(buffer);
+        final long splitMillis = getVarLong(buffer);
+        final long splitNanos = getVarLong(buffer);
+
+        final PomodoroImpl pomodoro = PomodoroSnapshotter.rehydrate(configuration, pomodoroState, breakCount,
+                startMillis, phaseStartMillis, elapsedNanos, clock, clock.currentTimeMillis());
+        pomodoro.getSplitTime().setMilliseconds(splitMillis);
+        pomodoro.getSplitTime().setNanoseconds(splitNanos);
+        return pomodoro;
+    }
+
+    /**
+     * Encodes the configuration into the buffer from its position.
+     *
+     * @param configuration The configuration
+     * @param buffer        The buffer
+     *
+     * @exception NullPointerException              If {@code null} is passed as
+     *                                              an argument
+     * @exception java.nio.BufferOverflowException If the buffer is too small
+     */
+    public static void encodeConfiguration(@NonNull final Configuration configuration,
+            @NonNull final ByteBuffer buffer) {
+        putVarInt(buffer, configuration.getConcentrationMinutes());
+        putVarInt(buffer, configuration.getBreakMinutes());
+        putVarInt(buffer, configuration.getLongerBreakMinutes());
+        putVarInt(buffer, configuration.getCountUntilLongerBreak());
+    }
+
+    /**
+     * Decodes the configuration from the buffer at its position.
+     *
+     * @param buffer The buffer
+     * @return The decoded configuration
+     *
+     * @exception NullPointerException               If {@code null} is passed as
+     *                                               an argument
+     * @exception IllegalArgumentException           If the data is corrupted
+     * @exception java.nio.BufferUnderflowException If the data is truncated
+     */
+    public static Configuration decodeConfiguration(@NonNull final ByteBuffer buffer) {
+        return ConfigurationBuilder.newBuilder().setConcentrationMinutes(getVarInt(buffer))
+                .setBreakMinutes(getVarInt(buffer)).setLongerBreakMinutes(getVarInt(buffer))
+                .setCountUntilLongerBreak(getVarInt(buffer)).build();
+    }
+
+    /**
+     * Puts the value as an unsigned LEB128 variable-length integer.
+     *
+     * @param buffer The buffer
+     * @param value  The value
+     */
+    static void putVarInt(final ByteBuffer buffer, final int value) {
+        int remaining = value;
+
+        while ((remaining & ~0x7F) != 0) {
+            buffer.put((byte) (remaining & 0x7F | 0x80));
+            remaining >>>= 7;
+        }
+
+        buffer.put((byte) remaining);
+    }
+
+    /**
+     * Puts the value as an unsigned LEB128 variable-length integer.
+     *
+     * @param buffer The buffer
+     * @param value  The value
+     */
+    static void putVarLong(final ByteBuffer buffer, final long value) {
+        long remaining = value;
+
+        while ((remaining & ~0x7FL) != 0) {
+            buffer.put((byte) (remaining & 0x7F | 0x80));
+            remaining >>>= 7;
+        }
+
+        buffer.put((byte) remaining);
+    }
+
+    /**
+     * Gets the unsigned LEB128 variable-length integer.
+     *
+     * @param buffer The buffer
+     * @return The value
+     *
+     * @exception IllegalArgumentException If the integer is longer than 5 bytes
+     */
+    static int getVarInt(final ByteBuffer buffer) {
+        int value = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            final byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+
+            if (b >= 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("Malformed variable-length integer.");
+    }
+
+    /**
+     * Gets the unsigned LEB128 variable-length integer.
+     *
+     * @param buffer The buffer
+     * @return The value
+     *
+     * @exception IllegalArgumentException If the integer is longer than 10 bytes
+     */
+    static long getVarLong(final ByteBuffer buffer) {
+        long value = 0L;
+
+        for (int shift = 0; shift < 70; shift += 7) {
+            final byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+
+            if (b >= 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("Malformed variable-length integer.");
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The immutable event of a phase change of a pomodoro.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PomodoroEvent {
+
+    /**
+     * The pomodoro whose phase has changed
+     */
+    @ToString.Exclude
+    private final Pomodoro pomodoro;
+
+    /**
+     * The pomodoro state before the change
+     */
+    private final PomodoroState from;
+
+    /**
+     * The pomodoro state after the change
+     */
+    private final PomodoroState to;
+
+    /**
+     * The time of the change in nanoseconds of the clock of the pomodoro
+     */
+    private final long nanoTime;
+
+    /**
+     * Returns the new instance of {@link PomodoroEvent} .
+     *
+     * @param pomodoro The pomodoro whose phase has changed
+     * @param from     The pomodoro state before the change
+     * @param to       The pomodoro state after the change
+     * @param nanoTime The time of the change in nanoseconds of the clock of the
+     *                 pomodoro
+     * @return The new instance of {@link PomodoroEvent}
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public static PomodoroEvent newInstance(@NonNull final Pomodoro pomodoro, @NonNull final PomodoroState from,
+            @NonNull final PomodoroState to, final long nanoTime) {
+        return new PomodoroEvent(pomodoro, from, to, nanoTime);
+    }
+
+    /**
+     * Checks if this event is the start of a break.
+     *
+     * @return {@code true} if a break has started, otherwise {@code false}
+     */
+    public boolean isBreakStart() {
+        return this.to == PomodoroState.BREAKING || this.to == PomodoroState.LONGER_BREAKING;
+    }
+
+    /**
+     * Checks if this event is the end of a break.
+     *
+     * @return {@code true} if a break has ended, otherwise {@code false}
+     */
+    public boolean isBreakEnd() {
+        return (this.from == PomodoroState.BREAKING || this.from == PomodoroState.LONGER_BREAKING)
+                && (this.to == PomodoroState.CONCENTRATING || this.to == PomodoroState.FINISHED);
+    }
+}
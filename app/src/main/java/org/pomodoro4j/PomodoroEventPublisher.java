@@ -0,0 +1,197 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The {@link Flow.Publisher} of the phase changes of pomodoros.
+ *
+ * <p>
+ * A publisher can be attached to a single pomodoro to publish the events of a
+ * session, or to any number of pomodoros to publish the events of all of them
+ * through the same stream. The events are created on the thread changing the
+ * phase and are delivered asynchronously on the executor.
+ *
+ * <p>
+ * Each subscriber has its own bounded buffer and receives events only as
+ * requested through {@link Flow.Subscription#request(long)} . When the buffer of
+ * a slow subscriber is full the new event is dropped for that subscriber and
+ * counted in {@link #getDroppedCount()} , so a slow subscriber neither blocks
+ * the pomodoros nor makes the memory usage grow.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString
+public final class PomodoroEventPublisher implements Flow.Publisher<PomodoroEvent>, AutoCloseable {
+
+    /**
+     * The publisher
+     */
+    @ToString.Exclude
+    private final SubmissionPublisher<PomodoroEvent> publisher;
+
+    /**
+     * The hook added to the attached pomodoros
+     */
+    @ToString.Exclude
+    private final TransitionHook transitionHook = (pomodoro, from, to, nanoTime) -> this
+            .publish(PomodoroEvent.newInstance(pomodoro, from, to, nanoTime));
+
+    /**
+     * The number of dropped events
+     */
+    private final LongAdder droppedCount = new LongAdder();
+
+    /**
+     * The constructor.
+     *
+     * @param executor          The executor delivering the events
+     * @param maxBufferCapacity The maximum number of buffered events per
+     *                          subscriber
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    private PomodoroEventPublisher(@NonNull final Executor executor, final int maxBufferCapacity) {
+        this.publisher = new SubmissionPublisher<>(executor, maxBufferCapacity);
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroEventPublisher} delivering the
+     * events on the common pool with the default buffer capacity.
+     *
+     * @return The new instance of {@link PomodoroEventPublisher}
+     */
+    public static PomodoroEventPublisher newInstance() {
+        return newInstance(ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroEventPublisher} delivering the
+     * events on the executor passed as an argument.
+     *
+     * @param executor          The executor delivering the events
+     * @param maxBufferCapacity The maximum number of buffered events per
+     *                          subscriber, rounded up to the nearest power of
+     *                          two
+     * @return The new instance of {@link PomodoroEventPublisher}
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the buffer capacity is less than 1
+     */
+    public static PomodoroEventPublisher newInstance(@NonNull final Executor executor, final int maxBufferCapacity) {
+        if (maxBufferCapacity < 1) {
+            throw new IllegalArgumentException("The buffer capacity must be at least 1.");
+        }
+
+        return new PomodoroEventPublisher(executor, maxBufferCapacity);
+    }
+
+    /**
+     * Attaches this publisher to the pomodoro passed as an argument. Attaching the
+     * same pomodoro twice has no effect.
+     *
+     * @param pomodoro The pomodoro
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the pomodoro is not created by
+     *                                     {@link PomodoroFactory}
+     * @exception IllegalStateException    If this publisher has been closed
+     */
+    public void attach(@NonNull final Pomodoro pomodoro) {
+        if (!(pomodoro instanceof PomodoroBaseImpl)) {
+            throw new IllegalArgumentException("Unsupported pomodoro implementation: " + pomodoro.getClass().getName());
+        }
+
+        if (this.publisher.isClosed()) {
+            throw new IllegalStateException("The publisher has been closed.");
+        }
+
+        ((PomodoroBaseImpl) pomodoro).addTransitionHook(this.transitionHook);
+    }
+
+    /**
+     * Detaches this publisher from the pomodoro passed as an argument.
+     *
+     * @param pomodoro The pomodoro
+     * @return {@code true} if this publisher has been attached to the pomodoro,
+     *         otherwise {@code false}
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public boolean detach(@NonNull final Pomodoro pomodoro) {
+        return pomodoro instanceof PomodoroBaseImpl
+                && ((PomodoroBaseImpl) pomodoro).removeTransitionHook(this.transitionHook);
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super PomodoroEvent> subscriber) {
+        this.publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Returns the number of the current subscribers.
+     *
+     * @return The number of the current subscribers
+     */
+    public int getNumberOfSubscribers() {
+        return this.publisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * Returns the number of events dropped for subscribers whose buffer was full.
+     *
+     * @return The number of dropped events
+     */
+    public long getDroppedCount() {
+        return this.droppedCount.sum();
+    }
+
+    /**
+     * Completes the subscribers. The events of the pomodoros still attached are
+     * discarded from then on.
+     */
+    @Override
+    public void close() {
+        this.publisher.close();
+    }
+
+    /**
+     * Publishes the event to the subscribers without blocking.
+     *
+     * @param event The event
+     */
+    private void publish(final PomodoroEvent event) {
+        if (this.publisher.isClosed()) {
+            return;
+        }
+
+        try {
+            this.publisher.offer(event, (subscriber, dropped) -> {
+                this.droppedCount.increment();
+                return false;
+            });
+        } catch (IllegalStateException e) {
+            // Closed while the phase was changing, the event is no longer needed
+        }
+    }
+}
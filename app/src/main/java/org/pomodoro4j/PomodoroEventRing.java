@@ -0,0 +1,455 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The preallocated multi-producer single-consumer ring buffer of phase changes.
+ *
+ * <p>
+ * The ring holds a fixed number of mutable slots created up front. A producer
+ * claims the next sequence with a single compare-and-set, fills the slot and
+ * marks it as published, so publishing neither allocates nor takes a lock. When
+ * the ring is full the event is rejected and counted instead of blocking the
+ * thread changing the phase.
+ *
+ * <p>
+ * The single consumer calls {@link #drain(Handler)} to process every published
+ * event in sequence order as one batch, and releases the slots back to the
+ * producers once the batch has been handled. Only one thread may drain the ring
+ * at a time.
+ *
+ * <p>
+ * A ring can be attached to pomodoros created by {@link PomodoroFactory} , or
+ * fed with the handles of {@link PomodoroTable} and
+ * {@link OffHeapPomodoroStore} through {@link #tryPublish(long, PomodoroState,
+ * PomodoroState, long)} .
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString
+public final class PomodoroEventRing {
+
+    /**
+     * The handler of the events drained by {@link PomodoroEventRing#drain(Handler)}
+     * .
+     */
+    @FunctionalInterface
+    public interface Handler {
+
+        /**
+         * Called for each drained event. The slot is reused once the batch has
+         * been handled, so it must not be retained.
+         *
+         * @param slot       The slot of the event
+         * @param sequence   The sequence of the event
+         * @param endOfBatch The flag whether the event is the last of the batch
+         */
+        public void onEvent(Slot slot, long sequence, boolean endOfBatch);
+    }
+
+    /**
+     * The mutable slot of the ring.
+     */
+    @ToString
+    public static final class Slot {
+
+        /**
+         * The pomodoro, or {@code null} if published by handle
+         */
+        @ToString.Exclude
+        private Pomodoro pomodoro;
+
+        /**
+         * The handle, or {@code -1} if published by pomodoro
+         */
+        private long handle;
+
+        /**
+         * The pomodoro state before the change
+         */
+        private PomodoroState from;
+
+        /**
+         * The pomodoro state after the change
+         */
+        private PomodoroState to;
+
+        /**
+         * The time of the change in nanoseconds
+         */
+        private long nanoTime;
+
+        /**
+         * The constructor.
+         */
+        private Slot() {
+        }
+
+        /**
+         * Returns the pomodoro whose phase has changed.
+         *
+         * @return The pomodoro, or {@code null} if the event has been published by
+         *         handle
+         */
+        public Pomodoro getPomodoro() {
+            return this.pomodoro;
+        }
+
+        /**
+         * Returns the handle of the pomodoro whose phase has changed.
+         *
+         * @return The handle, or {@code -1} if the event has been published by
+         *         pomodoro
+         */
+        public long getHandle() {
+            return this.handle;
+        }
+
+        /**
+         * Returns the pomodoro state before the change.
+         *
+         * @return The pomodoro state before the change
+         */
+        public PomodoroState getFrom() {
+            return this.from;
+        }
+
+        /**
+         * Returns the pomodoro state after the change.
+         *
+         * @return The pomodoro state after the change
+         */
+        public PomodoroState getTo() {
+            return this.to;
+        }
+
+        /**
+         * Returns the time of the change in nanoseconds.
+         *
+         * @return The time of the change in nanoseconds
+         */
+        public long getNanoTime() {
+            return this.nanoTime;
+        }
+    }
+
+    /**
+     * The maximum capacity
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The handle of the elements of {@link #published}
+     */
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * The handle of {@link #producerSequence}
+     */
+    private static final VarHandle PRODUCER_SEQUENCE;
+
+    /**
+     * The handle of {@link #consumerSequence}
+     */
+    private static final VarHandle CONSUMER_SEQUENCE;
+
+    /**
+     * The handle of {@link #rejectedCount}
+     */
+    private static final VarHandle REJECTED_COUNT;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            PRODUCER_SEQUENCE = lookup.findVarHandle(PomodoroEventRing.class, "producerSequence", long.class);
+            CONSUMER_SEQUENCE = lookup.findVarHandle(PomodoroEventRing.class, "consumerSequence", long.class);
+            REJECTED_COUNT = lookup.findVarHandle(PomodoroEventRing.class, "rejectedCount", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The slots
+     */
+    @ToString.Exclude
+    private final Slot[] slots;
+
+    /**
+     * The sequence published in each slot, or {@code -1} if none
+     */
+    @ToString.Exclude
+    private final long[] published;
+
+    /**
+     * The mask of the index
+     */
+    @ToString.Exclude
+    private final int mask;
+
+    /**
+     * The next sequence claimed by the producers
+     */
+    private volatile long producerSequence;
+
+    /**
+     * The next sequence handled by the consumer
+     */
+    private volatile long consumerSequence;
+
+    /**
+     * The number of events rejected because the ring was full
+     */
+    private volatile long rejectedCount;
+
+    /**
+     * The hook added to the attached pomodoros
+     */
+    @ToString.Exclude
+    private final TransitionHook transitionHook = (pomodoro, from, to, nanoTime) -> this.tryPublish(pomodoro,
+            -1L, from, to, nanoTime);
+
+    /**
+     * The constructor.
+     *
+     * @param capacity The capacity, a power of two
+     */
+    private PomodoroEventRing(final int capacity) {
+        this.slots = new Slot[capacity];
+        this.published = new long[capacity];
+        this.mask = capacity - 1;
+
+        for (int i = 0; i < capacity; i++) {
+            this.slots[i] = new Slot();
+        }
+
+        Arrays.fill(this.published, -1L);
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroEventRing} . The capacity is
+     * rounded up to the nearest power of two.
+     *
+     * @param capacity The minimum capacity
+     * @return The new instance of {@link PomodoroEventRing}
+     *
+     * @exception IllegalArgumentException If the capacity is less than 1 or
+     *                                     greater than {@code 2^30}
+     */
+    public static PomodoroEventRing newInstance(final int capacity) {
+        if (capacity < 1 || capacity > MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("The capacity must be between 1 and " + MAXIMUM_CAPACITY + ".");
+        }
+
+        return new PomodoroEventRing(capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1);
+    }
+
+    /**
+     * Attaches this ring to the pomodoro passed as an argument, so that each phase
+     * change is published. Attaching the same pomodoro twice has no effect.
+     *
+     * @param pomodoro The pomodoro
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the pomodoro is not created by
+     *                                     {@link PomodoroFactory}
+     */
+    public void attach(@NonNull final Pomodoro pomodoro) {
+        if (!(pomodoro instanceof PomodoroBaseImpl)) {
+            throw new IllegalArgumentException("Unsupported pomodoro implementation: " + pomodoro.getClass().getName());
+        }
+
+        ((PomodoroBaseImpl) pomodoro).addTransitionHook(this.transitionHook);
+    }
+
+    /**
+     * Detaches this ring from the pomodoro passed as an argument.
+     *
+     * @param pomodoro The pomodoro
+     * @return {@code true} if this ring has been attached to the pomodoro,
+     *         otherwise {@code false}
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public boolean detach(@NonNull final Pomodoro pomodoro) {
+        return pomodoro instanceof PomodoroBaseImpl
+                && ((PomodoroBaseImpl) pomodoro).removeTransitionHook(this.transitionHook);
+    }
+
+    /**
+     * Publishes the phase change of the pomodoro passed as an argument.
+     *
+     * @param pomodoro The pomodoro
+     * @param from     The pomodoro state before the change
+     * @param to       The pomodoro state after the change
+     * @param nanoTime The time of the change in nanoseconds
+     * @return {@code true} if the event has been published, or {@code false} if
+     *         the ring was full
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public boolean tryPublish(@NonNull final Pomodoro pomodoro, @NonNull final PomodoroState from,
+            @NonNull final PomodoroState to, final long nanoTime) {
+        return this.tryPublish(pomodoro, -1L, from, to, nanoTime);
+    }
+
+    /**
+     * Publishes the phase change of the handle passed as an argument, as notified
+     * by {@link PomodoroTable.Listener} or {@link OffHeapPomodoroStore.Listener} .
+     *
+     * @param handle   The handle
+     * @param from     The pomodoro state before the change
+     * @param to       The pomodoro state after the change
+     * @param nanoTime The time of the change in nanoseconds
+     * @return {@code true} if the event has been published, or {@code false} if
+     *         the ring was full
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public boolean tryPublish(final long handle, @NonNull final PomodoroState from, @NonNull final PomodoroState to,
+            final long nanoTime) {
+        return this.tryPublish(null, handle, from, to, nanoTime);
+    }
+
+    /**
+     * Handles every event published so far as one batch, in sequence order.
+     * Only one thread may drain the ring at a time. The events not handled
+     * because the handler throws stay in the ring as with
+     * {@link #drain(Handler, int)} .
+     *
+     * @param handler The handler
+     * @return The number of handled events
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public int drain(@NonNull final Handler handler) {
+        return this.drain(handler, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Handles at most the specified number of published events as one batch, in
+     * sequence order. Only one thread may drain the ring at a time. If the
+     * handler throws, the exception is propagated, and the event it failed on and
+     * the following ones stay in the ring to be drained again.
+     *
+     * @param handler   The handler
+     * @param maxEvents The maximum number of events
+     * @return The number of handled events
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the maximum number is less than 1
+     */
+    public int drain(@NonNull final Handler handler, final int maxEvents) {
+        if (maxEvents < 1) {
+            throw new IllegalArgumentException("The maximum number of events must be at least 1.");
+        }
+
+        final long first = this.consumerSequence;
+        long last = first;
+        long handled = first;
+
+        // Stops at the first slot claimed but not yet published to keep the order
+        while (last - first < maxEvents && (long) PUBLISHED.getAcquire(this.published,
+                (int) last & this.mask) == last) {
+            last++;
+        }
+
+        try {
+            for (; handled < last; handled++) {
+                handler.onEvent(this.slots[(int) handled & this.mask], handled, handled == last - 1);
+            }
+        } finally {
+            // Only the handled events are released, so the failed one is drained again
+            for (long sequence = first; sequence < handled; sequence++) {
+                this.slots[(int) sequence & this.mask].pomodoro = null;
+            }
+
+            CONSUMER_SEQUENCE.setRelease(this, handled);
+        }
+
+        return (int) (last - first);
+    }
+
+    /**
+     * Returns the number of events published and not drained yet.
+     *
+     * @return The number of pending events
+     */
+    public int size() {
+        final long consumer = this.consumerSequence;
+        return (int) Math.max(0L, this.producerSequence - consumer);
+    }
+
+    /**
+     * Returns the capacity.
+     *
+     * @return The capacity
+     */
+    public int capacity() {
+        return this.slots.length;
+    }
+
+    /**
+     * Returns the number of events rejected because the ring was full.
+     *
+     * @return The number of rejected events
+     */
+    public long getRejectedCount() {
+        return this.rejectedCount;
+    }
+
+    /**
+     * Claims the next sequence and publishes the event in its slot.
+     *
+     * @param pomodoro The pomodoro, or {@code null} if published by handle
+     * @param handle   The handle, or {@code -1} if published by pomodoro
+     * @param from     The pomodoro state before the change
+     * @param to       The pomodoro state after the change
+     * @param nanoTime The time of the change in nanoseconds
+     * @return {@code true} if the event has been published, or {@code false} if
+     *         the ring was full
+     */
+    private boolean tryPublish(final Pomodoro pomodoro, final long handle, final PomodoroState from,
+            final PomodoroState to, final long nanoTime) {
+        long sequence;
+
+        do {
+            sequence = this.producerSequence;
+
+            if (sequence - this.consumerSequence >= this.slots.length) {
+                REJECTED_COUNT.getAndAdd(this, 1L);
+                return false;
+            }
+        } while (!PRODUCER_SEQUENCE.weakCompareAndSet(this, sequence, sequence + 1));
+
+        final int index = (int) sequence & this.mask;
+        final Slot slot = this.slots[index];
+        slot.pomodoro = pomodoro;
+        slot.handle = handle;
+        slot.from = from;
+        slot.to = to;
+        slot.nanoTime = nanoTime;
+
+        PUBLISHED.setRelease(this.published, index, sequence);
+        return true;
+    }
+}
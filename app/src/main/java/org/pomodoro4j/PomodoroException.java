@@ -74,4 +74,27 @@ public final class PomodoroException extends RuntimeException {
     public PomodoroException(Throwable cause) {
         super(cause);
     }
+
+    /**
+     * Constructs a new exception with the specified detail message, with or
+     * without the stack trace and suppression.
+     *
+     * @param message            the detail message.
+     * @param writableStackTrace whether or not the stack trace and the
+     *                           suppression should be writable
+     */
+    private PomodoroException(String message, boolean writableStackTrace) {
+        super(message, null, writableStackTrace, writableStackTrace);
+    }
+
+    /**
+     * Returns the new exception without the stack trace and suppression, which can
+     * be preallocated and thrown repeatedly at no cost.
+     *
+     * @param message the detail message.
+     * @return The new exception without the stack trace
+     */
+    static PomodoroException stackless(String message) {
+        return new PomodoroException(message, false);
+    }
 }
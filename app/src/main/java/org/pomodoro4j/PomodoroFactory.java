@@ -15,13 +15,15 @@
 package org.pomodoro4j;
 
 import java.io.Serializable;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.pomodoro4j.conf.Configuration;
 import org.pomodoro4j.conf.ConfigurationContext;
 
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.ToString;
 
@@ -34,36 +36,35 @@ import lombok.ToString;
 public final class PomodoroFactory implements Serializable {
 
     /**
-     * The package of pomodoro implementation
-     */
-    private static final String PACKAGE_POMODORO_IMPLEMENTATION = "org.pomodoro4j.PomodoroImpl";
-
-    /**
-     * The constructor of pomodoro
+     * The configuration
      */
-    private static final Constructor<Pomodoro> POMODORO_CONSTRUCTOR = getPomodoroConstructor();
+    @Getter(AccessLevel.PACKAGE)
+    private final Configuration configuration;
 
     /**
-     * The configuration
+     * The clock
      */
-    private final Configuration configuration;
+    @Getter(AccessLevel.PACKAGE)
+    private final PomodoroClock clock;
 
     /**
      * The default constructor.
      */
     private PomodoroFactory() {
-        this(ConfigurationContext.getInstance());
+        this(ConfigurationContext.getInstance(), PomodoroClock.system());
     }
 
     /**
      * The constructor.
      *
      * @param configuration The configuration
+     * @param clock         The clock
      *
      * @exception NullPointerException If {@code null} is passed as an argument
      */
-    private PomodoroFactory(@NonNull final Configuration configuration) {
+    private PomodoroFactory(@NonNull final Configuration configuration, @NonNull final PomodoroClock clock) {
         this.configuration = configuration;
+        this.clock = clock;
     }
 
     /**
@@ -86,30 +87,66 @@ public final class PomodoroFactory implements Serializable {
      * @exception NullPointerException If {@code null} is passed as an argument
      */
     public static PomodoroFactory newInstance(@NonNull final Configuration configuration) {
-        return new PomodoroFactory(configuration);
+        return new PomodoroFactory(configuration, PomodoroClock.system());
     }
 
+    /**
+     * Returns the new instance of {@link PomodoroFactory} based on the
+     * configuration and the clock passed as arguments. The pomodoros created by
+     * the returned factory measure the time with the clock.
+     *
+     * @param configuration The configuration
+     * @param clock         The clock
+     * @return The new instance of {@link PomodoroFactory} based on the
+     *         configuration and the clock
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public static PomodoroFactory newInstance(@NonNull final Configuration configuration,
+            @NonNull final PomodoroClock clock) {
+        return new PomodoroFactory(configuration, clock);
+    }
+
+    /**
+     * Returns the new instance of {@link Pomodoro} based on the configuration and
+     * the clock of this factory.
+     *
+     * @return The new instance of {@link Pomodoro}
+     */
     public Pomodoro getInstance() {
-        try {
-            return POMODORO_CONSTRUCTOR.newInstance(this.configuration);
-        } catch (InstantiationException | IllegalAccessException | IllegalArgumentException
-                | InvocationTargetException e) {
-            throw new IllegalStateException(e);
-        }
+        return new PomodoroImpl(this.configuration, this.clock);
     }
 
     /**
-     * Returns the constructor of pomodoro implementation.
+     * Returns the new instances of {@link Pomodoro} based on the configuration and
+     * the clock of this factory.
+     *
+     * @param count The number of instances
+     * @return The list of the new instances of {@link Pomodoro}
      *
-     * @return The constructor of pomodoro implementation
+     * @exception IllegalArgumentException If the count is negative
      */
-    @SuppressWarnings("unchecked")
-    private static Constructor<Pomodoro> getPomodoroConstructor() {
-        try {
-            return ((Class<Pomodoro>) Class.forName(PACKAGE_POMODORO_IMPLEMENTATION))
-                    .getDeclaredConstructor(Configuration.class);
-        } catch (NoSuchMethodException | ClassNotFoundException e) {
-            throw new IllegalStateException(e);
+    public List<Pomodoro> getInstances(final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("The count must not be negative.");
         }
+
+        final List<Pomodoro> pomodoros = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            pomodoros.add(new PomodoroImpl(this.configuration, this.clock));
+        }
+
+        return pomodoros;
+    }
+
+    /**
+     * Returns the new instance of {@link ConcurrentPomodoro} which can be shared
+     * between threads.
+     *
+     * @return The new instance of {@link ConcurrentPomodoro}
+     */
+    public ConcurrentPomodoro getConcurrentInstance() {
+        return ConcurrentPomodoro.newInstance(this.configuration, this.clock);
     }
 }
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * The lock-free histogram of non-negative values such as durations in
+ * nanoseconds.
+ *
+ * <p>
+ * The values are counted in log-scaled buckets in the manner of HDR
+ * histograms: each power of two is split into {@value #SUB_BUCKET_COUNT} linear
+ * sub-buckets, so that any value from {@code 0} to {@link Long#MAX_VALUE} is
+ * counted with a relative error of at most 12.5% in a fixed number of buckets.
+ * Recording a value is a few atomic increments and never allocates, so the
+ * histogram can be left on in production.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString
+@NoArgsConstructor(staticName = "newInstance")
+public final class PomodoroHistogram {
+
+    /**
+     * The number of bits of the sub-bucket index
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /**
+     * The number of sub-buckets per power of two
+     */
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The number of buckets
+     */
+    static final int BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+    /**
+     * The counts of the buckets
+     */
+    @ToString.Exclude
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * The sum of the values
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * The maximum value
+     */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Records the value. Negative values are recorded as {@code 0} .
+     *
+     * @param value The value
+     */
+    public void record(final long value) {
+        final long nonNegative = Math.max(0L, value);
+        this.counts.getAndIncrement(bucketIndex(nonNegative));
+        this.sum.add(nonNegative);
+        this.max.accumulate(nonNegative);
+    }
+
+    /**
+     * Returns the snapshot of the values recorded so far.
+     *
+     * @return The snapshot
+     */
+    public Snapshot snapshot() {
+        final long[] snapshotCounts = new long[BUCKET_COUNT];
+        long count = 0L;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshotCounts[i] = this.counts.get(i);
+            count += snapshotCounts[i];
+        }
+
+        return new Snapshot(snapshotCounts, count, this.sum.sum(), this.max.get());
+    }
+
+    /**
+     * Returns the snapshot of the values recorded so far and starts recording
+     * from zero. A value recorded during the call is counted in either the
+     * returned snapshot or the next one.
+     *
+     * @return The snapshot
+     */
+    public Snapshot snapshotAndReset() {
+        final long[] snapshotCounts = new long[BUCKET_COUNT];
+        long count = 0L;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshotCounts[i] = this.counts.getAndSet(i, 0L);
+            count += snapshotCounts[i];
+        }
+
+        return new Snapshot(snapshotCounts, count, this.sum.sumThenReset(), this.max.getThenReset());
+    }
+
+    /**
+     * Discards the values recorded so far.
+     */
+    public void reset() {
+        this.snapshotAndReset();
+    }
+
+    /**
+     * Returns the index of the bucket counting the value.
+     *
+     * @param value The non-negative value
+     * @return The index of the bucket
+     */
+    static int bucketIndex(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+    }
+
+    /**
+     * Returns the smallest value counted in the bucket.
+     *
+     * @param index The index of the bucket
+     * @return The smallest value counted in the bucket
+     */
+    static long lowestValue(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        final int shift = index / SUB_BUCKET_COUNT - 1;
+        return (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+    }
+
+    /**
+     * Returns the largest value counted in the bucket.
+     *
+     * @param index The index of the bucket
+     * @return The largest value counted in the bucket
+     */
+    static long highestValue(final int index) {
+        return index == BUCKET_COUNT - 1 ? Long.MAX_VALUE : lowestValue(index + 1) - 1;
+    }
+
+    /**
+     * The immutable snapshot of {@link PomodoroHistogram} .
+     */
+    @ToString
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Snapshot {
+
+        /**
+         * The counts of the buckets
+         */
+        @ToString.Exclude
+        private final long[] counts;
+
+        /**
+         * The number of the values
+         */
+        @Getter
+        private final long count;
+
+        /**
+         * The sum of the values
+         */
+        @Getter
+        private final long sum;
+
+        /**
+         * The maximum value
+         */
+        @Getter
+        private final long max;
+
+        /**
+         * Returns the mean of the values.
+         *
+         * @return The mean of the values, or {@code 0} if no value has been
+         *         recorded
+         */
+        public double getMean() {
+            return this.count == 0L ? 0.0 : (double) this.sum / this.count;
+        }
+
+        /**
+         * Returns the value at the percentile, that is the largest value counted in
+         * the bucket where the percentile falls, bounded by the maximum value.
+         *
+         * @param percentile The percentile between {@code 0} and {@code 100}
+         * @return The value at the percentile, or {@code 0} if no value has been
+         *         recorded
+         *
+         * @exception IllegalArgumentException If the percentile is out of range
+         */
+        public long getValueAtPercentile(final double percentile) {
+            if (!(percentile >= 0.0 && percentile <= 100.0)) {
+                throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+            }
+
+            if (this.count == 0L) {
+                return 0L;
+            }
+
+            final long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * this.count));
+            long seen = 0L;
+
+            for (int i = 0; i < this.counts.length; i++) {
+                seen += this.counts[i];
+
+                if (seen >= rank) {
+                    return Math.min(highestValue(i), this.max);
+                }
+            }
+
+            return this.max;
+        }
+    }
+}
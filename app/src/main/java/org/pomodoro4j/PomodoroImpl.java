@@ -41,6 +41,18 @@ final class PomodoroImpl extends PomodoroBaseImpl implements Pomodoro {
         super(configuration);
     }
 
+    /**
+     * The constructor.
+     *
+     * @param configuration The configuration
+     * @param clock         The clock
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    PomodoroImpl(@NonNull final Configuration configuration, @NonNull final PomodoroClock clock) {
+        super(configuration, clock);
+    }
+
     @Override
     public boolean performs() {
         if (super.getPomodoroState() == PomodoroState.INITIALIZED) {
@@ -0,0 +1,808 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.pomodoro4j.conf.Configuration;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The append-only journal of the transitions of pomodoros.
+ *
+ * <p>
+ * Every phase change of an attached session, including {@code performs},
+ * {@code startBreak}, {@code endBreak}, {@code stop} and {@code reset}, is
+ * appended as a fixed-size binary record holding the full state of the session
+ * after the change, protected by a checksum. The records are buffered in memory
+ * and written through a {@link FileChannel} by {@link #commit()} , which forces
+ * the file to the storage once for the whole batch, so thousands of transitions
+ * cost a single disk flush.
+ *
+ * <p>
+ * {@link #compact()} rewrites the journal as a snapshot holding one record per
+ * attached session, and atomically replaces the previous journal with it, so
+ * the journal does not grow without bound. A transition is never failed by the
+ * journal: once a write fails, the following records are dropped and the
+ * failure is thrown by {@link #commit()} until the journal is compacted.
+ * {@link #replay(Path)} rebuilds the sessions from the latest record of each
+ * session, ignoring a record torn by a crash at the end of the journal.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString
+public final class PomodoroJournal implements AutoCloseable {
+
+    /**
+     * The default number of records buffered between two writes
+     */
+    private static final int DEFAULT_BUFFER_RECORDS = 1024;
+
+    /**
+     * The size of a record in bytes
+     */
+    private static final int RECORD_SIZE = 64;
+
+    /**
+     * The type of the record holding the state of a session when attached or
+     * compacted
+     */
+    private static final byte TYPE_STATE = 1;
+
+    /**
+     * The type of the record holding the state of a session after a transition
+     */
+    private static final byte TYPE_TRANSITION = 2;
+
+    /**
+     * The type of the record of a detached session
+     */
+    private static final byte TYPE_DETACH = 3;
+
+    /**
+     * The offset of the type in a record
+     */
+    private static final int TYPE = 0;
+
+    /**
+     * The offset of the state before the change in a record
+     */
+    private static final int FROM = 1;
+
+    /**
+     * The offset of the state after the change in a record
+     */
+    private static final int TO = 2;
+
+    /**
+     * The offset of the break count in a record
+     */
+    private static final int BREAK_COUNT = 4;
+
+    /**
+     * The offset of the session id in a record
+     */
+    private static final int SESSION_ID = 8;
+
+    /**
+     * The offset of the phase start epoch in a record
+     */
+    private static final int PHASE_START_MILLIS = 16;
+
+    /**
+     * The offset of the start epoch in a record
+     */
+    private static final int START_MILLIS = 24;
+
+    /**
+     * The offset of the elapsed time in a record
+     */
+    private static final int ELAPSED_NANOS = 32;
+
+    /**
+     * The offset of the concentration minutes in a record
+     */
+    private static final int CONCENTRATION_MINUTES = 40;
+
+    /**
+     * The offset of the break minutes in a record
+     */
+    private static final int BREAK_MINUTES = 44;
+
+    /**
+     * The offset of the longer break minutes in a record
+     */
+    private static final int LONGER_BREAK_MINUTES = 48;
+
+    /**
+     * The offset of the count until longer break in a record
+     */
+    private static final int COUNT_UNTIL_LONGER_BREAK = 52;
+
+    /**
+     * The offset of the checksum of the preceding bytes in a record
+     */
+    private static final int CHECKSUM = 60;
+
+    /**
+     * The pomodoro states indexed by ordinal
+     */
+    private static final PomodoroState[] STATES = PomodoroState.values();
+
+    /**
+     * The path of the journal
+     */
+    private final Path path;
+
+    /**
+     * The channel of the journal
+     */
+    @ToString.Exclude
+    private FileChannel channel;
+
+    /**
+     * The records not written yet
+     */
+    @ToString.Exclude
+    private final ByteBuffer pending;
+
+    /**
+     * The checksum
+     */
+    @ToString.Exclude
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * The attached sessions
+     */
+    @ToString.Exclude
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * The lock serialising the forces of the channel with the compactions
+     */
+    @ToString.Exclude
+    private final Object commitLock = new Object();
+
+    /**
+     * The number of records written but not forced to the storage yet
+     */
+    private long uncommittedRecords;
+
+    /**
+     * The failure of the last write, or {@code null} if no write has failed
+     */
+    @ToString.Exclude
+    private IOException failure;
+
+    /**
+     * The constructor.
+     *
+     * @param path          The path of the journal
+     * @param channel       The channel of the journal
+     * @param bufferRecords The number of records buffered between two writes
+     */
+    private PomodoroJournal(final Path path, final FileChannel channel, final int bufferRecords) {
+        this.path = path;
+        this.channel = channel;
+        this.pending = ByteBuffer.allocateDirect(bufferRecords * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Opens the journal at the path passed as an argument for appending. The file
+     * is created if it does not exist.
+     *
+     * @param path The path of the journal
+     * @return The new instance of {@link PomodoroJournal}
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     * @exception IOException          If the journal cannot be opened
+     */
+    public static PomodoroJournal open(@NonNull final Path path) throws IOException {
+        return open(path, DEFAULT_BUFFER_RECORDS);
+    }
+
+    /**
+     * Opens the journal at the path passed as an argument for appending. The file
+     * is created if it does not exist.
+     *
+     * @param path          The path of the journal
+     * @param bufferRecords The number of records buffered in memory between two
+     *                      writes
+     * @return The new instance of {@link PomodoroJournal}
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the number of records is less than 1
+     * @exception IOException              If the journal cannot be opened
+     */
+    public static PomodoroJournal open(@NonNull final Path path, final int bufferRecords) throws IOException {
+        if (bufferRecords < 1 || bufferRecords > Integer.MAX_VALUE / RECORD_SIZE) {
+            throw new IllegalArgumentException("The number of buffered records is out of range: " + bufferRecords);
+        }
+
+        final FileChannel channel = openForAppend(path);
+
+        try {
+            // Drops the records torn by a crash so that the appended records are replayed
+            channel.truncate(scan(channel, null));
+            channel.position(channel.size());
+            return new PomodoroJournal(path, channel, bufferRecords);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Attaches the journal to the session, so that its current state and every
+     * following transition are recorded. The session replaces the one attached
+     * with the same id.
+     *
+     * @param sessionId The id of the session
+     * @param pomodoro  The pomodoro
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the pomodoro is not created by
+     *                                     {@link PomodoroFactory}
+     * @exception UncheckedIOException     If the journal cannot be written
+     */
+    public void attach(final long sessionId, @NonNull final Pomodoro pomodoro) {
+        if (!(pomodoro instanceof PomodoroBaseImpl)) {
+            throw new IllegalArgumentException("Unsupported pomodoro implementation: " + pomodoro.getClass().getName());
+        }
+
+        final PomodoroBaseImpl pomodoroBase = (PomodoroBaseImpl) pomodoro;
+        final Session session = new Session(sessionId, pomodoroBase);
+        pomodoroBase.setSessionId(sessionId);
+
+        synchronized (this) {
+            final Session previous = this.sessions.put(sessionId, session);
+
+            if (previous != null) {
+                previous.pomodoro.removeTransitionHook(previous);
+            }
+
+            this.append(TYPE_STATE, sessionId, pomodoroBase, pomodoroBase.getPomodoroState(),
+                    pomodoroBase.getPomodoroState());
+        }
+
+        pomodoroBase.addTransitionHook(session);
+    }
+
+    /**
+     * Detaches the journal from the session and records that the session has
+     * ended, so that it is not rebuilt by {@link #replay(Path)} .
+     *
+     * @param sessionId The id of the session
+     * @return {@code true} if the session has been attached, otherwise
+     *         {@code false}
+     *
+     * @exception UncheckedIOException If the journal cannot be written
+     */
+    public boolean detach(final long sessionId) {
+        synchronized (this) {
+            final Session session = this.sessions.remove(sessionId);
+
+            if (session == null) {
+                return false;
+            }
+
+            session.pomodoro.removeTransitionHook(session);
+            this.append(TYPE_DETACH, sessionId, null, PomodoroState.FINISHED, PomodoroState.FINISHED);
+            return true;
+        }
+    }
+
+    /**
+     * Writes the buffered records and forces the journal to the storage once for
+     * all of them.
+     *
+     * @return The number of records made durable by this call
+     *
+     * @exception IOException If the journal cannot be written, or a previous write
+     *                        has failed and the journal has not been compacted
+     *                        since
+     */
+    public long commit() throws IOException {
+        synchronized (this.commitLock) {
+            final long records;
+            final FileChannel committedChannel;
+
+            synchronized (this) {
+                if (this.failure != null) {
+                    throw new IOException("The journal has failed to write a record and must be compacted.",
+                            this.failure);
+                }
+
+                this.writePending();
+                records = this.uncommittedRecords;
+                this.uncommittedRecords = 0;
+                committedChannel = this.channel;
+            }
+
+            if (records > 0) {
+                // Forces outside of the lock of the journal so that the transitions are not blocked
+                committedChannel.force(false);
+            }
+
+            return records;
+        }
+    }
+
+    /**
+     * Commits the journal periodically on the executor passed as an argument.
+     * Cancelling the returned future stops the commits. A failed commit does not
+     * stop the following ones, and is reported to the uncaught exception handler
+     * of the thread running it.
+     *
+     * @param executor The executor
+     * @param period   The period between commits
+     * @param unit     The unit of the period
+     * @return The future of the periodic task
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the period is less than or equal to
+     *                                     0
+     */
+    public ScheduledFuture<?> scheduleCommits(@NonNull final ScheduledExecutorService executor, final long period,
+            @NonNull final TimeUnit unit) {
+        return executor.scheduleAtFixedRate(() -> {
+            try {
+                this.commit();
+            } catch (IOException | RuntimeException e) {
+                final Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Rewrites the journal as the snapshot of the attached sessions and atomically
+     * replaces the previous journal with it. A failure of a previous write is
+     * cleared once the journal is compacted.
+     *
+     * @exception IOException If the journal cannot be rewritten
+     */
+    public void compact() throws IOException {
+        synchronized (this.commitLock) {
+            synchronized (this) {
+                this.compactLocked();
+            }
+        }
+    }
+
+    /**
+     * Rewrites the journal as the snapshot of the attached sessions. The caller
+     * must hold both the commit lock and the lock of this journal. The previous
+     * journal stays in use if it cannot be replaced, and a journal that cannot be
+     * reopened fails the following commits until a compaction succeeds.
+     *
+     * @exception IOException If the journal cannot be rewritten
+     */
+    private void compactLocked() throws IOException {
+        final Path compacted = this.path.resolveSibling(this.path.getFileName() + ".compact");
+
+        try (FileChannel compactedChannel = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // The buffered records are superseded by the current state of the sessions
+            this.pending.clear();
+
+            for (final Session session : this.sessions.values()) {
+                if (!this.pending.hasRemaining()) {
+                    this.pending.flip();
+                    writeFully(compactedChannel, this.pending);
+                    this.pending.clear();
+                }
+
+                final PomodoroState pomodoroState = session.pomodoro.getPomodoroState();
+                this.putRecord(TYPE_STATE, session.sessionId, session.pomodoro, pomodoroState, pomodoroState);
+            }
+
+            this.pending.flip();
+            writeFully(compactedChannel, this.pending);
+            this.pending.clear();
+            compactedChannel.force(true);
+        }
+
+        // The previous journal is kept open until it has been replaced
+        Files.move(compacted, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.channel.close();
+
+        try {
+            this.channel = openForAppend(this.path);
+        } catch (IOException e) {
+            this.failure = e;
+            throw e;
+        }
+
+        this.uncommittedRecords = 0;
+        this.failure = null;
+    }
+
+    /**
+     * Returns the number of attached sessions.
+     *
+     * @return The number of attached sessions
+     */
+    public int size() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Detaches the journal from all sessions, commits the buffered records and
+     * closes the journal.
+     *
+     * @exception IOException If the journal cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            for (final Session session : this.sessions.values()) {
+                session.pomodoro.removeTransitionHook(session);
+            }
+
+            this.sessions.clear();
+        }
+
+        synchronized (this.commitLock) {
+            try {
+                this.commit();
+            } finally {
+                this.channel.close();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the sessions recorded in the journal at the path passed as an
+     * argument with the system clock.
+     *
+     * @param path The path of the journal
+     * @return The sessions indexed by session id, in the order they were attached
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     * @exception IOException          If the journal cannot be read
+     */
+    public static Map<Long, Pomodoro> replay(@NonNull final Path path) throws IOException {
+        return replay(path, PomodoroClock.system());
+    }
+
+    /**
+     * Rebuilds the sessions recorded in the journal at the path passed as an
+     * argument. Each session is rebuilt from its latest record with its timer
+     * rebased on the clock passed as an argument, and the replay stops at the
+     * first record whose checksum does not match.
+     *
+     * @param path  The path of the journal
+     * @param clock The clock of the rebuilt sessions
+     * @return The sessions indexed by session id, in the order they were attached
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     * @exception IOException          If the journal cannot be read
+     */
+    public static Map<Long, Pomodoro> replay(@NonNull final Path path, @NonNull final PomodoroClock clock)
+            throws IOException {
+        final Map<Long, byte[]> latestRecords = new LinkedHashMap<>();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            scan(channel, latestRecords);
+        }
+
+        final long nowMillis = clock.currentTimeMillis();
+        final Map<Long, Pomodoro> sessions = new LinkedHashMap<>(latestRecords.size() * 4 / 3 + 1);
+
+        for (final Map.Entry<Long, byte[]> latestRecord : latestRecords.entrySet()) {
+            sessions.put(latestRecord.getKey(), rebuild(ByteBuffer.wrap(latestRecord.getValue())
+                    .order(ByteOrder.LITTLE_ENDIAN), clock, nowMillis));
+        }
+
+        return sessions;
+    }
+
+    /**
+     * Appends the record of the session to the buffer, writing the buffer first
+     * if it is full. The caller must hold the lock of this journal.
+     *
+     * @param type      The type of the record
+     * @param sessionId The id of the session
+     * @param pomodoro  The pomodoro, or {@code null} if the session is detached
+     * @param from      The pomodoro state before the change
+     * @param to        The pomodoro state after the change
+     *
+     * @exception UncheckedIOException If the journal cannot be written, or a
+     *                                  previous write has failed
+     */
+    private void append(final byte type, final long sessionId, final PomodoroBaseImpl pomodoro,
+            final PomodoroState from, final PomodoroState to) {
+        if (this.failure != null) {
+            throw new UncheckedIOException("The journal has failed to write a record and must be compacted.",
+                    this.failure);
+        }
+
+        if (!this.pending.hasRemaining()) {
+            try {
+                this.writePending();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        this.putRecord(type, sessionId, pomodoro, from, to);
+    }
+
+    /**
+     * Puts the record of the session at the position of the buffer.
+     *
+     * @param type      The type of the record
+     * @param sessionId The id of the session
+     * @param pomodoro  The pomodoro, or {@code null} if the session is detached
+     * @param from      The pomodoro state before the change
+     * @param to        The pomodoro state after the change
+     */
+    private void putRecord(final byte type, final long sessionId, final PomodoroBaseImpl pomodoro,
+            final PomodoroState from, final PomodoroState to) {
+        final ByteBuffer buffer = this.pending;
+        final int offset = buffer.position();
+
+        buffer.put(offset + TYPE, type);
+        buffer.put(offset + FROM, (byte) from.ordinal());
+        buffer.put(offset + TO, (byte) to.ordinal());
+        buffer.put(offset + TO + 1, (byte) 0);
+        buffer.putLong(offset + SESSION_ID, sessionId);
+
+        if (pomodoro != null) {
+            final PomodoroTimer timer = pomodoro.getPomodoroTimer();
+            final Configuration configuration = pomodoro.getConfiguration();
+
+            buffer.putInt(offset + BREAK_COUNT, pomodoro.getBreakCounter().getCount());
+            buffer.putLong(offset + PHASE_START_MILLIS, pomodoro.getPhaseStartMilliseconds());
+            buffer.putLong(offset + START_MILLIS, timer.isStarted() ? timer.getStartTime() : 0L);
+            buffer.putLong(offset + ELAPSED_NANOS, timer.getNanoTime());
+            buffer.putInt(offset + CONCENTRATION_MINUTES, configuration.getConcentrationMinutes());
+            buffer.putInt(offset + BREAK_MINUTES, configuration.getBreakMinutes());
+            buffer.putInt(offset + LONGER_BREAK_MINUTES, configuration.getLongerBreakMinutes());
+            buffer.putInt(offset + COUNT_UNTIL_LONGER_BREAK, configuration.getCountUntilLongerBreak());
+        } else {
+            for (int i = BREAK_COUNT; i < SESSION_ID; i++) {
+                buffer.put(offset + i, (byte) 0);
+            }
+
+            for (int i = PHASE_START_MILLIS; i < CHECKSUM; i++) {
+                buffer.put(offset + i, (byte) 0);
+            }
+        }
+
+        buffer.putInt(offset + CHECKSUM, checksum(buffer, offset, this.crc));
+        buffer.position(offset + RECORD_SIZE);
+    }
+
+    /**
+     * Writes the buffered records to the channel without forcing it. The records
+     * are dropped and the failure is kept if they cannot be written. The caller
+     * must hold the lock of this journal.
+     *
+     * @exception IOException If the journal cannot be written
+     */
+    private void writePending() throws IOException {
+        if (this.pending.position() == 0) {
+            return;
+        }
+
+        this.pending.flip();
+
+        try {
+            final int records = this.pending.remaining() / RECORD_SIZE;
+            writeFully(this.channel, this.pending);
+            this.uncommittedRecords += records;
+        } catch (IOException e) {
+            this.failure = e;
+            throw e;
+        } finally {
+            this.pending.clear();
+        }
+    }
+
+    /**
+     * Reads the records from the start of the channel until the first record that
+     * is incomplete or corrupted.
+     *
+     * @param channel       The channel
+     * @param latestRecords The map receiving the latest record of each session
+     *                      still attached, or {@code null} if not needed
+     * @return The length of the valid records in bytes
+     *
+     * @exception IOException If the channel cannot be read
+     */
+    private static long scan(final FileChannel channel, final Map<Long, byte[]> latestRecords)
+            throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(DEFAULT_BUFFER_RECORDS * RECORD_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        final CRC32 crc = new CRC32();
+        final long length = channel.size() / RECORD_SIZE * RECORD_SIZE;
+        long position = 0L;
+
+        while (position < length) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), length - position));
+
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    return position;
+                }
+            }
+
+            buffer.flip();
+
+            for (int offset = 0; offset < buffer.limit(); offset += RECORD_SIZE) {
+                if (!isValid(buffer, offset, crc)) {
+                    return position + offset;
+                }
+
+                if (latestRecords != null) {
+                    final long sessionId = buffer.getLong(offset + SESSION_ID);
+
+                    if (buffer.get(offset + TYPE) == TYPE_DETACH) {
+                        latestRecords.remove(sessionId);
+                    } else {
+                        buffer.position(offset);
+                        buffer.get(latestRecords.computeIfAbsent(sessionId, id -> new byte[RECORD_SIZE]));
+                    }
+                }
+            }
+
+            position += buffer.limit();
+        }
+
+        return position;
+    }
+
+    /**
+     * Opens the channel of the journal for appending.
+     *
+     * @param path The path of the journal
+     * @return The channel
+     *
+     * @exception IOException If the journal cannot be opened
+     */
+    private static FileChannel openForAppend(final Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    /**
+     * Writes the remaining bytes of the buffer to the channel.
+     *
+     * @param channel The channel
+     * @param buffer  The buffer
+     *
+     * @exception IOException If the channel cannot be written
+     */
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Computes the checksum of the record at the offset, excluding the checksum
+     * itself.
+     *
+     * @param buffer The buffer
+     * @param offset The offset of the record
+     * @param crc    The checksum reused between records
+     * @return The checksum
+     */
+    private static int checksum(final ByteBuffer buffer, final int offset, final CRC32 crc) {
+        final ByteBuffer record = buffer.duplicate();
+        record.limit(offset + CHECKSUM).position(offset);
+
+        crc.reset();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Checks if the record at the offset is complete and not corrupted.
+     *
+     * @param buffer The buffer
+     * @param offset The offset of the record
+     * @param crc    The checksum reused between records
+     * @return {@code true} if the record is valid, otherwise {@code false}
+     */
+    private static boolean isValid(final ByteBuffer buffer, final int offset, final CRC32 crc) {
+        final byte type = buffer.get(offset + TYPE);
+
+        return type >= TYPE_STATE && type <= TYPE_DETACH && buffer.get(offset + TO) >= 0
+                && buffer.get(offset + TO) < STATES.length
+                && buffer.getInt(offset + CHECKSUM) == checksum(buffer, offset, crc);
+    }
+
+    /**
+     * Rebuilds the session from its latest record.
+     *
+     * @param record    The record
+     * @param clock     The clock of the rebuilt session
+     * @param nowMillis The current time in milliseconds
+     * @return The rebuilt session
+     */
+    private static Pomodoro rebuild(final ByteBuffer record, final PomodoroClock clock, final long nowMillis) {
+        final Configuration configuration = ConfigurationBuilder.newBuilder()
+                .setConcentrationMinutes(record.getInt(CONCENTRATION_MINUTES))
+                .setBreakMinutes(record.getInt(BREAK_MINUTES)).setLongerBreakMinutes(record.getInt(LONGER_BREAK_MINUTES))
+                .setCountUntilLongerBreak(record.getInt(COUNT_UNTIL_LONGER_BREAK)).build();
+
+        return PomodoroSnapshotter.rehydrate(configuration, STATES[record.get(TO)], record.getInt(BREAK_COUNT),
+                record.getLong(START_MILLIS), record.getLong(PHASE_START_MILLIS), record.getLong(ELAPSED_NANOS),
+                clock, nowMillis);
+    }
+
+    /**
+     * The attached session, recording each transition of its pomodoro.
+     */
+    private final class Session implements TransitionHook {
+
+        /**
+         * The id of the session
+         */
+        private final long sessionId;
+
+        /**
+         * The pomodoro
+         */
+        private final PomodoroBaseImpl pomodoro;
+
+        /**
+         * The constructor.
+         *
+         * @param sessionId The id of the session
+         * @param pomodoro  The pomodoro
+         */
+        private Session(final long sessionId, final PomodoroBaseImpl pomodoro) {
+            this.sessionId = sessionId;
+            this.pomodoro = pomodoro;
+        }
+
+        @Override
+        public void onTransition(final Pomodoro pomodoro, final PomodoroState from, final PomodoroState to,
+                final long nanoTime) {
+            synchronized (PomodoroJournal.this) {
+                try {
+                    append(TYPE_TRANSITION, this.sessionId, this.pomodoro, from, to);
+                } catch (UncheckedIOException e) {
+                    // The failure is kept and thrown by the next commit rather than failing the transition
+                }
+            }
+        }
+    }
+}
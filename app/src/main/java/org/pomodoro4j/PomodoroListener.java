@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+/**
+ * The callback notified whenever the phase of a Pomodoro changes.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@FunctionalInterface
+public interface PomodoroListener {
+
+    /**
+     * Called after the phase of the pomodoro has changed.
+     *
+     * @param pomodoro The pomodoro whose phase has changed
+     * @param from     The pomodoro state before the change
+     * @param to       The pomodoro state after the change
+     */
+    public void onPhaseChanged(Pomodoro pomodoro, PomodoroState from, PomodoroState to);
+}
@@ -0,0 +1,683 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The group of shared-nothing event loops driving the sessions keyed by their
+ * ids.
+ *
+ * <p>
+ * Each session is pinned to one of the loops by the hash of its id. A loop is a
+ * single thread owning its own {@link PomodoroTimingWheel} , the map of its
+ * sessions, and the pomodoros of the sessions, which it creates itself with the
+ * factory. Other threads never touch a pomodoro: they post commands to the
+ * queue of the loop owning the session, and receive the results through
+ * {@link CompletableFuture} . No lock or state is shared between the loops, so
+ * the throughput grows with the number of loops.
+ *
+ * <p>
+ * The loops read the time from the clock of the factory, and schedule each
+ * session at the deadline its pomodoro reports for the current phase, rounded up
+ * to the tick as in {@link PomodoroWheelEngine} . A loop parks while it has
+ * neither a scheduled session nor a command.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class PomodoroLoopGroup implements AutoCloseable {
+
+    /**
+     * The default duration of a tick in milliseconds
+     */
+    private static final long DEFAULT_TICK_MILLISECONDS = 10;
+
+    /**
+     * The thread sequence
+     */
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
+    /**
+     * The factory creating the pomodoros
+     */
+    private final PomodoroFactory factory;
+
+    /**
+     * The loops
+     */
+    private final Loop[] loops;
+
+    /**
+     * The flag whether this group is running
+     */
+    @ToString.Include
+    private volatile boolean running = true;
+
+    /**
+     * The constructor.
+     *
+     * @param loopCount The number of loops
+     * @param factory   The factory creating the pomodoros
+     * @param tickNanos The duration of a tick in nanoseconds
+     */
+    private PomodoroLoopGroup(final int loopCount, final PomodoroFactory factory, final long tickNanos) {
+        this.factory = factory;
+        this.loops = new Loop[loopCount];
+
+        for (int i = 0; i < loopCount; i++) {
+            this.loops[i] = new Loop(tickNanos);
+        }
+
+        for (final Loop loop : this.loops) {
+            loop.thread.start();
+        }
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroLoopGroup} with as many loops as
+     * the available processors, creating the pomodoros with the default
+     * configuration and ticking every 10 milliseconds.
+     *
+     * @return The new instance of {@link PomodoroLoopGroup}
+     */
+    public static PomodoroLoopGroup newInstance() {
+        return newInstance(Runtime.getRuntime().availableProcessors(), PomodoroFactory.newInstance());
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroLoopGroup} ticking every 10
+     * milliseconds.
+     *
+     * @param loopCount The number of loops
+     * @param factory   The factory creating the pomodoros
+     * @return The new instance of {@link PomodoroLoopGroup}
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the number of loops is not positive
+     */
+    public static PomodoroLoopGroup newInstance(final int loopCount, @NonNull final PomodoroFactory factory) {
+        return newInstance(loopCount, factory, DEFAULT_TICK_MILLISECONDS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroLoopGroup} ticking at the
+     * duration passed as an argument.
+     *
+     * @param loopCount    The number of loops
+     * @param factory      The factory creating the pomodoros
+     * @param tickDuration The duration of a tick
+     * @param unit         The unit of the duration
+     * @return The new instance of {@link PomodoroLoopGroup}
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the number of loops or the duration
+     *                                     is not positive
+     */
+    public static PomodoroLoopGroup newInstance(final int loopCount, @NonNull final PomodoroFactory factory,
+            final long tickDuration, @NonNull final TimeUnit unit) {
+        if (loopCount <= 0) {
+            throw new IllegalArgumentException("The number of loops must be positive.");
+        }
+
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("The duration of a tick must be positive.");
+        }
+
+        return new PomodoroLoopGroup(loopCount, factory, unit.toNanos(tickDuration));
+    }
+
+    /**
+     * Starts the Pomodoro cycle of a new session with the id on the loop owning
+     * the id. The listener is notified on each phase change on the thread of the
+     * loop, so it must not block. The returned future is completed with
+     * {@link PomodoroState#FINISHED} when the cycle is finished, and the session
+     * is removed then. The future is cancelled if the session is stopped or the
+     * group is closed.
+     *
+     * @param sessionId The id of the session
+     * @param listener  The listener notified on each phase change
+     * @return The future completed when the Pomodoro cycle is finished, or
+     *         completed exceptionally with {@link IllegalStateException} if a
+     *         session with the id is already running
+     *
+     * @exception NullPointerException  If {@code null} is passed as an argument
+     * @exception IllegalStateException If this group is already closed
+     */
+    public CompletableFuture<PomodoroState> start(final long sessionId, @NonNull final PomodoroListener listener) {
+        return this.post(sessionId, (loop, completion) -> loop.begin(sessionId, listener, completion));
+    }
+
+    /**
+     * Stops and removes the session with the id. The future returned by
+     * {@link #start(long, PomodoroListener)} for the session is cancelled.
+     *
+     * @param sessionId The id of the session
+     * @return The future completed with {@code true} if the session has been
+     *         running, otherwise {@code false}
+     *
+     * @exception IllegalStateException If this group is already closed
+     */
+    public CompletableFuture<Boolean> stop(final long sessionId) {
+        return this.post(sessionId, (loop, result) -> result.complete(loop.end(sessionId)));
+    }
+
+    /**
+     * Returns the state of the session with the id.
+     *
+     * @param sessionId The id of the session
+     * @return The future completed with the state of the session, or with
+     *         {@code null} if no session with the id is running
+     *
+     * @exception IllegalStateException If this group is already closed
+     */
+    public CompletableFuture<PomodoroState> getState(final long sessionId) {
+        return this.post(sessionId, (loop, result) -> {
+            final LoopSession session = loop.sessions.get(sessionId);
+            result.complete(session == null ? null : session.pomodoroBase.getPomodoroState());
+        });
+    }
+
+    /**
+     * Applies the function to the pomodoro of the session with the id on the
+     * thread of the loop owning the session. The function must neither block nor
+     * keep the pomodoro, which belongs to the loop. A phase change made by the
+     * function is notified to the listener of the session, and the session is
+     * rescheduled at the deadline of the new phase, or removed if the pomodoro has
+     * been stopped, reset or finished.
+     *
+     * @param <T>       The type of the result
+     * @param sessionId The id of the session
+     * @param function  The function
+     * @return The future completed with the result of the function, or completed
+     *         exceptionally with {@link IllegalStateException} if no session with
+     *         the id is running
+     *
+     * @exception NullPointerException  If {@code null} is passed as an argument
+     * @exception IllegalStateException If this group is already closed
+     */
+    public <T> CompletableFuture<T> submit(final long sessionId,
+            @NonNull final Function<? super Pomodoro, ? extends T> function) {
+        return this.post(sessionId, (loop, result) -> {
+            final LoopSession session = loop.sessions.get(sessionId);
+
+            if (session == null) {
+                throw new IllegalStateException("No session is running with the id: " + sessionId);
+            }
+
+            final PomodoroState from = session.pomodoroBase.getPomodoroState();
+
+            try {
+                result.complete(function.apply(session.pomodoro));
+            } finally {
+                session.follow(from);
+            }
+        });
+    }
+
+    /**
+     * Returns the number of the loops.
+     *
+     * @return The number of the loops
+     */
+    public int getLoopCount() {
+        return this.loops.length;
+    }
+
+    /**
+     * Returns the number of the running sessions. The value is only an estimate
+     * while the loops are running.
+     *
+     * @return The number of the running sessions
+     */
+    public int size() {
+        int size = 0;
+
+        for (final Loop loop : this.loops) {
+            size += loop.size;
+        }
+
+        return size;
+    }
+
+    /**
+     * Closes this group. The loops stop after their current iteration, and the
+     * futures of the sessions still running and of the commands not yet run are
+     * cancelled.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+
+        for (final Loop loop : this.loops) {
+            LockSupport.unpark(loop.thread);
+        }
+    }
+
+    /**
+     * Returns the index of the loop owning the session id.
+     *
+     * @param sessionId The id of the session
+     * @return The index of the loop
+     */
+    int loopIndexOf(final long sessionId) {
+        final long hash = sessionId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (hash >>> 32), this.loops.length);
+    }
+
+    /**
+     * Posts the command to the loop owning the session id.
+     *
+     * @param <T>       The type of the result
+     * @param sessionId The id of the session
+     * @param action    The action run on the loop, completing the future
+     * @return The future of the command
+     *
+     * @exception IllegalStateException If this group is already closed
+     */
+    private <T> CompletableFuture<T> post(final long sessionId,
+            final BiConsumer<Loop, CompletableFuture<T>> action) {
+        if (!this.running) {
+            throw new IllegalStateException("The loop group is already closed.");
+        }
+
+        final Command<T> command = new Command<>(action);
+        this.loops[this.loopIndexOf(sessionId)].offer(command);
+        return command.future;
+    }
+
+    /**
+     * The command posted to a loop.
+     *
+     * @param <T> The type of the result
+     */
+    private static final class Command<T> {
+
+        /**
+         * The action run on the loop, completing the future
+         */
+        private final BiConsumer<Loop, CompletableFuture<T>> action;
+
+        /**
+         * The future of the command
+         */
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        /**
+         * The constructor.
+         *
+         * @param action The action run on the loop
+         */
+        private Command(final BiConsumer<Loop, CompletableFuture<T>> action) {
+            this.action = action;
+        }
+
+        /**
+         * Runs the action on the loop.
+         *
+         * @param loop The loop
+         */
+        private void run(final Loop loop) {
+            if (this.future.isDone()) {
+                return;
+            }
+
+            try {
+                this.action.accept(loop, this.future);
+            } catch (RuntimeException e) {
+                this.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * The single-threaded loop owning a share of the sessions. Everything but the
+     * command queue and the size is only touched by the thread of the loop.
+     */
+    private final class Loop {
+
+        /**
+         * The commands posted from other threads
+         */
+        private final Queue<Command<?>> commands = new ConcurrentLinkedQueue<>();
+
+        /**
+         * The timing wheel
+         */
+        private final PomodoroTimingWheel<LoopSession> timingWheel;
+
+        /**
+         * The sessions keyed by their ids
+         */
+        private final Map<Long, LoopSession> sessions = new HashMap<>();
+
+        /**
+         * The sessions expired in the current tick
+         */
+        private final List<LoopSession> expiredSessions = new ArrayList<>();
+
+        /**
+         * The thread of the loop
+         */
+        private final Thread thread;
+
+        /**
+         * The clock of the pomodoros created by the factory
+         */
+        private final PomodoroClock clock;
+
+        /**
+         * The number of the sessions, published for {@link PomodoroLoopGroup#size()}
+         */
+        private volatile int size;
+
+        /**
+         * The constructor.
+         *
+         * @param tickNanos The duration of a tick in nanoseconds
+         */
+        private Loop(final long tickNanos) {
+            this.clock = factory.getClock();
+            this.timingWheel = new PomodoroTimingWheel<>(tickNanos, PomodoroTimingWheel.DEFAULT_LEVELS,
+                    this.clock.nanoTime());
+            this.thread = new Thread(this::run, "pomodoro4j-loop-" + THREAD_SEQUENCE.incrementAndGet());
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * Posts the command to this loop.
+         *
+         * @param command The command
+         */
+        private void offer(final Command<?> command) {
+            this.commands.offer(command);
+            LockSupport.unpark(this.thread);
+
+            if (!running && this.commands.remove(command)) {
+                // Closed while posting, the loop may already have drained the queue
+                command.future.cancel(false);
+            }
+        }
+
+        /**
+         * Runs the loop.
+         */
+        private void run() {
+            while (running) {
+                this.runCommands();
+
+                final long nowNanos = this.clock.nanoTime();
+                this.timingWheel.advance(nowNanos, this.expiredSessions::add);
+                this.fireExpiredSessions(nowNanos);
+                this.size = this.sessions.size();
+
+                if (this.timingWheel.size() == 0 && this.commands.isEmpty()) {
+                    LockSupport.park(this);
+                } else if (this.commands.isEmpty()) {
+                    LockSupport.parkNanos(this, this.timingWheel.getNextTickNanos() - this.clock.nanoTime());
+                }
+            }
+
+            Command<?> command;
+
+            while ((command = this.commands.poll()) != null) {
+                command.future.cancel(false);
+            }
+
+            this.timingWheel.clear(expired -> expired.completion.cancel(false));
+            this.sessions.values().forEach(session -> session.completion.cancel(false));
+            this.sessions.clear();
+            this.size = 0;
+        }
+
+        /**
+         * Runs the commands posted from other threads.
+         */
+        private void runCommands() {
+            Command<?> command;
+
+            while ((command = this.commands.poll()) != null) {
+                command.run(this);
+            }
+        }
+
+        /**
+         * Transitions all sessions expired in the current tick in one batch.
+         *
+         * @param nowNanos The time of the tick in nanoseconds of the clock
+         */
+        private void fireExpiredSessions(final long nowNanos) {
+            final List<LoopSession> expired = this.expiredSessions;
+
+            for (int i = 0, size = expired.size(); i < size; i++) {
+                expired.get(i).fire(nowNanos);
+            }
+
+            expired.clear();
+        }
+
+        /**
+         * Creates and starts the session with the id.
+         *
+         * @param sessionId  The id of the session
+         * @param listener   The listener notified on each phase change
+         * @param completion The future completed when the Pomodoro cycle is
+         *                   finished
+         *
+         * @exception IllegalStateException If a session with the id is already
+         *                                  running
+         */
+        private void begin(final long sessionId, final PomodoroListener listener,
+                final CompletableFuture<PomodoroState> completion) {
+            if (this.sessions.containsKey(sessionId)) {
+                throw new IllegalStateException("The session is already running with the id: " + sessionId);
+            }
+
+            final LoopSession session = new LoopSession(this, sessionId, factory.getInstance(), listener,
+                    completion);
+            this.sessions.put(sessionId, session);
+            session.begin();
+        }
+
+        /**
+         * Stops and removes the session with the id.
+         *
+         * @param sessionId The id of the session
+         * @return {@code true} if the session has been running, otherwise
+         *         {@code false}
+         */
+        private boolean end(final long sessionId) {
+            final LoopSession session = this.sessions.remove(sessionId);
+
+            if (session == null) {
+                return false;
+            }
+
+            this.timingWheel.remove(session);
+
+            try {
+                // A submitted function may have stopped, reset or finished the pomodoro already
+                if (session.pomodoroBase.getNextDeadlineNanos() != Pomodoro.NO_DEADLINE) {
+                    session.pomodoro.stop();
+                }
+            } finally {
+                session.completion.cancel(false);
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * The wheel entry driving a single session. The entry is only touched by the
+     * thread of its loop.
+     */
+    private static final class LoopSession extends PomodoroTimingWheel.Entry {
+
+        /**
+         * The loop owning the session
+         */
+        private final Loop loop;
+
+        /**
+         * The id of the session
+         */
+        private final long sessionId;
+
+        /**
+         * The pomodoro
+         */
+        private final Pomodoro pomodoro;
+
+        /**
+         * The base implementation of the pomodoro
+         */
+        private final PomodoroBaseImpl pomodoroBase;
+
+        /**
+         * The listener
+         */
+        private final PomodoroListener listener;
+
+        /**
+         * The completion
+         */
+        private final CompletableFuture<PomodoroState> completion;
+
+        /**
+         * The constructor.
+         *
+         * @param loop       The loop owning the session
+         * @param sessionId  The id of the session
+         * @param pomodoro   The pomodoro
+         * @param listener   The listener
+         * @param completion The completion
+         */
+        private LoopSession(final Loop loop, final long sessionId, final Pomodoro pomodoro,
+                final PomodoroListener listener, final CompletableFuture<PomodoroState> completion) {
+            this.loop = loop;
+            this.sessionId = sessionId;
+            this.pomodoro = pomodoro;
+            this.pomodoroBase = (PomodoroBaseImpl) pomodoro;
+            this.pomodoroBase.setSessionId(sessionId);
+            this.listener = listener;
+            this.completion = completion;
+        }
+
+        /**
+         * Starts the pomodoro and schedules the first deadline.
+         */
+        private void begin() {
+            try {
+                this.pomodoro.performs();
+                this.listener.onPhaseChanged(this.pomodoro, PomodoroState.INITIALIZED, PomodoroState.CONCENTRATING);
+                this.schedule();
+            } catch (RuntimeException e) {
+                this.finish();
+                this.completion.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Transitions the pomodoro if the deadline of its phase has been reached at
+         * the time of the tick.
+         *
+         * @param nowNanos The time of the tick in nanoseconds of the clock
+         */
+        private void fire(final long nowNanos) {
+            try {
+                final PomodoroState from = this.pomodoroBase.getPomodoroState();
+
+                if (this.pomodoroBase.applyDueTransition(nowNanos)) {
+                    this.listener.onPhaseChanged(this.pomodoro, from, this.pomodoroBase.getPomodoroState());
+                }
+
+                this.schedule();
+            } catch (RuntimeException e) {
+                this.finish();
+                this.completion.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Follows the phase change made by a submitted function.
+         *
+         * @param from The pomodoro state before the function was applied
+         */
+        private void follow(final PomodoroState from) {
+            try {
+                final PomodoroState to = this.pomodoroBase.getPomodoroState();
+
+                if (from != to) {
+                    this.listener.onPhaseChanged(this.pomodoro, from, to);
+                }
+
+                this.schedule();
+            } catch (RuntimeException e) {
+                this.finish();
+                this.completion.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Schedules the session at the deadline of the current phase, or completes
+         * the session when the cycle is finished.
+         */
+        private void schedule() {
+            final PomodoroState pomodoroState = this.pomodoroBase.getPomodoroState();
+
+            if (pomodoroState == PomodoroState.FINISHED) {
+                this.finish();
+                this.completion.complete(pomodoroState);
+                return;
+            }
+
+            final long deadlineNanos = this.pomodoroBase.getNextDeadlineNanos();
+
+            if (deadlineNanos == Pomodoro.NO_DEADLINE) {
+                // The pomodoro was stopped or reset by a submitted function
+                this.finish();
+                this.completion.cancel(false);
+                return;
+            }
+
+            this.loop.timingWheel.insert(this, deadlineNanos);
+        }
+
+        /**
+         * Removes the session from its loop and refreshes the size of the loop, so
+         * the size no longer counts the session once its completion is done.
+         */
+        private void finish() {
+            this.loop.timingWheel.remove(this);
+            this.loop.sessions.remove(this.sessionId, this);
+            this.loop.size = this.loop.sessions.size();
+        }
+    }
+}
@@ -0,0 +1,431 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.lang.management.ManagementFactory;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.pomodoro4j.conf.Configuration;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The monitor of the sessions of a JVM, exposed to the operators as a platform
+ * MXBean through {@link #register(String)} .
+ *
+ * <p>
+ * The monitored sessions are counted by state and by configuration when they
+ * are attached and on each phase change, and the phase changes are recorded in
+ * {@link PomodoroStatistics} , so that JMX polling never walks the sessions.
+ * The sessions must be detached when they are discarded, which
+ * {@link PomodoroRegistry} does for the sessions it evicts when it is given a
+ * monitor.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString
+public final class PomodoroMonitor implements PomodoroMonitorMXBean {
+
+    /**
+     * The domain of the object names
+     */
+    private static final String DOMAIN = "org.pomodoro4j";
+
+    /**
+     * The pomodoro states indexed by ordinal
+     */
+    private static final PomodoroState[] STATES = PomodoroState.values();
+
+    /**
+     * The interval between the samples of the transition rate in nanoseconds
+     */
+    private static final long SAMPLE_INTERVAL_NANOSECONDS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The clock sampling the transition rate
+     */
+    @ToString.Exclude
+    private final PomodoroClock clock;
+
+    /**
+     * The statistics of the monitored sessions
+     */
+    @ToString.Exclude
+    private final PomodoroStatistics statistics = PomodoroStatistics.newInstance();
+
+    /**
+     * The numbers of the sessions in each state indexed by ordinal
+     */
+    @ToString.Exclude
+    private final LongAdder[] sessionCounts = new LongAdder[STATES.length];
+
+    /**
+     * The numbers of the sessions by configuration
+     */
+    @ToString.Exclude
+    private final Map<Configuration, LongAdder> profileCounts = new ConcurrentHashMap<>();
+
+    /**
+     * The number of the phase changes
+     */
+    @ToString.Exclude
+    private final LongAdder transitionCount = new LongAdder();
+
+    /**
+     * The attached sessions keyed by identity
+     */
+    @ToString.Exclude
+    private final Map<PomodoroBaseImpl, Session> sessions = new IdentityHashMap<>();
+
+    /**
+     * The time of the last sample of the transition rate in nanoseconds of the
+     * clock
+     */
+    @ToString.Exclude
+    private long sampleNanos;
+
+    /**
+     * The number of the phase changes at the last sample
+     */
+    @ToString.Exclude
+    private long sampleTransitionCount;
+
+    /**
+     * The transition rate at the last sample
+     */
+    @ToString.Exclude
+    private double transitionsPerSecond;
+
+    /**
+     * The object name the monitor is registered with
+     */
+    private ObjectName objectName;
+
+    /**
+     * The constructor.
+     *
+     * @param clock The clock sampling the transition rate
+     */
+    private PomodoroMonitor(final PomodoroClock clock) {
+        this.clock = clock;
+        this.sampleNanos = clock.nanoTime();
+
+        for (int i = 0; i < this.sessionCounts.length; i++) {
+            this.sessionCounts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroMonitor} .
+     *
+     * @return The new instance of {@link PomodoroMonitor}
+     */
+    public static PomodoroMonitor newInstance() {
+        return new PomodoroMonitor(PomodoroClock.system());
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroMonitor} sampling the transition
+     * rate with the clock.
+     *
+     * @param clock The clock sampling the transition rate
+     * @return The new instance of {@link PomodoroMonitor}
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public static PomodoroMonitor newInstance(@NonNull final PomodoroClock clock) {
+        return new PomodoroMonitor(clock);
+    }
+
+    /**
+     * Attaches the monitor to the pomodoro passed as an argument. Attaching the
+     * same pomodoro twice has no effect.
+     *
+     * @param pomodoro The pomodoro
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the pomodoro is not created by
+     *                                     {@link PomodoroFactory}
+     */
+    public void attach(@NonNull final Pomodoro pomodoro) {
+        if (!(pomodoro instanceof PomodoroBaseImpl)) {
+            throw new IllegalArgumentException("Unsupported pomodoro implementation: " + pomodoro.getClass().getName());
+        }
+
+        final PomodoroBaseImpl pomodoroBase = (PomodoroBaseImpl) pomodoro;
+        final Session session;
+
+        synchronized (this.sessions) {
+            if (this.sessions.containsKey(pomodoroBase)) {
+                return;
+            }
+
+            session = new Session(pomodoroBase.getConfiguration());
+            this.sessions.put(pomodoroBase, session);
+        }
+
+        this.profileCounts.computeIfAbsent(session.configuration, configuration -> new LongAdder()).increment();
+        pomodoroBase.addTransitionHook(session);
+        session.start(pomodoroBase);
+        this.statistics.attach(pomodoro);
+    }
+
+    /**
+     * Detaches the monitor from the pomodoro passed as an argument, so that it is
+     * no longer counted.
+     *
+     * @param pomodoro The pomodoro
+     * @return {@code true} if the monitor has been attached to the pomodoro,
+     *         otherwise {@code false}
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public boolean detach(@NonNull final Pomodoro pomodoro) {
+        if (!(pomodoro instanceof PomodoroBaseImpl)) {
+            return false;
+        }
+
+        final PomodoroBaseImpl pomodoroBase = (PomodoroBaseImpl) pomodoro;
+        final Session session;
+
+        synchronized (this.sessions) {
+            session = this.sessions.remove(pomodoroBase);
+        }
+
+        if (session == null) {
+            return false;
+        }
+
+        this.statistics.detach(pomodoro);
+        pomodoroBase.removeTransitionHook(session);
+        session.stop();
+        this.profileCounts.get(session.configuration).decrement();
+        return true;
+    }
+
+    /**
+     * Returns the statistics of the monitored sessions.
+     *
+     * @return The statistics of the monitored sessions
+     */
+    public PomodoroStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * Registers the monitor to the platform MBean server with the object name
+     * {@code org.pomodoro4j:type=PomodoroMonitor,name=<name>} .
+     *
+     * @param name The name of the monitor
+     * @return The object name the monitor has been registered with
+     *
+     * @exception NullPointerException  If {@code null} is passed as an argument
+     * @exception IllegalStateException If the monitor has already been registered,
+     *                                  or cannot be registered with the name
+     */
+    public synchronized ObjectName register(@NonNull final String name) {
+        if (this.objectName != null) {
+            throw new IllegalStateException("The monitor has already been registered as " + this.objectName);
+        }
+
+        try {
+            final ObjectName newObjectName = new ObjectName(DOMAIN + ":type=PomodoroMonitor,name="
+                    + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, newObjectName);
+            this.objectName = newObjectName;
+            return newObjectName;
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Unregisters the monitor from the platform MBean server.
+     *
+     * @return {@code true} if the monitor has been registered, otherwise
+     *         {@code false}
+     */
+    public synchronized boolean unregister() {
+        if (this.objectName == null) {
+            return false;
+        }
+
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            if (server.isRegistered(this.objectName)) {
+                server.unregisterMBean(this.objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            this.objectName = null;
+        }
+
+        return true;
+    }
+
+    @Override
+    public long getSessionCount() {
+        long count = 0L;
+
+        for (final LongAdder sessionCount : this.sessionCounts) {
+            count += sessionCount.sum();
+        }
+
+        return count;
+    }
+
+    @Override
+    public Map<String, Long> getSessionCountsByState() {
+        final Map<String, Long> counts = new TreeMap<>();
+
+        for (final PomodoroState state : STATES) {
+            counts.put(state.name(), this.sessionCounts[state.ordinal()].sum());
+        }
+
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getConfigurationProfiles() {
+        final Map<String, Long> profiles = new TreeMap<>();
+
+        this.profileCounts.forEach((configuration, count) -> {
+            final long sum = count.sum();
+
+            if (sum > 0) {
+                profiles.put(configuration.toString(), sum);
+            }
+        });
+
+        return profiles;
+    }
+
+    @Override
+    public long getTransitionCount() {
+        return this.transitionCount.sum();
+    }
+
+    @Override
+    public synchronized double getTransitionsPerSecond() {
+        final long now = this.clock.nanoTime();
+        final long elapsed = now - this.sampleNanos;
+
+        if (elapsed >= SAMPLE_INTERVAL_NANOSECONDS) {
+            final long count = this.transitionCount.sum();
+            this.transitionsPerSecond = (count - this.sampleTransitionCount) * (double) TimeUnit.SECONDS.toNanos(1)
+                    / elapsed;
+            this.sampleTransitionCount = count;
+            this.sampleNanos = now;
+        }
+
+        return this.transitionsPerSecond;
+    }
+
+    @Override
+    public long getMaxTimerLagNanoseconds() {
+        return this.statistics.snapshot().getOverruns().getMax();
+    }
+
+    @Override
+    public long getTimerLag99thPercentileNanoseconds() {
+        return this.statistics.snapshot().getOverruns().getValueAtPercentile(99.0);
+    }
+
+    @Override
+    public synchronized void resetStatistics() {
+        this.statistics.reset();
+        this.transitionCount.reset();
+        this.sampleTransitionCount = 0L;
+        this.sampleNanos = this.clock.nanoTime();
+        this.transitionsPerSecond = 0.0;
+    }
+
+    /**
+     * The attached session, moving its count between the states on each phase
+     * change. The count is moved under the monitor of the session, so that a
+     * phase change racing with the detachment is not counted twice.
+     */
+    private final class Session implements TransitionHook {
+
+        /**
+         * The configuration of the session
+         */
+        private final Configuration configuration;
+
+        /**
+         * The state the session is counted in, or {@code null} if not counted
+         */
+        private PomodoroState state;
+
+        /**
+         * The constructor.
+         *
+         * @param configuration The configuration of the session
+         */
+        private Session(final Configuration configuration) {
+            this.configuration = configuration;
+        }
+
+        @Override
+        public void onTransition(final Pomodoro pomodoro, final PomodoroState from, final PomodoroState to,
+                final long nanoTime) {
+            synchronized (this) {
+                if (this.state == null) {
+                    return;
+                }
+
+                sessionCounts[this.state.ordinal()].decrement();
+                sessionCounts[to.ordinal()].increment();
+                this.state = to;
+            }
+
+            transitionCount.increment();
+        }
+
+        /**
+         * Starts counting the session in its current state.
+         *
+         * @param pomodoro The pomodoro
+         */
+        private synchronized void start(final PomodoroBaseImpl pomodoro) {
+            if (this.state == null) {
+                this.state = pomodoro.getPomodoroState();
+                sessionCounts[this.state.ordinal()].increment();
+            }
+        }
+
+        /**
+         * Stops counting the session.
+         */
+        private synchronized void stop() {
+            if (this.state != null) {
+                sessionCounts[this.state.ordinal()].decrement();
+                this.state = null;
+            }
+        }
+    }
+}
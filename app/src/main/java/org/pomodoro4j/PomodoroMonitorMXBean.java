@@ -0,0 +1,87 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link PomodoroMonitor} . Every attribute is
+ * served from counters maintained on each phase change, so that reading an
+ * attribute costs the same whatever the number of sessions.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public interface PomodoroMonitorMXBean {
+
+    /**
+     * Returns the number of the monitored sessions.
+     *
+     * @return The number of the monitored sessions
+     */
+    public long getSessionCount();
+
+    /**
+     * Returns the numbers of the monitored sessions keyed by the names of their
+     * current {@link PomodoroState} .
+     *
+     * @return The numbers of the sessions by state
+     */
+    public Map<String, Long> getSessionCountsByState();
+
+    /**
+     * Returns the numbers of the monitored sessions keyed by their
+     * configurations.
+     *
+     * @return The numbers of the sessions by configuration
+     */
+    public Map<String, Long> getConfigurationProfiles();
+
+    /**
+     * Returns the number of the phase changes of the monitored sessions since the
+     * statistics were reset.
+     *
+     * @return The number of the phase changes
+     */
+    public long getTransitionCount();
+
+    /**
+     * Returns the number of the phase changes per second, sampled at most once a
+     * second.
+     *
+     * @return The number of the phase changes per second
+     */
+    public double getTransitionsPerSecond();
+
+    /**
+     * Returns the maximum lag of the phase changes behind their deadlines in
+     * nanoseconds since the statistics were reset.
+     *
+     * @return The maximum lag in nanoseconds
+     */
+    public long getMaxTimerLagNanoseconds();
+
+    /**
+     * Returns the 99th percentile of the lag of the phase changes behind their
+     * deadlines in nanoseconds since the statistics were reset.
+     *
+     * @return The 99th percentile of the lag in nanoseconds
+     */
+    public long getTimerLag99thPercentileNanoseconds();
+
+    /**
+     * Resets the number of the phase changes and the lag.
+     */
+    public void resetStatistics();
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The pool of pomodoros created by a {@link PomodoroFactory} .
+ *
+ * <p>
+ * {@link #acquire()} returns an idle pomodoro if any, otherwise a new one
+ * created by the factory. A session which has reached
+ * {@link PomodoroState#FINISHED} can be given back through
+ * {@link #release(Pomodoro)} once it is detached from its owners, which resets
+ * it and keeps it until it is acquired again, so short sessions can be churned
+ * through without allocating a new pomodoro for each of them.
+ *
+ * <p>
+ * The caller must not use a pomodoro after it has been released. The pool is
+ * thread-safe.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString
+public final class PomodoroPool {
+
+    /**
+     * The factory
+     */
+    private final PomodoroFactory factory;
+
+    /**
+     * The idle pomodoros
+     */
+    @ToString.Exclude
+    private final BlockingQueue<Pomodoro> idlePomodoros;
+
+    /**
+     * The constructor.
+     *
+     * @param factory     The factory
+     * @param maxIdleSize The maximum number of idle pomodoros
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    private PomodoroPool(@NonNull final PomodoroFactory factory, final int maxIdleSize) {
+        this.factory = factory;
+        this.idlePomodoros = new ArrayBlockingQueue<>(maxIdleSize);
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroPool} creating the pomodoros with
+     * the factory.
+     *
+     * @param factory     The factory
+     * @param maxIdleSize The maximum number of idle pomodoros
+     * @return The new instance of {@link PomodoroPool}
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the maximum number of idle pomodoros
+     *                                     is not positive
+     */
+    public static PomodoroPool newInstance(@NonNull final PomodoroFactory factory, final int maxIdleSize) {
+        if (maxIdleSize <= 0) {
+            throw new IllegalArgumentException("The maximum number of idle pomodoros must be positive.");
+        }
+
+        return new PomodoroPool(factory, maxIdleSize);
+    }
+
+    /**
+     * Returns an idle pomodoro if any, otherwise a new pomodoro created by the
+     * factory. The returned pomodoro is in {@link PomodoroState#INITIALIZED} .
+     *
+     * @return The pomodoro
+     */
+    public Pomodoro acquire() {
+        final Pomodoro pomodoro = this.idlePomodoros.poll();
+        return pomodoro != null ? pomodoro : this.factory.getInstance();
+    }
+
+    /**
+     * Gives back the pomodoro to this pool. The pomodoro is kept only if it has
+     * been created with the configuration and the clock of the factory, has
+     * reached {@link PomodoroState#FINISHED} , is no longer attached to any
+     * journal, registry, monitor and so on, and the pool is not full. A kept
+     * pomodoro is reset.
+     *
+     * @param pomodoro The pomodoro
+     * @return {@code true} if the pomodoro has been kept, otherwise {@code false}
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the pomodoro is not supported
+     */
+    public boolean release(@NonNull final Pomodoro pomodoro) {
+        if (!(pomodoro instanceof PomodoroImpl)) {
+            throw new IllegalArgumentException(
+                    "Unsupported pomodoro implementation: " + pomodoro.getClass().getName());
+        }
+
+        final PomodoroImpl pomodoroImpl = (PomodoroImpl) pomodoro;
+
+        if (!pomodoroImpl.getConfiguration().equals(this.factory.getConfiguration())
+                || pomodoroImpl.getPomodoroTimer().getClock() != this.factory.getClock()
+                || this.idlePomodoros.remainingCapacity() == 0) {
+            return false;
+        }
+
+        synchronized (pomodoroImpl) {
+            // An owner still holding the pomodoro would see it under its old session
+            if (pomodoroImpl.getPomodoroState() != PomodoroState.FINISHED || pomodoroImpl.hasTransitionHooks()) {
+                return false;
+            }
+
+            pomodoroImpl.recycle();
+            pomodoroImpl.reset();
+        }
+
+        return this.idlePomodoros.offer(pomodoroImpl);
+    }
+
+    /**
+     * Returns the number of idle pomodoros.
+     *
+     * @return The number of idle pomodoros
+     */
+    public int getIdleSize() {
+        return this.idlePomodoros.size();
+    }
+}
@@ -0,0 +1,483 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The registry of the sessions keyed by their ids.
+ *
+ * <p>
+ * The sessions are striped across shards by their ids, and each shard is
+ * guarded by its own lock, so that the sessions of different shards can be
+ * created, looked up and removed concurrently. The pomodoros are only held as
+ * values, so their mutable {@code equals} and {@code hashCode} are never used.
+ *
+ * <p>
+ * A session which has stayed in {@link PomodoroState#FINISHED} or
+ * {@link PomodoroState#STOPPED} for the time to live is expired. Expired
+ * sessions are evicted lazily when they are looked up, or in bulk by
+ * {@link #evictExpired()} , so {@link #size()} may count expired sessions not
+ * yet evicted.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString
+public final class PomodoroRegistry {
+
+    /**
+     * The idle time not set
+     */
+    private static final long NOT_IDLE = Long.MIN_VALUE;
+
+    /**
+     * The factory creating the sessions
+     */
+    private final PomodoroFactory factory;
+
+    /**
+     * The time to live of the idle sessions in nanoseconds
+     */
+    private final long ttlNanoseconds;
+
+    /**
+     * The monitor attached to the registered sessions, or {@code null}
+     */
+    @ToString.Exclude
+    private final PomodoroMonitor monitor;
+
+    /**
+     * The shards
+     */
+    @ToString.Exclude
+    private final Shard[] shards;
+
+    /**
+     * The constructor.
+     *
+     * @param factory        The factory creating the sessions
+     * @param ttlNanoseconds The time to live of the idle sessions in nanoseconds
+     * @param shardCount     The number of shards, a power of two
+     * @param monitor        The monitor attached to the registered sessions, or
+     *                       {@code null}
+     */
+    private PomodoroRegistry(final PomodoroFactory factory, final long ttlNanoseconds, final int shardCount,
+            final PomodoroMonitor monitor) {
+        this.factory = factory;
+        this.ttlNanoseconds = ttlNanoseconds;
+        this.monitor = monitor;
+        this.shards = new Shard[shardCount];
+
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = new Shard();
+        }
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroRegistry} creating the sessions
+     * with the factory, with as many shards as the number of processors allows.
+     *
+     * @param factory The factory creating the sessions
+     * @param ttl     The time to live of the idle sessions
+     * @param unit    The unit of the time to live
+     * @return The new instance of {@link PomodoroRegistry}
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the time to live is not positive
+     */
+    public static PomodoroRegistry newInstance(@NonNull final PomodoroFactory factory, final long ttl,
+            @NonNull final TimeUnit unit) {
+        return newInstance(factory, ttl, unit, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroRegistry} creating the sessions
+     * with the factory. The number of shards is rounded up to a power of two.
+     *
+     * @param factory    The factory creating the sessions
+     * @param ttl        The time to live of the idle sessions
+     * @param unit       The unit of the time to live
+     * @param shardCount The number of shards
+     * @return The new instance of {@link PomodoroRegistry}
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the time to live or the number of
+     *                                     shards is not positive, or the number of
+     *                                     shards is too large
+     */
+    public static PomodoroRegistry newInstance(@NonNull final PomodoroFactory factory, final long ttl,
+            @NonNull final TimeUnit unit, final int shardCount) {
+        return newInstance(factory, ttl, unit, shardCount, null);
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroRegistry} creating the sessions
+     * with the factory. The number of shards is rounded up to a power of two. The
+     * monitor is attached to the sessions while they are registered.
+     *
+     * @param factory    The factory creating the sessions
+     * @param ttl        The time to live of the idle sessions
+     * @param unit       The unit of the time to live
+     * @param shardCount The number of shards
+     * @param monitor    The monitor attached to the registered sessions, or
+     *                   {@code null}
+     * @return The new instance of {@link PomodoroRegistry}
+     *
+     * @exception NullPointerException     If {@code null} is passed as the factory
+     *                                     or the unit
+     * @exception IllegalArgumentException If the time to live or the number of
+     *                                     shards is not positive, or the number of
+     *                                     shards is too large
+     */
+    public static PomodoroRegistry newInstance(@NonNull final PomodoroFactory factory, final long ttl,
+            @NonNull final TimeUnit unit, final int shardCount, final PomodoroMonitor monitor) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("The time to live must be positive.");
+        }
+
+        if (shardCount <= 0 || shardCount > 1 << 16) {
+            throw new IllegalArgumentException("The number of shards must be between 1 and 65536.");
+        }
+
+        return new PomodoroRegistry(factory, unit.toNanos(ttl),
+                Integer.highestOneBit(shardCount) == shardCount ? shardCount : Integer.highestOneBit(shardCount) << 1,
+                monitor);
+    }
+
+    /**
+     * Returns the session with the id, creating it with the factory if the
+     * registry has no live session with the id.
+     *
+     * @param sessionId The id of the session
+     * @return The session with the id
+     */
+    public Pomodoro getOrCreate(final long sessionId) {
+        final Shard shard = this.shardOf(sessionId);
+
+        synchronized (shard) {
+            final Entry entry = shard.get(sessionId);
+
+            if (entry != null) {
+                return entry.pomodoro;
+            }
+
+            final Pomodoro pomodoro = this.factory.getInstance();
+            ((PomodoroBaseImpl) pomodoro).setSessionId(sessionId);
+            shard.put(sessionId, new Entry(pomodoro));
+            return pomodoro;
+        }
+    }
+
+    /**
+     * Returns the session with the id.
+     *
+     * @param sessionId The id of the session
+     * @return The session with the id, or {@code null} if the registry has no
+     *         live session with the id
+     */
+    public Pomodoro get(final long sessionId) {
+        final Shard shard = this.shardOf(sessionId);
+
+        synchronized (shard) {
+            final Entry entry = shard.get(sessionId);
+            return entry != null ? entry.pomodoro : null;
+        }
+    }
+
+    /**
+     * Registers the session with the id, replacing the session registered with
+     * the same id.
+     *
+     * @param sessionId The id of the session
+     * @param pomodoro  The pomodoro
+     * @return The live session replaced, or {@code null} if none
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the pomodoro is not created by
+     *                                     {@link PomodoroFactory}
+     */
+    public Pomodoro register(final long sessionId, @NonNull final Pomodoro pomodoro) {
+        if (!(pomodoro instanceof PomodoroBaseImpl)) {
+            throw new IllegalArgumentException("Unsupported pomodoro implementation: " + pomodoro.getClass().getName());
+        }
+
+        final Shard shard = this.shardOf(sessionId);
+
+        synchronized (shard) {
+            final Entry previous = shard.get(sessionId);
+            ((PomodoroBaseImpl) pomodoro).setSessionId(sessionId);
+            shard.put(sessionId, new Entry(pomodoro));
+            return previous != null ? previous.pomodoro : null;
+        }
+    }
+
+    /**
+     * Removes the session with the id.
+     *
+     * @param sessionId The id of the session
+     * @return The live session removed, or {@code null} if none
+     */
+    public Pomodoro remove(final long sessionId) {
+        final Shard shard = this.shardOf(sessionId);
+
+        synchronized (shard) {
+            final Entry entry = shard.get(sessionId);
+
+            if (entry == null) {
+                return null;
+            }
+
+            shard.remove(sessionId);
+            return entry.pomodoro;
+        }
+    }
+
+    /**
+     * Returns the number of the registered sessions, including the expired
+     * sessions not yet evicted.
+     *
+     * @return The number of the registered sessions
+     */
+    public int size() {
+        int size = 0;
+
+        for (final Shard shard : this.shards) {
+            synchronized (shard) {
+                size += shard.entries.size();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Evicts all the expired sessions. The shards are swept one by one, so the
+     * other shards stay available during the sweep.
+     *
+     * @return The number of the evicted sessions
+     */
+    public int evictExpired() {
+        int evicted = 0;
+
+        for (final Shard shard : this.shards) {
+            synchronized (shard) {
+                final Iterator<Entry> iterator = shard.entries.values().iterator();
+
+                while (iterator.hasNext()) {
+                    final Entry entry = iterator.next();
+
+                    if (entry.isExpired()) {
+                        iterator.remove();
+                        entry.release();
+                        evicted++;
+                    }
+                }
+            }
+        }
+
+        return evicted;
+    }
+
+    /**
+     * Schedules {@link #evictExpired()} at the fixed rate on the executor.
+     * Cancelling the returned future stops the evictions.
+     *
+     * @param executor The executor
+     * @param period   The period between evictions
+     * @param unit     The unit of the period
+     * @return The future of the periodic task
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the period is less than or equal to
+     *                                     0
+     */
+    public ScheduledFuture<?> scheduleEviction(@NonNull final ScheduledExecutorService executor, final long period,
+            @NonNull final TimeUnit unit) {
+        return executor.scheduleAtFixedRate(this::evictExpired, period, period, unit);
+    }
+
+    /**
+     * Returns the shard of the session id.
+     *
+     * @param sessionId The id of the session
+     * @return The shard of the session id
+     */
+    private Shard shardOf(final long sessionId) {
+        final long hash = sessionId * 0x9E3779B97F4A7C15L;
+        return this.shards[(int) (hash >>> 32) & (this.shards.length - 1)];
+    }
+
+    /**
+     * The shard of the registry, guarded by its own monitor.
+     */
+    private static final class Shard {
+
+        /**
+         * The entries keyed by the session ids
+         */
+        private final Map<Long, Entry> entries = new HashMap<>();
+
+        /**
+         * Returns the live entry with the session id, evicting it if it has
+         * expired.
+         *
+         * @param sessionId The id of the session
+         * @return The live entry, or {@code null} if none
+         */
+        private Entry get(final long sessionId) {
+            final Entry entry = this.entries.get(sessionId);
+
+            if (entry != null && entry.isExpired()) {
+                this.remove(sessionId);
+                return null;
+            }
+
+            return entry;
+        }
+
+        /**
+         * Puts the entry, releasing the entry replaced.
+         *
+         * @param sessionId The id of the session
+         * @param entry     The entry
+         */
+        private void put(final long sessionId, final Entry entry) {
+            final Entry previous = this.entries.put(sessionId, entry);
+
+            if (previous != null && previous != entry) {
+                previous.release();
+            }
+
+            entry.retain();
+        }
+
+        /**
+         * Removes and releases the entry with the session id.
+         *
+         * @param sessionId The id of the session
+         */
+        private void remove(final long sessionId) {
+            final Entry entry = this.entries.remove(sessionId);
+
+            if (entry != null) {
+                entry.release();
+            }
+        }
+    }
+
+    /**
+     * The registered session, tracking since when it has been idle.
+     */
+    private final class Entry implements TransitionHook {
+
+        /**
+         * The pomodoro
+         */
+        private final Pomodoro pomodoro;
+
+        /**
+         * The pomodoro as the base implementation
+         */
+        private final PomodoroBaseImpl pomodoroBase;
+
+        /**
+         * The clock of the pomodoro
+         */
+        private final PomodoroClock clock;
+
+        /**
+         * The time the session became idle in nanoseconds of the clock, or
+         * {@link #NOT_IDLE}
+         */
+        private volatile long idleSinceNanos = NOT_IDLE;
+
+        /**
+         * The constructor.
+         *
+         * @param pomodoro The pomodoro
+         */
+        private Entry(final Pomodoro pomodoro) {
+            this.pomodoro = pomodoro;
+            this.pomodoroBase = (PomodoroBaseImpl) pomodoro;
+            this.clock = this.pomodoroBase.getPomodoroTimer().getClock();
+        }
+
+        @Override
+        public void onTransition(final Pomodoro pomodoro, final PomodoroState from, final PomodoroState to,
+                final long nanoTime) {
+            this.idleSinceNanos = isIdle(to) ? nanoTime : NOT_IDLE;
+        }
+
+        /**
+         * Starts or stops measuring the idle time according to the current state.
+         *
+         * @param pomodoroState The current pomodoro state
+         */
+        private void touch(final PomodoroState pomodoroState) {
+            this.idleSinceNanos = isIdle(pomodoroState) ? this.clock.nanoTime() : NOT_IDLE;
+        }
+
+        /**
+         * Returns whether the session has been idle for the time to live.
+         *
+         * @return {@code true} if the session has expired, otherwise {@code false}
+         */
+        private boolean isExpired() {
+            final long idleSinceNanos = this.idleSinceNanos;
+            return idleSinceNanos != NOT_IDLE && this.clock.nanoTime() - idleSinceNanos >= ttlNanoseconds;
+        }
+
+        /**
+         * Adds the hook to the pomodoro and attaches the monitor if any.
+         */
+        private void retain() {
+            this.pomodoroBase.addTransitionHook(this);
+            this.touch(this.pomodoroBase.getPomodoroState());
+
+            if (monitor != null) {
+                monitor.attach(this.pomodoro);
+            }
+        }
+
+        /**
+         * Removes the hook from the pomodoro and detaches the monitor if any.
+         */
+        private void release() {
+            this.pomodoroBase.removeTransitionHook(this);
+
+            if (monitor != null) {
+                monitor.detach(this.pomodoro);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the pomodoro state is idle.
+     *
+     * @param pomodoroState The pomodoro state
+     * @return {@code true} if the pomodoro state is idle, otherwise {@code false}
+     */
+    private static boolean isIdle(final PomodoroState pomodoroState) {
+        return pomodoroState == PomodoroState.FINISHED || pomodoroState == PomodoroState.STOPPED;
+    }
+}
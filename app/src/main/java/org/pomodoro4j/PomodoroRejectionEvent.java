@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The flight recorder event of an operation of {@link PomodoroBaseImpl}
+ * rejected by {@link BreakPolicy} because of the current state. The event is
+ * only created on the rejection path, so that it costs nothing while the
+ * operations are allowed.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@Name("org.pomodoro4j.Rejection")
+@Label("Pomodoro Rejection")
+@Category("Pomodoro4j")
+@Description("The operation on a pomodoro rejected in the current state")
+final class PomodoroRejectionEvent extends Event {
+
+    /**
+     * The id of the session
+     */
+    @Label("Session Id")
+    @Description("The id identifying the pomodoro in the recording")
+    long sessionId;
+
+    /**
+     * The rejected operation
+     */
+    @Label("Operation")
+    String operation;
+
+    /**
+     * The pomodoro state rejecting the operation
+     */
+    @Label("State")
+    String state;
+
+    /**
+     * The number of breaks taken
+     */
+    @Label("Break Count")
+    int breakCount;
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The scheduler that drives the Pomodoro cycle without polling.
+ *
+ * <p>
+ * Instead of spinning on {@link Pomodoro#performs()} ,
+ * {@link Pomodoro#shouldStartBreak()} and {@link Pomodoro#shouldEndBreak()} ,
+ * each scheduled pomodoro registers a single timer task at the deadline of its
+ * current phase. When the deadline is reached {@link Pomodoro#startBreak()} or
+ * {@link Pomodoro#endBreak()} is called and the listener is notified, so any
+ * number of pomodoros can share a small number of threads that stay idle
+ * between transitions.
+ *
+ * <p>
+ * The deadline of each phase is computed from the previous deadline rather than
+ * from the moment the task actually ran, so the cycle does not drift when the
+ * threads are busy. The deadlines are read from the clock of each pomodoro, and
+ * the timer tasks are delayed by the time remaining on that clock.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString
+public final class PomodoroScheduler implements AutoCloseable {
+
+    /**
+     * The default number of threads
+     */
+    private static final int DEFAULT_THREADS = 2;
+
+    /**
+     * The thread sequence
+     */
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
+    /**
+     * The executor
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * The flag whether the executor is owned by this scheduler
+     */
+    private final boolean ownsExecutor;
+
+    /**
+     * The constructor.
+     *
+     * @param executor     The executor
+     * @param ownsExecutor The flag whether the executor is owned by this scheduler
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    private PomodoroScheduler(@NonNull final ScheduledExecutorService executor, final boolean ownsExecutor) {
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroScheduler} backed by two daemon
+     * threads.
+     *
+     * @return The new instance of {@link PomodoroScheduler}
+     */
+    public static PomodoroScheduler newInstance() {
+        return newInstance(DEFAULT_THREADS);
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroScheduler} backed by the
+     * specified number of daemon threads.
+     *
+     * @param threads The number of threads
+     * @return The new instance of {@link PomodoroScheduler}
+     *
+     * @exception IllegalArgumentException If the number of threads is less than 1
+     */
+    public static PomodoroScheduler newInstance(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be at least 1.");
+        }
+
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "pomodoro4j-scheduler-" + THREAD_SEQUENCE.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        executor.setRemoveOnCancelPolicy(true);
+        return new PomodoroScheduler(executor, true);
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroScheduler} based on the executor
+     * passed as an argument. The executor is not shut down when this scheduler is
+     * closed.
+     *
+     * @param executor The executor
+     * @return The new instance of {@link PomodoroScheduler}
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public static PomodoroScheduler newInstance(@NonNull final ScheduledExecutorService executor) {
+        return new PomodoroScheduler(executor, false);
+    }
+
+    /**
+     * Schedules the Pomodoro cycle of the pomodoro passed as an argument.
+     *
+     * <p>
+     * If the pomodoro has not been started yet it is started immediately,
+     * otherwise the current phase is considered to start at the moment this
+     * method is called. The returned future is completed when the cycle is
+     * finished, and is cancelled if the pomodoro is stopped or reset by the
+     * caller. Cancelling the returned future stops the scheduling of the pomodoro.
+     *
+     * @param pomodoro The pomodoro
+     * @param listener The listener notified on each phase change
+     * @return The future completed when the Pomodoro cycle is finished
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the pomodoro is not created by
+     *                                     {@link PomodoroFactory}
+     */
+    public CompletableFuture<Pomodoro> schedule(@NonNull final Pomodoro pomodoro,
+            @NonNull final PomodoroListener listener) {
+        if (!(pomodoro instanceof PomodoroBaseImpl)) {
+            throw new IllegalArgumentException("Unsupported pomodoro implementation: " + pomodoro.getClass().getName());
+        }
+
+        final ScheduledPomodoro scheduledPomodoro = new ScheduledPomodoro(pomodoro, listener);
+        scheduledPomodoro.begin();
+
+        return scheduledPomodoro.completion;
+    }
+
+    @Override
+    public void close() {
+        if (this.ownsExecutor) {
+            this.executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The timer task driving a single pomodoro. The next task is registered only
+     * after the current one has run, so the tasks of a pomodoro never overlap.
+     */
+    private final class ScheduledPomodoro implements Runnable {
+
+        /**
+         * The pomodoro
+         */
+        private final Pomodoro pomodoro;
+
+        /**
+         * The base implementation of the pomodoro
+         */
+        private final PomodoroBaseImpl pomodoroBase;
+
+        /**
+         * The clock of the pomodoro
+         */
+        private final PomodoroClock clock;
+
+        /**
+         * The listener
+         */
+        private final PomodoroListener listener;
+
+        /**
+         * The completion
+         */
+        private final CompletableFuture<Pomodoro> completion = new CompletableFuture<>();
+
+        /**
+         * The deadline of the current phase in nanoseconds of the clock
+         */
+        private long deadlineNanos;
+
+        /**
+         * The pending task
+         */
+        private volatile ScheduledFuture<?> pendingTask;
+
+        /**
+         * The constructor.
+         *
+         * @param pomodoro The pomodoro
+         * @param listener The listener
+         */
+        private ScheduledPomodoro(final Pomodoro pomodoro, final PomodoroListener listener) {
+            this.pomodoro = pomodoro;
+            this.pomodoroBase = (PomodoroBaseImpl) pomodoro;
+            this.clock = this.pomodoroBase.getPomodoroTimer().getClock();
+            this.listener = listener;
+        }
+
+        /**
+         * Starts the pomodoro if needed and registers the first timer task.
+         */
+        private void begin() {
+            if (this.pomodoroBase.getPomodoroState() == PomodoroState.INITIALIZED) {
+                this.pomodoro.performs();
+                this.listener.onPhaseChanged(this.pomodoro, PomodoroState.INITIALIZED, PomodoroState.CONCENTRATING);
+            }
+
+            this.completion.whenComplete((pomodoro, throwable) -> {
+                final ScheduledFuture<?> task = this.pendingTask;
+
+                if (task != null) {
+                    task.cancel(false);
+                }
+            });
+
+            this.deadlineNanos = this.clock.nanoTime();
+            this.scheduleNext();
+        }
+
+        @Override
+        public void run() {
+            if (this.completion.isDone()) {
+                return;
+            }
+
+            try {
+                final PomodoroState from = this.pomodoroBase.getPomodoroState();
+
+                switch (from) {
+                case CONCENTRATING:
+                    this.pomodoro.startBreak();
+                    break;
+                case BREAKING:
+                case LONGER_BREAKING:
+                    this.pomodoro.endBreak();
+                    break;
+                default:
+                    // The pomodoro was stopped or reset by the caller
+                    this.completion.cancel(false);
+                    return;
+                }
+
+                this.listener.onPhaseChanged(this.pomodoro, from, this.pomodoroBase.getPomodoroState());
+                this.scheduleNext();
+            } catch (RuntimeException e) {
+                this.completion.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Registers the timer task at the deadline of the current phase.
+         */
+        private void scheduleNext() {
+            final PomodoroState pomodoroState = this.pomodoroBase.getPomodoroState();
+
+            if (pomodoroState == PomodoroState.FINISHED) {
+                this.completion.complete(this.pomodoro);
+                return;
+            }
+
+            final long phaseNanos = PomodoroBaseImpl.getPhaseNanoseconds(this.pomodoroBase.getConfiguration(),
+                    pomodoroState);
+
+            if (phaseNanos < 0) {
+                this.completion.cancel(false);
+                return;
+            }
+
+            this.deadlineNanos += phaseNanos;
+            this.pendingTask = executor.schedule(this, this.deadlineNanos - this.clock.nanoTime(),
+                    TimeUnit.NANOSECONDS);
+
+            if (this.completion.isDone()) {
+                this.pendingTask.cancel(false);
+            }
+        }
+    }
+}
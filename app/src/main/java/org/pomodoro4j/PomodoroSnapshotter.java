@@ -0,0 +1,622 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.pomodoro4j.conf.Configuration;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The snapshotter writing the compact state of live pomodoros into a
+ * memory-mapped file for crash recovery.
+ *
+ * <p>
+ * Each registered pomodoro is written as a fixed-size record holding the state,
+ * the break count, the start and phase start epochs and the configuration, so a
+ * snapshot of millions of sessions is a sequence of plain stores into the
+ * mapped file rather than a serialization of object graphs. The file holds two
+ * regions written alternately, and the header pointing to the latest complete
+ * region is updated only after the region has been forced to the storage, so a
+ * crash during a snapshot leaves the previous snapshot readable. The region, the
+ * number of records and the checksum of the records are published by a single
+ * 8-byte store, so the header never points to a region with the count of
+ * another one, and a region whose records do not match the checksum is
+ * rejected on restore.
+ *
+ * <p>
+ * {@link #restore(Path)} rehydrates the sessions of the latest snapshot with
+ * their timers rebased on the wall clock: a running session resumes as if it
+ * had kept running during the restart, and a stopped session keeps its elapsed
+ * time.
+ *
+ * <p>
+ * The sessions are read without synchronization, so a session changing its
+ * phase during a snapshot may be recorded in either phase. Snapshots themselves
+ * are serialized.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString
+public final class PomodoroSnapshotter implements AutoCloseable {
+
+    /**
+     * The magic number of the file
+     */
+    private static final int MAGIC = 0x504F4D53;
+
+    /**
+     * The version of the format
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * The size of the header in bytes
+     */
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * The size of a record in bytes
+     */
+    private static final int RECORD_SIZE = 64;
+
+    /**
+     * The maximum capacity, so that both regions fit in a single mapping
+     */
+    private static final int MAXIMUM_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / (2 * RECORD_SIZE);
+
+    /**
+     * The offset of the magic number in the header
+     */
+    private static final int MAGIC_OFFSET = 0;
+
+    /**
+     * The offset of the version in the header
+     */
+    private static final int VERSION_OFFSET = 4;
+
+    /**
+     * The offset of the capacity in the header
+     */
+    private static final int CAPACITY_OFFSET = 8;
+
+    /**
+     * The offset of the published snapshot in the header, packing the checksum of
+     * the records in the upper 32 bits, the active region in bit 31 and the
+     * number of records in the lower 31 bits
+     */
+    private static final int PUBLISHED_OFFSET = 16;
+
+    /**
+     * The offset of the snapshot epoch in the header
+     */
+    private static final int EPOCH_OFFSET = 24;
+
+    /**
+     * The offset of the snapshot sequence in the header
+     */
+    private static final int SEQUENCE_OFFSET = 32;
+
+    /**
+     * The offset of the session id in a record
+     */
+    private static final int SESSION_ID = 0;
+
+    /**
+     * The offset of the state in a record
+     */
+    private static final int STATE = 8;
+
+    /**
+     * The offset of the break count in a record
+     */
+    private static final int BREAK_COUNT = 12;
+
+    /**
+     * The offset of the start epoch in a record
+     */
+    private static final int START_MILLIS = 16;
+
+    /**
+     * The offset of the phase start epoch in a record
+     */
+    private static final int PHASE_START_MILLIS = 24;
+
+    /**
+     * The offset of the elapsed time in a record
+     */
+    private static final int ELAPSED_NANOS = 32;
+
+    /**
+     * The offset of the concentration minutes in a record
+     */
+    private static final int CONCENTRATION_MINUTES = 40;
+
+    /**
+     * The offset of the break minutes in a record
+     */
+    private static final int BREAK_MINUTES = 44;
+
+    /**
+     * The offset of the longer break minutes in a record
+     */
+    private static final int LONGER_BREAK_MINUTES = 48;
+
+    /**
+     * The offset of the count until longer break in a record
+     */
+    private static final int COUNT_UNTIL_LONGER_BREAK = 52;
+
+    /**
+     * The pomodoro states indexed by ordinal
+     */
+    private static final PomodoroState[] STATES = PomodoroState.values();
+
+    /**
+     * The path of the file
+     */
+    private final Path path;
+
+    /**
+     * The channel of the file
+     */
+    @ToString.Exclude
+    private final FileChannel channel;
+
+    /**
+     * The mapped file
+     */
+    @ToString.Exclude
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The maximum number of sessions
+     */
+    private final int capacity;
+
+    /**
+     * The clock stamping the snapshots
+     */
+    @ToString.Exclude
+    private final PomodoroClock clock;
+
+    /**
+     * The registered sessions
+     */
+    @ToString.Exclude
+    private final Map<Long, PomodoroBaseImpl> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * The sequence of the latest snapshot
+     */
+    private long sequence;
+
+    /**
+     * The constructor.
+     *
+     * @param path     The path of the file
+     * @param channel  The channel of the file
+     * @param buffer   The mapped file
+     * @param capacity The maximum number of sessions
+     * @param clock    The clock stamping the snapshots
+     */
+    private PomodoroSnapshotter(final Path path, final FileChannel channel, final MappedByteBuffer buffer,
+            final int capacity, final PomodoroClock clock) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroSnapshotter} writing into the
+     * file passed as an argument. The file is created if it does not exist, and
+     * the existing snapshot is overwritten by the next snapshot.
+     *
+     * @param path     The path of the file
+     * @param capacity The maximum number of sessions
+     * @return The new instance of {@link PomodoroSnapshotter}
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the capacity is less than 1 or too
+     *                                     large to be mapped
+     * @exception IOException              If the file cannot be opened or mapped
+     */
+    public static PomodoroSnapshotter newInstance(@NonNull final Path path, final int capacity)
+            throws IOException {
+        return newInstance(path, capacity, PomodoroClock.system());
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroSnapshotter} writing into the
+     * file passed as an argument and stamping the snapshots with the clock passed
+     * as an argument. The file is created if it does not exist, and the existing
+     * snapshot is overwritten by the next snapshot.
+     *
+     * @param path     The path of the file
+     * @param capacity The maximum number of sessions
+     * @param clock    The clock stamping the snapshots
+     * @return The new instance of {@link PomodoroSnapshotter}
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the capacity is less than 1 or too
+     *                                     large to be mapped
+     * @exception IOException              If the file cannot be opened or mapped
+     */
+    public static PomodoroSnapshotter newInstance(@NonNull final Path path, final int capacity,
+            @NonNull final PomodoroClock clock) throws IOException {
+        if (capacity < 1 || capacity > MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("The capacity must be between 1 and " + MAXIMUM_CAPACITY + ".");
+        }
+
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        try {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + 2L * capacity * RECORD_SIZE);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            final PomodoroSnapshotter snapshotter = new PomodoroSnapshotter(path, channel, buffer, capacity, clock);
+            snapshotter.initialize();
+            return snapshotter;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Registers the session to be written by the following snapshots. The
+     * session replaces the one registered with the same id.
+     *
+     * @param sessionId The id of the session
+     * @param pomodoro  The pomodoro
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the pomodoro is not created by
+     *                                     {@link PomodoroFactory}
+     * @exception IllegalStateException    If as many sessions as the capacity are
+     *                                     already registered with other ids
+     */
+    public void register(final long sessionId, @NonNull final Pomodoro pomodoro) {
+        if (!(pomodoro instanceof PomodoroBaseImpl)) {
+            throw new IllegalArgumentException("Unsupported pomodoro implementation: " + pomodoro.getClass().getName());
+        }
+
+        final PomodoroBaseImpl pomodoroBase = (PomodoroBaseImpl) pomodoro;
+
+        synchronized (this.sessions) {
+            if (this.sessions.size() >= this.capacity && !this.sessions.containsKey(sessionId)) {
+                throw new IllegalStateException("The number of sessions exceeds the capacity " + this.capacity + ".");
+            }
+
+            pomodoroBase.setSessionId(sessionId);
+            this.sessions.put(sessionId, pomodoroBase);
+        }
+    }
+
+    /**
+     * Unregisters the session so that it is no longer written.
+     *
+     * @param sessionId The id of the session
+     * @return {@code true} if the session has been registered, otherwise
+     *         {@code false}
+     */
+    public boolean unregister(final long sessionId) {
+        return this.sessions.remove(sessionId) != null;
+    }
+
+    /**
+     * Returns the number of registered sessions.
+     *
+     * @return The number of registered sessions
+     */
+    public int size() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Writes the state of all registered sessions and forces it to the storage.
+     *
+     * @return The number of written sessions
+     *
+     * @exception IllegalStateException If more sessions than the capacity are
+     *                                  registered
+     */
+    public synchronized int snapshot() {
+        final int region = (int) (this.sequence + 1 & 1);
+        final int regionOffset = HEADER_SIZE + region * this.capacity * RECORD_SIZE;
+        int count = 0;
+
+        for (final Map.Entry<Long, PomodoroBaseImpl> session : this.sessions.entrySet()) {
+            if (count == this.capacity) {
+                throw new IllegalStateException("The number of sessions exceeds the capacity " + this.capacity + ".");
+            }
+
+            this.write(regionOffset + count * RECORD_SIZE, session.getKey(), session.getValue());
+            count++;
+        }
+
+        final int checksum = checksum(this.buffer, regionOffset, count);
+        this.buffer.force();
+
+        this.sequence++;
+        this.buffer.putLong(PUBLISHED_OFFSET, publish(region, count, checksum));
+        this.buffer.putLong(EPOCH_OFFSET, this.clock.currentTimeMillis());
+        this.buffer.putLong(SEQUENCE_OFFSET, this.sequence);
+        this.buffer.force();
+
+        return count;
+    }
+
+    /**
+     * Takes a snapshot periodically on the executor passed as an argument.
+     * Cancelling the returned future stops the snapshots. A failed snapshot does
+     * not stop the following ones, and is reported to the uncaught exception
+     * handler of the thread running it.
+     *
+     * @param executor The executor
+     * @param period   The period between snapshots
+     * @param unit     The unit of the period
+     * @return The future of the periodic task
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the period is less than or equal to
+     *                                     0
+     */
+    public ScheduledFuture<?> scheduleAtFixedRate(@NonNull final ScheduledExecutorService executor,
+            final long period, @NonNull final TimeUnit unit) {
+        return executor.scheduleAtFixedRate(() -> {
+            try {
+                this.snapshot();
+            } catch (RuntimeException e) {
+                final Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Forces the mapped file to the storage and closes it.
+     *
+     * @exception IOException If the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.buffer.force();
+        this.channel.close();
+    }
+
+    /**
+     * Rehydrates the sessions of the latest snapshot in the file passed as an
+     * argument with the system clock.
+     *
+     * @param path The path of the file
+     * @return The sessions indexed by session id, in the order of the snapshot
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     * @exception IOException          If the file cannot be read or is not a
+     *                                 snapshot
+     */
+    public static Map<Long, Pomodoro> restore(@NonNull final Path path) throws IOException {
+        return restore(path, PomodoroClock.system());
+    }
+
+    /**
+     * Rehydrates the sessions of the latest snapshot in the file passed as an
+     * argument. The timers are rebased on the clock passed as an argument.
+     *
+     * @param path  The path of the file
+     * @param clock The clock of the rehydrated sessions
+     * @return The sessions indexed by session id, in the order of the snapshot
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     * @exception IOException          If the file cannot be read or is not a
+     *                                 snapshot
+     */
+    public static Map<Long, Pomodoro> restore(@NonNull final Path path, @NonNull final PomodoroClock clock)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a snapshot file: " + path);
+            }
+
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    Math.min(channel.size(), Integer.MAX_VALUE));
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException("Not a snapshot file: " + path);
+            }
+
+            final int capacity = buffer.getInt(CAPACITY_OFFSET);
+            final long published = buffer.getLong(PUBLISHED_OFFSET);
+            final int region = (int) (published >>> 31 & 1);
+            final int count = (int) (published & Integer.MAX_VALUE);
+
+            if (capacity < 1 || count > capacity || channel.size() < HEADER_SIZE + 2L * capacity * RECORD_SIZE) {
+                throw new IOException("Corrupted snapshot file: " + path);
+            }
+
+            final int regionOffset = HEADER_SIZE + region * capacity * RECORD_SIZE;
+
+            if (checksum(buffer, regionOffset, count) != (int) (published >>> 32)) {
+                throw new IOException("Corrupted snapshot file: " + path);
+            }
+            final long nowMillis = clock.currentTimeMillis();
+            final Map<Long, Pomodoro> sessions = new LinkedHashMap<>(count * 4 / 3 + 1);
+
+            for (int i = 0; i < count; i++) {
+                final int offset = regionOffset + i * RECORD_SIZE;
+                sessions.put(buffer.getLong(offset + SESSION_ID), read(buffer, offset, clock, nowMillis));
+            }
+
+            return sessions;
+        }
+    }
+
+    /**
+     * Writes the header of an empty snapshot unless the file already holds a
+     * snapshot of the same capacity.
+     */
+    private void initialize() {
+        if (this.buffer.getInt(MAGIC_OFFSET) == MAGIC && this.buffer.getInt(VERSION_OFFSET) == VERSION
+                && this.buffer.getInt(CAPACITY_OFFSET) == this.capacity) {
+            this.sequence = this.buffer.getLong(SEQUENCE_OFFSET);
+            return;
+        }
+
+        this.buffer.putInt(MAGIC_OFFSET, MAGIC);
+        this.buffer.putInt(VERSION_OFFSET, VERSION);
+        this.buffer.putInt(CAPACITY_OFFSET, this.capacity);
+        this.buffer.putLong(PUBLISHED_OFFSET, publish(0, 0, checksum(this.buffer, HEADER_SIZE, 0)));
+        this.buffer.putLong(EPOCH_OFFSET, 0L);
+        this.buffer.putLong(SEQUENCE_OFFSET, 0L);
+        this.buffer.force();
+    }
+
+    /**
+     * Packs the region, the number of records and the checksum of the records
+     * into the word published in the header.
+     *
+     * @param region   The active region
+     * @param count    The number of records
+     * @param checksum The checksum of the records
+     * @return The published word
+     */
+    private static long publish(final int region, final int count, final int checksum) {
+        return (long) checksum << 32 | (long) region << 31 | count;
+    }
+
+    /**
+     * Computes the checksum of the records of a region.
+     *
+     * @param buffer       The mapped file
+     * @param regionOffset The offset of the region
+     * @param count        The number of records
+     * @return The checksum of the records
+     */
+    private static int checksum(final MappedByteBuffer buffer, final int regionOffset, final int count) {
+        final ByteBuffer records = buffer.duplicate();
+        records.position(regionOffset).limit(regionOffset + count * RECORD_SIZE);
+
+        final CRC32 crc = new CRC32();
+        crc.update(records);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Writes the record of the session.
+     *
+     * @param offset    The offset of the record
+     * @param sessionId The id of the session
+     * @param pomodoro  The pomodoro
+     */
+    private void write(final int offset, final long sessionId, final PomodoroBaseImpl pomodoro) {
+        final PomodoroState pomodoroState = pomodoro.getPomodoroState();
+        final PomodoroTimer timer = pomodoro.getPomodoroTimer();
+        final Configuration configuration = pomodoro.getConfiguration();
+
+        final boolean started = timer.isStarted();
+
+        this.buffer.putLong(offset + SESSION_ID, sessionId);
+        this.buffer.putInt(offset + STATE, pomodoroState.ordinal());
+        this.buffer.putInt(offset + BREAK_COUNT, pomodoro.getBreakCounter().getCount());
+        this.buffer.putLong(offset + START_MILLIS, started ? timer.getStartTime() : 0L);
+        this.buffer.putLong(offset + PHASE_START_MILLIS, pomodoro.getPhaseStartMilliseconds());
+        this.buffer.putLong(offset + ELAPSED_NANOS, timer.getNanoTime());
+        this.buffer.putInt(offset + CONCENTRATION_MINUTES, configuration.getConcentrationMinutes());
+        this.buffer.putInt(offset + BREAK_MINUTES, configuration.getBreakMinutes());
+        this.buffer.putInt(offset + LONGER_BREAK_MINUTES, configuration.getLongerBreakMinutes());
+        this.buffer.putInt(offset + COUNT_UNTIL_LONGER_BREAK, configuration.getCountUntilLongerBreak());
+    }
+
+    /**
+     * Rehydrates the session of the record.
+     *
+     * @param buffer    The mapped file
+     * @param offset    The offset of the record
+     * @param clock     The clock of the rehydrated session
+     * @param nowMillis The current time in milliseconds
+     * @return The rehydrated session
+     *
+     * @exception IOException If the record is corrupted
+     */
+    private static Pomodoro read(final MappedByteBuffer buffer, final int offset, final PomodoroClock clock,
+            final long nowMillis) throws IOException {
+        final int stateOrdinal = buffer.getInt(offset + STATE);
+
+        if (stateOrdinal < 0 || stateOrdinal >= STATES.length) {
+            throw new IOException("Corrupted snapshot record at " + offset + ".");
+        }
+
+        final Configuration configuration = ConfigurationBuilder.newBuilder()
+                .setConcentrationMinutes(buffer.getInt(offset + CONCENTRATION_MINUTES))
+                .setBreakMinutes(buffer.getInt(offset + BREAK_MINUTES))
+                .setLongerBreakMinutes(buffer.getInt(offset + LONGER_BREAK_MINUTES))
+                .setCountUntilLongerBreak(buffer.getInt(offset + COUNT_UNTIL_LONGER_BREAK)).build();
+
+        return rehydrate(configuration, STATES[stateOrdinal], buffer.getInt(offset + BREAK_COUNT),
+                buffer.getLong(offset + START_MILLIS), buffer.getLong(offset + PHASE_START_MILLIS),
+                buffer.getLong(offset + ELAPSED_NANOS), clock, nowMillis);
+    }
+
+    /**
+     * Rehydrates the session recorded with the state passed as arguments, with
+     * its timer rebased on the wall clock. A running session is considered to
+     * have kept running since it was recorded, and a stopped session keeps its
+     * elapsed time.
+     *
+     * @param configuration    The configuration
+     * @param pomodoroState    The pomodoro state
+     * @param breakCount       The number of breaks taken
+     * @param startMillis      The time the session was started in milliseconds
+     * @param phaseStartMillis The time the current phase started in milliseconds
+     * @param elapsedNanos     The time elapsed since the start in nanoseconds
+     *                         when the session was recorded
+     * @param clock            The clock of the rehydrated session
+     * @param nowMillis        The current time in milliseconds
+     * @return The rehydrated session
+     */
+    static PomodoroImpl rehydrate(final Configuration configuration, final PomodoroState pomodoroState,
+            final int breakCount, final long startMillis, final long phaseStartMillis, final long elapsedNanos,
+            final PomodoroClock clock, final long nowMillis) {
+        final PomodoroImpl pomodoro = new PomodoroImpl(configuration, clock);
+        final long rebasedElapsedNanos = pomodoroState == PomodoroState.STOPPED ? elapsedNanos
+                : TimeUnit.MILLISECONDS.toNanos(Math.max(0L, nowMillis - startMillis));
+        final long phaseElapsedNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, nowMillis - phaseStartMillis));
+
+        pomodoro.restore(pomodoroState, breakCount, startMillis, rebasedElapsedNanos, phaseElapsedNanos);
+        return pomodoro;
+    }
+}
@@ -18,7 +18,7 @@ package org.pomodoro4j;
  * @author Kato Shinya
  * @since 1.0.0
  */
-enum PomodoroState {
+public enum PomodoroState {
 
     /**
      * The initialized
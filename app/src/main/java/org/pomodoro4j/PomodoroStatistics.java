@@ -0,0 +1,381 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The statistics of the phase changes of pomodoros.
+ *
+ * <p>
+ * Attached to a pomodoro, the statistics count the transitions into each
+ * {@link PomodoroState} , and record into {@link PomodoroHistogram} how long
+ * each phase actually lasted and how far the phase outlasted the deadline
+ * computed from the configuration when it ended with the next phase. Attaching
+ * the statistics to a single pomodoro gives the statistics of a session, and
+ * attaching the same statistics to any number of pomodoros gives the aggregate
+ * of all of them. A pomodoro can have both at the same time.
+ *
+ * <p>
+ * The statistics are updated on the thread changing the phase with a few
+ * {@link LongAdder} and atomic increments and no lock, so they are cheap enough
+ * to be left on in production. {@link #snapshot()} and
+ * {@link #snapshotAndReset()} serve scrapers reading the statistics
+ * periodically.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString
+@NoArgsConstructor(staticName = "newInstance")
+public final class PomodoroStatistics {
+
+    /**
+     * The start of a phase not known
+     */
+    private static final long UNKNOWN = Long.MIN_VALUE;
+
+    /**
+     * The pomodoro states indexed by ordinal
+     */
+    private static final PomodoroState[] STATES = PomodoroState.values();
+
+    /**
+     * The numbers of the transitions into each state indexed by ordinal
+     */
+    @ToString.Exclude
+    private final LongAdder[] transitionCounts = newAdders();
+
+    /**
+     * The durations of the phases in nanoseconds indexed by ordinal of the state
+     */
+    @ToString.Exclude
+    private final PomodoroHistogram[] phaseDurations = newHistograms();
+
+    /**
+     * The overruns of the deadlines in nanoseconds
+     */
+    @ToString.Exclude
+    private final PomodoroHistogram overruns = PomodoroHistogram.newInstance();
+
+    /**
+     * The attached sessions keyed by identity
+     */
+    @ToString.Exclude
+    private final Map<PomodoroBaseImpl, Session> sessions = new IdentityHashMap<>();
+
+    /**
+     * Attaches the statistics to the pomodoro passed as an argument. A
+     * concentration or a break in progress is measured from its start. Attaching
+     * the same pomodoro twice has no effect.
+     *
+     * @param pomodoro The pomodoro
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the pomodoro is not created by
+     *                                     {@link PomodoroFactory}
+     */
+    public void attach(@NonNull final Pomodoro pomodoro) {
+        if (!(pomodoro instanceof PomodoroBaseImpl)) {
+            throw new IllegalArgumentException("Unsupported pomodoro implementation: " + pomodoro.getClass().getName());
+        }
+
+        final PomodoroBaseImpl pomodoroBase = (PomodoroBaseImpl) pomodoro;
+        final Session session;
+
+        synchronized (this.sessions) {
+            if (this.sessions.containsKey(pomodoroBase)) {
+                return;
+            }
+
+            final boolean timed = PomodoroBaseImpl.getPhaseNanoseconds(pomodoroBase.getConfiguration(),
+                    pomodoroBase.getPomodoroState()) >= 0;
+            session = new Session(timed ? pomodoroBase.getPhaseStartNanos() : UNKNOWN,
+                    pomodoroBase.getNextDeadlineNanos());
+            this.sessions.put(pomodoroBase, session);
+        }
+
+        pomodoroBase.addTransitionHook(session);
+    }
+
+    /**
+     * Detaches the statistics from the pomodoro passed as an argument. The
+     * statistics recorded so far are kept.
+     *
+     * @param pomodoro The pomodoro
+     * @return {@code true} if the statistics have been attached to the pomodoro,
+     *         otherwise {@code false}
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public boolean detach(@NonNull final Pomodoro pomodoro) {
+        if (!(pomodoro instanceof PomodoroBaseImpl)) {
+            return false;
+        }
+
+        final PomodoroBaseImpl pomodoroBase = (PomodoroBaseImpl) pomodoro;
+        final Session session;
+
+        synchronized (this.sessions) {
+            session = this.sessions.remove(pomodoroBase);
+        }
+
+        return session != null && pomodoroBase.removeTransitionHook(session);
+    }
+
+    /**
+     * Returns the snapshot of the statistics recorded so far.
+     *
+     * @return The snapshot
+     */
+    public Snapshot snapshot() {
+        return this.snapshot(false);
+    }
+
+    /**
+     * Returns the snapshot of the statistics recorded so far and starts recording
+     * from zero. A transition recorded during the call is counted in either the
+     * returned snapshot or the next one.
+     *
+     * @return The snapshot
+     */
+    public Snapshot snapshotAndReset() {
+        return this.snapshot(true);
+    }
+
+    /**
+     * Discards the statistics recorded so far. The attached pomodoros stay
+     * attached.
+     */
+    public void reset() {
+        this.snapshot(true);
+    }
+
+    /**
+     * Records the transition.
+     *
+     * @param session  The session
+     * @param from     The pomodoro state before the change
+     * @param to       The pomodoro state after the change
+     * @param nanoTime The time of the change in nanoseconds of the clock of the
+     *                 pomodoro
+     * @param deadline The deadline of the new phase in nanoseconds of the clock of
+     *                 the pomodoro
+     */
+    private void record(final Session session, final PomodoroState from, final PomodoroState to,
+            final long nanoTime, final long deadline) {
+        this.transitionCounts[to.ordinal()].increment();
+
+        if (session.phaseStartNanos != UNKNOWN && from != PomodoroState.INITIALIZED) {
+            this.phaseDurations[from.ordinal()].record(nanoTime - session.phaseStartNanos);
+        }
+
+        if (session.deadlineNanos != Pomodoro.NO_DEADLINE && endsNormally(from, to)) {
+            this.overruns.record(nanoTime - session.deadlineNanos);
+        }
+
+        session.phaseStartNanos = nanoTime;
+        session.deadlineNanos = deadline;
+    }
+
+    /**
+     * Returns the snapshot of the statistics.
+     *
+     * @param reset {@code true} to start recording from zero
+     * @return The snapshot
+     */
+    private Snapshot snapshot(final boolean reset) {
+        final Map<PomodoroState, Long> counts = new EnumMap<>(PomodoroState.class);
+        final Map<PomodoroState, PomodoroHistogram.Snapshot> durations = new EnumMap<>(PomodoroState.class);
+
+        for (final PomodoroState state : STATES) {
+            final int i = state.ordinal();
+            counts.put(state, reset ? this.transitionCounts[i].sumThenReset() : this.transitionCounts[i].sum());
+            durations.put(state,
+                    reset ? this.phaseDurations[i].snapshotAndReset() : this.phaseDurations[i].snapshot());
+        }
+
+        return new Snapshot(counts, durations, reset ? this.overruns.snapshotAndReset() : this.overruns.snapshot());
+    }
+
+    /**
+     * Returns whether the phase ends with the next phase, rather than being
+     * stopped or reset.
+     *
+     * @param from The pomodoro state before the change
+     * @param to   The pomodoro state after the change
+     * @return {@code true} if the phase ends normally, otherwise {@code false}
+     */
+    private static boolean endsNormally(final PomodoroState from, final PomodoroState to) {
+        switch (from) {
+        case CONCENTRATING:
+            return to == PomodoroState.BREAKING || to == PomodoroState.LONGER_BREAKING;
+        case BREAKING:
+            return to == PomodoroState.CONCENTRATING;
+        case LONGER_BREAKING:
+            return to == PomodoroState.FINISHED;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Returns the new adders for each state.
+     *
+     * @return The new adders
+     */
+    private static LongAdder[] newAdders() {
+        final LongAdder[] adders = new LongAdder[STATES.length];
+
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+
+        return adders;
+    }
+
+    /**
+     * Returns the new histograms for each state.
+     *
+     * @return The new histograms
+     */
+    private static PomodoroHistogram[] newHistograms() {
+        final PomodoroHistogram[] histograms = new PomodoroHistogram[STATES.length];
+
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = PomodoroHistogram.newInstance();
+        }
+
+        return histograms;
+    }
+
+    /**
+     * The attached session, remembering the start and the deadline of its current
+     * phase. The fields are only written on the thread changing the phase.
+     */
+    private final class Session implements TransitionHook {
+
+        /**
+         * The start of the current phase in nanoseconds of the clock, or
+         * {@link #UNKNOWN} if the phase started before the statistics were
+         * attached
+         */
+        private long phaseStartNanos;
+
+        /**
+         * The deadline of the current phase in nanoseconds of the clock
+         */
+        private long deadlineNanos;
+
+        /**
+         * The constructor.
+         *
+         * @param phaseStartNanos The start of the current phase
+         * @param deadlineNanos   The deadline of the current phase
+         */
+        private Session(final long phaseStartNanos, final long deadlineNanos) {
+            this.phaseStartNanos = phaseStartNanos;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public void onTransition(final Pomodoro pomodoro, final PomodoroState from, final PomodoroState to,
+                final long nanoTime) {
+            record(this, from, to, nanoTime, pomodoro.getNextDeadlineNanos());
+        }
+    }
+
+    /**
+     * The immutable snapshot of {@link PomodoroStatistics} .
+     */
+    @ToString
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Snapshot {
+
+        /**
+         * The numbers of the transitions into each state
+         */
+        private final Map<PomodoroState, Long> transitionCounts;
+
+        /**
+         * The durations of the phases of each state in nanoseconds
+         */
+        private final Map<PomodoroState, PomodoroHistogram.Snapshot> phaseDurations;
+
+        /**
+         * The overruns of the deadlines in nanoseconds
+         */
+        private final PomodoroHistogram.Snapshot overruns;
+
+        /**
+         * Returns the number of the transitions into the state.
+         *
+         * @param pomodoroState The pomodoro state
+         * @return The number of the transitions into the state
+         *
+         * @exception NullPointerException If {@code null} is passed as an argument
+         */
+        public long getTransitionCount(@NonNull final PomodoroState pomodoroState) {
+            return this.transitionCounts.get(pomodoroState);
+        }
+
+        /**
+         * Returns the number of all the transitions.
+         *
+         * @return The number of all the transitions
+         */
+        public long getTransitionCount() {
+            long count = 0L;
+
+            for (final long transitionCount : this.transitionCounts.values()) {
+                count += transitionCount;
+            }
+
+            return count;
+        }
+
+        /**
+         * Returns the durations of the phases of the state in nanoseconds, from the
+         * start of the phase to the next transition.
+         *
+         * @param pomodoroState The pomodoro state
+         * @return The durations of the phases of the state
+         *
+         * @exception NullPointerException If {@code null} is passed as an argument
+         */
+        public PomodoroHistogram.Snapshot getPhaseDurations(@NonNull final PomodoroState pomodoroState) {
+            return this.phaseDurations.get(pomodoroState);
+        }
+
+        /**
+         * Returns how far the concentrations and the breaks outlasted their
+         * deadlines in nanoseconds when they ended with the next phase. Phases
+         * ended before the deadline are counted as {@code 0} .
+         *
+         * @return The overruns of the deadlines
+         */
+        public PomodoroHistogram.Snapshot getOverruns() {
+            return this.overruns;
+        }
+    }
+}
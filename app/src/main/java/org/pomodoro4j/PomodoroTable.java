@@ -0,0 +1,634 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.util.Arrays;
+
+import org.pomodoro4j.conf.Configuration;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The table storing a large number of pomodoros as parallel primitive columns.
+ *
+ * <p>
+ * Each pomodoro is a row addressed by an {@code int} handle, and its state
+ * ordinal, start time, phase start time, phase and configuration id are stored
+ * in separate arrays instead of an object graph per pomodoro. The
+ * configurations are registered once as {@link PhaseSchedule} and referenced by
+ * id, so each transition is a lookup in the tables of the schedule.
+ * {@link #sweep(long, Listener)} visits all rows in one linear pass over the
+ * columns and applies every due transition, following the same rules as
+ * {@link BreakPolicy} .
+ *
+ * <p>
+ * As in {@link PomodoroImpl} the deadline of each phase is counted from the
+ * start of the phase. This class is not thread-safe and is meant to be owned by
+ * a single thread.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class PomodoroTable {
+
+    /**
+     * The listener notified on each transition applied by
+     * {@link PomodoroTable#sweep(long, Listener)} .
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called after the pomodoro of the handle has changed its state.
+         *
+         * @param handle The handle
+         * @param from   The pomodoro state before the change
+         * @param to     The pomodoro state after the change
+         */
+        public void onTransition(int handle, PomodoroState from, PomodoroState to);
+    }
+
+    /**
+     * The default capacity
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The state ordinal of a free row
+     */
+    private static final byte FREE = -1;
+
+    /**
+     * The end of the free list
+     */
+    private static final int NO_FREE_ROW = -1;
+
+    /**
+     * The pomodoro states indexed by ordinal
+     */
+    private static final PomodoroState[] STATES = PomodoroState.values();
+
+    /**
+     * The clock
+     */
+    private final PomodoroClock clock;
+
+    /**
+     * The state ordinals
+     */
+    private byte[] states;
+
+    /**
+     * The start times in nanoseconds
+     */
+    private long[] startNanos;
+
+    /**
+     * The phase start times in nanoseconds
+     */
+    private long[] phaseStartNanos;
+
+    /**
+     * The phases of the schedules, or the next free row of a free row
+     */
+    private int[] phases;
+
+    /**
+     * The configuration ids
+     */
+    private int[] configurationIds;
+
+    /**
+     * The schedules indexed by configuration id
+     */
+    private PhaseSchedule[] schedules = new PhaseSchedule[0];
+
+    /**
+     * The number of registered configurations
+     */
+    @ToString.Include
+    private int configurationCount;
+
+    /**
+     * The number of rows ever used
+     */
+    private int highWaterMark;
+
+    /**
+     * The head of the free list
+     */
+    private int freeHead = NO_FREE_ROW;
+
+    /**
+     * The number of live rows
+     */
+    @ToString.Include
+    private int size;
+
+    /**
+     * The constructor.
+     *
+     * @param clock    The clock
+     * @param capacity The initial capacity
+     */
+    private PomodoroTable(final PomodoroClock clock, final int capacity) {
+        this.clock = clock;
+        this.states = new byte[capacity];
+        this.startNanos = new long[capacity];
+        this.phaseStartNanos = new long[capacity];
+        this.phases = new int[capacity];
+        this.configurationIds = new int[capacity];
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroTable} measuring the time with the
+     * system clock.
+     *
+     * @return The new instance of {@link PomodoroTable}
+     */
+    public static PomodoroTable newInstance() {
+        return newInstance(PomodoroClock.system(), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroTable} based on the clock and the
+     * initial capacity passed as arguments. The table grows beyond the initial
+     * capacity as needed.
+     *
+     * @param clock    The clock
+     * @param capacity The initial capacity
+     * @return The new instance of {@link PomodoroTable}
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the capacity is negative
+     */
+    public static PomodoroTable newInstance(@NonNull final PomodoroClock clock, final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity must not be negative.");
+        }
+
+        return new PomodoroTable(clock, Math.max(1, capacity));
+    }
+
+    /**
+     * Registers the configuration and returns its id. The configuration is
+     * compiled into {@link PhaseSchedule} , so later changes to the configuration
+     * are not reflected.
+     *
+     * @param configuration The configuration
+     * @return The configuration id
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the count until longer break is too
+     *                                     large
+     */
+    public int register(@NonNull final Configuration configuration) {
+        return this.register(PhaseSchedule.newInstance(configuration));
+    }
+
+    /**
+     * Registers the schedule and returns its configuration id.
+     *
+     * @param schedule The schedule
+     * @return The configuration id
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public int register(@NonNull final PhaseSchedule schedule) {
+        final int configurationId = this.configurationCount;
+
+        if (configurationId == this.schedules.length) {
+            this.schedules = Arrays.copyOf(this.schedules, Math.max(4, configurationId * 2));
+        }
+
+        this.schedules[configurationId] = schedule;
+        this.configurationCount++;
+        return configurationId;
+    }
+
+    /**
+     * Adds a new pomodoro in the {@link PomodoroState#INITIALIZED} state and
+     * returns its handle.
+     *
+     * @param configurationId The configuration id
+     * @return The handle
+     *
+     * @exception IllegalArgumentException If the configuration id is not
+     *                                     registered
+     */
+    public int add(final int configurationId) {
+        if (configurationId < 0 || configurationId >= this.configurationCount) {
+            throw new IllegalArgumentException("Unknown configuration id: " + configurationId);
+        }
+
+        final int handle;
+
+        if (this.freeHead != NO_FREE_ROW) {
+            handle = this.freeHead;
+            this.freeHead = this.phases[handle];
+        } else {
+            if (this.highWaterMark == this.states.length) {
+                this.grow();
+            }
+
+            handle = this.highWaterMark++;
+        }
+
+        this.states[handle] = (byte) PomodoroState.INITIALIZED.ordinal();
+        this.startNanos[handle] = 0;
+        this.phaseStartNanos[handle] = 0;
+        this.phases[handle] = 0;
+        this.configurationIds[handle] = configurationId;
+
+        this.size++;
+        return handle;
+    }
+
+    /**
+     * Removes the pomodoro of the handle. The handle may be returned again by
+     * {@link #add(int)} afterwards.
+     *
+     * @param handle The handle
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     */
+    public void remove(final int handle) {
+        this.checkHandle(handle);
+
+        this.states[handle] = FREE;
+        this.phases[handle] = this.freeHead;
+        this.freeHead = handle;
+        this.size--;
+    }
+
+    /**
+     * Returns the number of pomodoros in this table.
+     *
+     * @return The number of pomodoros
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the state of the pomodoro of the handle.
+     *
+     * @param handle The handle
+     * @return The pomodoro state
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     */
+    public PomodoroState getState(final int handle) {
+        this.checkHandle(handle);
+        return STATES[this.states[handle]];
+    }
+
+    /**
+     * Returns the break count of the pomodoro of the handle.
+     *
+     * @param handle The handle
+     * @return The break count
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     */
+    public int getBreakCount(final int handle) {
+        this.checkHandle(handle);
+        return this.schedules[this.configurationIds[handle]].getBreakCount(this.phases[handle]);
+    }
+
+    /**
+     * Returns the phase of the schedule the pomodoro of the handle is in.
+     *
+     * @param handle The handle
+     * @return The phase, or the size of the schedule if finished
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     */
+    public int getPhase(final int handle) {
+        this.checkHandle(handle);
+        return this.phases[handle];
+    }
+
+    /**
+     * Returns the time the pomodoro of the handle was started in nanoseconds of
+     * the clock.
+     *
+     * @param handle The handle
+     * @return The time the pomodoro was started in nanoseconds
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     */
+    public long getStartNanoseconds(final int handle) {
+        this.checkHandle(handle);
+        return this.startNanos[handle];
+    }
+
+    /**
+     * Returns the time the current phase of the pomodoro of the handle was started
+     * in nanoseconds of the clock.
+     *
+     * @param handle The handle
+     * @return The time the current phase was started in nanoseconds
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     */
+    public long getPhaseStartNanoseconds(final int handle) {
+        this.checkHandle(handle);
+        return this.phaseStartNanos[handle];
+    }
+
+    /**
+     * Returns the time the current phase of the pomodoro of the handle reaches its
+     * deadline.
+     *
+     * @param handle The handle
+     * @return The deadline in nanoseconds of the clock, or
+     *         {@link Pomodoro#NO_DEADLINE} if the pomodoro is not concentrating or
+     *         breaking
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     * @see Pomodoro#getNextDeadlineNanos()
+     */
+    public long getNextDeadlineNanos(final int handle) {
+        final PomodoroState pomodoroState = this.getState(handle);
+
+        if (pomodoroState != PomodoroState.CONCENTRATING && pomodoroState != PomodoroState.BREAKING
+                && pomodoroState != PomodoroState.LONGER_BREAKING) {
+            return Pomodoro.NO_DEADLINE;
+        }
+
+        return this.phaseStartNanos[handle] + this.getPhaseNanos(handle);
+    }
+
+    /**
+     * Starts the pomodoro of the handle if it has not been started yet, and checks
+     * if it is ongoing.
+     *
+     * @param handle The handle
+     * @return {@code true} if the Pomodoro set is ongoing, otherwise {@code false}
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     * @see Pomodoro#performs()
+     */
+    public boolean performs(final int handle) {
+        this.checkHandle(handle);
+
+        if (this.states[handle] == PomodoroState.INITIALIZED.ordinal()) {
+            final long nowNanos = this.clock.nanoTime();
+            this.startNanos[handle] = nowNanos;
+            this.phaseStartNanos[handle] = nowNanos;
+            this.states[handle] = (byte) PomodoroState.CONCENTRATING.ordinal();
+        }
+
+        return this.states[handle] != PomodoroState.FINISHED.ordinal();
+    }
+
+    /**
+     * Checks if the pomodoro of the handle should start a break.
+     *
+     * @param handle The handle
+     * @return {@code true} if a break should be started, otherwise {@code false}
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     * @exception PomodoroException        If the state does not allow the check
+     * @see Pomodoro#shouldStartBreak()
+     */
+    public boolean shouldStartBreak(final int handle) {
+        BreakPolicy.SHOULD_START_BREAK.checkState(this.getState(handle));
+        return this.clock.nanoTime() - this.phaseStartNanos[handle] >= this.getPhaseNanos(handle);
+    }
+
+    /**
+     * Checks if the pomodoro of the handle is breaking.
+     *
+     * @param handle The handle
+     * @return {@code true} if a break is ongoing, otherwise {@code false}
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     * @exception PomodoroException        If the state does not allow the check
+     * @see Pomodoro#isBreaking()
+     */
+    public boolean isBreaking(final int handle) {
+        final PomodoroState pomodoroState = this.getState(handle);
+        BreakPolicy.IS_BREAK_ONGOING.checkState(pomodoroState);
+
+        return pomodoroState == PomodoroState.BREAKING || pomodoroState == PomodoroState.LONGER_BREAKING;
+    }
+
+    /**
+     * Checks if the pomodoro of the handle should end the break.
+     *
+     * @param handle The handle
+     * @return {@code true} if the break should be ended, otherwise {@code false}
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     * @exception PomodoroException        If the state does not allow the check
+     * @see Pomodoro#shouldEndBreak()
+     */
+    public boolean shouldEndBreak(final int handle) {
+        BreakPolicy.SHOULD_END_BREAK.checkState(this.getState(handle));
+        return this.clock.nanoTime() - this.phaseStartNanos[handle] >= this.getPhaseNanos(handle);
+    }
+
+    /**
+     * Starts the break of the pomodoro of the handle.
+     *
+     * @param handle The handle
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     * @exception PomodoroException        If the state does not allow the
+     *                                     transition
+     * @see Pomodoro#startBreak()
+     */
+    public void startBreak(final int handle) {
+        BreakPolicy.START_BREAK.checkState(this.getState(handle));
+        this.applyStartBreak(handle, this.clock.nanoTime());
+    }
+
+    /**
+     * Ends the break of the pomodoro of the handle.
+     *
+     * @param handle The handle
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     * @exception PomodoroException        If the state does not allow the
+     *                                     transition
+     * @see Pomodoro#endBreak()
+     */
+    public void endBreak(final int handle) {
+        BreakPolicy.END_BREAK.checkState(this.getState(handle));
+        this.applyEndBreak(handle, this.clock.nanoTime());
+    }
+
+    /**
+     * Stops the pomodoro of the handle.
+     *
+     * @param handle The handle
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     * @exception IllegalStateException    If the pomodoro of the handle is not
+     *                                     running
+     * @see Pomodoro#stop()
+     */
+    public void stop(final int handle) {
+        switch (this.getState(handle)) {
+        case INITIALIZED:
+        case STOPPED:
+        case FINISHED:
+            throw new IllegalStateException("The pomodoro is not running: " + handle);
+        default:
+            break;
+        }
+
+        this.states[handle] = (byte) PomodoroState.STOPPED.ordinal();
+        this.phaseStartNanos[handle] = this.clock.nanoTime();
+    }
+
+    /**
+     * Resets the pomodoro of the handle.
+     *
+     * @param handle The handle
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     * @see Pomodoro#reset()
+     */
+    public void reset(final int handle) {
+        this.checkHandle(handle);
+        this.states[handle] = (byte) PomodoroState.INITIALIZED.ordinal();
+        this.startNanos[handle] = 0;
+        this.phaseStartNanos[handle] = 0;
+        this.phases[handle] = 0;
+    }
+
+    /**
+     * Applies every due transition in one linear pass over all rows, and notifies
+     * the listener of each applied transition. A pomodoro concentrating past its
+     * deadline starts the break, and a pomodoro breaking past its deadline ends
+     * the break. The new phase is considered to start at its deadline, so the
+     * cycle does not drift with the interval between sweeps.
+     *
+     * @param nowNanos The current time in nanoseconds of the clock
+     * @param listener The listener
+     * @return The number of applied transitions
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    public int sweep(final long nowNanos, @NonNull final Listener listener) {
+        final byte[] states = this.states;
+        final long[] phaseStartNanos = this.phaseStartNanos;
+        final int[] phases = this.phases;
+        final int[] configurationIds = this.configurationIds;
+        final PhaseSchedule[] schedules = this.schedules;
+        final int concentrating = PomodoroState.CONCENTRATING.ordinal();
+        final int breaking = PomodoroState.BREAKING.ordinal();
+        final int longerBreaking = PomodoroState.LONGER_BREAKING.ordinal();
+
+        int transitions = 0;
+
+        for (int handle = 0, end = this.highWaterMark; handle < end; handle++) {
+            final int state = states[handle];
+
+            if (state != concentrating && state != breaking && state != longerBreaking) {
+                continue;
+            }
+
+            final PhaseSchedule schedule = schedules[configurationIds[handle]];
+            final int phase = phases[handle];
+            final long deadlineNanos = phaseStartNanos[handle] + schedule.getNanoseconds(phase);
+
+            if (nowNanos - deadlineNanos >= 0) {
+                this.moveTo(handle, state == concentrating ? schedule.getNextBreak(phase)
+                        : schedule.getNextConcentration(phase), deadlineNanos);
+                listener.onTransition(handle, STATES[state], STATES[states[handle]]);
+                transitions++;
+            }
+        }
+
+        return transitions;
+    }
+
+    /**
+     * Starts the break without checking the state.
+     *
+     * @param handle   The handle
+     * @param nowNanos The time the break starts in nanoseconds
+     */
+    private void applyStartBreak(final int handle, final long nowNanos) {
+        this.moveTo(handle, this.schedules[this.configurationIds[handle]].getNextBreak(this.phases[handle]),
+                nowNanos);
+    }
+
+    /**
+     * Ends the break without checking the state.
+     *
+     * @param handle   The handle
+     * @param nowNanos The time the break ends in nanoseconds
+     */
+    private void applyEndBreak(final int handle, final long nowNanos) {
+        this.moveTo(handle, this.schedules[this.configurationIds[handle]].getNextConcentration(this.phases[handle]),
+                nowNanos);
+    }
+
+    /**
+     * Moves the pomodoro of the handle to the phase.
+     *
+     * @param handle   The handle
+     * @param phase    The phase, or the size of the schedule to finish
+     * @param nowNanos The time the phase starts in nanoseconds
+     */
+    private void moveTo(final int handle, final int phase, final long nowNanos) {
+        this.states[handle] = (byte) this.schedules[this.configurationIds[handle]].getStateOrdinal(phase);
+        this.phases[handle] = phase;
+        this.phaseStartNanos[handle] = nowNanos;
+    }
+
+    /**
+     * Returns the duration of the current phase of the pomodoro of the handle.
+     *
+     * @param handle The handle
+     * @return The duration of the current phase in nanoseconds
+     */
+    private long getPhaseNanos(final int handle) {
+        return this.schedules[this.configurationIds[handle]].getNanoseconds(this.phases[handle]);
+    }
+
+    /**
+     * Checks the handle is in use.
+     *
+     * @param handle The handle
+     *
+     * @exception IllegalArgumentException If the handle is not in use
+     */
+    private void checkHandle(final int handle) {
+        if (handle < 0 || handle >= this.highWaterMark || this.states[handle] == FREE) {
+            throw new IllegalArgumentException("The handle is not in use: " + handle);
+        }
+    }
+
+    /**
+     * Doubles the capacity of the columns.
+     */
+    private void grow() {
+        final int capacity = Math.max(this.states.length * 2, this.states.length + 1);
+
+        this.states = Arrays.copyOf(this.states, capacity);
+        this.startNanos = Arrays.copyOf(this.startNanos, capacity);
+        this.phaseStartNanos = Arrays.copyOf(this.phaseStartNanos, capacity);
+        this.phases = Arrays.copyOf(this.phases, capacity);
+        this.configurationIds = Arrays.copyOf(this.configurationIds, capacity);
+    }
+}
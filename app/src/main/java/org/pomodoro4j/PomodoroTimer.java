@@ -0,0 +1,287 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The stopwatch of a pomodoro reading the time from a {@link PomodoroClock} .
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString
+@EqualsAndHashCode
+final class PomodoroTimer implements Serializable {
+
+    /**
+     * serialVersionUID
+     */
+    private static final long serialVersionUID = 0L;
+
+    /**
+     * The clock
+     */
+    private final PomodoroClock clock;
+
+    /**
+     * The flag whether this timer is running
+     */
+    private boolean running;
+
+    /**
+     * The flag whether this timer is split
+     */
+    private boolean split;
+
+    /**
+     * The time this timer was started in milliseconds
+     */
+    private long startMilliseconds;
+
+    /**
+     * The time this timer was started in nanoseconds
+     */
+    private long startNanoseconds;
+
+    /**
+     * The time this timer was stopped or split in nanoseconds
+     */
+    private long stopNanoseconds;
+
+    /**
+     * The flag whether this timer has been started since created or reset
+     */
+    private boolean started;
+
+    /**
+     * The constructor.
+     *
+     * @param clock The clock
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    private PomodoroTimer(@NonNull final PomodoroClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroTimer} based on the clock passed
+     * as an argument.
+     *
+     * @param clock The clock
+     * @return The new instance of {@link PomodoroTimer}
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    static PomodoroTimer newInstance(@NonNull final PomodoroClock clock) {
+        return new PomodoroTimer(clock);
+    }
+
+    /**
+     * Returns the clock of this timer.
+     *
+     * @return The clock
+     */
+    PomodoroClock getClock() {
+        return this.clock;
+    }
+
+    /**
+     * Starts this timer.
+     *
+     * @exception IllegalStateException If this timer has already been started
+     */
+    void start() {
+        if (this.started) {
+            throw new IllegalStateException("The timer has already been started.");
+        }
+
+        this.startNanoseconds = this.clock.nanoTime();
+        this.startMilliseconds = this.clock.currentTimeMillis();
+        this.started = true;
+        this.running = true;
+    }
+
+    /**
+     * Stops this timer.
+     *
+     * @exception IllegalStateException If this timer is not running
+     */
+    void stop() {
+        if (!this.running) {
+            throw new IllegalStateException("The timer is not running.");
+        }
+
+        if (!this.split) {
+            this.stopNanoseconds = this.clock.nanoTime();
+        }
+
+        this.running = false;
+        this.split = false;
+    }
+
+    /**
+     * Resets this timer.
+     */
+    void reset() {
+        this.started = false;
+        this.running = false;
+        this.split = false;
+        this.startMilliseconds = 0;
+        this.startNanoseconds = 0;
+        this.stopNanoseconds = 0;
+    }
+
+    /**
+     * Restores this timer as if it had been started the specified time ago on the
+     * clock, so that a timer recovered from a snapshot continues from the elapsed
+     * time.
+     *
+     * @param startMilliseconds  The time this timer was started in milliseconds,
+     *                           between the time and midnight, January 1, 1970
+     *                           UTC
+     * @param elapsedNanoseconds The time on this timer in nanoseconds
+     * @param running            The flag whether this timer is running
+     */
+    void restore(final long startMilliseconds, final long elapsedNanoseconds, final boolean running) {
+        this.startNanoseconds = this.clock.nanoTime() - elapsedNanoseconds;
+        this.stopNanoseconds = running ? 0 : this.startNanoseconds + elapsedNanoseconds;
+        this.startMilliseconds = startMilliseconds;
+        this.started = true;
+        this.running = running;
+        this.split = false;
+    }
+
+    /**
+     * Splits the time.
+     *
+     * @exception IllegalStateException If this timer is not running
+     */
+    void split() {
+        if (!this.running) {
+            throw new IllegalStateException("The timer is not running.");
+        }
+
+        this.stopNanoseconds = this.clock.nanoTime();
+        this.split = true;
+    }
+
+    /**
+     * Removes the split.
+     *
+     * @exception IllegalStateException If this timer has not been split
+     */
+    void unsplit() {
+        if (!this.split) {
+            throw new IllegalStateException("The timer has not been split.");
+        }
+
+        this.split = false;
+    }
+
+    /**
+     * Checks if this timer has been started.
+     *
+     * @return {@code true} if this timer has been started, otherwise {@code false}
+     */
+    boolean isStarted() {
+        return this.started;
+    }
+
+    /**
+     * Returns the time this timer was started in milliseconds, between the time
+     * and midnight, January 1, 1970 UTC.
+     *
+     * @return The time this timer was started in milliseconds
+     *
+     * @exception IllegalStateException If this timer has not been started
+     */
+    long getStartTime() {
+        if (!this.started) {
+            throw new IllegalStateException("The timer has not been started.");
+        }
+
+        return this.startMilliseconds;
+    }
+
+    /**
+     * Returns the time this timer was started in nanoseconds of the clock.
+     *
+     * @return The time this timer was started in nanoseconds of the clock
+     */
+    long getStartNanoTime() {
+        return this.startNanoseconds;
+    }
+
+    /**
+     * Returns the time on this timer in milliseconds.
+     *
+     * @return The time on this timer in milliseconds
+     */
+    long getTime() {
+        return TimeUnit.NANOSECONDS.toMillis(this.getNanoTime());
+    }
+
+    /**
+     * Returns the time on this timer in nanoseconds. This is either the time
+     * between the start and now, or the time between the start and the stop.
+     *
+     * @return The time on this timer in nanoseconds
+     */
+    long getNanoTime() {
+        if (!this.started) {
+            return 0;
+        }
+
+        if (this.running) {
+            return this.clock.nanoTime() - this.startNanoseconds;
+        }
+
+        return this.stopNanoseconds - this.startNanoseconds;
+    }
+
+    /**
+     * Returns the split time in milliseconds.
+     *
+     * @return The split time in milliseconds
+     *
+     * @exception IllegalStateException If this timer has not been split
+     */
+    long getSplitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(this.getSplitNanoTime());
+    }
+
+    /**
+     * Returns the split time in nanoseconds. This is the time between the start
+     * and the latest split.
+     *
+     * @return The split time in nanoseconds
+     *
+     * @exception IllegalStateException If this timer has not been split
+     */
+    long getSplitNanoTime() {
+        if (!this.split) {
+            throw new IllegalStateException("The timer has not been split.");
+        }
+
+        return this.stopNanoseconds - this.startNanoseconds;
+    }
+}
@@ -0,0 +1,443 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.util.function.Consumer;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The hashed and hierarchical timing wheel holding the phase deadlines of
+ * pomodoros.
+ *
+ * <p>
+ * Every level has the same number of slots, and one slot of a level spans a
+ * whole revolution of the level below it. Inserting and removing an entry is
+ * O(1) regardless of the number of entries, and entries of a higher level are
+ * cascaded down only once per revolution of the level below. The entries are
+ * intrusive doubly linked nodes, so a pomodoro can reuse the same entry for all
+ * of its phases without producing garbage.
+ *
+ * <p>
+ * This class is not thread-safe and is meant to be owned by a single thread.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString(onlyExplicitlyIncluded = true)
+final class PomodoroTimingWheel<E extends PomodoroTimingWheel.Entry> {
+
+    /**
+     * The number of bits for the slot index of each level
+     */
+    private static final int SLOT_BITS = 8;
+
+    /**
+     * The number of slots of each level
+     */
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    /**
+     * The mask for the slot index
+     */
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /**
+     * The default number of levels
+     */
+    static final int DEFAULT_LEVELS = 4;
+
+    /**
+     * The duration of a tick in nanoseconds
+     */
+    @ToString.Include
+    private final long tickNanos;
+
+    /**
+     * The origin in nanoseconds
+     */
+    private final long originNanos;
+
+    /**
+     * The number of levels
+     */
+    @ToString.Include
+    private final int levels;
+
+    /**
+     * The heads of the slot lists indexed by level and slot
+     */
+    private final Entry[][] heads;
+
+    /**
+     * The head of the list of entries already expired when inserted
+     */
+    private Entry expiredHead;
+
+    /**
+     * The current tick
+     */
+    @ToString.Include
+    private long currentTick;
+
+    /**
+     * The number of entries
+     */
+    @ToString.Include
+    private int size;
+
+    /**
+     * The constructor.
+     *
+     * @param tickNanos   The duration of a tick in nanoseconds
+     * @param levels      The number of levels
+     * @param originNanos The origin in nanoseconds
+     *
+     * @exception IllegalArgumentException If the duration of a tick or the number
+     *                                     of levels is not positive
+     */
+    PomodoroTimingWheel(final long tickNanos, final int levels, final long originNanos) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("The duration of a tick must be positive.");
+        }
+
+        if (levels <= 0 || levels * SLOT_BITS >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("The number of levels is out of range: " + levels);
+        }
+
+        this.tickNanos = tickNanos;
+        this.levels = levels;
+        this.originNanos = originNanos;
+        this.heads = new Entry[levels][SLOTS];
+    }
+
+    /**
+     * Returns the number of entries in this wheel.
+     *
+     * @return The number of entries
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the duration of a tick in nanoseconds.
+     *
+     * @return The duration of a tick in nanoseconds
+     */
+    long getTickNanos() {
+        return this.tickNanos;
+    }
+
+    /**
+     * Returns the time in nanoseconds at which the next tick starts.
+     *
+     * @return The time in nanoseconds at which the next tick starts
+     */
+    long getNextTickNanos() {
+        return this.originNanos + (this.currentTick + 1) * this.tickNanos;
+    }
+
+    /**
+     * Inserts the entry so that it expires at the deadline passed as an argument.
+     * If the entry is already in this wheel it is moved.
+     *
+     * @param entry         The entry
+     * @param deadlineNanos The deadline in nanoseconds
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    void insert(@NonNull final E entry, final long deadlineNanos) {
+        if (entry.isLinked()) {
+            this.remove(entry);
+        }
+
+        // Round up so that an entry never expires before its deadline
+        final Entry node = entry;
+        final long elapsedNanos = deadlineNanos - this.originNanos;
+        node.deadlineTick = elapsedNanos <= 0 ? 0 : (elapsedNanos + this.tickNanos - 1) / this.tickNanos;
+
+        this.link(node);
+        this.size++;
+    }
+
+    /**
+     * Removes the entry from this wheel. Nothing happens if the entry is not in
+     * this wheel.
+     *
+     * @param entry The entry
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    void remove(@NonNull final E entry) {
+        if (!entry.isLinked()) {
+            return;
+        }
+
+        this.unlink(entry);
+        this.size--;
+    }
+
+    /**
+     * Advances this wheel up to the time passed as an argument, and passes every
+     * expired entry to the consumer. The entries expiring at the same tick are
+     * passed in one batch, and an entry is removed from this wheel before it is
+     * passed to the consumer, so the consumer can insert it again.
+     *
+     * @param nowNanos The current time in nanoseconds
+     * @param consumer The consumer of expired entries
+     * @return The number of expired entries
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    int advance(final long nowNanos, @NonNull final Consumer<? super E> consumer) {
+        final long targetTick = Math.max(0, (nowNanos - this.originNanos) / this.tickNanos);
+        int expired = this.expire(this.detachExpired(), consumer);
+
+        while (this.currentTick < targetTick) {
+            if (this.size == 0) {
+                // Nothing to cascade or expire, so jump straight to the target
+                this.currentTick = targetTick;
+                break;
+            }
+
+            this.currentTick++;
+            this.cascade();
+
+            // The entries cascaded down exactly at their deadline are in the expired list
+            expired += this.expire(this.detachExpired(), consumer);
+
+            final int slot = (int) (this.currentTick & SLOT_MASK);
+            final Entry head = this.heads[0][slot];
+            this.heads[0][slot] = null;
+
+            expired += this.expire(head, consumer);
+        }
+
+        return expired;
+    }
+
+    /**
+     * Removes all entries from this wheel and passes them to the consumer.
+     *
+     * @param consumer The consumer of removed entries
+     *
+     * @exception NullPointerException If {@code null} is passed as an argument
+     */
+    void clear(@NonNull final Consumer<? super E> consumer) {
+        this.expire(this.detachExpired(), consumer);
+
+        for (final Entry[] slots : this.heads) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                final Entry head = slots[slot];
+                slots[slot] = null;
+                this.expire(head, consumer);
+            }
+        }
+    }
+
+    /**
+     * Moves the entries of the higher levels whose slot has come down to the
+     * lower levels.
+     */
+    private void cascade() {
+        int highest = 0;
+
+        for (int level = 1; level < this.levels; level++) {
+            if ((this.currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                break;
+            }
+
+            highest = level;
+        }
+
+        for (int level = highest; level > 0; level--) {
+            final int slot = (int) ((this.currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            Entry entry = this.heads[level][slot];
+            this.heads[level][slot] = null;
+
+            while (entry != null) {
+                final Entry next = entry.next;
+                entry.clear();
+                this.link(entry);
+                entry = next;
+            }
+        }
+    }
+
+    /**
+     * Detaches the list of entries already expired when inserted.
+     *
+     * @return The head of the detached list
+     */
+    private Entry detachExpired() {
+        final Entry head = this.expiredHead;
+        this.expiredHead = null;
+        return head;
+    }
+
+    /**
+     * Passes the entries of the detached list to the consumer.
+     *
+     * @param head     The head of the detached list
+     * @param consumer The consumer
+     * @return The number of expired entries
+     */
+    @SuppressWarnings("unchecked")
+    private int expire(Entry head, final Consumer<? super E> consumer) {
+        int expired = 0;
+
+        while (head != null) {
+            final Entry next = head.next;
+            head.clear();
+            this.size--;
+            expired++;
+            consumer.accept((E) head);
+            head = next;
+        }
+
+        return expired;
+    }
+
+    /**
+     * Links the entry into the slot matching its deadline.
+     *
+     * @param entry The entry
+     */
+    private void link(final Entry entry) {
+        final long delta = entry.deadlineTick - this.currentTick;
+
+        if (delta <= 0) {
+            this.push(entry, -1, 0);
+            return;
+        }
+
+        int level = 0;
+
+        while (level < this.levels - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+
+        // Entries beyond the span of the wheel wait in the farthest slot and are
+        // cascaded again until they come within reach
+        final long span = 1L << (SLOT_BITS * this.levels);
+        final long slotTick = delta < span ? entry.deadlineTick : this.currentTick + span - 1;
+
+        this.push(entry, level, (int) ((slotTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+    }
+
+    /**
+     * Pushes the entry to the head of the slot list.
+     *
+     * @param entry The entry
+     * @param level The level, or {@code -1} for the expired list
+     * @param slot  The slot
+     */
+    private void push(final Entry entry, final int level, final int slot) {
+        final Entry head = level < 0 ? this.expiredHead : this.heads[level][slot];
+
+        entry.level = level;
+        entry.slot = slot;
+        entry.prev = null;
+        entry.next = head;
+        entry.linked = true;
+
+        if (head != null) {
+            head.prev = entry;
+        }
+
+        if (level < 0) {
+            this.expiredHead = entry;
+        } else {
+            this.heads[level][slot] = entry;
+        }
+    }
+
+    /**
+     * Unlinks the entry from its slot list.
+     *
+     * @param entry The entry
+     */
+    private void unlink(final Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else if (entry.level < 0) {
+            this.expiredHead = entry.next;
+        } else {
+            this.heads[entry.level][entry.slot] = entry.next;
+        }
+
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+
+        entry.clear();
+    }
+
+    /**
+     * The intrusive node of {@link PomodoroTimingWheel} .
+     */
+    static class Entry {
+
+        /**
+         * The previous entry
+         */
+        private Entry prev;
+
+        /**
+         * The next entry
+         */
+        private Entry next;
+
+        /**
+         * The deadline in ticks
+         */
+        private long deadlineTick;
+
+        /**
+         * The level
+         */
+        private int level;
+
+        /**
+         * The slot
+         */
+        private int slot;
+
+        /**
+         * The flag whether this entry is linked
+         */
+        private boolean linked;
+
+        /**
+         * Checks if this entry is in a wheel.
+         *
+         * @return {@code true} if this entry is in a wheel, otherwise {@code false}
+         */
+        boolean isLinked() {
+            return this.linked;
+        }
+
+        /**
+         * Clears the links of this entry.
+         */
+        private void clear() {
+            this.prev = null;
+            this.next = null;
+            this.linked = false;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The flight recorder event of a phase change of {@link PomodoroBaseImpl} ,
+ * committed by {@link PomodoroBaseImpl#setPomodoroState(PomodoroState)} for
+ * each call of {@link Pomodoro#performs()} starting the pomodoro,
+ * {@link Pomodoro#startBreak()} , {@link Pomodoro#endBreak()} ,
+ * {@link Pomodoro#stop()} and {@link Pomodoro#reset()} .
+ *
+ * <p>
+ * The event is created and checked with {@link #shouldCommit()} before any
+ * field is computed, so that it costs no more than a branch on a flag when the
+ * recording is disabled.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@Name("org.pomodoro4j.Transition")
+@Label("Pomodoro Transition")
+@Category("Pomodoro4j")
+@Description("The phase change of a pomodoro")
+@StackTrace(false)
+final class PomodoroTransitionEvent extends Event {
+
+    /**
+     * The source of the session ids
+     */
+    private static final AtomicLong SESSION_IDS = new AtomicLong();
+
+    /**
+     * The id of the session
+     */
+    @Label("Session Id")
+    @Description("The id identifying the pomodoro in the recording")
+    long sessionId;
+
+    /**
+     * The pomodoro state before the change
+     */
+    @Label("From")
+    String from;
+
+    /**
+     * The pomodoro state after the change
+     */
+    @Label("To")
+    String to;
+
+    /**
+     * The number of breaks taken
+     */
+    @Label("Break Count")
+    int breakCount;
+
+    /**
+     * The time the phase before the change outlasted its deadline, negative if it
+     * ended earlier
+     */
+    @Label("Deadline Overrun")
+    @Description("The time the phase before the change outlasted its deadline, or 0 if it has no deadline")
+    @Timespan(Timespan.NANOSECONDS)
+    long overrun;
+
+    /**
+     * Returns the new session id unique in this JVM.
+     *
+     * @return The new session id
+     */
+    static long nextSessionId() {
+        return SESSION_IDS.incrementAndGet();
+    }
+}
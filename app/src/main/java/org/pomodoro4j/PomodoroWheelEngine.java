@@ -0,0 +1,413 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The engine that drives a large number of pomodoros with a single thread and a
+ * {@link PomodoroTimingWheel} .
+ *
+ * <p>
+ * Scheduling and expiring a phase deadline costs O(1) regardless of the number
+ * of pomodoros, and the pomodoros whose deadlines fall into the same tick are
+ * transitioned together in one batch. Each pomodoro reuses the same wheel entry
+ * for all of its phases, so no garbage is produced per phase change. The phase
+ * deadlines are computed from the concentration, break and longer break minutes
+ * of the configuration of each pomodoro.
+ *
+ * <p>
+ * The deadlines are rounded up to the tick, so a transition may fire up to one
+ * tick late but never early. The wheel is driven by the clock of the engine,
+ * which must also be the clock of the scheduled pomodoros. The engine thread
+ * parks while no pomodoro is scheduled.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class PomodoroWheelEngine implements AutoCloseable {
+
+    /**
+     * The default duration of a tick in milliseconds
+     */
+    private static final long DEFAULT_TICK_MILLISECONDS = 10;
+
+    /**
+     * The thread sequence
+     */
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
+    /**
+     * The clock driving the timing wheel
+     */
+    private final PomodoroClock clock;
+
+    /**
+     * The timing wheel owned by the engine thread
+     */
+    @ToString.Include
+    private final PomodoroTimingWheel<WheelPomodoro> timingWheel;
+
+    /**
+     * The pomodoros waiting to be inserted into the timing wheel
+     */
+    private final Queue<WheelPomodoro> pendingPomodoros = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The pomodoros whose futures have been cancelled, waiting to be removed from
+     * the timing wheel
+     */
+    private final Queue<WheelPomodoro> cancelledPomodoros = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The pomodoros expired in the current tick
+     */
+    private final List<WheelPomodoro> expiredPomodoros = new ArrayList<>();
+
+    /**
+     * The engine thread
+     */
+    private final Thread engineThread;
+
+    /**
+     * The flag whether this engine is running
+     */
+    @ToString.Include
+    private volatile boolean running = true;
+
+    /**
+     * The constructor.
+     *
+     * @param tickNanos The duration of a tick in nanoseconds
+     * @param clock     The clock driving the timing wheel
+     */
+    private PomodoroWheelEngine(final long tickNanos, final PomodoroClock clock) {
+        this.clock = clock;
+        this.timingWheel = new PomodoroTimingWheel<>(tickNanos, PomodoroTimingWheel.DEFAULT_LEVELS,
+                clock.nanoTime());
+        this.engineThread = new Thread(this::runLoop, "pomodoro4j-wheel-" + THREAD_SEQUENCE.incrementAndGet());
+        this.engineThread.setDaemon(true);
+        this.engineThread.start();
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroWheelEngine} ticking every 10
+     * milliseconds on the system clock.
+     *
+     * @return The new instance of {@link PomodoroWheelEngine}
+     */
+    public static PomodoroWheelEngine newInstance() {
+        return newInstance(DEFAULT_TICK_MILLISECONDS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroWheelEngine} ticking at the
+     * duration passed as an argument on the system clock.
+     *
+     * @param tickDuration The duration of a tick
+     * @param unit         The unit of the duration
+     * @return The new instance of {@link PomodoroWheelEngine}
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the duration is not positive
+     */
+    public static PomodoroWheelEngine newInstance(final long tickDuration, @NonNull final TimeUnit unit) {
+        return newInstance(tickDuration, unit, PomodoroClock.system());
+    }
+
+    /**
+     * Returns the new instance of {@link PomodoroWheelEngine} ticking at the
+     * duration passed as an argument on the clock passed as an argument.
+     *
+     * @param tickDuration The duration of a tick
+     * @param unit         The unit of the duration
+     * @param clock        The clock of the pomodoros scheduled in the engine
+     * @return The new instance of {@link PomodoroWheelEngine}
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the duration is not positive
+     */
+    public static PomodoroWheelEngine newInstance(final long tickDuration, @NonNull final TimeUnit unit,
+            @NonNull final PomodoroClock clock) {
+        return new PomodoroWheelEngine(unit.toNanos(tickDuration), clock);
+    }
+
+    /**
+     * Schedules the Pomodoro cycle of the pomodoro passed as an argument.
+     *
+     * <p>
+     * If the pomodoro has not been started yet it is started by the engine thread,
+     * otherwise the current phase is considered to start at the moment it is
+     * picked up by the engine thread. The returned future is completed when the
+     * cycle is finished, and is cancelled if the pomodoro is stopped or reset by
+     * the caller. Cancelling the returned future stops the scheduling of the
+     * pomodoro, which is then removed from the engine by the engine thread.
+     *
+     * @param pomodoro The pomodoro
+     * @param listener The listener notified on each phase change
+     * @return The future completed when the Pomodoro cycle is finished
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the pomodoro is not created by
+     *                                     {@link PomodoroFactory} , or does not
+     *                                     use the clock of this engine
+     * @exception IllegalStateException    If this engine is already closed
+     */
+    public CompletableFuture<Pomodoro> schedule(@NonNull final Pomodoro pomodoro,
+            @NonNull final PomodoroListener listener) {
+        if (!(pomodoro instanceof PomodoroBaseImpl)) {
+            throw new IllegalArgumentException("Unsupported pomodoro implementation: " + pomodoro.getClass().getName());
+        }
+
+        if (((PomodoroBaseImpl) pomodoro).getPomodoroTimer().getClock() != this.clock) {
+            throw new IllegalArgumentException("The pomodoro must use the clock of the engine.");
+        }
+
+        if (!this.running) {
+            throw new IllegalStateException("The engine is already closed.");
+        }
+
+        final WheelPomodoro wheelPomodoro = new WheelPomodoro(pomodoro, listener);
+
+        this.pendingPomodoros.offer(wheelPomodoro);
+        LockSupport.unpark(this.engineThread);
+
+        return wheelPomodoro.completion;
+    }
+
+    /**
+     * Returns the number of pomodoros scheduled in this engine. The value is only
+     * an estimate when called from outside the engine thread.
+     *
+     * @return The number of pomodoros scheduled in this engine
+     */
+    public int size() {
+        return this.timingWheel.size();
+    }
+
+    /**
+     * Closes this engine. The futures of the pomodoros still scheduled are
+     * cancelled.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        LockSupport.unpark(this.engineThread);
+    }
+
+    /**
+     * Runs the loop of the engine thread.
+     */
+    private void runLoop() {
+        while (this.running) {
+            this.acceptPendingPomodoros();
+            this.removeCancelledPomodoros();
+
+            this.timingWheel.advance(this.clock.nanoTime(), this.expiredPomodoros::add);
+            this.fireExpiredPomodoros();
+
+            if (this.timingWheel.size() == 0 && this.pendingPomodoros.isEmpty()) {
+                LockSupport.park(this);
+            } else {
+                LockSupport.parkNanos(this, this.timingWheel.getNextTickNanos() - this.clock.nanoTime());
+            }
+        }
+
+        WheelPomodoro wheelPomodoro;
+
+        while ((wheelPomodoro = this.pendingPomodoros.poll()) != null) {
+            wheelPomodoro.completion.cancel(false);
+        }
+
+        this.timingWheel.clear(expired -> expired.completion.cancel(false));
+    }
+
+    /**
+     * Inserts the pomodoros scheduled from other threads into the timing wheel.
+     */
+    private void acceptPendingPomodoros() {
+        WheelPomodoro wheelPomodoro;
+
+        while ((wheelPomodoro = this.pendingPomodoros.poll()) != null) {
+            wheelPomodoro.begin();
+        }
+    }
+
+    /**
+     * Removes the pomodoros whose futures have been cancelled from the timing
+     * wheel.
+     */
+    private void removeCancelledPomodoros() {
+        WheelPomodoro wheelPomodoro;
+
+        while ((wheelPomodoro = this.cancelledPomodoros.poll()) != null) {
+            this.timingWheel.remove(wheelPomodoro);
+        }
+    }
+
+    /**
+     * Transitions all pomodoros expired in the current tick in one batch.
+     */
+    private void fireExpiredPomodoros() {
+        final List<WheelPomodoro> expired = this.expiredPomodoros;
+
+        for (int i = 0, size = expired.size(); i < size; i++) {
+            expired.get(i).fire();
+        }
+
+        expired.clear();
+    }
+
+    /**
+     * The wheel entry driving a single pomodoro. The entry is only touched by the
+     * engine thread.
+     */
+    private final class WheelPomodoro extends PomodoroTimingWheel.Entry {
+
+        /**
+         * The pomodoro
+         */
+        private final Pomodoro pomodoro;
+
+        /**
+         * The base implementation of the pomodoro
+         */
+        private final PomodoroBaseImpl pomodoroBase;
+
+        /**
+         * The listener
+         */
+        private final PomodoroListener listener;
+
+        /**
+         * The completion
+         */
+        private final CompletableFuture<Pomodoro> completion = new CompletableFuture<>();
+
+        /**
+         * The deadline of the current phase in nanoseconds of the clock
+         */
+        private long deadlineNanos;
+
+        /**
+         * The constructor.
+         *
+         * @param pomodoro The pomodoro
+         * @param listener The listener
+         */
+        private WheelPomodoro(final Pomodoro pomodoro, final PomodoroListener listener) {
+            this.pomodoro = pomodoro;
+            this.pomodoroBase = (PomodoroBaseImpl) pomodoro;
+            this.listener = listener;
+
+            this.completion.whenComplete((result, throwable) -> {
+                if (this.completion.isCancelled()) {
+                    // The entry is owned by the engine thread, which removes it from the wheel
+                    cancelledPomodoros.offer(this);
+                    LockSupport.unpark(engineThread);
+                }
+            });
+        }
+
+        /**
+         * Starts the pomodoro if needed and inserts the first deadline.
+         */
+        private void begin() {
+            if (this.completion.isDone()) {
+                return;
+            }
+
+            try {
+                this.deadlineNanos = clock.nanoTime();
+
+                if (this.pomodoroBase.getPomodoroState() == PomodoroState.INITIALIZED) {
+                    this.pomodoro.performs();
+                    this.listener.onPhaseChanged(this.pomodoro, PomodoroState.INITIALIZED,
+                            PomodoroState.CONCENTRATING);
+                }
+
+                this.insertNext();
+            } catch (RuntimeException e) {
+                this.completion.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Transitions the pomodoro whose deadline has expired.
+         */
+        private void fire() {
+            if (this.completion.isDone()) {
+                return;
+            }
+
+            try {
+                final PomodoroState from = this.pomodoroBase.getPomodoroState();
+
+                switch (from) {
+                case CONCENTRATING:
+                    this.pomodoroBase.startBreak();
+                    break;
+                case BREAKING:
+                case LONGER_BREAKING:
+                    this.pomodoroBase.endBreak();
+                    break;
+                default:
+                    // The pomodoro was stopped or reset by the caller
+                    this.completion.cancel(false);
+                    return;
+                }
+
+                this.listener.onPhaseChanged(this.pomodoro, from, this.pomodoroBase.getPomodoroState());
+                this.insertNext();
+            } catch (RuntimeException e) {
+                this.completion.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Inserts the deadline of the current phase into the timing wheel.
+         */
+        private void insertNext() {
+            final PomodoroState pomodoroState = this.pomodoroBase.getPomodoroState();
+
+            if (pomodoroState == PomodoroState.FINISHED) {
+                this.completion.complete(this.pomodoro);
+                return;
+            }
+
+            final long phaseNanos = PomodoroBaseImpl.getPhaseNanoseconds(this.pomodoroBase.getConfiguration(),
+                    pomodoroState);
+
+            if (phaseNanos < 0) {
+                this.completion.cancel(false);
+                return;
+            }
+
+            this.deadlineNanos += phaseNanos;
+            timingWheel.insert(this, this.deadlineNanos);
+        }
+    }
+}
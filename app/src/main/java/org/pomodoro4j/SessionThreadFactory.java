@@ -0,0 +1,64 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * The factory of the threads running the lifecycle of a single pomodoro.
+ *
+ * <p>
+ * This is the implementation for Java 11 and creates daemon platform threads.
+ * The multi-release JAR replaces this class with an implementation creating
+ * virtual threads when running on Java 21 or later.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class SessionThreadFactory {
+
+    /**
+     * The thread sequence
+     */
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
+    /**
+     * Returns the new thread factory.
+     *
+     * @return The new thread factory
+     */
+    static ThreadFactory newThreadFactory() {
+        return runnable -> {
+            final Thread thread = new Thread(runnable, "pomodoro4j-session-" + THREAD_SEQUENCE.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Checks if the threads created by this factory are virtual threads.
+     *
+     * @return {@code true} if the threads are virtual threads, otherwise
+     *         {@code false}
+     */
+    static boolean isVirtual() {
+        return false;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+/**
+ * The hook called by {@link PomodoroBaseImpl} on each phase change. Unlike
+ * {@link PomodoroListener} the time of the change is passed as a primitive, so
+ * that notifying a hook allocates nothing.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@FunctionalInterface
+interface TransitionHook {
+
+    /**
+     * Called on the thread changing the phase, after the phase has changed.
+     *
+     * @param pomodoro The pomodoro whose phase has changed
+     * @param from     The pomodoro state before the change
+     * @param to       The pomodoro state after the change
+     * @param nanoTime The time of the change in nanoseconds of the clock of the
+     *                 pomodoro
+     */
+    public void onTransition(Pomodoro pomodoro, PomodoroState from, PomodoroState to, long nanoTime);
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+/**
+ * The result of a transition attempted by {@link BreakSupport#tryStartBreak()}
+ * or {@link BreakSupport#tryEndBreak()} .
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public enum TransitionResult {
+
+    /**
+     * The transition has been applied
+     */
+    APPLIED,
+
+    /**
+     * The same transition has just been applied by another thread
+     */
+    DUPLICATE,
+
+    /**
+     * The transition is not allowed in the current state and nothing has changed
+     */
+    REJECTED;
+
+    /**
+     * Checks if the pomodoro is in the state the transition leads to.
+     *
+     * @return {@code true} if the transition has been applied by this or another
+     *         call, otherwise {@code false}
+     */
+    public boolean isApplied() {
+        return this != REJECTED;
+    }
+}
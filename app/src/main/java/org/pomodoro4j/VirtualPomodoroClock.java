@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The clock that only moves when it is advanced manually.
+ *
+ * <p>
+ * Pomodoros created with this clock see the time passed to
+ * {@link #advance(long, TimeUnit)} instead of the real time, so tests and
+ * capacity simulations can run whole Pomodoro cycles in a moment. This clock is
+ * thread-safe.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString
+public final class VirtualPomodoroClock implements PomodoroClock {
+
+    /**
+     * serialVersionUID
+     */
+    private static final long serialVersionUID = 0L;
+
+    /**
+     * The time in milliseconds at which this clock reads zero nanoseconds
+     */
+    private final long originMillis;
+
+    /**
+     * The nanoseconds elapsed since the origin
+     */
+    private final AtomicLong elapsedNanos = new AtomicLong();
+
+    /**
+     * The constructor.
+     *
+     * @param originMillis The time in milliseconds at which this clock starts
+     */
+    private VirtualPomodoroClock(final long originMillis) {
+        this.originMillis = originMillis;
+    }
+
+    /**
+     * Returns the new instance of {@link VirtualPomodoroClock} starting at the
+     * current system time.
+     *
+     * @return The new instance of {@link VirtualPomodoroClock}
+     */
+    public static VirtualPomodoroClock newInstance() {
+        return new VirtualPomodoroClock(System.currentTimeMillis());
+    }
+
+    /**
+     * Returns the new instance of {@link VirtualPomodoroClock} starting at the
+     * time passed as an argument.
+     *
+     * @param originMillis The time in milliseconds at which the clock starts,
+     *                     between the time and midnight, January 1, 1970 UTC
+     * @return The new instance of {@link VirtualPomodoroClock}
+     */
+    public static VirtualPomodoroClock newInstance(final long originMillis) {
+        return new VirtualPomodoroClock(originMillis);
+    }
+
+    /**
+     * Advances this clock by the duration passed as an argument.
+     *
+     * @param duration The duration
+     * @param unit     The unit of the duration
+     * @return This instance
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the duration is negative
+     */
+    public VirtualPomodoroClock advance(final long duration, @NonNull final TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("The clock cannot go backwards.");
+        }
+
+        this.elapsedNanos.addAndGet(unit.toNanos(duration));
+        return this;
+    }
+
+    @Override
+    public long nanoTime() {
+        return this.elapsedNanos.get();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return this.originMillis + TimeUnit.NANOSECONDS.toMillis(this.elapsedNanos.get());
+    }
+}
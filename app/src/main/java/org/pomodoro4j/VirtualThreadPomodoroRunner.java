@@ -0,0 +1,225 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The runner that runs the lifecycle of each pomodoro on its own thread.
+ *
+ * <p>
+ * The thread of a pomodoro parks until the deadline of the current phase
+ * on the clock of the pomodoro instead of polling, and calls
+ * {@link Pomodoro#startBreak()} or {@link Pomodoro#endBreak()} when the
+ * deadline is reached. On Java 21 or later
+ * the threads are virtual threads, so a parked pomodoro does not hold a platform
+ * thread and a very large number of pomodoros can be run with plain blocking
+ * code. On Java 11 the threads are daemon platform threads.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+@ToString
+public final class VirtualThreadPomodoroRunner {
+
+    /**
+     * The thread factory
+     */
+    @ToString.Exclude
+    private final ThreadFactory threadFactory = SessionThreadFactory.newThreadFactory();
+
+    /**
+     * The flag whether the threads are virtual threads
+     */
+    private final boolean virtual = SessionThreadFactory.isVirtual();
+
+    /**
+     * The default constructor.
+     */
+    private VirtualThreadPomodoroRunner() {
+    }
+
+    /**
+     * Returns the new instance of {@link VirtualThreadPomodoroRunner} .
+     *
+     * @return The new instance of {@link VirtualThreadPomodoroRunner}
+     */
+    public static VirtualThreadPomodoroRunner newInstance() {
+        return new VirtualThreadPomodoroRunner();
+    }
+
+    /**
+     * Checks if the pomodoros are run on virtual threads. This is {@code true}
+     * only when running on Java 21 or later.
+     *
+     * @return {@code true} if the pomodoros are run on virtual threads, otherwise
+     *         {@code false}
+     */
+    public boolean isVirtual() {
+        return this.virtual;
+    }
+
+    /**
+     * Runs the Pomodoro cycle of the pomodoro passed as an argument on a new
+     * thread.
+     *
+     * <p>
+     * If the pomodoro has not been started yet it is started by the new thread,
+     * otherwise the current phase is considered to start at the moment the thread
+     * starts. The returned future is completed when the cycle is finished, and is
+     * cancelled if the pomodoro is stopped or reset by the caller. Cancelling the
+     * returned future wakes up and ends the thread.
+     *
+     * @param pomodoro The pomodoro
+     * @param listener The listener notified on each phase change
+     * @return The future completed when the Pomodoro cycle is finished
+     *
+     * @exception NullPointerException     If {@code null} is passed as an argument
+     * @exception IllegalArgumentException If the pomodoro is not created by
+     *                                     {@link PomodoroFactory}
+     */
+    public CompletableFuture<Pomodoro> run(@NonNull final Pomodoro pomodoro,
+            @NonNull final PomodoroListener listener) {
+        if (!(pomodoro instanceof PomodoroBaseImpl)) {
+            throw new IllegalArgumentException("Unsupported pomodoro implementation: " + pomodoro.getClass().getName());
+        }
+
+        final PomodoroLifecycle lifecycle = new PomodoroLifecycle(pomodoro, listener);
+        final Thread thread = this.threadFactory.newThread(lifecycle);
+
+        lifecycle.completion.whenComplete((result, throwable) -> LockSupport.unpark(thread));
+        thread.start();
+
+        return lifecycle.completion;
+    }
+
+    /**
+     * The blocking lifecycle of a single pomodoro.
+     */
+    private static final class PomodoroLifecycle implements Runnable {
+
+        /**
+         * The pomodoro
+         */
+        private final Pomodoro pomodoro;
+
+        /**
+         * The base implementation of the pomodoro
+         */
+        private final PomodoroBaseImpl pomodoroBase;
+
+        /**
+         * The clock of the pomodoro
+         */
+        private final PomodoroClock clock;
+
+        /**
+         * The listener
+         */
+        private final PomodoroListener listener;
+
+        /**
+         * The completion
+         */
+        private final CompletableFuture<Pomodoro> completion = new CompletableFuture<>();
+
+        /**
+         * The constructor.
+         *
+         * @param pomodoro The pomodoro
+         * @param listener The listener
+         */
+        private PomodoroLifecycle(final Pomodoro pomodoro, final PomodoroListener listener) {
+            this.pomodoro = pomodoro;
+            this.pomodoroBase = (PomodoroBaseImpl) pomodoro;
+            this.clock = this.pomodoroBase.getPomodoroTimer().getClock();
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            try {
+                long deadlineNanos = this.clock.nanoTime();
+
+                if (this.pomodoroBase.getPomodoroState() == PomodoroState.INITIALIZED) {
+                    this.pomodoro.performs();
+                    this.listener.onPhaseChanged(this.pomodoro, PomodoroState.INITIALIZED,
+                            PomodoroState.CONCENTRATING);
+                }
+
+                while (!this.completion.isDone()) {
+                    final PomodoroState from = this.pomodoroBase.getPomodoroState();
+
+                    if (from == PomodoroState.FINISHED) {
+                        this.completion.complete(this.pomodoro);
+                        return;
+                    }
+
+                    final long phaseNanos = PomodoroBaseImpl
+                            .getPhaseNanoseconds(this.pomodoroBase.getConfiguration(), from);
+
+                    if (phaseNanos < 0) {
+                        // The pomodoro was stopped or reset by the caller
+                        this.completion.cancel(false);
+                        return;
+                    }
+
+                    deadlineNanos += phaseNanos;
+
+                    if (!this.parkUntil(deadlineNanos)) {
+                        return;
+                    }
+
+                    if (from == PomodoroState.CONCENTRATING) {
+                        this.pomodoro.startBreak();
+                    } else {
+                        this.pomodoro.endBreak();
+                    }
+
+                    this.listener.onPhaseChanged(this.pomodoro, from, this.pomodoroBase.getPomodoroState());
+                }
+            } catch (RuntimeException e) {
+                this.completion.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Parks the current thread until the deadline passed as an argument is
+         * reached on the clock.
+         *
+         * @param deadlineNanos The deadline in nanoseconds of the clock
+         * @return {@code true} if the deadline is reached, or {@code false} if the
+         *         completion is done while parking
+         */
+        private boolean parkUntil(final long deadlineNanos) {
+            long remainingNanos;
+
+            while ((remainingNanos = deadlineNanos - this.clock.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remainingNanos);
+
+                if (this.completion.isDone()) {
+                    return false;
+                }
+            }
+
+            return !this.completion.isDone();
+        }
+    }
+}
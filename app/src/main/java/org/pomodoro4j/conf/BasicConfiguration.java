@@ -14,66 +14,188 @@
 
 package org.pomodoro4j.conf;
 
-import lombok.AccessLevel;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 /**
+ * The immutable configuration. The instances are interned by their values, so
+ * that every session on the same profile shares one instance.
+ *
  * @author Kato Shinya
  * @since 1.0.0
  */
 @ToString
 @EqualsAndHashCode
-@NoArgsConstructor(access = AccessLevel.PACKAGE, staticName = "newInstance")
 final class BasicConfiguration implements Configuration {
 
+    /**
+     * serialVersionUID
+     */
+    private static final long serialVersionUID = 0L;
+
+    /**
+     * The interned configurations, held weakly so that a configuration no longer
+     * referenced anywhere can be collected
+     */
+    private static final Map<BasicConfiguration, WeakReference<BasicConfiguration>> INTERNED = new WeakHashMap<>();
+
+    /**
+     * The default configuration
+     */
+    static final BasicConfiguration DEFAULT = valueOf(25, 5, 15, 4);
+
     /**
      * The concentration minutes
      */
     @Getter
-    private int concentrationMinutes = 25;
+    private final int concentrationMinutes;
 
     /**
      * The break minutes
      */
     @Getter
-    private int breakMinutes = 5;
+    private final int breakMinutes;
 
     /**
      * The longer break minutes
      */
     @Getter
-    private int longerBreakMinutes = 15;
+    private final int longerBreakMinutes;
 
     /**
      * The count until longer break
      */
     @Getter
-    private int countUntilLongerBreak = 4;
+    private final int countUntilLongerBreak;
+
+    /**
+     * The concentration nanoseconds
+     */
+    @Getter
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final long concentrationNanoseconds;
+
+    /**
+     * The break nanoseconds
+     */
+    @Getter
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final long breakNanoseconds;
+
+    /**
+     * The longer break nanoseconds
+     */
+    @Getter
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final long longerBreakNanoseconds;
+
+    /**
+     * The constructor.
+     *
+     * @param concentrationMinutes  The concentration minutes
+     * @param breakMinutes          The break minutes
+     * @param longerBreakMinutes    The longer break minutes
+     * @param countUntilLongerBreak The count until longer break
+     */
+    private BasicConfiguration(final int concentrationMinutes, final int breakMinutes, final int longerBreakMinutes,
+            final int countUntilLongerBreak) {
+        this.concentrationMinutes = concentrationMinutes;
+        this.breakMinutes = breakMinutes;
+        this.longerBreakMinutes = longerBreakMinutes;
+        this.countUntilLongerBreak = countUntilLongerBreak;
+        this.concentrationNanoseconds = TimeUnit.MINUTES.toNanos(concentrationMinutes);
+        this.breakNanoseconds = TimeUnit.MINUTES.toNanos(breakMinutes);
+        this.longerBreakNanoseconds = TimeUnit.MINUTES.toNanos(longerBreakMinutes);
+    }
+
+    /**
+     * Returns the interned instance of {@link BasicConfiguration} holding the
+     * values passed as arguments.
+     *
+     * @param concentrationMinutes  The concentration minutes
+     * @param breakMinutes          The break minutes
+     * @param longerBreakMinutes    The longer break minutes
+     * @param countUntilLongerBreak The count until longer break
+     * @return The interned instance of {@link BasicConfiguration}
+     */
+    static BasicConfiguration valueOf(final int concentrationMinutes, final int breakMinutes,
+            final int longerBreakMinutes, final int countUntilLongerBreak) {
+        final BasicConfiguration configuration = new BasicConfiguration(concentrationMinutes, breakMinutes,
+                longerBreakMinutes, countUntilLongerBreak);
+
+        synchronized (INTERNED) {
+            final WeakReference<BasicConfiguration> reference = INTERNED.get(configuration);
+            final BasicConfiguration interned = reference != null ? reference.get() : null;
+
+            if (interned != null) {
+                return interned;
+            }
+
+            INTERNED.put(configuration, new WeakReference<>(configuration));
+            return configuration;
+        }
+    }
 
     @Override
+    @Deprecated
     public Configuration setConcentrationMinutes(int concentrationMinutes) {
-        this.concentrationMinutes = concentrationMinutes;
-        return this;
+        return this.withConcentrationMinutes(concentrationMinutes);
     }
 
     @Override
+    public Configuration withConcentrationMinutes(final int concentrationMinutes) {
+        return valueOf(concentrationMinutes, this.breakMinutes, this.longerBreakMinutes, this.countUntilLongerBreak);
+    }
+
+    @Override
+    @Deprecated
     public Configuration setBreakMinutes(int breakMinutes) {
-        this.breakMinutes = breakMinutes;
-        return this;
+        return this.withBreakMinutes(breakMinutes);
     }
 
     @Override
+    public Configuration withBreakMinutes(final int breakMinutes) {
+        return valueOf(this.concentrationMinutes, breakMinutes, this.longerBreakMinutes, this.countUntilLongerBreak);
+    }
+
+    @Override
+    @Deprecated
     public Configuration setLongerBreakMinutes(int longerBreakMinutes) {
-        this.longerBreakMinutes = longerBreakMinutes;
-        return this;
+        return this.withLongerBreakMinutes(longerBreakMinutes);
     }
 
     @Override
+    public Configuration withLongerBreakMinutes(final int longerBreakMinutes) {
+        return valueOf(this.concentrationMinutes, this.breakMinutes, longerBreakMinutes, this.countUntilLongerBreak);
+    }
+
+    @Override
+    @Deprecated
     public Configuration setCountUntilLongerBreak(int countUntilLongerBreak) {
-        this.countUntilLongerBreak = countUntilLongerBreak;
-        return this;
+        return this.withCountUntilLongerBreak(countUntilLongerBreak);
+    }
+
+    @Override
+    public Configuration withCountUntilLongerBreak(final int countUntilLongerBreak) {
+        return valueOf(this.concentrationMinutes, this.breakMinutes, this.longerBreakMinutes, countUntilLongerBreak);
+    }
+
+    /**
+     * Returns the interned instance instead of the deserialized one.
+     *
+     * @return The interned instance
+     */
+    private Object readResolve() {
+        return valueOf(this.concentrationMinutes, this.breakMinutes, this.longerBreakMinutes,
+                this.countUntilLongerBreak);
     }
 }
@@ -27,7 +27,7 @@ final class BasicConfigurationFactory implements ConfigurationFactory {
 
     @Override
     public Configuration getInstance() {
-        return BasicConfiguration.newInstance();
+        return BasicConfiguration.DEFAULT;
     }
 
     @Override
@@ -15,45 +15,141 @@
 package org.pomodoro4j.conf;
 
 import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * The configuration of pomodoros.
+ *
+ * <p>
+ * The configurations created by {@link ConfigurationBuilder} and
+ * {@link ConfigurationContext} are immutable and interned, so the {@code with}
+ * methods return the configuration holding the new value and leave this
+ * instance unchanged. The setters are deprecated because they no longer modify
+ * the configuration.
+ *
  * @author Kato Shinya
  * @since 1.0.0
  */
 public interface Configuration extends Serializable {
 
     /**
-     * Sets the concentration minutes.
+     * Returns the configuration with the concentration minutes passed as an
+     * argument.
      *
      * @param concentrationMinutes The concentration minutes
-     * @return This instance
+     * @return The configuration with the concentration minutes
+     *
+     * @deprecated The configuration is immutable since 1.1.0, and this method does
+     *             not modify it. Use {@link #withConcentrationMinutes(int)} and
+     *             keep the returned configuration.
      */
+    @Deprecated
     public Configuration setConcentrationMinutes(int concentrationMinutes);
 
     /**
-     * Sets the break minutes.
+     * Returns the configuration with the concentration minutes passed as an
+     * argument.
+     *
+     * <p>
+     * The default implementation delegates to the deprecated setter.
+     *
+     * @param concentrationMinutes The concentration minutes
+     * @return The configuration with the concentration minutes
+     *
+     * @since 1.1.0
+     */
+    public default Configuration withConcentrationMinutes(final int concentrationMinutes) {
+        return this.setConcentrationMinutes(concentrationMinutes);
+    }
+
+    /**
+     * Returns the configuration with the break minutes passed as an argument.
      *
      * @param breakMinutes The break minutes
-     * @return This instance
+     * @return The configuration with the break minutes
+     *
+     * @deprecated The configuration is immutable since 1.1.0, and this method does
+     *             not modify it. Use {@link #withBreakMinutes(int)} and keep the
+     *             returned configuration.
      */
+    @Deprecated
     public Configuration setBreakMinutes(int breakMinutes);
 
     /**
-     * Sets the longer break minutes.
+     * Returns the configuration with the break minutes passed as an argument.
+     *
+     * <p>
+     * The default implementation delegates to the deprecated setter.
+     *
+     * @param breakMinutes The break minutes
+     * @return The configuration with the break minutes
+     *
+     * @since 1.1.0
+     */
+    public default Configuration withBreakMinutes(final int breakMinutes) {
+        return this.setBreakMinutes(breakMinutes);
+    }
+
+    /**
+     * Returns the configuration with the longer break minutes passed as an
+     * argument.
      *
      * @param longerBreakMinutes The longer break minutes
-     * @return This instance
+     * @return The configuration with the longer break minutes
+     *
+     * @deprecated The configuration is immutable since 1.1.0, and this method does
+     *             not modify it. Use {@link #withLongerBreakMinutes(int)} and keep
+     *             the returned configuration.
      */
+    @Deprecated
     public Configuration setLongerBreakMinutes(int longerBreakMinutes);
 
     /**
-     * Sets the count until longer break.
+     * Returns the configuration with the longer break minutes passed as an
+     * argument.
+     *
+     * <p>
+     * The default implementation delegates to the deprecated setter.
+     *
+     * @param longerBreakMinutes The longer break minutes
+     * @return The configuration with the longer break minutes
+     *
+     * @since 1.1.0
+     */
+    public default Configuration withLongerBreakMinutes(final int longerBreakMinutes) {
+        return this.setLongerBreakMinutes(longerBreakMinutes);
+    }
+
+    /**
+     * Returns the configuration with the count until longer break passed as an
+     * argument.
      *
      * @param countUntilLongerBreak The count until longer break
-     * @return This instance
+     * @return The configuration with the count until longer break
+     *
+     * @deprecated The configuration is immutable since 1.1.0, and this method does
+     *             not modify it. Use {@link #withCountUntilLongerBreak(int)} and
+     *             keep the returned configuration.
      */
+    @Deprecated
     public Configuration setCountUntilLongerBreak(int countUntilLongerBreak);
 
+    /**
+     * Returns the configuration with the count until longer break passed as an
+     * argument.
+     *
+     * <p>
+     * The default implementation delegates to the deprecated setter.
+     *
+     * @param countUntilLongerBreak The count until longer break
+     * @return The configuration with the count until longer break
+     *
+     * @since 1.1.0
+     */
+    public default Configuration withCountUntilLongerBreak(final int countUntilLongerBreak) {
+        return this.setCountUntilLongerBreak(countUntilLongerBreak);
+    }
+
     /**
      * Returns the concentration minutes.
      *
@@ -81,4 +177,37 @@ public interface Configuration extends Serializable {
      * @return The count until longer break
      */
     public int getCountUntilLongerBreak();
+
+    /**
+     * Returns the concentration minutes in nanoseconds.
+     *
+     * @return The concentration nanoseconds
+     *
+     * @since 1.1.0
+     */
+    public default long getConcentrationNanoseconds() {
+        return TimeUnit.MINUTES.toNanos(this.getConcentrationMinutes());
+    }
+
+    /**
+     * Returns the break minutes in nanoseconds.
+     *
+     * @return The break nanoseconds
+     *
+     * @since 1.1.0
+     */
+    public default long getBreakNanoseconds() {
+        return TimeUnit.MINUTES.toNanos(this.getBreakMinutes());
+    }
+
+    /**
+     * Returns the longer break minutes in nanoseconds.
+     *
+     * @return The longer break nanoseconds
+     *
+     * @since 1.1.0
+     */
+    public default long getLongerBreakNanoseconds() {
+        return TimeUnit.MINUTES.toNanos(this.getLongerBreakMinutes());
+    }
 }
@@ -20,6 +20,9 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 /**
+ * The builder of the immutable {@link Configuration} . The configurations built
+ * with the same values are the same interned instance.
+ *
  * @author Kato Shinya
  * @since 1.0.0
  */
@@ -29,9 +32,29 @@ import lombok.ToString;
 public final class ConfigurationBuilder {
 
     /**
-     * The basic configuration
+     * The concentration minutes
+     */
+    private int concentrationMinutes = BasicConfiguration.DEFAULT.getConcentrationMinutes();
+
+    /**
+     * The break minutes
+     */
+    private int breakMinutes = BasicConfiguration.DEFAULT.getBreakMinutes();
+
+    /**
+     * The longer break minutes
      */
-    private BasicConfiguration basicConfiguration = BasicConfiguration.newInstance();
+    private int longerBreakMinutes = BasicConfiguration.DEFAULT.getLongerBreakMinutes();
+
+    /**
+     * The count until longer break
+     */
+    private int countUntilLongerBreak = BasicConfiguration.DEFAULT.getCountUntilLongerBreak();
+
+    /**
+     * The flag whether the configuration has already been built
+     */
+    private boolean built;
 
     /**
      * Returns the new instance of {@link ConfigurationBuilder} .
@@ -54,7 +77,7 @@ public final class ConfigurationBuilder {
      */
     public ConfigurationBuilder setConcentrationMinutes(int concentrationMinutes) {
         this.checkNotBuilt();
-        this.basicConfiguration.setConcentrationMinutes(concentrationMinutes);
+        this.concentrationMinutes = concentrationMinutes;
         return this;
     }
 
@@ -70,7 +93,7 @@ public final class ConfigurationBuilder {
      */
     public ConfigurationBuilder setBreakMinutes(int breakMinutes) {
         this.checkNotBuilt();
-        this.basicConfiguration.setBreakMinutes(breakMinutes);
+        this.breakMinutes = breakMinutes;
         return this;
     }
 
@@ -86,7 +109,7 @@ public final class ConfigurationBuilder {
      */
     public ConfigurationBuilder setLongerBreakMinutes(int longerBreakMinutes) {
         this.checkNotBuilt();
-        this.basicConfiguration.setLongerBreakMinutes(longerBreakMinutes);
+        this.longerBreakMinutes = longerBreakMinutes;
         return this;
     }
 
@@ -102,7 +125,7 @@ public final class ConfigurationBuilder {
      */
     public ConfigurationBuilder setCountUntilLongerBreak(int countUntilLongerBreak) {
         this.checkNotBuilt();
-        this.basicConfiguration.setCountUntilLongerBreak(countUntilLongerBreak);
+        this.countUntilLongerBreak = countUntilLongerBreak;
         return this;
     }
 
@@ -118,11 +141,9 @@ public final class ConfigurationBuilder {
     public Configuration build() {
         this.checkNotBuilt();
 
-        try {
-            return this.basicConfiguration;
-        } finally {
-            this.basicConfiguration = null;
-        }
+        this.built = true;
+        return BasicConfiguration.valueOf(this.concentrationMinutes, this.breakMinutes, this.longerBreakMinutes,
+                this.countUntilLongerBreak);
     }
 
     /**
@@ -130,7 +151,7 @@ public final class ConfigurationBuilder {
      * already been built, it will always fail at runtime.
      */
     private void checkNotBuilt() {
-        if (this.basicConfiguration == null) {
+        if (this.built) {
             throw new IllegalStateException("Cannot use this builder any longer, build() has already been called.");
         }
     }
@@ -48,9 +48,10 @@ public final class ConfigurationContext {
     }
 
     /**
-     * Returns the new insrance of {@link ConfigurationFactory} .
+     * Returns the default configuration. The configuration is immutable and shared
+     * by every caller.
      *
-     * @return The new instance of {@link ConfigurationFactory}
+     * @return The default configuration
      */
     public static Configuration getInstance() {
         return CONFIGURATION_FACTORY.getInstance();
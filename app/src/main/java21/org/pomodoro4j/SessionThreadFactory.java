@@ -0,0 +1,56 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The factory of the threads running the lifecycle of a single pomodoro.
+ *
+ * <p>
+ * This is the implementation for Java 21 and later packaged under
+ * {@code META-INF/versions/21} of the multi-release JAR, and creates virtual
+ * threads.
+ *
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+final class SessionThreadFactory {
+
+    /**
+     * The default constructor.
+     */
+    private SessionThreadFactory() {
+    }
+
+    /**
+     * Returns the new thread factory.
+     *
+     * @return The new thread factory
+     */
+    static ThreadFactory newThreadFactory() {
+        return Thread.ofVirtual().name("pomodoro4j-session-", 0).factory();
+    }
+
+    /**
+     * Checks if the threads created by this factory are virtual threads.
+     *
+     * @return {@code true} if the threads are virtual threads, otherwise
+     *         {@code false}
+     */
+    static boolean isVirtual() {
+        return true;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class BreakPolicyTest {
+
+    @Nested
+    class TestIsAllowed {
+
+        @Test
+        void testStartBreak() {
+            assertTrue(BreakPolicy.START_BREAK.isAllowed(PomodoroState.CONCENTRATING));
+            assertTrue(BreakPolicy.START_BREAK.isAllowed(PomodoroState.STOPPED));
+            assertFalse(BreakPolicy.START_BREAK.isAllowed(PomodoroState.INITIALIZED));
+            assertFalse(BreakPolicy.START_BREAK.isAllowed(PomodoroState.BREAKING));
+            assertFalse(BreakPolicy.START_BREAK.isAllowed(PomodoroState.FINISHED));
+        }
+
+        @Test
+        void testEndBreak() {
+            assertTrue(BreakPolicy.END_BREAK.isAllowed(PomodoroState.BREAKING));
+            assertTrue(BreakPolicy.END_BREAK.isAllowed(PomodoroState.LONGER_BREAKING));
+            assertFalse(BreakPolicy.END_BREAK.isAllowed(PomodoroState.CONCENTRATING));
+        }
+
+        @Test
+        void testConsistentWithCheckState() {
+            for (final BreakPolicy breakPolicy : BreakPolicy.values()) {
+                for (final PomodoroState pomodoroState : PomodoroState.values()) {
+                    if (breakPolicy.isAllowed(pomodoroState)) {
+                        assertDoesNotThrow(() -> breakPolicy.checkState(pomodoroState));
+                    } else {
+                        assertThrows(PomodoroException.class, () -> breakPolicy.checkState(pomodoroState));
+                    }
+                }
+            }
+        }
+    }
+
+    @Nested
+    class TestStacklessException {
+
+        @Test
+        void testWithoutStackTrace() {
+            final PomodoroException actual = BreakPolicy.START_BREAK.getStacklessException();
+
+            assertEquals(0, actual.getStackTrace().length);
+            assertSame(actual, BreakPolicy.START_BREAK.getStacklessException());
+
+            actual.addSuppressed(new IllegalStateException());
+            assertEquals(0, actual.getSuppressed().length);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class ConcurrentPomodoroTest {
+
+    private static int countApplied(final ExecutorService executor, final int threads,
+            final Callable<TransitionResult> transition) throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final List<Future<TransitionResult>> futures = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                latch.await();
+                return transition.call();
+            }));
+        }
+
+        latch.countDown();
+
+        int applied = 0;
+
+        for (final Future<TransitionResult> future : futures) {
+            final TransitionResult result = future.get();
+
+            if (result == TransitionResult.APPLIED) {
+                applied++;
+            } else {
+                assertEquals(TransitionResult.DUPLICATE, result);
+            }
+        }
+
+        return applied;
+    }
+
+    @Nested
+    class TestTransitions {
+
+        @Test
+        void testStartBreakBeforeStart() {
+            final ConcurrentPomodoro sut = ConcurrentPomodoro.newInstance(ConfigurationBuilder.newBuilder().build());
+
+            assertThrows(PomodoroException.class, () -> sut.startBreak());
+            assertThrows(PomodoroException.class, () -> sut.endBreak());
+            assertThrows(IllegalStateException.class, () -> sut.stop());
+            assertEquals(PomodoroState.INITIALIZED, sut.getState());
+        }
+
+        @Test
+        void testFinish() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(1_000L);
+            final ConcurrentPomodoro sut = ConcurrentPomodoro
+                    .newInstance(ConfigurationBuilder.newBuilder().setCountUntilLongerBreak(1).build(), clock);
+
+            assertTrue(sut.performs());
+            assertEquals(1_000L, sut.getStartMilliseconds());
+            assertFalse(sut.shouldStartBreak());
+
+            clock.advance(25, TimeUnit.MINUTES);
+            assertTrue(sut.shouldStartBreak());
+            assertEquals(TimeUnit.MINUTES.toMillis(25), sut.getMilliseconds());
+
+            sut.startBreak();
+            assertTrue(sut.isBreaking());
+            assertFalse(sut.shouldEndBreak());
+            assertEquals(clock.nanoTime() + TimeUnit.MINUTES.toNanos(5), sut.getNextDeadlineNanos());
+
+            clock.advance(5, TimeUnit.MINUTES);
+            assertTrue(sut.shouldEndBreak());
+            assertEquals(TimeUnit.MINUTES.toNanos(30), sut.getSplitNanoseconds());
+
+            sut.endBreak();
+            sut.startBreak();
+            assertEquals(PomodoroState.LONGER_BREAKING, sut.getState());
+            assertEquals(2, sut.getBreakCount());
+
+            sut.endBreak();
+            assertEquals(PomodoroState.FINISHED, sut.getState());
+            assertEquals(0, sut.getBreakCount());
+            assertFalse(sut.performs());
+            assertEquals(TransitionResult.DUPLICATE, sut.tryEndBreak());
+            assertThrows(PomodoroException.class, () -> sut.startBreak());
+        }
+
+        @Test
+        void testTryBreak() {
+            final ConcurrentPomodoro sut = ConcurrentPomodoro.newInstance(ConfigurationBuilder.newBuilder().build());
+
+            assertEquals(TransitionResult.REJECTED, sut.tryStartBreak());
+            sut.performs();
+            assertEquals(TransitionResult.REJECTED, sut.tryEndBreak());
+            assertEquals(TransitionResult.APPLIED, sut.tryStartBreak());
+            assertEquals(TransitionResult.DUPLICATE, sut.tryStartBreak());
+            assertEquals(TransitionResult.APPLIED, sut.tryEndBreak());
+            assertEquals(TransitionResult.DUPLICATE, sut.tryEndBreak());
+            assertEquals(PomodoroState.CONCENTRATING, sut.getState());
+        }
+
+        @Test
+        void testThrowOnDuplicate() {
+            final ConcurrentPomodoro sut = ConcurrentPomodoro.newInstance(ConfigurationBuilder.newBuilder().build());
+
+            sut.performs();
+            sut.startBreak();
+            assertThrows(PomodoroException.class, () -> sut.startBreak());
+            assertEquals(PomodoroState.BREAKING, sut.getState());
+            sut.endBreak();
+            assertThrows(PomodoroException.class, () -> sut.endBreak());
+            assertEquals(PomodoroState.CONCENTRATING, sut.getState());
+        }
+
+        @Test
+        void testWhenDeadlineIsOutOfRange() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final ConcurrentPomodoro sut = ConcurrentPomodoro.newInstance(ConfigurationBuilder.newBuilder().build(),
+                    clock);
+
+            sut.performs();
+            clock.advance(13, TimeUnit.DAYS);
+
+            assertTrue(sut.shouldStartBreak());
+            assertThrows(IllegalStateException.class, () -> sut.startBreak());
+            assertThrows(IllegalStateException.class, () -> sut.tryStartBreak());
+            assertEquals(PomodoroState.CONCENTRATING, sut.getState());
+            assertEquals(0, sut.getBreakCount());
+
+            sut.reset();
+            assertTrue(sut.performs());
+            assertEquals(clock.nanoTime() + TimeUnit.MINUTES.toNanos(25), sut.getNextDeadlineNanos());
+        }
+
+        @Test
+        void testStopAndReset() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final ConcurrentPomodoro sut = ConcurrentPomodoro.newInstance(ConfigurationBuilder.newBuilder().build(),
+                    clock);
+
+            sut.performs();
+            clock.advance(1, TimeUnit.MINUTES);
+            sut.stop();
+            sut.stop();
+            clock.advance(1, TimeUnit.MINUTES);
+
+            assertEquals(PomodoroState.STOPPED, sut.getState());
+            assertEquals(TimeUnit.MINUTES.toMillis(1), sut.getMilliseconds());
+
+            sut.reset();
+            assertEquals(PomodoroState.INITIALIZED, sut.getState());
+            assertEquals(0, sut.getNanoseconds());
+            assertThrows(IllegalStateException.class, () -> sut.getStartMilliseconds());
+        }
+    }
+
+    @Nested
+    class TestConcurrency {
+
+        @Test
+        void testDuplicateTransitions() throws Exception {
+            final int threads = 8;
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+            try {
+                for (int round = 0; round < 200; round++) {
+                    final ConcurrentPomodoro sut = ConcurrentPomodoro
+                            .newInstance(ConfigurationBuilder.newBuilder().build());
+                    sut.performs();
+
+                    assertEquals(1, countApplied(executor, threads, sut::tryStartBreak));
+                    assertEquals(PomodoroState.BREAKING, sut.getState());
+                    assertEquals(1, sut.getBreakCount());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        void testDuplicatesOverCycle() throws Exception {
+            final int threads = 8;
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+            try {
+                for (int round = 0; round < 100; round++) {
+                    final ConcurrentPomodoro sut = ConcurrentPomodoro
+                            .newInstance(ConfigurationBuilder.newBuilder().setCountUntilLongerBreak(1).build());
+                    sut.performs();
+
+                    // Each racing thread reads its own time for the deadline of the next phase
+                    assertEquals(1, countApplied(executor, threads, sut::tryStartBreak));
+                    assertEquals(PomodoroState.BREAKING, sut.getState());
+                    assertEquals(1, countApplied(executor, threads, sut::tryEndBreak));
+                    assertEquals(PomodoroState.CONCENTRATING, sut.getState());
+                    assertEquals(1, countApplied(executor, threads, sut::tryStartBreak));
+                    assertEquals(PomodoroState.LONGER_BREAKING, sut.getState());
+                    assertEquals(1, countApplied(executor, threads, sut::tryEndBreak));
+                    assertEquals(PomodoroState.FINISHED, sut.getState());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        void testConcurrentCycles() throws Exception {
+            final int threads = 4;
+            final int cycles = 10_000;
+            final ConcurrentPomodoro sut = ConcurrentPomodoro.newInstance(ConfigurationBuilder.newBuilder()
+                    .setCountUntilLongerBreak(Integer.MAX_VALUE).build());
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            sut.performs();
+
+            try {
+                final List<Future<Integer>> futures = new ArrayList<>();
+
+                for (int i = 0; i < threads; i++) {
+                    futures.add(executor.submit(() -> {
+                        int started = 0;
+
+                        for (int j = 0; j < cycles; j++) {
+                            try {
+                                sut.startBreak();
+                                started++;
+                            } catch (PomodoroException e) {
+                                // The break has already been started by another thread
+                            }
+
+                            try {
+                                sut.endBreak();
+                            } catch (PomodoroException e) {
+                                // The break has already been ended by another thread
+                            }
+                        }
+
+                        return started;
+                    }));
+                }
+
+                int started = 0;
+
+                for (final Future<Integer> future : futures) {
+                    started += future.get();
+                }
+
+                // A start resolved as a duplicate returns normally without being counted
+                assertTrue(sut.getBreakCount() > 0);
+                assertTrue(sut.getBreakCount() <= started);
+                assertTrue(sut.getState() == PomodoroState.CONCENTRATING
+                        || sut.getState() == PomodoroState.BREAKING);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class OffHeapPomodoroStoreTest {
+
+    @Nested
+    class TestAdd {
+
+        @Test
+        void testWhenCapacityIsOutOfRange() {
+            assertThrows(IllegalArgumentException.class, () -> OffHeapPomodoroStore.newInstance(0));
+            assertThrows(IllegalArgumentException.class, () -> OffHeapPomodoroStore.newInstance(Integer.MAX_VALUE));
+        }
+
+        @Test
+        void testAddBeyondCapacity() {
+            final OffHeapPomodoroStore sut = OffHeapPomodoroStore.newInstance(2);
+            final int configurationId = sut.register(ConfigurationBuilder.newBuilder().build());
+
+            sut.add(configurationId);
+            sut.add(configurationId);
+
+            assertThrows(IllegalStateException.class, () -> sut.add(configurationId));
+            assertEquals(2, sut.size());
+        }
+
+        @Test
+        void testReuseRemovedSlot() {
+            final OffHeapPomodoroStore sut = OffHeapPomodoroStore.newInstance(1);
+            final int configurationId = sut.register(ConfigurationBuilder.newBuilder().build());
+            final long first = sut.add(configurationId);
+
+            sut.remove(first);
+            final long second = sut.add(configurationId);
+
+            assertNotEquals(first, second);
+            assertFalse(sut.isLive(first));
+            assertTrue(sut.isLive(second));
+            assertEquals(PomodoroState.FINISHED, sut.getState(first));
+            assertEquals(PomodoroState.INITIALIZED, sut.getState(second));
+        }
+
+        @Test
+        void testWhenConfigurationIsUnknown() {
+            final OffHeapPomodoroStore sut = OffHeapPomodoroStore.newInstance(1);
+            assertThrows(IllegalArgumentException.class, () -> sut.add(0));
+        }
+    }
+
+    @Nested
+    class TestView {
+
+        @Test
+        void testStartBreakBeforeStart() {
+            final OffHeapPomodoroStore sut = OffHeapPomodoroStore.newInstance(1);
+            final OffHeapPomodoro pomodoro = sut.newView()
+                    .moveTo(sut.add(sut.register(ConfigurationBuilder.newBuilder().build())));
+
+            assertThrows(PomodoroException.class, () -> pomodoro.startBreak());
+            assertThrows(PomodoroException.class, () -> pomodoro.endBreak());
+            assertEquals(PomodoroState.INITIALIZED, pomodoro.getState());
+        }
+
+        @Test
+        void testReleaseWhenFinished() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(1_000L);
+            final OffHeapPomodoroStore sut = OffHeapPomodoroStore.newInstance(clock, 4);
+            final OffHeapPomodoro pomodoro = sut.newView()
+                    .moveTo(sut.add(sut.register(ConfigurationBuilder.newBuilder().setCountUntilLongerBreak(1)
+                            .build())));
+
+            assertTrue(pomodoro.performs());
+            assertEquals(1_000L, pomodoro.getStartMilliseconds());
+            assertFalse(pomodoro.shouldStartBreak());
+
+            clock.advance(25, TimeUnit.MINUTES);
+            assertTrue(pomodoro.shouldStartBreak());
+            assertEquals(TimeUnit.MINUTES.toMillis(25), pomodoro.getMilliseconds());
+
+            pomodoro.startBreak();
+            assertTrue(pomodoro.isBreaking());
+            clock.advance(5, TimeUnit.MINUTES);
+            assertTrue(pomodoro.shouldEndBreak());
+            assertEquals(TimeUnit.MINUTES.toMillis(30), pomodoro.getSplitMilliseconds());
+
+            pomodoro.endBreak();
+            assertEquals(PomodoroState.CONCENTRATING, pomodoro.getState());
+            pomodoro.startBreak();
+            assertEquals(PomodoroState.LONGER_BREAKING, pomodoro.getState());
+            pomodoro.endBreak();
+
+            assertEquals(PomodoroState.FINISHED, pomodoro.getState());
+            assertEquals(0, sut.size());
+            assertFalse(pomodoro.performs());
+            assertFalse(pomodoro.isBreaking());
+            assertThrows(PomodoroException.class, () -> pomodoro.startBreak());
+            assertThrows(IllegalStateException.class, () -> pomodoro.getNanoseconds());
+        }
+
+        @Test
+        void testAwaitNextTransition() throws InterruptedException {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final OffHeapPomodoroStore sut = OffHeapPomodoroStore.newInstance(clock, 1);
+            final long handle = sut.add(sut.register(ConfigurationBuilder.newBuilder().build()));
+            final OffHeapPomodoro pomodoro = sut.newView().moveTo(handle);
+
+            assertEquals(Pomodoro.NO_DEADLINE, sut.getNextDeadlineNanos(handle));
+            assertFalse(pomodoro.awaitNextTransition(0, TimeUnit.NANOSECONDS));
+
+            assertTrue(pomodoro.performs());
+            assertEquals(TimeUnit.MINUTES.toNanos(25), pomodoro.getNextDeadlineNanos());
+            assertFalse(pomodoro.awaitNextTransition(1, TimeUnit.MILLISECONDS));
+
+            clock.advance(25, TimeUnit.MINUTES);
+            assertTrue(pomodoro.awaitNextTransition(0, TimeUnit.NANOSECONDS));
+        }
+
+        @Test
+        void testMoveTo() {
+            final OffHeapPomodoroStore sut = OffHeapPomodoroStore.newInstance(2);
+            final int configurationId = sut.register(ConfigurationBuilder.newBuilder().build());
+            final long first = sut.add(configurationId);
+            final long second = sut.add(configurationId);
+            final OffHeapPomodoro pomodoro = sut.newView();
+
+            assertSame(pomodoro, pomodoro.moveTo(first));
+            pomodoro.performs();
+            pomodoro.stop();
+
+            assertEquals(PomodoroState.STOPPED, sut.getState(first));
+            assertEquals(PomodoroState.INITIALIZED, pomodoro.moveTo(second).getState());
+            assertEquals(0, pomodoro.getNanoseconds());
+            assertThrows(IllegalStateException.class, () -> pomodoro.stop());
+            assertEquals(PomodoroState.INITIALIZED, pomodoro.getState());
+        }
+
+        @Test
+        void testStopTwice() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final OffHeapPomodoroStore sut = OffHeapPomodoroStore.newInstance(clock, 1);
+            final OffHeapPomodoro pomodoro = sut.newView()
+                    .moveTo(sut.add(sut.register(ConfigurationBuilder.newBuilder().build())));
+
+            pomodoro.performs();
+            clock.advance(10, TimeUnit.MINUTES);
+            pomodoro.stop();
+            clock.advance(10, TimeUnit.MINUTES);
+
+            assertThrows(IllegalStateException.class, () -> pomodoro.stop());
+            assertEquals(PomodoroState.STOPPED, pomodoro.getState());
+            assertEquals(TimeUnit.MINUTES.toNanos(10), pomodoro.getNanoseconds());
+        }
+    }
+
+    @Nested
+    class TestSweep {
+
+        @Test
+        void testFullDay() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final OffHeapPomodoroStore sut = OffHeapPomodoroStore.newInstance(clock, 1_000);
+            final int configurationId = sut.register(ConfigurationBuilder.newBuilder().build());
+            final OffHeapPomodoro pomodoro = sut.newView();
+            final List<PomodoroState> transitions = new ArrayList<>();
+            final long first = sut.add(configurationId);
+
+            pomodoro.moveTo(first).performs();
+
+            for (int i = 1; i < 1_000; i++) {
+                pomodoro.moveTo(sut.add(configurationId)).performs();
+            }
+
+            // 5 concentrations of 25 minutes, 4 breaks of 5 minutes and a longer break of 15 minutes
+            for (int minutes = 0; minutes < 160; minutes++) {
+                clock.advance(1, TimeUnit.MINUTES);
+                sut.sweep(clock.nanoTime(), (handle, from, to) -> {
+                    if (handle == first) {
+                        transitions.add(to);
+                    }
+                });
+            }
+
+            assertEquals(List.of(PomodoroState.BREAKING, PomodoroState.CONCENTRATING, PomodoroState.BREAKING,
+                    PomodoroState.CONCENTRATING, PomodoroState.BREAKING, PomodoroState.CONCENTRATING,
+                    PomodoroState.BREAKING, PomodoroState.CONCENTRATING, PomodoroState.LONGER_BREAKING,
+                    PomodoroState.FINISHED), transitions);
+            assertEquals(0, sut.size());
+            assertEquals(PomodoroState.FINISHED, sut.getState(first));
+            assertEquals(0, sut.sweep(clock.nanoTime(), (handle, from, to) -> {
+            }));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PhaseScheduleTest {
+
+    @Nested
+    class TestNewInstance {
+
+        @Test
+        void testWithConfiguration() {
+            final PhaseSchedule sut = PhaseSchedule.newInstance(ConfigurationBuilder.newBuilder()
+                    .setCountUntilLongerBreak(1).build());
+
+            assertEquals(4, sut.size());
+            assertEquals(PomodoroState.CONCENTRATING, sut.getState(0));
+            assertEquals(PomodoroState.BREAKING, sut.getState(1));
+            assertEquals(PomodoroState.CONCENTRATING, sut.getState(2));
+            assertEquals(PomodoroState.LONGER_BREAKING, sut.getState(3));
+            assertEquals(PomodoroState.FINISHED, sut.getState(4));
+            assertEquals(TimeUnit.MINUTES.toNanos(25), sut.getNanoseconds(0));
+            assertEquals(TimeUnit.MINUTES.toNanos(5), sut.getNanoseconds(1));
+            assertEquals(TimeUnit.MINUTES.toNanos(15), sut.getNanoseconds(3));
+        }
+
+        @Test
+        void testWhenCountUntilLongerBreakIsTooLarge() {
+            assertThrows(IllegalArgumentException.class, () -> PhaseSchedule.newInstance(ConfigurationBuilder
+                    .newBuilder().setCountUntilLongerBreak(Integer.MAX_VALUE).build()));
+        }
+    }
+
+    @Nested
+    class TestBuilder {
+
+        @Test
+        void testRepeat() {
+            final PhaseSchedule sut = PhaseSchedule.newBuilder().addConcentration(52, TimeUnit.MINUTES)
+                    .addBreak(17, TimeUnit.MINUTES).repeat(3).build();
+
+            assertEquals(6, sut.size());
+            assertEquals(PomodoroState.BREAKING, sut.getState(5));
+            assertEquals(TimeUnit.MINUTES.toNanos(52), sut.getNanoseconds(4));
+            assertEquals(TimeUnit.MINUTES.toNanos(17), sut.getNanoseconds(5));
+        }
+
+        @Test
+        void testInvalidSequences() {
+            assertThrows(IllegalStateException.class,
+                    () -> PhaseSchedule.newBuilder().addBreak(5, TimeUnit.MINUTES));
+            assertThrows(IllegalStateException.class, () -> PhaseSchedule.newBuilder()
+                    .addConcentration(25, TimeUnit.MINUTES).addConcentration(25, TimeUnit.MINUTES));
+            assertThrows(IllegalStateException.class,
+                    () -> PhaseSchedule.newBuilder().addConcentration(25, TimeUnit.MINUTES).build());
+            assertThrows(IllegalStateException.class,
+                    () -> PhaseSchedule.newBuilder().addConcentration(25, TimeUnit.MINUTES).repeat(2));
+            assertThrows(IllegalArgumentException.class,
+                    () -> PhaseSchedule.newBuilder().addConcentration(-1, TimeUnit.MINUTES));
+        }
+
+        @Test
+        void testBuildTwice() {
+            final PhaseSchedule.Builder sut = PhaseSchedule.newBuilder().addConcentration(25, TimeUnit.MINUTES)
+                    .addBreak(5, TimeUnit.MINUTES);
+            sut.build();
+
+            assertThrows(IllegalStateException.class, () -> sut.build());
+            assertThrows(IllegalStateException.class, () -> sut.addConcentration(25, TimeUnit.MINUTES));
+        }
+    }
+
+    @Nested
+    class TestTransitions {
+
+        @Test
+        void testTables() {
+            final PhaseSchedule sut = PhaseSchedule.newBuilder().addConcentration(25, TimeUnit.MINUTES)
+                    .addBreak(5, TimeUnit.MINUTES).addConcentration(25, TimeUnit.MINUTES)
+                    .addLongerBreak(15, TimeUnit.MINUTES).addConcentration(25, TimeUnit.MINUTES)
+                    .addLongerBreak(30, TimeUnit.MINUTES).build();
+
+            assertEquals(1, sut.getNextBreak(0));
+            assertEquals(2, sut.getNextConcentration(1));
+            assertEquals(4, sut.getNextConcentration(3));
+            assertEquals(6, sut.getNextConcentration(5));
+            assertEquals(3, sut.getNextBreak(1));
+            assertEquals(6, sut.getNextBreak(5));
+            assertEquals(6, sut.getNextBreak(6));
+            assertEquals(0, sut.getBreakCount(0));
+            assertEquals(2, sut.getBreakCount(3));
+            assertEquals(0, sut.getBreakCount(6));
+            assertEquals(PomodoroState.FINISHED.ordinal(), sut.getStateOrdinal(6));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroAsyncTest {
+
+    @Nested
+    class TestStart {
+
+        @Test
+        void testFullCycle() throws Exception {
+            final Pomodoro pomodoro = PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder()
+                    .setConcentrationMinutes(0).setBreakMinutes(0).setLongerBreakMinutes(0)
+                    .setCountUntilLongerBreak(1).build()).getInstance();
+
+            try (PomodoroScheduler scheduler = PomodoroScheduler.newInstance(1)) {
+                final PomodoroAsync sut = PomodoroAsync.newInstance(pomodoro, scheduler);
+                final CompletableFuture<PomodoroState> breakStart = sut.onBreakStart();
+                final CompletableFuture<PomodoroState> breakEnd = sut.onBreakEnd();
+                final CompletableFuture<Pomodoro> cycleFinished = sut.onCycleFinished();
+
+                assertFalse(breakStart.isDone());
+                assertSame(pomodoro, sut.start().get(10, TimeUnit.SECONDS));
+                assertSame(pomodoro, cycleFinished.get(10, TimeUnit.SECONDS));
+                assertEquals(PomodoroState.BREAKING, breakStart.get(10, TimeUnit.SECONDS));
+                assertEquals(PomodoroState.CONCENTRATING, breakEnd.get(10, TimeUnit.SECONDS));
+
+                // No break starts after the cycle is finished
+                assertTrue(sut.onBreakStart().isCancelled());
+                assertTrue(sut.onBreakEnd().isCancelled());
+            }
+        }
+
+        @Test
+        void testWhenStartedTwice() {
+            try (PomodoroScheduler scheduler = PomodoroScheduler.newInstance(1)) {
+                final PomodoroAsync sut = PomodoroAsync.newInstance(PomodoroFactory.newInstance().getInstance(),
+                        scheduler);
+
+                sut.start();
+                assertThrows(IllegalStateException.class, () -> sut.start());
+                assertTrue(sut.cancel());
+            }
+        }
+
+        @Test
+        void testWhenPomodoroIsNull() {
+            assertThrows(NullPointerException.class, () -> PomodoroAsync.newInstance(null));
+        }
+    }
+
+    @Nested
+    class TestCancel {
+
+        @Test
+        void testCancel() {
+            try (PomodoroScheduler scheduler = PomodoroScheduler.newInstance(1)) {
+                final PomodoroAsync sut = PomodoroAsync.newInstance(PomodoroFactory.newInstance().getInstance(),
+                        scheduler);
+                final CompletableFuture<Pomodoro> cycleFinished = sut.start();
+                final CompletableFuture<PomodoroState> breakStart = sut.onBreakStart();
+
+                assertTrue(sut.cancel());
+                assertFalse(sut.cancel());
+                assertTrue(cycleFinished.isCancelled());
+                assertTrue(breakStart.isCancelled());
+            }
+        }
+
+        @Test
+        void testCancelReturnedFuture() {
+            try (PomodoroScheduler scheduler = PomodoroScheduler.newInstance(1)) {
+                final PomodoroAsync sut = PomodoroAsync.newInstance(PomodoroFactory.newInstance().getInstance(),
+                        scheduler);
+
+                sut.start();
+                assertTrue(sut.onBreakStart().cancel(false));
+                assertFalse(sut.onBreakStart().isDone());
+                assertFalse(sut.onCycleFinished().isDone());
+                assertTrue(sut.cancel());
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.Configuration;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroBatchTest {
+
+    /**
+     * The configuration with a longer break after the second concentration
+     */
+    private static final Configuration CONFIGURATION = ConfigurationBuilder.newBuilder().setConcentrationMinutes(25)
+            .setBreakMinutes(5).setLongerBreakMinutes(15).setCountUntilLongerBreak(1).build();
+
+    /**
+     * The clock counting the reads
+     */
+    private static final class CountingClock implements PomodoroClock {
+
+        private static final long serialVersionUID = 0L;
+
+        private final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public long nanoTime() {
+            this.reads.incrementAndGet();
+            return this.clock.nanoTime();
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return this.clock.currentTimeMillis();
+        }
+    }
+
+    @Nested
+    class TestEvaluate {
+
+        @Test
+        void testAppliesDueTransitions() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final PomodoroFactory factory = PomodoroFactory.newInstance(CONFIGURATION, clock);
+            final Pomodoro early = factory.getInstance();
+            final Pomodoro late = factory.getInstance();
+            final Pomodoro idle = factory.getInstance();
+            final Pomodoro concurrent = factory.getConcurrentInstance();
+
+            early.performs();
+            concurrent.performs();
+            clock.advance(10, TimeUnit.MINUTES);
+            late.performs();
+            clock.advance(15, TimeUnit.MINUTES);
+
+            final long now = clock.nanoTime();
+            final List<Pomodoro> changed = PomodoroBatch.evaluate(Arrays.asList(early, late, idle, concurrent), now);
+
+            assertEquals(Arrays.asList(early, concurrent), changed);
+            assertTrue(early.isBreaking());
+            assertTrue(concurrent.isBreaking());
+            assertEquals(PomodoroState.CONCENTRATING, ((PomodoroImpl) late).getPomodoroState());
+            assertEquals(PomodoroState.INITIALIZED, ((PomodoroImpl) idle).getPomodoroState());
+            assertEquals(now + TimeUnit.MINUTES.toNanos(5), early.getNextDeadlineNanos());
+            assertEquals(0L, early.getSplitNanoseconds());
+
+            assertTrue(PomodoroBatch.evaluate(Arrays.asList(early, late, idle, concurrent), now).isEmpty());
+        }
+
+        @Test
+        void testFullCycle() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final PomodoroFactory factory = PomodoroFactory.newInstance(CONFIGURATION, clock);
+            final List<Pomodoro> pomodoros = Arrays.asList(factory.getInstance(), factory.getConcurrentInstance());
+            pomodoros.forEach(Pomodoro::performs);
+
+            final long[] phases = { 25, 5, 25, 15 };
+            final PomodoroState[] states = { PomodoroState.BREAKING, PomodoroState.CONCENTRATING,
+                    PomodoroState.LONGER_BREAKING, PomodoroState.FINISHED };
+
+            for (int i = 0; i < phases.length; i++) {
+                clock.advance(phases[i], TimeUnit.MINUTES);
+                assertEquals(pomodoros, PomodoroBatch.evaluate(pomodoros, clock.nanoTime()));
+                assertEquals(states[i], ((PomodoroImpl) pomodoros.get(0)).getPomodoroState());
+                assertEquals(states[i], ((ConcurrentPomodoro) pomodoros.get(1)).getState());
+            }
+
+            clock.advance(1, TimeUnit.DAYS);
+            assertTrue(PomodoroBatch.evaluate(pomodoros, clock.nanoTime()).isEmpty());
+        }
+
+        @Test
+        void testStoppedIsNotChanged() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final Pomodoro pomodoro = PomodoroFactory.newInstance(CONFIGURATION, clock).getInstance();
+            pomodoro.performs();
+            pomodoro.stop();
+
+            clock.advance(1, TimeUnit.HOURS);
+            assertTrue(PomodoroBatch.evaluate(Collections.singletonList(pomodoro), clock.nanoTime()).isEmpty());
+        }
+
+        @Test
+        void testDoesNotReadClock() {
+            final CountingClock clock = new CountingClock();
+            final PomodoroFactory factory = PomodoroFactory.newInstance(CONFIGURATION, clock);
+            final List<Pomodoro> pomodoros = new ArrayList<>();
+
+            for (int i = 0; i < 100; i++) {
+                final Pomodoro pomodoro = factory.getInstance();
+                pomodoro.performs();
+                pomodoros.add(pomodoro);
+            }
+
+            clock.clock.advance(25, TimeUnit.MINUTES);
+            final long now = clock.nanoTime();
+            final int reads = clock.reads.get();
+
+            assertEquals(100, PomodoroBatch.evaluate(pomodoros, now).size());
+            assertEquals(reads, clock.reads.get());
+        }
+
+        @Test
+        void testInvalidArguments() {
+            final Pomodoro pomodoro = PomodoroFactory.newInstance(CONFIGURATION).getInstance();
+            final Pomodoro unsupported = new Pomodoro() {
+
+                private static final long serialVersionUID = 0L;
+
+                // @formatter:off
+                @Override public boolean performs() { return false; }
+                @Override public void stop() {}
+                @Override public void reset() {}
+                @Override public long getStartMilliseconds() { return 0; }
+                @Override public long getStartNanoseconds() { return 0; }
+                @Override public long getMilliseconds() { return 0; }
+                @Override public long getNanoseconds() { return 0; }
+                @Override public long getSplitMilliseconds() { return 0; }
+                @Override public long getSplitNanoseconds() { return 0; }
+                @Override public boolean shouldStartBreak() { return false; }
+                @Override public boolean isBreaking() { return false; }
+                @Override public boolean shouldEndBreak() { return false; }
+                @Override public void startBreak() {}
+                @Override public void endBreak() {}
+                @Override public TransitionResult tryStartBreak() { return TransitionResult.REJECTED; }
+                @Override public TransitionResult tryEndBreak() { return TransitionResult.REJECTED; }
+                @Override public long getNextDeadlineNanos() { return NO_DEADLINE; }
+                @Override public boolean awaitNextTransition(final long timeout, final TimeUnit unit) { return false; }
+                @Override public void startBreakIfShould() {}
+                @Override public void endBreakIfShould() {}
+                // @formatter:on
+            };
+
+            assertThrows(NullPointerException.class, () -> PomodoroBatch.evaluate(null, 0L));
+            assertThrows(NullPointerException.class, () -> PomodoroBatch.evaluate(Arrays.asList(pomodoro, null), 0L));
+            assertThrows(IllegalArgumentException.class,
+                    () -> PomodoroBatch.evaluate(Arrays.asList(pomodoro, unsupported), 0L));
+        }
+    }
+}
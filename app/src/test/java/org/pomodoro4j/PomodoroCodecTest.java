@@ -0,0 +1,168 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.Configuration;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroCodecTest {
+
+    @Nested
+    class TestEncode {
+
+        @Test
+        void testRoundTrip() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(1_600_000_000_000L);
+            final PomodoroImpl pomodoro = new PomodoroImpl(ConfigurationBuilder.newBuilder().setBreakMinutes(7)
+                    .build(), clock);
+            final ByteBuffer buffer = ByteBuffer.allocate(PomodoroCodec.MAX_ENCODED_SIZE);
+
+            pomodoro.performs();
+            clock.advance(25, TimeUnit.MINUTES);
+            pomodoro.startBreak();
+            clock.advance(3, TimeUnit.MINUTES);
+            assertFalse(pomodoro.shouldEndBreak());
+
+            PomodoroCodec.encode(pomodoro, buffer);
+            assertTrue(buffer.position() <= 32, "encoded in " + buffer.position() + " bytes");
+
+            buffer.flip();
+            final Pomodoro actual = PomodoroCodec.decode(buffer, clock);
+
+            assertFalse(buffer.hasRemaining());
+            assertTrue(actual.isBreaking());
+            assertEquals(pomodoro.getStartMilliseconds(), actual.getStartMilliseconds());
+            assertEquals(pomodoro.getMilliseconds(), actual.getMilliseconds());
+            assertEquals(pomodoro.getSplitMilliseconds(), actual.getSplitMilliseconds());
+            assertEquals(pomodoro.getNextDeadlineNanos(), actual.getNextDeadlineNanos());
+        }
+
+        @Test
+        void testRoundTripInitialized() {
+            final ByteBuffer buffer = ByteBuffer.allocate(PomodoroCodec.MAX_ENCODED_SIZE);
+
+            PomodoroCodec.encode(PomodoroFactory.newInstance().getInstance(), buffer);
+            assertEquals(7, buffer.position());
+
+            buffer.flip();
+            final Pomodoro actual = PomodoroCodec.decode(buffer);
+            assertEquals(Pomodoro.NO_DEADLINE, actual.getNextDeadlineNanos());
+            assertTrue(actual.performs());
+        }
+
+        @Test
+        void testSmallerThanSerialization() throws IOException {
+            final Pomodoro pomodoro = PomodoroFactory.newInstance().getInstance();
+            pomodoro.performs();
+
+            final ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+
+            try (ObjectOutputStream stream = new ObjectOutputStream(serialized)) {
+                stream.writeObject(pomodoro);
+            }
+
+            final ByteBuffer buffer = ByteBuffer.allocate(PomodoroCodec.MAX_ENCODED_SIZE);
+            PomodoroCodec.encode(pomodoro, buffer);
+
+            assertTrue(buffer.position() * 10 < serialized.size());
+        }
+
+        @Test
+        void testWhenPomodoroIsUnsupported() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> PomodoroCodec.encode(ConcurrentPomodoro.newInstance(ConfigurationBuilder.newBuilder()
+                            .build()), ByteBuffer.allocate(PomodoroCodec.MAX_ENCODED_SIZE)));
+        }
+    }
+
+    @Nested
+    class TestDecode {
+
+        @Test
+        void testWhenVersionIsUnsupported() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> PomodoroCodec.decode(ByteBuffer.wrap(new byte[] { 2, 0, 0, 0, 0, 0, 0 })));
+        }
+
+        @Test
+        void testWhenDataIsTruncated() {
+            assertThrows(BufferUnderflowException.class,
+                    () -> PomodoroCodec.decode(ByteBuffer.wrap(new byte[] { 1, 1, 0, 25 })));
+        }
+
+        @Test
+        void testWhenVarIntIsMalformed() {
+            assertThrows(IllegalArgumentException.class, () -> PomodoroCodec
+                    .getVarInt(ByteBuffer.wrap(new byte[] { -1, -1, -1, -1, -1, 1 })));
+        }
+    }
+
+    @Nested
+    class TestConfiguration {
+
+        @Test
+        void testRoundTrip() {
+            final Configuration configuration = ConfigurationBuilder.newBuilder().setConcentrationMinutes(50)
+                    .setBreakMinutes(10).setLongerBreakMinutes(300).setCountUntilLongerBreak(4).build();
+            final ByteBuffer buffer = ByteBuffer.allocate(20);
+
+            PomodoroCodec.encodeConfiguration(configuration, buffer);
+            assertEquals(5, buffer.position());
+
+            buffer.flip();
+            assertEquals(configuration, PomodoroCodec.decodeConfiguration(buffer));
+        }
+    }
+
+    @Nested
+    class TestVarInt {
+
+        @Test
+        void testRoundTrip() {
+            final ByteBuffer buffer = ByteBuffer.allocate(64);
+
+            for (final long value : new long[] { 0L, 127L, 128L, Long.MAX_VALUE, -1L }) {
+                buffer.clear();
+                PomodoroCodec.putVarLong(buffer, value);
+                buffer.flip();
+                assertEquals(value, PomodoroCodec.getVarLong(buffer));
+            }
+
+            for (final int value : new int[] { 0, 300, Integer.MAX_VALUE, -1 }) {
+                buffer.clear();
+                PomodoroCodec.putVarInt(buffer, value);
+                buffer.flip();
+                assertEquals(value, PomodoroCodec.getVarInt(buffer));
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroEventPublisherTest {
+
+    /**
+     * The subscriber recording the received events.
+     */
+    private static final class RecordingSubscriber implements Flow.Subscriber<PomodoroEvent> {
+
+        /**
+         * The initial demand
+         */
+        private final long demand;
+
+        /**
+         * The received events
+         */
+        private final List<PomodoroEvent> events = new CopyOnWriteArrayList<>();
+
+        /**
+         * The flag whether the subscription has been completed
+         */
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private RecordingSubscriber(final long demand) {
+            this.demand = demand;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            subscription.request(this.demand);
+        }
+
+        @Override
+        public void onNext(final PomodoroEvent item) {
+            this.events.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed.set(true);
+        }
+    }
+
+    @Nested
+    class TestPublish {
+
+        @Test
+        void testPublishTransitions() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final PomodoroImpl pomodoro = new PomodoroImpl(ConfigurationBuilder.newBuilder().build(), clock);
+            final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+            try (PomodoroEventPublisher sut = PomodoroEventPublisher.newInstance(Runnable::run, 16)) {
+                sut.subscribe(subscriber);
+                sut.attach(pomodoro);
+                sut.attach(pomodoro);
+
+                pomodoro.performs();
+                clock.advance(25, TimeUnit.MINUTES);
+                pomodoro.startBreak();
+                clock.advance(5, TimeUnit.MINUTES);
+                pomodoro.endBreak();
+            }
+
+            assertEquals(3, subscriber.events.size());
+            assertTrue(subscriber.completed.get());
+
+            final PomodoroEvent breakStart = subscriber.events.get(1);
+            assertSame(pomodoro, breakStart.getPomodoro());
+            assertEquals(PomodoroState.CONCENTRATING, breakStart.getFrom());
+            assertEquals(PomodoroState.BREAKING, breakStart.getTo());
+            assertEquals(TimeUnit.MINUTES.toNanos(25), breakStart.getNanoTime());
+            assertTrue(breakStart.isBreakStart());
+            assertFalse(breakStart.isBreakEnd());
+
+            final PomodoroEvent breakEnd = subscriber.events.get(2);
+            assertEquals(TimeUnit.MINUTES.toNanos(30), breakEnd.getNanoTime());
+            assertTrue(breakEnd.isBreakEnd());
+        }
+
+        @Test
+        void testDropForSlowSubscriber() {
+            final PomodoroImpl pomodoro = new PomodoroImpl(ConfigurationBuilder.newBuilder()
+                    .setCountUntilLongerBreak(1_000).build());
+            final RecordingSubscriber subscriber = new RecordingSubscriber(1);
+
+            try (PomodoroEventPublisher sut = PomodoroEventPublisher.newInstance(Runnable::run, 1)) {
+                sut.subscribe(subscriber);
+                sut.attach(pomodoro);
+
+                pomodoro.performs();
+
+                for (int i = 0; i < 100; i++) {
+                    pomodoro.startBreak();
+                    pomodoro.endBreak();
+                }
+
+                assertEquals(1, subscriber.events.size());
+                assertTrue(sut.getDroppedCount() > 0);
+            }
+        }
+
+        @Test
+        void testDetach() {
+            final PomodoroImpl pomodoro = new PomodoroImpl(ConfigurationBuilder.newBuilder().build());
+            final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+            try (PomodoroEventPublisher sut = PomodoroEventPublisher.newInstance(Runnable::run, 16)) {
+                sut.subscribe(subscriber);
+                sut.attach(pomodoro);
+
+                assertTrue(sut.detach(pomodoro));
+                assertFalse(sut.detach(pomodoro));
+                pomodoro.performs();
+            }
+
+            assertTrue(subscriber.events.isEmpty());
+        }
+
+        @Test
+        void testAfterClosed() {
+            final PomodoroImpl pomodoro = new PomodoroImpl(ConfigurationBuilder.newBuilder().build());
+            final PomodoroEventPublisher sut = PomodoroEventPublisher.newInstance(Runnable::run, 16);
+
+            sut.attach(pomodoro);
+            sut.close();
+
+            assertDoesNotThrow(() -> pomodoro.performs());
+            assertThrows(IllegalStateException.class, () -> sut.attach(pomodoro));
+        }
+    }
+
+    @Nested
+    class TestAttach {
+
+        @Test
+        void testWhenPomodoroIsUnsupported() {
+            try (PomodoroEventPublisher sut = PomodoroEventPublisher.newInstance()) {
+                assertThrows(IllegalArgumentException.class,
+                        () -> sut.attach(ConcurrentPomodoro.newInstance(ConfigurationBuilder.newBuilder().build())));
+                assertThrows(NullPointerException.class, () -> sut.attach(null));
+            }
+        }
+
+        @Test
+        void testWhenBufferCapacityIsZero() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> PomodoroEventPublisher.newInstance(Runnable::run, 0));
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroEventRingTest {
+
+    @Nested
+    class TestNewInstance {
+
+        @Test
+        void testCapacity() {
+            assertEquals(1, PomodoroEventRing.newInstance(1).capacity());
+            assertEquals(8, PomodoroEventRing.newInstance(5).capacity());
+            assertEquals(8, PomodoroEventRing.newInstance(8).capacity());
+        }
+
+        @Test
+        void testWhenCapacityIsOutOfRange() {
+            assertThrows(IllegalArgumentException.class, () -> PomodoroEventRing.newInstance(0));
+            assertThrows(IllegalArgumentException.class, () -> PomodoroEventRing.newInstance(Integer.MAX_VALUE));
+        }
+    }
+
+    @Nested
+    class TestDrain {
+
+        @Test
+        void testDrainInOrder() {
+            final PomodoroEventRing sut = PomodoroEventRing.newInstance(4);
+            final List<String> actual = new ArrayList<>();
+
+            assertTrue(sut.tryPublish(1L, PomodoroState.INITIALIZED, PomodoroState.CONCENTRATING, 10L));
+            assertTrue(sut.tryPublish(2L, PomodoroState.CONCENTRATING, PomodoroState.BREAKING, 20L));
+            assertEquals(2, sut.size());
+
+            assertEquals(2, sut.drain((slot, sequence, endOfBatch) -> actual
+                    .add(sequence + ":" + slot.getHandle() + ":" + slot.getTo() + ":" + slot.getNanoTime() + ":"
+                            + endOfBatch)));
+
+            assertEquals(List.of("0:1:CONCENTRATING:10:false", "1:2:BREAKING:20:true"), actual);
+            assertEquals(0, sut.size());
+            assertEquals(0, sut.drain((slot, sequence, endOfBatch) -> {
+            }));
+        }
+
+        @Test
+        void testRejectWhenFull() {
+            final PomodoroEventRing sut = PomodoroEventRing.newInstance(2);
+
+            assertTrue(sut.tryPublish(1L, PomodoroState.CONCENTRATING, PomodoroState.BREAKING, 0L));
+            assertTrue(sut.tryPublish(2L, PomodoroState.CONCENTRATING, PomodoroState.BREAKING, 0L));
+            assertFalse(sut.tryPublish(3L, PomodoroState.CONCENTRATING, PomodoroState.BREAKING, 0L));
+            assertEquals(1, sut.getRejectedCount());
+
+            assertEquals(1, sut.drain((slot, sequence, endOfBatch) -> assertTrue(endOfBatch), 1));
+            assertTrue(sut.tryPublish(4L, PomodoroState.CONCENTRATING, PomodoroState.BREAKING, 0L));
+
+            final List<Long> actual = new ArrayList<>();
+            sut.drain((slot, sequence, endOfBatch) -> actual.add(slot.getHandle()));
+            assertEquals(List.of(2L, 4L), actual);
+        }
+
+        @Test
+        void testDrainAfterHandlerFails() {
+            final PomodoroEventRing sut = PomodoroEventRing.newInstance(4);
+            final List<Long> actual = new ArrayList<>();
+
+            assertTrue(sut.tryPublish(1L, PomodoroState.INITIALIZED, PomodoroState.CONCENTRATING, 0L));
+            assertTrue(sut.tryPublish(2L, PomodoroState.CONCENTRATING, PomodoroState.BREAKING, 0L));
+            assertTrue(sut.tryPublish(3L, PomodoroState.BREAKING, PomodoroState.CONCENTRATING, 0L));
+
+            assertThrows(IllegalStateException.class, () -> sut.drain((slot, sequence, endOfBatch) -> {
+                if (slot.getHandle() == 2L) {
+                    throw new IllegalStateException();
+                }
+
+                actual.add(slot.getHandle());
+            }));
+            assertEquals(2, sut.size());
+
+            assertEquals(2, sut.drain((slot, sequence, endOfBatch) -> actual.add(slot.getHandle())));
+            assertEquals(List.of(1L, 2L, 3L), actual);
+            assertEquals(0, sut.size());
+        }
+
+        @Test
+        void testWhenMaxEventsIsZero() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> PomodoroEventRing.newInstance(2).drain((slot, sequence, endOfBatch) -> {
+                    }, 0));
+        }
+
+        @Test
+        void testMultipleProducers() throws InterruptedException {
+            final int producers = 4;
+            final int eventsPerProducer = 20_000;
+            final PomodoroEventRing sut = PomodoroEventRing.newInstance(256);
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Thread> threads = new ArrayList<>();
+
+            for (int p = 0; p < producers; p++) {
+                final long producer = p;
+                final Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+
+                    for (long i = 0; i < eventsPerProducer; i++) {
+                        while (!sut.tryPublish(producer << 32 | i, PomodoroState.CONCENTRATING,
+                                PomodoroState.BREAKING, i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                });
+
+                thread.start();
+                threads.add(thread);
+            }
+
+            final long[] next = new long[producers];
+            final long[] drained = new long[1];
+            start.countDown();
+
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+
+            while (drained[0] < (long) producers * eventsPerProducer && System.nanoTime() < deadline) {
+                sut.drain((slot, sequence, endOfBatch) -> {
+                    final int producer = (int) (slot.getHandle() >>> 32);
+                    // The events of each producer are drained in publication order
+                    assertEquals(next[producer]++, slot.getHandle() & 0xFFFF_FFFFL);
+                    assertEquals(drained[0]++, sequence);
+                });
+            }
+
+            for (final Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals((long) producers * eventsPerProducer, drained[0]);
+            assertEquals(0, sut.size());
+        }
+    }
+
+    @Nested
+    class TestAttach {
+
+        @Test
+        void testPublishTransitions() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final PomodoroImpl pomodoro = new PomodoroImpl(ConfigurationBuilder.newBuilder().build(), clock);
+            final PomodoroEventRing sut = PomodoroEventRing.newInstance(8);
+            final List<PomodoroState> actual = new ArrayList<>();
+
+            sut.attach(pomodoro);
+            pomodoro.performs();
+            clock.advance(25, TimeUnit.MINUTES);
+            pomodoro.startBreak();
+
+            final PomodoroEventRing.Slot[] last = new PomodoroEventRing.Slot[1];
+            assertEquals(2, sut.drain((slot, sequence, endOfBatch) -> {
+                assertSame(pomodoro, slot.getPomodoro());
+                assertEquals(-1L, slot.getHandle());
+                actual.add(slot.getTo());
+                last[0] = slot;
+            }));
+
+            assertEquals(List.of(PomodoroState.CONCENTRATING, PomodoroState.BREAKING), actual);
+            assertNull(last[0].getPomodoro());
+
+            assertTrue(sut.detach(pomodoro));
+            pomodoro.endBreak();
+            assertEquals(0, sut.size());
+        }
+
+        @Test
+        void testWhenPomodoroIsUnsupported() {
+            assertThrows(IllegalArgumentException.class, () -> PomodoroEventRing.newInstance(8)
+                    .attach(ConcurrentPomodoro.newInstance(ConfigurationBuilder.newBuilder().build())));
+        }
+    }
+}
@@ -15,7 +15,14 @@
 package org.pomodoro4j;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 import org.pomodoro4j.conf.ConfigurationBuilder;
@@ -38,4 +45,51 @@ public final class PomodoroFactoryTest {
                 () -> PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder().build()).getInstance());
         assertNotNull(pomodoro);
     }
+
+    @Test
+    void testGetInstanceWithClock() {
+        final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+        final Pomodoro pomodoro = assertDoesNotThrow(() -> PomodoroFactory
+                .newInstance(ConfigurationBuilder.newBuilder().build(), clock).getInstance());
+        assertNotNull(pomodoro);
+
+        clock.advance(1, TimeUnit.MINUTES);
+        assertTrue(pomodoro.performs());
+        assertEquals(TimeUnit.MINUTES.toMillis(1), pomodoro.getStartMilliseconds());
+
+        clock.advance(25, TimeUnit.MINUTES);
+        assertEquals(TimeUnit.MINUTES.toNanos(25), pomodoro.getNanoseconds());
+        assertTrue(pomodoro.shouldStartBreak());
+    }
+
+    @Test
+    void testGetInstances() {
+        final List<Pomodoro> pomodoros = PomodoroFactory.newInstance().getInstances(3);
+        assertEquals(3, pomodoros.size());
+        assertNotSame(pomodoros.get(0), pomodoros.get(1));
+        assertNotSame(pomodoros.get(1), pomodoros.get(2));
+
+        for (final Pomodoro pomodoro : pomodoros) {
+            assertEquals(PomodoroState.INITIALIZED, ((PomodoroImpl) pomodoro).getPomodoroState());
+        }
+    }
+
+    @Test
+    void testGetInstancesWithZero() {
+        assertTrue(PomodoroFactory.newInstance().getInstances(0).isEmpty());
+    }
+
+    @Test
+    void testGetInstancesWithNegative() {
+        final PomodoroFactory factory = PomodoroFactory.newInstance();
+        assertThrows(IllegalArgumentException.class, () -> factory.getInstances(-1));
+    }
+
+    @Test
+    void testGetConcurrentInstance() {
+        final ConcurrentPomodoro pomodoro = assertDoesNotThrow(() -> PomodoroFactory.newInstance()
+                .getConcurrentInstance());
+        assertNotNull(pomodoro);
+        assertEquals(PomodoroState.INITIALIZED, pomodoro.getState());
+    }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroHistogramTest {
+
+    @Nested
+    class TestBuckets {
+
+        @Test
+        void testSmallValuesAreExact() {
+            for (int i = 0; i < 2 * PomodoroHistogram.SUB_BUCKET_COUNT; i++) {
+                assertEquals(i, PomodoroHistogram.bucketIndex(i));
+                assertEquals(i, PomodoroHistogram.lowestValue(i));
+                assertEquals(i, PomodoroHistogram.highestValue(i));
+            }
+        }
+
+        @Test
+        void testBucketsAreContiguous() {
+            for (int i = 0; i < PomodoroHistogram.BUCKET_COUNT - 1; i++) {
+                assertEquals(PomodoroHistogram.highestValue(i) + 1, PomodoroHistogram.lowestValue(i + 1));
+                assertEquals(i, PomodoroHistogram.bucketIndex(PomodoroHistogram.lowestValue(i)));
+                assertEquals(i, PomodoroHistogram.bucketIndex(PomodoroHistogram.highestValue(i)));
+            }
+
+            assertEquals(PomodoroHistogram.BUCKET_COUNT - 1, PomodoroHistogram.bucketIndex(Long.MAX_VALUE));
+        }
+
+        @Test
+        void testRelativeError() {
+            for (int i = 0; i < 10_000; i++) {
+                final long value = ThreadLocalRandom.current().nextLong(1L, Long.MAX_VALUE >>> 1);
+                final int index = PomodoroHistogram.bucketIndex(value);
+                final long width = PomodoroHistogram.highestValue(index) - PomodoroHistogram.lowestValue(index);
+                assertTrue(width <= value / PomodoroHistogram.SUB_BUCKET_COUNT);
+            }
+        }
+    }
+
+    @Nested
+    class TestSnapshot {
+
+        @Test
+        void testEmpty() {
+            final PomodoroHistogram.Snapshot snapshot = PomodoroHistogram.newInstance().snapshot();
+            assertEquals(0L, snapshot.getCount());
+            assertEquals(0L, snapshot.getMax());
+            assertEquals(0.0, snapshot.getMean());
+            assertEquals(0L, snapshot.getValueAtPercentile(99.0));
+        }
+
+        @Test
+        void testPercentiles() {
+            final PomodoroHistogram sut = PomodoroHistogram.newInstance();
+            final List<Long> values = new ArrayList<>();
+
+            for (long i = 1; i <= 1_000; i++) {
+                sut.record(i * 1_000_000L);
+                values.add(i * 1_000_000L);
+            }
+
+            final PomodoroHistogram.Snapshot snapshot = sut.snapshot();
+            assertEquals(1_000L, snapshot.getCount());
+            assertEquals(1_000_000_000L, snapshot.getMax());
+            assertEquals(500_500_000.0, snapshot.getMean());
+
+            for (final double percentile : new double[] { 1.0, 50.0, 90.0, 99.0, 99.9 }) {
+                final long expected = values.get((int) Math.ceil(percentile * 10) - 1);
+                final long actual = snapshot.getValueAtPercentile(percentile);
+                assertTrue(actual >= expected && actual <= expected + expected / 8,
+                        () -> percentile + ": " + actual + " for " + expected);
+            }
+
+            assertEquals(1_000_000_000L, snapshot.getValueAtPercentile(100.0));
+            assertThrows(IllegalArgumentException.class, () -> snapshot.getValueAtPercentile(100.5));
+            assertThrows(IllegalArgumentException.class, () -> snapshot.getValueAtPercentile(Double.NaN));
+        }
+
+        @Test
+        void testNegativeIsZero() {
+            final PomodoroHistogram sut = PomodoroHistogram.newInstance();
+            sut.record(-5L);
+            assertEquals(1L, sut.snapshot().getCount());
+            assertEquals(0L, sut.snapshot().getValueAtPercentile(100.0));
+        }
+
+        @Test
+        void testSnapshotAndReset() {
+            final PomodoroHistogram sut = PomodoroHistogram.newInstance();
+            sut.record(10L);
+            sut.record(20L);
+
+            final PomodoroHistogram.Snapshot first = sut.snapshotAndReset();
+            assertEquals(2L, first.getCount());
+            assertEquals(30L, first.getSum());
+            assertEquals(20L, first.getMax());
+
+            sut.record(5L);
+            final PomodoroHistogram.Snapshot second = sut.snapshot();
+            assertEquals(1L, second.getCount());
+            assertEquals(5L, second.getMax());
+
+            sut.reset();
+            assertEquals(0L, sut.snapshot().getCount());
+        }
+    }
+}
@@ -22,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -84,14 +85,15 @@ public final class PomodoroImplTest {
     class TestShouldStartBreak {
 
         @Test
-        void testWhenShouldStartBreak() throws InterruptedException {
-            final PomodoroImpl sut = assertDoesNotThrow(
-                    () -> new PomodoroImpl(ConfigurationBuilder.newBuilder().setConcentrationMinutes(1).build()));
+        void testWhenShouldStartBreak() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final PomodoroImpl sut = assertDoesNotThrow(() -> new PomodoroImpl(
+                    ConfigurationBuilder.newBuilder().setConcentrationMinutes(1).build(), clock));
 
             assertNotNull(sut);
             assertDoesNotThrow(() -> sut.performs());
 
-            TimeUnit.MINUTES.sleep(1);
+            clock.advance(1, TimeUnit.MINUTES);
             assertTrue(sut.shouldStartBreak());
             assertEquals(PomodoroState.CONCENTRATING, sut.getPomodoroState());
         }
@@ -186,9 +188,10 @@ public final class PomodoroImplTest {
     class TestShouldEndBreak {
 
         @Test
-        void testShouldEndBreak() throws InterruptedException {
+        void testShouldEndBreak() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
             final PomodoroImpl sut = assertDoesNotThrow(
-                    () -> new PomodoroImpl(ConfigurationBuilder.newBuilder().setBreakMinutes(1).build()));
+                    () -> new PomodoroImpl(ConfigurationBuilder.newBuilder().setBreakMinutes(1).build(), clock));
 
             assertNotNull(sut);
             assertEquals(PomodoroState.INITIALIZED, sut.getPomodoroState());
@@ -197,7 +200,7 @@ public final class PomodoroImplTest {
             assertDoesNotThrow(() -> sut.startBreak());
             assertEquals(PomodoroState.BREAKING, sut.getPomodoroState());
 
-            TimeUnit.MINUTES.sleep(1);
+            clock.advance(1, TimeUnit.MINUTES);
 
             final boolean actual = assertDoesNotThrow(() -> sut.shouldEndBreak());
             assertTrue(actual);
@@ -220,9 +223,11 @@ public final class PomodoroImplTest {
         }
 
         @Test
-        void testShouldEndLongerBreak() throws InterruptedException {
+        void testShouldEndLongerBreak() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
             final PomodoroImpl sut = assertDoesNotThrow(() -> new PomodoroImpl(
-                    ConfigurationBuilder.newBuilder().setCountUntilLongerBreak(0).setLongerBreakMinutes(1).build()));
+                    ConfigurationBuilder.newBuilder().setCountUntilLongerBreak(0).setLongerBreakMinutes(1).build(),
+                    clock));
 
             assertNotNull(sut);
             assertEquals(PomodoroState.INITIALIZED, sut.getPomodoroState());
@@ -231,7 +236,7 @@ public final class PomodoroImplTest {
             assertDoesNotThrow(() -> sut.startBreak());
             assertEquals(PomodoroState.LONGER_BREAKING, sut.getPomodoroState());
 
-            TimeUnit.MINUTES.sleep(1);
+            clock.advance(1, TimeUnit.MINUTES);
 
             final boolean actual = assertDoesNotThrow(() -> sut.shouldEndBreak());
             assertTrue(actual);
@@ -357,18 +362,129 @@ public final class PomodoroImplTest {
     }
 
     @Nested
-    class TestStartBreakIfSHould {
+    class TestTryBreak {
 
         @Test
-        void testWhenShouldStartBreak() throws InterruptedException {
+        void testTryStartBreak() {
             final PomodoroImpl sut = assertDoesNotThrow(
-                    () -> new PomodoroImpl(ConfigurationBuilder.newBuilder().setConcentrationMinutes(1).build()));
+                    () -> new PomodoroImpl(ConfigurationBuilder.newBuilder().setCountUntilLongerBreak(1).build()));
+
+            assertNotNull(sut);
+            assertEquals(TransitionResult.REJECTED, sut.tryStartBreak());
+            assertEquals(PomodoroState.INITIALIZED, sut.getPomodoroState());
+            assertDoesNotThrow(() -> sut.performs());
+            assertEquals(TransitionResult.APPLIED, sut.tryStartBreak());
+            assertEquals(PomodoroState.BREAKING, sut.getPomodoroState());
+            assertEquals(TransitionResult.REJECTED, sut.tryStartBreak());
+            assertEquals(PomodoroState.BREAKING, sut.getPomodoroState());
+        }
+
+        @Test
+        void testTryEndBreak() {
+            final PomodoroImpl sut = assertDoesNotThrow(
+                    () -> new PomodoroImpl(ConfigurationBuilder.newBuilder().setCountUntilLongerBreak(0).build()));
 
             assertNotNull(sut);
             assertDoesNotThrow(() -> sut.performs());
+            assertEquals(TransitionResult.REJECTED, sut.tryEndBreak());
             assertEquals(PomodoroState.CONCENTRATING, sut.getPomodoroState());
+            assertEquals(TransitionResult.APPLIED, sut.tryStartBreak());
+            assertEquals(PomodoroState.LONGER_BREAKING, sut.getPomodoroState());
+            assertTrue(sut.tryEndBreak().isApplied());
+            assertEquals(PomodoroState.FINISHED, sut.getPomodoroState());
+            assertFalse(sut.tryEndBreak().isApplied());
+        }
+    }
+
+    @Nested
+    class TestAwaitNextTransition {
 
-            TimeUnit.MINUTES.sleep(1);
+        @Test
+        void testGetNextDeadlineNanos() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final PomodoroImpl sut = assertDoesNotThrow(
+                    () -> new PomodoroImpl(ConfigurationBuilder.newBuilder().build(), clock));
+
+            assertEquals(Pomodoro.NO_DEADLINE, sut.getNextDeadlineNanos());
+            assertDoesNotThrow(() -> sut.performs());
+            assertEquals(TimeUnit.MINUTES.toNanos(25), sut.getNextDeadlineNanos());
+
+            clock.advance(27, TimeUnit.MINUTES);
+            assertDoesNotThrow(() -> sut.startBreak());
+            assertEquals(TimeUnit.MINUTES.toNanos(32), sut.getNextDeadlineNanos());
+
+            sut.stop();
+            assertEquals(Pomodoro.NO_DEADLINE, sut.getNextDeadlineNanos());
+        }
+
+        @Test
+        void testWhenDeadlineHasPassed() throws InterruptedException {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final PomodoroImpl sut = assertDoesNotThrow(
+                    () -> new PomodoroImpl(ConfigurationBuilder.newBuilder().build(), clock));
+
+            assertDoesNotThrow(() -> sut.performs());
+            clock.advance(25, TimeUnit.MINUTES);
+
+            assertTrue(sut.awaitNextTransition(0, TimeUnit.NANOSECONDS));
+            assertTrue(sut.shouldStartBreak());
+        }
+
+        @Test
+        void testWhenTimedOut() throws InterruptedException {
+            final PomodoroImpl sut = assertDoesNotThrow(
+                    () -> new PomodoroImpl(ConfigurationBuilder.newBuilder().build()));
+
+            assertFalse(sut.awaitNextTransition(10, TimeUnit.MILLISECONDS));
+            assertDoesNotThrow(() -> sut.performs());
+            assertFalse(sut.awaitNextTransition(10, TimeUnit.MILLISECONDS));
+        }
+
+        @Test
+        void testWakeUpAtDeadline() throws InterruptedException {
+            final AtomicLong skew = new AtomicLong();
+            final PomodoroClock clock = new PomodoroClock() {
+
+                private static final long serialVersionUID = 0L;
+
+                @Override
+                public long nanoTime() {
+                    return System.nanoTime() + skew.get();
+                }
+
+                @Override
+                public long currentTimeMillis() {
+                    return System.currentTimeMillis();
+                }
+            };
+            final PomodoroImpl sut = assertDoesNotThrow(
+                    () -> new PomodoroImpl(ConfigurationBuilder.newBuilder().build(), clock));
+
+            assertDoesNotThrow(() -> sut.performs());
+            // The deadline is now 50 milliseconds ahead of the clock
+            skew.set(TimeUnit.MINUTES.toNanos(25) - TimeUnit.MILLISECONDS.toNanos(50));
+            assertTrue(sut.awaitNextTransition(1, TimeUnit.SECONDS));
+
+            final long lateness = clock.nanoTime() - sut.getNextDeadlineNanos();
+            assertTrue(lateness >= 0);
+            assertTrue(lateness < TimeUnit.MILLISECONDS.toNanos(50), "late by " + lateness + "ns");
+        }
+    }
+
+    @Nested
+    class TestStartBreakIfSHould {
+
+        @Test
+        void testWhenShouldStartBreak() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final PomodoroImpl sut = assertDoesNotThrow(() -> new PomodoroImpl(
+                    ConfigurationBuilder.newBuilder().setConcentrationMinutes(1).build(), clock));
+
+            assertNotNull(sut);
+            assertDoesNotThrow(() -> sut.performs());
+            assertEquals(PomodoroState.CONCENTRATING, sut.getPomodoroState());
+
+            clock.advance(1, TimeUnit.MINUTES);
 
             assertDoesNotThrow(() -> sut.startBreakIfShould());
             assertEquals(PomodoroState.BREAKING, sut.getPomodoroState());
@@ -387,15 +503,17 @@ public final class PomodoroImplTest {
         }
 
         @Test
-        void testStartLongerBreak() throws InterruptedException {
+        void testStartLongerBreak() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
             final PomodoroImpl sut = assertDoesNotThrow(() -> new PomodoroImpl(
-                    ConfigurationBuilder.newBuilder().setConcentrationMinutes(1).setCountUntilLongerBreak(1).build()));
+                    ConfigurationBuilder.newBuilder().setConcentrationMinutes(1).setCountUntilLongerBreak(1).build(),
+                    clock));
 
             assertNotNull(sut);
             assertDoesNotThrow(() -> sut.performs());
             assertEquals(PomodoroState.CONCENTRATING, sut.getPomodoroState());
 
-            TimeUnit.MINUTES.sleep(1);
+            clock.advance(1, TimeUnit.MINUTES);
 
             assertDoesNotThrow(() -> sut.startBreakIfShould());
             assertEquals(PomodoroState.BREAKING, sut.getPomodoroState());
@@ -410,9 +528,10 @@ public final class PomodoroImplTest {
     class TestEndBreakIfShould {
 
         @Test
-        void testWhenShouldEndBreak() throws InterruptedException {
+        void testWhenShouldEndBreak() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
             final PomodoroImpl sut = assertDoesNotThrow(() -> new PomodoroImpl(
-                    ConfigurationBuilder.newBuilder().setBreakMinutes(1).setCountUntilLongerBreak(1).build()));
+                    ConfigurationBuilder.newBuilder().setBreakMinutes(1).setCountUntilLongerBreak(1).build(), clock));
 
             assertNotNull(sut);
             assertDoesNotThrow(() -> sut.performs());
@@ -420,7 +539,7 @@ public final class PomodoroImplTest {
             assertDoesNotThrow(() -> sut.startBreak());
             assertEquals(PomodoroState.BREAKING, sut.getPomodoroState());
 
-            TimeUnit.MINUTES.sleep(1);
+            clock.advance(1, TimeUnit.MINUTES);
 
             assertDoesNotThrow(() -> sut.endBreakIfShould());
             assertEquals(PomodoroState.CONCENTRATING, sut.getPomodoroState());
@@ -453,9 +572,11 @@ public final class PomodoroImplTest {
         }
 
         @Test
-        void testWhenShouldEndLongerBreak() throws InterruptedException {
+        void testWhenShouldEndLongerBreak() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
             final PomodoroImpl sut = assertDoesNotThrow(() -> new PomodoroImpl(
-                    ConfigurationBuilder.newBuilder().setLongerBreakMinutes(1).setCountUntilLongerBreak(0).build()));
+                    ConfigurationBuilder.newBuilder().setLongerBreakMinutes(1).setCountUntilLongerBreak(0).build(),
+                    clock));
 
             assertNotNull(sut);
             assertDoesNotThrow(() -> sut.performs());
@@ -463,7 +584,7 @@ public final class PomodoroImplTest {
             assertDoesNotThrow(() -> sut.startBreak());
             assertEquals(PomodoroState.LONGER_BREAKING, sut.getPomodoroState());
 
-            TimeUnit.MINUTES.sleep(1);
+            clock.advance(1, TimeUnit.MINUTES);
 
             assertDoesNotThrow(() -> sut.endBreakIfShould());
             assertEquals(PomodoroState.FINISHED, sut.getPomodoroState());
@@ -475,19 +596,24 @@ public final class PomodoroImplTest {
 
         @Test
         void testBasicCycle() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
             final PomodoroImpl sut = assertDoesNotThrow(
                     () -> new PomodoroImpl(ConfigurationBuilder.newBuilder().setConcentrationMinutes(2)
-                            .setBreakMinutes(1).setCountUntilLongerBreak(3).setLongerBreakMinutes(2).build()));
+                            .setBreakMinutes(1).setCountUntilLongerBreak(3).setLongerBreakMinutes(2).build(), clock));
 
             assertNotNull(sut);
 
             while (sut.performs()) {
+                clock.advance(1, TimeUnit.SECONDS);
+
                 assertEquals(PomodoroState.CONCENTRATING, sut.getPomodoroState());
 
                 if (sut.shouldStartBreak()) {
                     sut.startBreak();
 
                     while (sut.isBreaking()) {
+                        clock.advance(1, TimeUnit.SECONDS);
+
                         if (sut.shouldEndBreak()) {
                             assertEquals(sut.getBreakCounter().getCount() > 3 ? PomodoroState.LONGER_BREAKING
                                     : PomodoroState.BREAKING, sut.getPomodoroState());
@@ -507,18 +633,23 @@ public final class PomodoroImplTest {
 
         @Test
         void testSimplifiedCycle() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
             final PomodoroImpl sut = assertDoesNotThrow(
                     () -> new PomodoroImpl(ConfigurationBuilder.newBuilder().setConcentrationMinutes(2)
-                            .setBreakMinutes(1).setCountUntilLongerBreak(3).setLongerBreakMinutes(2).build()));
+                            .setBreakMinutes(1).setCountUntilLongerBreak(3).setLongerBreakMinutes(2).build(), clock));
 
             assertNotNull(sut);
 
             while (sut.performs()) {
+                clock.advance(1, TimeUnit.SECONDS);
+
                 assertEquals(PomodoroState.CONCENTRATING, sut.getPomodoroState());
 
                 sut.startBreakIfShould();
 
                 while (sut.isBreaking()) {
+                    clock.advance(1, TimeUnit.SECONDS);
+
                     sut.endBreakIfShould();
                 }
             }
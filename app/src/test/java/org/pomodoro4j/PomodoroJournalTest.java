@@ -0,0 +1,318 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroJournalTest {
+
+    @Nested
+    class TestReplay {
+
+        @Test
+        void testReplayTransitions(@TempDir final Path directory) throws IOException {
+            final Path path = directory.resolve("pomodoro.journal");
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(1_000_000L);
+            final PomodoroImpl first = new PomodoroImpl(ConfigurationBuilder.newBuilder().build(), clock);
+            final PomodoroImpl second = new PomodoroImpl(ConfigurationBuilder.newBuilder()
+                    .setBreakMinutes(10).build(), clock);
+
+            try (PomodoroJournal sut = PomodoroJournal.open(path)) {
+                sut.attach(1L, first);
+                sut.attach(2L, second);
+
+                first.performs();
+                second.performs();
+                clock.advance(25, TimeUnit.MINUTES);
+                first.startBreak();
+                second.startBreak();
+                clock.advance(5, TimeUnit.MINUTES);
+                first.endBreak();
+
+                // Two attachments and five transitions are made durable at once
+                assertEquals(7, sut.commit());
+                assertEquals(0, sut.commit());
+            }
+
+            final VirtualPomodoroClock restartedClock = VirtualPomodoroClock
+                    .newInstance(clock.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1));
+            final Map<Long, Pomodoro> actual = PomodoroJournal.replay(path, restartedClock);
+
+            assertEquals(List.of(1L, 2L), List.copyOf(actual.keySet()));
+            assertFalse(actual.get(1L).isBreaking());
+            assertEquals(TimeUnit.MINUTES.toMillis(31), actual.get(1L).getMilliseconds());
+            assertEquals(TimeUnit.MINUTES.toNanos(24), actual.get(1L).getNextDeadlineNanos());
+            assertTrue(actual.get(2L).isBreaking());
+            assertEquals(TimeUnit.MINUTES.toNanos(4), actual.get(2L).getNextDeadlineNanos());
+        }
+
+        @Test
+        void testReplayStopAndReset(@TempDir final Path directory) throws IOException {
+            final Path path = directory.resolve("pomodoro.journal");
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final PomodoroImpl stopped = new PomodoroImpl(ConfigurationBuilder.newBuilder().build(), clock);
+            final PomodoroImpl reset = new PomodoroImpl(ConfigurationBuilder.newBuilder().build(), clock);
+
+            try (PomodoroJournal sut = PomodoroJournal.open(path)) {
+                sut.attach(1L, stopped);
+                sut.attach(2L, reset);
+
+                stopped.performs();
+                reset.performs();
+                clock.advance(3, TimeUnit.MINUTES);
+                stopped.stop();
+                reset.reset();
+            }
+
+            final Map<Long, Pomodoro> actual = PomodoroJournal.replay(path, VirtualPomodoroClock.newInstance());
+
+            assertEquals(TimeUnit.MINUTES.toMillis(3), actual.get(1L).getMilliseconds());
+            assertEquals(Pomodoro.NO_DEADLINE, actual.get(1L).getNextDeadlineNanos());
+            assertEquals(0L, actual.get(2L).getMilliseconds());
+            assertTrue(actual.get(2L).performs());
+        }
+
+        @Test
+        void testDetach(@TempDir final Path directory) throws IOException {
+            final Path path = directory.resolve("pomodoro.journal");
+            final Pomodoro pomodoro = PomodoroFactory.newInstance().getInstance();
+
+            try (PomodoroJournal sut = PomodoroJournal.open(path)) {
+                sut.attach(1L, pomodoro);
+                sut.attach(2L, PomodoroFactory.newInstance().getInstance());
+
+                assertTrue(sut.detach(1L));
+                assertFalse(sut.detach(1L));
+                assertEquals(1, sut.size());
+
+                // Transitions of a detached session are no longer recorded
+                pomodoro.performs();
+            }
+
+            assertEquals(List.of(2L), List.copyOf(PomodoroJournal.replay(path).keySet()));
+            assertEquals(3 * 64, Files.size(path));
+        }
+
+        @Test
+        void testIgnoreTornRecords(@TempDir final Path directory) throws IOException {
+            final Path path = directory.resolve("pomodoro.journal");
+            final Pomodoro pomodoro = PomodoroFactory.newInstance().getInstance();
+
+            try (PomodoroJournal sut = PomodoroJournal.open(path)) {
+                sut.attach(1L, pomodoro);
+            }
+
+            // A crash while appending leaves a garbage record and a partial one
+            Files.write(path, new byte[100], StandardOpenOption.APPEND);
+            assertEquals(List.of(1L), List.copyOf(PomodoroJournal.replay(path).keySet()));
+
+            try (PomodoroJournal sut = PomodoroJournal.open(path)) {
+                assertEquals(64, Files.size(path));
+                sut.attach(2L, PomodoroFactory.newInstance().getInstance());
+            }
+
+            assertEquals(List.of(1L, 2L), List.copyOf(PomodoroJournal.replay(path).keySet()));
+        }
+    }
+
+    @Nested
+    class TestCommit {
+
+        @Test
+        void testWriteWhenBufferIsFull(@TempDir final Path directory) throws IOException {
+            final Path path = directory.resolve("pomodoro.journal");
+            final Pomodoro pomodoro = PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder()
+                    .setCountUntilLongerBreak(100).build()).getInstance();
+
+            try (PomodoroJournal sut = PomodoroJournal.open(path, 2)) {
+                sut.attach(1L, pomodoro);
+                pomodoro.performs();
+
+                for (int i = 0; i < 10; i++) {
+                    pomodoro.startBreak();
+                    pomodoro.endBreak();
+                }
+
+                assertTrue(Files.size(path) >= 20 * 64);
+                assertEquals(22, sut.commit());
+                assertEquals(22 * 64, Files.size(path));
+            }
+        }
+
+        @Test
+        void testCommitWhileCompacting(@TempDir final Path directory) throws Exception {
+            final Pomodoro pomodoro = PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder()
+                    .setCountUntilLongerBreak(Integer.MAX_VALUE).build()).getInstance();
+            final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+            try (PomodoroJournal sut = PomodoroJournal.open(directory.resolve("pomodoro.journal"))) {
+                sut.attach(1L, pomodoro);
+                pomodoro.performs();
+
+                final ScheduledFuture<?> commits = sut.scheduleCommits(executor, 1, TimeUnit.MILLISECONDS);
+
+                for (int i = 0; i < 200; i++) {
+                    pomodoro.startBreak();
+                    pomodoro.endBreak();
+                    sut.compact();
+                }
+
+                // A commit racing a compaction neither fails nor ends the periodic commits
+                assertFalse(commits.isDone());
+                commits.cancel(false);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        @EnabledOnOs(OS.LINUX)
+        void testWhenWriteFails() throws IOException {
+            final Path path = Path.of("/dev/full");
+            assumeTrue(Files.isWritable(path));
+
+            final Pomodoro pomodoro = PomodoroFactory.newInstance().getInstance();
+            final List<PomodoroState> transitions = new ArrayList<>();
+
+            final PomodoroJournal sut = PomodoroJournal.open(path, 1);
+            sut.attach(1L, pomodoro);
+            pomodoro.performs();
+
+            // The hook of the journal does not fail the transition seen by the hooks added later
+            ((PomodoroBaseImpl) pomodoro).addTransitionHook((source, from, to, nanoTime) -> transitions.add(to));
+            pomodoro.startBreak();
+
+            assertEquals(List.of(PomodoroState.BREAKING), transitions);
+            assertThrows(IOException.class, () -> sut.commit());
+            assertThrows(IOException.class, () -> sut.commit());
+            assertThrows(IOException.class, () -> sut.close());
+        }
+
+        @Test
+        void testWhenPomodoroIsUnsupported(@TempDir final Path directory) throws IOException {
+            try (PomodoroJournal sut = PomodoroJournal.open(directory.resolve("pomodoro.journal"))) {
+                assertThrows(IllegalArgumentException.class, () -> sut.attach(1L,
+                        ConcurrentPomodoro.newInstance(ConfigurationBuilder.newBuilder().build())));
+            }
+        }
+
+        @Test
+        void testWhenBufferRecordsIsZero(@TempDir final Path directory) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> PomodoroJournal.open(directory.resolve("pomodoro.journal"), 0));
+        }
+    }
+
+    @Nested
+    class TestCompact {
+
+        @Test
+        void testCompact(@TempDir final Path directory) throws IOException {
+            final Path path = directory.resolve("pomodoro.journal");
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final PomodoroImpl pomodoro = new PomodoroImpl(ConfigurationBuilder.newBuilder()
+                    .setCountUntilLongerBreak(100).build(), clock);
+
+            try (PomodoroJournal sut = PomodoroJournal.open(path)) {
+                sut.attach(1L, pomodoro);
+                sut.attach(2L, PomodoroFactory.newInstance().getInstance());
+                pomodoro.performs();
+
+                for (int i = 0; i < 50; i++) {
+                    pomodoro.startBreak();
+                    pomodoro.endBreak();
+                }
+
+                pomodoro.startBreak();
+                sut.commit();
+                assertEquals(104 * 64, Files.size(path));
+
+                sut.compact();
+                assertEquals(2 * 64, Files.size(path));
+
+                // The journal keeps appending after the compaction
+                pomodoro.endBreak();
+            }
+
+            final Map<Long, Pomodoro> actual = PomodoroJournal.replay(path, clock);
+
+            assertEquals(3 * 64, Files.size(path));
+            assertEquals(List.of(1L, 2L), List.copyOf(actual.keySet()));
+            assertFalse(actual.get(1L).isBreaking());
+            assertTrue(actual.get(1L).tryStartBreak().isApplied());
+            assertTrue(actual.get(1L).isBreaking());
+        }
+
+        @Test
+        @EnabledOnOs(OS.LINUX)
+        void testRetryFailedCompaction(@TempDir final Path directory) throws IOException {
+            final Path path = directory.resolve("pomodoro.journal");
+            final Pomodoro pomodoro = PomodoroFactory.newInstance().getInstance();
+
+            try (PomodoroJournal sut = PomodoroJournal.open(path)) {
+                sut.attach(1L, pomodoro);
+                pomodoro.performs();
+                sut.commit();
+
+                // A non-empty directory in place of the journal cannot be replaced
+                Files.delete(path);
+                Files.createFile(Files.createDirectory(path).resolve("other"));
+                assertThrows(IOException.class, () -> sut.compact());
+
+                // The previous journal is still in use
+                pomodoro.stop();
+                sut.commit();
+
+                Files.delete(path.resolve("other"));
+                Files.delete(path);
+                sut.compact();
+
+                pomodoro.startBreak();
+                sut.commit();
+            }
+
+            final Map<Long, Pomodoro> actual = PomodoroJournal.replay(path);
+
+            assertEquals(2 * 64, Files.size(path));
+            assertTrue(actual.get(1L).isBreaking());
+        }
+    }
+}
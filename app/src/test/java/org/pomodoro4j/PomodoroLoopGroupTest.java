@@ -0,0 +1,243 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroLoopGroupTest {
+
+    private static PomodoroFactory newFastFactory() {
+        return PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder().setConcentrationMinutes(0)
+                .setBreakMinutes(0).setLongerBreakMinutes(0).setCountUntilLongerBreak(2).build());
+    }
+
+    @Nested
+    class TestNewInstance {
+
+        @Test
+        void testDefault() {
+            try (PomodoroLoopGroup sut = PomodoroLoopGroup.newInstance()) {
+                assertEquals(Runtime.getRuntime().availableProcessors(), sut.getLoopCount());
+                assertEquals(0, sut.size());
+            }
+        }
+
+        @Test
+        void testWhenArgumentsAreInvalid() {
+            final PomodoroFactory factory = PomodoroFactory.newInstance();
+
+            assertThrows(IllegalArgumentException.class, () -> PomodoroLoopGroup.newInstance(0, factory));
+            assertThrows(IllegalArgumentException.class,
+                    () -> PomodoroLoopGroup.newInstance(1, factory, 0, TimeUnit.MILLISECONDS));
+            assertThrows(NullPointerException.class, () -> PomodoroLoopGroup.newInstance(1, null));
+        }
+    }
+
+    @Nested
+    class TestStart {
+
+        @Test
+        void testManySessions() throws Exception {
+            final AtomicInteger transitions = new AtomicInteger();
+            final Map<Long, Thread> threads = new ConcurrentHashMap<>();
+            final AtomicInteger foreignThreads = new AtomicInteger();
+            final List<CompletableFuture<PomodoroState>> futures = new ArrayList<>();
+
+            try (PomodoroLoopGroup sut = PomodoroLoopGroup.newInstance(4, newFastFactory(), 1,
+                    TimeUnit.MILLISECONDS)) {
+                for (long id = 0; id < 1_000; id++) {
+                    final long sessionId = id;
+
+                    futures.add(sut.start(sessionId, (source, from, to) -> {
+                        transitions.incrementAndGet();
+
+                        if (threads.putIfAbsent(sessionId, Thread.currentThread()) != null
+                                && threads.get(sessionId) != Thread.currentThread()) {
+                            foreignThreads.incrementAndGet();
+                        }
+                    }));
+                }
+
+                for (final CompletableFuture<PomodoroState> future : futures) {
+                    assertSame(PomodoroState.FINISHED, future.get(10, TimeUnit.SECONDS));
+                }
+
+                for (long id = 0; id < 1_000; id++) {
+                    for (long other = id + 1; other < id + 8 && other < 1_000; other++) {
+                        assertEquals(sut.loopIndexOf(id) == sut.loopIndexOf(other),
+                                threads.get(id) == threads.get(other));
+                    }
+                }
+
+                assertEquals(0, sut.size());
+            }
+
+            // Started, three breaks started and three breaks ended per session
+            assertEquals(7_000, transitions.get());
+            assertEquals(0, foreignThreads.get());
+        }
+
+        @Test
+        void testWhenAlreadyRunning() throws Exception {
+            try (PomodoroLoopGroup sut = PomodoroLoopGroup.newInstance(2, PomodoroFactory.newInstance())) {
+                sut.start(1L, (source, from, to) -> {
+                });
+
+                final ExecutionException actual = assertThrows(ExecutionException.class,
+                        () -> sut.start(1L, (source, from, to) -> {
+                        }).get(10, TimeUnit.SECONDS));
+
+                assertSame(IllegalStateException.class, actual.getCause().getClass());
+            }
+        }
+    }
+
+    @Nested
+    class TestStop {
+
+        @Test
+        void testStop() throws Exception {
+            try (PomodoroLoopGroup sut = PomodoroLoopGroup.newInstance(2, PomodoroFactory.newInstance())) {
+                final CompletableFuture<PomodoroState> completion = sut.start(1L, (source, from, to) -> {
+                });
+
+                assertSame(PomodoroState.CONCENTRATING, sut.getState(1L).get(10, TimeUnit.SECONDS));
+                assertTrue(sut.stop(1L).get(10, TimeUnit.SECONDS));
+                assertTrue(completion.isCancelled());
+                assertNull(sut.getState(1L).get(10, TimeUnit.SECONDS));
+                assertFalse(sut.stop(1L).get(10, TimeUnit.SECONDS));
+            }
+        }
+
+        @Test
+        void testStopAfterReset() throws Exception {
+            try (PomodoroLoopGroup sut = PomodoroLoopGroup.newInstance(2, PomodoroFactory.newInstance())) {
+                final CompletableFuture<PomodoroState> completion = sut.start(1L, (source, from, to) -> {
+                });
+
+                sut.submit(1L, pomodoro -> {
+                    pomodoro.reset();
+                    return null;
+                }).get(10, TimeUnit.SECONDS);
+
+                // The session reset by the function has already been removed
+                assertFalse(sut.stop(1L).get(10, TimeUnit.SECONDS));
+                assertTrue(completion.isCancelled());
+                assertNull(sut.getState(1L).get(10, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    @Nested
+    class TestSubmit {
+
+        @Test
+        void testSubmit() throws Exception {
+            try (PomodoroLoopGroup sut = PomodoroLoopGroup.newInstance(2, PomodoroFactory.newInstance())) {
+                final CompletableFuture<Thread> listenerThread = new CompletableFuture<>();
+
+                sut.start(1L, (source, from, to) -> listenerThread.complete(Thread.currentThread()));
+
+                assertSame(listenerThread.get(10, TimeUnit.SECONDS),
+                        sut.submit(1L, pomodoro -> Thread.currentThread()).get(10, TimeUnit.SECONDS));
+                assertSame(PomodoroImpl.class, sut.submit(1L, Object::getClass).get(10, TimeUnit.SECONDS));
+            }
+        }
+
+        @Test
+        void testPhaseChangedBySubmit() throws Exception {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final List<PomodoroState> phases = new CopyOnWriteArrayList<>();
+            final CompletableFuture<PomodoroState> breakEnded = new CompletableFuture<>();
+
+            try (PomodoroLoopGroup sut = PomodoroLoopGroup
+                    .newInstance(1, PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder().build(), clock))) {
+                sut.start(1L, (source, from, to) -> {
+                    phases.add(to);
+
+                    if (from == PomodoroState.BREAKING) {
+                        breakEnded.complete(to);
+                    }
+                });
+
+                // The break is started 10 minutes before the deadline of the concentration
+                clock.advance(15, TimeUnit.MINUTES);
+                assertEquals(clock.nanoTime() + TimeUnit.MINUTES.toNanos(5), sut.submit(1L, pomodoro -> {
+                    pomodoro.startBreak();
+                    return pomodoro.getNextDeadlineNanos();
+                }).get(10, TimeUnit.SECONDS));
+
+                clock.advance(5, TimeUnit.MINUTES);
+
+                assertSame(PomodoroState.CONCENTRATING, breakEnded.get(10, TimeUnit.SECONDS));
+                assertEquals(List.of(PomodoroState.CONCENTRATING, PomodoroState.BREAKING,
+                        PomodoroState.CONCENTRATING), phases);
+            }
+        }
+
+        @Test
+        void testWhenNotRunning() {
+            try (PomodoroLoopGroup sut = PomodoroLoopGroup.newInstance(2, PomodoroFactory.newInstance())) {
+                final ExecutionException actual = assertThrows(ExecutionException.class,
+                        () -> sut.submit(1L, Pomodoro::getNanoseconds).get(10, TimeUnit.SECONDS));
+
+                assertSame(IllegalStateException.class, actual.getCause().getClass());
+            }
+        }
+    }
+
+    @Nested
+    class TestClose {
+
+        @Test
+        void testWhenClosed() throws Exception {
+            final PomodoroLoopGroup sut = PomodoroLoopGroup.newInstance(2, PomodoroFactory.newInstance());
+            final CompletableFuture<PomodoroState> actual = sut.start(1L, (source, from, to) -> {
+            });
+
+            assertSame(PomodoroState.CONCENTRATING, sut.getState(1L).get(10, TimeUnit.SECONDS));
+
+            sut.close();
+
+            assertThrows(IllegalStateException.class, () -> sut.start(2L, (source, from, to) -> {
+            }));
+            assertThrows(IllegalStateException.class, () -> sut.getState(1L));
+            assertThrows(Exception.class, () -> actual.get(10, TimeUnit.SECONDS));
+            assertTrue(actual.isCancelled());
+        }
+    }
+}
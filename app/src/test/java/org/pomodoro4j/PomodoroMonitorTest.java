@@ -0,0 +1,217 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.Configuration;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroMonitorTest {
+
+    /**
+     * The configuration finishing after the first break
+     */
+    private static final Configuration SHORT = ConfigurationBuilder.newBuilder().setCountUntilLongerBreak(0).build();
+
+    @Nested
+    class TestCounts {
+
+        @Test
+        void testSessionCountsByState() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final PomodoroMonitor sut = PomodoroMonitor.newInstance(clock);
+            final PomodoroFactory factory = PomodoroFactory.newInstance(SHORT, clock);
+            final Pomodoro first = factory.getInstance();
+            final Pomodoro second = factory.getInstance();
+            final Pomodoro third = PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder().build(), clock)
+                    .getInstance();
+
+            sut.attach(first);
+            sut.attach(second);
+            sut.attach(second);
+            sut.attach(third);
+            assertEquals(3L, sut.getSessionCount());
+            assertEquals(3L, sut.getSessionCountsByState().get(PomodoroState.INITIALIZED.name()));
+
+            first.performs();
+            second.performs();
+            second.startBreak();
+            third.performs();
+            third.stop();
+
+            final Map<String, Long> counts = sut.getSessionCountsByState();
+            assertEquals(0L, counts.get(PomodoroState.INITIALIZED.name()));
+            assertEquals(1L, counts.get(PomodoroState.CONCENTRATING.name()));
+            assertEquals(1L, counts.get(PomodoroState.LONGER_BREAKING.name()));
+            assertEquals(1L, counts.get(PomodoroState.STOPPED.name()));
+            assertEquals(5L, sut.getTransitionCount());
+
+            final Map<String, Long> profiles = sut.getConfigurationProfiles();
+            assertEquals(2, profiles.size());
+            assertEquals(2L, profiles.get(SHORT.toString()));
+
+            assertTrue(sut.detach(second));
+            assertFalse(sut.detach(second));
+            second.endBreak();
+            assertEquals(2L, sut.getSessionCount());
+            assertEquals(0L, sut.getSessionCountsByState().get(PomodoroState.LONGER_BREAKING.name()));
+            assertEquals(0L, sut.getSessionCountsByState().get(PomodoroState.FINISHED.name()));
+            assertEquals(1L, sut.getConfigurationProfiles().get(SHORT.toString()));
+        }
+
+        @Test
+        void testUnsupported() {
+            final PomodoroMonitor sut = PomodoroMonitor.newInstance();
+            final Pomodoro pomodoro = PomodoroFactory.newInstance().getConcurrentInstance();
+            assertThrows(IllegalArgumentException.class, () -> sut.attach(pomodoro));
+            assertFalse(sut.detach(pomodoro));
+        }
+    }
+
+    @Nested
+    class TestRates {
+
+        @Test
+        void testTransitionsPerSecond() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final PomodoroMonitor sut = PomodoroMonitor.newInstance(clock);
+            final PomodoroFactory factory = PomodoroFactory.newInstance(SHORT, clock);
+
+            for (int i = 0; i < 10; i++) {
+                final Pomodoro pomodoro = factory.getInstance();
+                sut.attach(pomodoro);
+                pomodoro.performs();
+            }
+
+            assertEquals(0.0, sut.getTransitionsPerSecond());
+            clock.advance(2, TimeUnit.SECONDS);
+            assertEquals(5.0, sut.getTransitionsPerSecond());
+            clock.advance(500, TimeUnit.MILLISECONDS);
+            assertEquals(5.0, sut.getTransitionsPerSecond());
+            clock.advance(500, TimeUnit.MILLISECONDS);
+            assertEquals(0.0, sut.getTransitionsPerSecond());
+        }
+
+        @Test
+        void testTimerLag() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final PomodoroMonitor sut = PomodoroMonitor.newInstance(clock);
+            final Pomodoro pomodoro = PomodoroFactory.newInstance(SHORT, clock).getInstance();
+            sut.attach(pomodoro);
+
+            pomodoro.performs();
+            clock.advance(SHORT.getConcentrationMinutes(), TimeUnit.MINUTES);
+            clock.advance(3, TimeUnit.MILLISECONDS);
+            pomodoro.startBreak();
+
+            assertEquals(TimeUnit.MILLISECONDS.toNanos(3), sut.getMaxTimerLagNanoseconds());
+            assertTrue(sut.getTimerLag99thPercentileNanoseconds() >= TimeUnit.MILLISECONDS.toNanos(3));
+
+            sut.resetStatistics();
+            assertEquals(0L, sut.getMaxTimerLagNanoseconds());
+            assertEquals(0L, sut.getTransitionCount());
+            assertEquals(1L, sut.getSessionCount());
+        }
+    }
+
+    @Nested
+    class TestRegistry {
+
+        @Test
+        void testEvictedSessionsAreDetached() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final PomodoroMonitor monitor = PomodoroMonitor.newInstance(clock);
+            final PomodoroRegistry registry = PomodoroRegistry
+                    .newInstance(PomodoroFactory.newInstance(SHORT, clock), 1, TimeUnit.MINUTES, 2, monitor);
+
+            registry.getOrCreate(1L).performs();
+            registry.getOrCreate(2L).performs();
+            registry.get(2L).stop();
+            assertEquals(2L, monitor.getSessionCount());
+
+            clock.advance(1, TimeUnit.MINUTES);
+            assertEquals(1, registry.evictExpired());
+            assertEquals(1L, monitor.getSessionCount());
+            assertEquals(0L, monitor.getSessionCountsByState().get(PomodoroState.STOPPED.name()));
+
+            registry.remove(1L);
+            assertEquals(0L, monitor.getSessionCount());
+        }
+    }
+
+    @Nested
+    class TestRegister {
+
+        @Test
+        void testPlatformMBeanServer() throws Exception {
+            final PomodoroMonitor sut = PomodoroMonitor.newInstance();
+            final Pomodoro pomodoro = PomodoroFactory.newInstance().getInstance();
+            sut.attach(pomodoro);
+            pomodoro.performs();
+
+            final ObjectName objectName = sut.register("test");
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+            try {
+                assertThrows(IllegalStateException.class, () -> sut.register("test"));
+                assertEquals(1L, server.getAttribute(objectName, "SessionCount"));
+                assertEquals(1L, server.getAttribute(objectName, "TransitionCount"));
+
+                final TabularData counts = (TabularData) server.getAttribute(objectName, "SessionCountsByState");
+                final CompositeData concentrating = counts.get(new Object[] { PomodoroState.CONCENTRATING.name() });
+                assertEquals(1L, concentrating.get("value"));
+
+                server.invoke(objectName, "resetStatistics", null, null);
+                assertEquals(0L, server.getAttribute(objectName, "TransitionCount"));
+            } finally {
+                assertTrue(sut.unregister());
+            }
+
+            assertFalse(server.isRegistered(objectName));
+            assertFalse(sut.unregister());
+        }
+
+        @Test
+        void testNameAlreadyTaken() {
+            final PomodoroMonitor first = PomodoroMonitor.newInstance();
+            final PomodoroMonitor second = PomodoroMonitor.newInstance();
+            first.register("taken");
+
+            try {
+                assertThrows(IllegalStateException.class, () -> second.register("taken"));
+            } finally {
+                first.unregister();
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.Configuration;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroPoolTest {
+
+    /**
+     * The configuration finishing after the first break
+     */
+    private static final Configuration CONFIGURATION = ConfigurationBuilder.newBuilder().setCountUntilLongerBreak(0)
+            .build();
+
+    private static void finish(final Pomodoro pomodoro) {
+        pomodoro.performs();
+        pomodoro.startBreak();
+        pomodoro.endBreak();
+        assertEquals(PomodoroState.FINISHED, ((PomodoroImpl) pomodoro).getPomodoroState());
+    }
+
+    @Nested
+    class TestNewInstance {
+
+        @Test
+        void testWithNonPositiveSize() {
+            final PomodoroFactory factory = PomodoroFactory.newInstance(CONFIGURATION);
+            assertThrows(IllegalArgumentException.class, () -> PomodoroPool.newInstance(factory, 0));
+            assertThrows(IllegalArgumentException.class, () -> PomodoroPool.newInstance(factory, -1));
+        }
+
+        @Test
+        void testWithNull() {
+            assertThrows(NullPointerException.class, () -> PomodoroPool.newInstance(null, 1));
+        }
+    }
+
+    @Nested
+    class TestAcquireAndRelease {
+
+        @Test
+        void testRecycleFinished() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final PomodoroPool sut = PomodoroPool.newInstance(PomodoroFactory.newInstance(CONFIGURATION, clock), 2);
+
+            final Pomodoro pomodoro = sut.acquire();
+            pomodoro.performs();
+            pomodoro.startBreak();
+            clock.advance(1, TimeUnit.MINUTES);
+            assertFalse(pomodoro.shouldEndBreak());
+            assertEquals(TimeUnit.MINUTES.toNanos(1), pomodoro.getSplitNanoseconds());
+            pomodoro.endBreak();
+            assertEquals(PomodoroState.FINISHED, ((PomodoroImpl) pomodoro).getPomodoroState());
+
+            assertTrue(sut.release(pomodoro));
+            assertEquals(1, sut.getIdleSize());
+
+            final Pomodoro recycled = sut.acquire();
+            assertSame(pomodoro, recycled);
+            assertEquals(0, sut.getIdleSize());
+            assertEquals(PomodoroState.INITIALIZED, ((PomodoroImpl) recycled).getPomodoroState());
+            assertEquals(Pomodoro.NO_DEADLINE, recycled.getNextDeadlineNanos());
+            assertEquals(0L, recycled.getNanoseconds());
+            assertEquals(0L, recycled.getSplitNanoseconds());
+            assertEquals(0, ((PomodoroImpl) recycled).getBreakCounter().getCount());
+
+            clock.advance(1, TimeUnit.MINUTES);
+            assertTrue(recycled.performs());
+            assertEquals(TimeUnit.MINUTES.toMillis(2), recycled.getStartMilliseconds());
+            assertEquals(TimeUnit.MINUTES.toNanos(27), recycled.getNextDeadlineNanos());
+        }
+
+        @Test
+        void testReleaseWhileAttached() {
+            final PomodoroPool sut = PomodoroPool.newInstance(PomodoroFactory.newInstance(CONFIGURATION), 1);
+            final AtomicInteger transitions = new AtomicInteger();
+            final TransitionHook hook = (p, from, to, nanoTime) -> transitions.incrementAndGet();
+
+            final Pomodoro pomodoro = sut.acquire();
+            ((PomodoroImpl) pomodoro).addTransitionHook(hook);
+            finish(pomodoro);
+            assertEquals(3, transitions.get());
+
+            assertFalse(sut.release(pomodoro));
+            assertEquals(PomodoroState.FINISHED, ((PomodoroImpl) pomodoro).getPomodoroState());
+
+            ((PomodoroImpl) pomodoro).removeTransitionHook(hook);
+            assertTrue(sut.release(pomodoro));
+            sut.acquire().performs();
+            assertEquals(3, transitions.get());
+        }
+
+        @Test
+        void testReleaseWhileRegistered() {
+            final PomodoroFactory factory = PomodoroFactory.newInstance(CONFIGURATION);
+            final PomodoroPool sut = PomodoroPool.newInstance(factory, 1);
+            final PomodoroRegistry registry = PomodoroRegistry.newInstance(factory, 1, TimeUnit.MINUTES);
+
+            final Pomodoro pomodoro = sut.acquire();
+            registry.register(1L, pomodoro);
+            finish(pomodoro);
+
+            assertFalse(sut.release(pomodoro));
+            assertSame(pomodoro, registry.remove(1L));
+            assertTrue(sut.release(pomodoro));
+        }
+
+        @Test
+        void testReleaseUnfinished() {
+            final PomodoroPool sut = PomodoroPool.newInstance(PomodoroFactory.newInstance(CONFIGURATION), 1);
+
+            final Pomodoro pomodoro = sut.acquire();
+            assertFalse(sut.release(pomodoro));
+            pomodoro.performs();
+            assertFalse(sut.release(pomodoro));
+            assertEquals(0, sut.getIdleSize());
+            assertNotSame(pomodoro, sut.acquire());
+        }
+
+        @Test
+        void testReleaseTwice() {
+            final PomodoroPool sut = PomodoroPool.newInstance(PomodoroFactory.newInstance(CONFIGURATION), 2);
+
+            final Pomodoro pomodoro = sut.acquire();
+            finish(pomodoro);
+            assertTrue(sut.release(pomodoro));
+            assertFalse(sut.release(pomodoro));
+            assertEquals(1, sut.getIdleSize());
+        }
+
+        @Test
+        void testReleaseWhenFull() {
+            final PomodoroPool sut = PomodoroPool.newInstance(PomodoroFactory.newInstance(CONFIGURATION), 1);
+
+            final Pomodoro first = sut.acquire();
+            final Pomodoro second = sut.acquire();
+            finish(first);
+            finish(second);
+
+            assertTrue(sut.release(first));
+            assertFalse(sut.release(second));
+            assertEquals(1, sut.getIdleSize());
+        }
+
+        @Test
+        void testReleaseFromOtherFactory() {
+            final PomodoroPool sut = PomodoroPool.newInstance(PomodoroFactory.newInstance(CONFIGURATION), 1);
+
+            final Pomodoro pomodoro = PomodoroFactory
+                    .newInstance(ConfigurationBuilder.newBuilder().setCountUntilLongerBreak(0).setBreakMinutes(3).build())
+                    .getInstance();
+            finish(pomodoro);
+            assertFalse(sut.release(pomodoro));
+
+            final Pomodoro otherClock = PomodoroFactory
+                    .newInstance(CONFIGURATION, VirtualPomodoroClock.newInstance(0)).getInstance();
+            finish(otherClock);
+            assertFalse(sut.release(otherClock));
+            assertEquals(0, sut.getIdleSize());
+        }
+
+        @Test
+        void testReleaseUnsupported() {
+            final PomodoroPool sut = PomodoroPool.newInstance(PomodoroFactory.newInstance(CONFIGURATION), 1);
+            final Pomodoro pomodoro = PomodoroFactory.newInstance(CONFIGURATION).getConcurrentInstance();
+            assertThrows(IllegalArgumentException.class, () -> sut.release(pomodoro));
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroRegistryTest {
+
+    private static PomodoroRegistry newRegistry(final VirtualPomodoroClock clock) {
+        return PomodoroRegistry.newInstance(
+                PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder().setCountUntilLongerBreak(0).build(),
+                        clock),
+                10, TimeUnit.MINUTES, 4);
+    }
+
+    @Nested
+    class TestNewInstance {
+
+        @Test
+        void testWithInvalidArguments() {
+            final PomodoroFactory factory = PomodoroFactory.newInstance();
+            assertThrows(IllegalArgumentException.class,
+                    () -> PomodoroRegistry.newInstance(factory, 0, TimeUnit.MINUTES));
+            assertThrows(IllegalArgumentException.class,
+                    () -> PomodoroRegistry.newInstance(factory, 1, TimeUnit.MINUTES, 0));
+            assertThrows(NullPointerException.class, () -> PomodoroRegistry.newInstance(null, 1, TimeUnit.MINUTES));
+        }
+    }
+
+    @Nested
+    class TestLookup {
+
+        @Test
+        void testGetOrCreate() {
+            final PomodoroRegistry sut = newRegistry(VirtualPomodoroClock.newInstance(0));
+
+            final Pomodoro pomodoro = sut.getOrCreate(1L);
+            assertSame(pomodoro, sut.getOrCreate(1L));
+            assertSame(pomodoro, sut.get(1L));
+            assertNotSame(pomodoro, sut.getOrCreate(2L));
+            assertNull(sut.get(3L));
+            assertEquals(2, sut.size());
+        }
+
+        @Test
+        void testKeyIsStableWhileStateChanges() {
+            final PomodoroRegistry sut = newRegistry(VirtualPomodoroClock.newInstance(0));
+
+            final Pomodoro pomodoro = sut.getOrCreate(1L);
+            pomodoro.performs();
+            pomodoro.startBreak();
+            assertSame(pomodoro, sut.get(1L));
+        }
+
+        @Test
+        void testRegisterAndRemove() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final PomodoroRegistry sut = newRegistry(clock);
+            final Pomodoro first = PomodoroFactory.newInstance().getInstance();
+            final Pomodoro second = PomodoroFactory.newInstance().getInstance();
+
+            assertNull(sut.register(1L, first));
+            assertSame(first, sut.register(1L, second));
+            assertSame(second, sut.remove(1L));
+            assertNull(sut.remove(1L));
+            assertEquals(0, sut.size());
+        }
+
+        @Test
+        void testRegisterUnsupported() {
+            final PomodoroRegistry sut = newRegistry(VirtualPomodoroClock.newInstance(0));
+            final Pomodoro pomodoro = PomodoroFactory.newInstance().getConcurrentInstance();
+            assertThrows(IllegalArgumentException.class, () -> sut.register(1L, pomodoro));
+        }
+    }
+
+    @Nested
+    class TestEviction {
+
+        @Test
+        void testFinishedExpiresAfterTtl() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final PomodoroRegistry sut = newRegistry(clock);
+
+            final Pomodoro pomodoro = sut.getOrCreate(1L);
+            pomodoro.performs();
+            pomodoro.startBreak();
+            pomodoro.endBreak();
+
+            clock.advance(9, TimeUnit.MINUTES);
+            assertSame(pomodoro, sut.get(1L));
+
+            clock.advance(1, TimeUnit.MINUTES);
+            assertNull(sut.get(1L));
+            assertEquals(0, sut.size());
+            assertNotSame(pomodoro, sut.getOrCreate(1L));
+        }
+
+        @Test
+        void testStoppedExpiresAfterTtl() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final PomodoroRegistry sut = newRegistry(clock);
+
+            sut.getOrCreate(1L).performs();
+            sut.getOrCreate(2L).performs();
+            sut.getOrCreate(3L);
+            sut.get(1L).stop();
+
+            clock.advance(1, TimeUnit.HOURS);
+            assertEquals(1, sut.evictExpired());
+            assertNull(sut.get(1L));
+            assertEquals(2, sut.size());
+        }
+
+        @Test
+        void testActiveAgainIsNotExpired() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final PomodoroRegistry sut = newRegistry(clock);
+
+            final Pomodoro pomodoro = sut.getOrCreate(1L);
+            pomodoro.performs();
+            pomodoro.stop();
+            clock.advance(5, TimeUnit.MINUTES);
+            pomodoro.reset();
+
+            clock.advance(1, TimeUnit.HOURS);
+            assertEquals(0, sut.evictExpired());
+            assertSame(pomodoro, sut.get(1L));
+        }
+
+        @Test
+        void testRegisterIdle() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final PomodoroRegistry sut = newRegistry(clock);
+
+            final Pomodoro pomodoro = PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder().build(), clock)
+                    .getInstance();
+            pomodoro.performs();
+            pomodoro.stop();
+            clock.advance(1, TimeUnit.HOURS);
+
+            sut.register(1L, pomodoro);
+            assertSame(pomodoro, sut.get(1L));
+            clock.advance(10, TimeUnit.MINUTES);
+            assertNull(sut.get(1L));
+        }
+
+        @Test
+        void testRemovedSessionIsNotTracked() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final PomodoroRegistry sut = newRegistry(clock);
+
+            final PomodoroImpl pomodoro = (PomodoroImpl) sut.getOrCreate(1L);
+            sut.remove(1L);
+            pomodoro.performs();
+            pomodoro.stop();
+
+            sut.register(1L, pomodoro);
+            sut.remove(1L);
+            sut.register(2L, pomodoro);
+            clock.advance(10, TimeUnit.MINUTES);
+            assertEquals(1, sut.evictExpired());
+        }
+    }
+
+    @Nested
+    class TestConcurrency {
+
+        @Test
+        void testConcurrentGetOrCreate() throws Exception {
+            final PomodoroRegistry sut = newRegistry(VirtualPomodoroClock.newInstance(0));
+            final int threads = 8;
+            final int sessions = 1_000;
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            final CountDownLatch start = new CountDownLatch(1);
+
+            try {
+                final List<Future<Pomodoro[]>> futures = new ArrayList<>();
+
+                for (int t = 0; t < threads; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        final Pomodoro[] pomodoros = new Pomodoro[sessions];
+
+                        for (int i = 0; i < sessions; i++) {
+                            pomodoros[i] = sut.getOrCreate(i);
+                        }
+
+                        return pomodoros;
+                    }));
+                }
+
+                start.countDown();
+                final Pomodoro[] expected = futures.get(0).get(10, TimeUnit.SECONDS);
+
+                for (final Future<Pomodoro[]> future : futures) {
+                    final Pomodoro[] actual = future.get(10, TimeUnit.SECONDS);
+
+                    for (int i = 0; i < sessions; i++) {
+                        assertSame(expected[i], actual[i]);
+                    }
+                }
+
+                assertEquals(sessions, sut.size());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
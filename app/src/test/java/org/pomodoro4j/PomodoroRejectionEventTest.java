@@ -0,0 +1,143 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroRejectionEventTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordRejection() throws Exception {
+        final Pomodoro pomodoro = PomodoroFactory.newInstance().getInstance();
+        final Path path = this.directory.resolve("rejections.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("org.pomodoro4j.Rejection");
+            recording.start();
+
+            assertThrows(PomodoroException.class, () -> pomodoro.startBreak());
+            pomodoro.performs();
+            pomodoro.startBreak();
+            assertThrows(PomodoroException.class, () -> pomodoro.shouldStartBreak());
+
+            recording.stop();
+            recording.dump(path);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(path).stream()
+                .filter(event -> event.getEventType().getName().equals("org.pomodoro4j.Rejection"))
+                .collect(Collectors.toList());
+        assertEquals(2, events.size());
+
+        assertEquals(BreakPolicy.START_BREAK.name(), events.get(0).getString("operation"));
+        assertEquals(PomodoroState.INITIALIZED.name(), events.get(0).getString("state"));
+        assertEquals(BreakPolicy.SHOULD_START_BREAK.name(), events.get(1).getString("operation"));
+        assertEquals(PomodoroState.BREAKING.name(), events.get(1).getString("state"));
+        assertEquals(1, events.get(1).getInt("breakCount"));
+        assertEquals(events.get(0).getLong("sessionId"), events.get(1).getLong("sessionId"));
+    }
+
+    @Test
+    void testRecordRejectionWithoutThrowing() throws Exception {
+        final PomodoroRegistry registry = PomodoroRegistry.newInstance(PomodoroFactory.newInstance(), 1,
+                TimeUnit.HOURS);
+        final Pomodoro pomodoro = registry.getOrCreate(42L);
+        final Path path = this.directory.resolve("rejections.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("org.pomodoro4j.Rejection");
+            recording.start();
+
+            assertEquals(TransitionResult.REJECTED, pomodoro.tryStartBreak());
+            pomodoro.performs();
+            assertEquals(TransitionResult.REJECTED, pomodoro.tryEndBreak());
+
+            recording.stop();
+            recording.dump(path);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(path).stream()
+                .filter(event -> event.getEventType().getName().equals("org.pomodoro4j.Rejection"))
+                .collect(Collectors.toList());
+        assertEquals(2, events.size());
+
+        assertEquals(BreakPolicy.START_BREAK.name(), events.get(0).getString("operation"));
+        assertEquals(PomodoroState.INITIALIZED.name(), events.get(0).getString("state"));
+        assertEquals(BreakPolicy.END_BREAK.name(), events.get(1).getString("operation"));
+        assertEquals(PomodoroState.CONCENTRATING.name(), events.get(1).getString("state"));
+
+        // The events are correlated with the key of the session in the registry
+        assertEquals(42L, events.get(0).getLong("sessionId"));
+        assertEquals(42L, events.get(1).getLong("sessionId"));
+    }
+
+    @Test
+    void testRecordRejectionAfterRecycle() throws Exception {
+        final PomodoroPool pool = PomodoroPool.newInstance(PomodoroFactory.newInstance(), 1);
+        final PomodoroImpl pomodoro = (PomodoroImpl) pool.acquire();
+        final Path path = this.directory.resolve("rejections.jfr");
+
+        pomodoro.setSessionId(42L);
+        pomodoro.performs();
+
+        while (pomodoro.getPomodoroState() != PomodoroState.FINISHED) {
+            pomodoro.startBreak();
+            pomodoro.endBreak();
+        }
+
+        assertTrue(pool.release(pomodoro));
+        assertSame(pomodoro, pool.acquire());
+
+        try (Recording recording = new Recording()) {
+            recording.enable("org.pomodoro4j.Rejection");
+            recording.start();
+
+            assertEquals(TransitionResult.REJECTED, pomodoro.tryStartBreak());
+
+            recording.stop();
+            recording.dump(path);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(path).stream()
+                .filter(event -> event.getEventType().getName().equals("org.pomodoro4j.Rejection"))
+                .collect(Collectors.toList());
+        assertEquals(1, events.size());
+
+        // The next owner does not inherit the id of the previous session
+        assertNotEquals(42L, events.get(0).getLong("sessionId"));
+    }
+}
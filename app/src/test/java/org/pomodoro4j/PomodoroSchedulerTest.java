@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroSchedulerTest {
+
+    @Nested
+    class TestSchedule {
+
+        @Test
+        void testFullCycle() throws Exception {
+            final Pomodoro pomodoro = PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder()
+                    .setConcentrationMinutes(0).setBreakMinutes(0).setLongerBreakMinutes(0)
+                    .setCountUntilLongerBreak(1).build()).getInstance();
+            final List<PomodoroState> transitions = new CopyOnWriteArrayList<>();
+
+            try (PomodoroScheduler sut = PomodoroScheduler.newInstance()) {
+                final CompletableFuture<Pomodoro> actual = sut.schedule(pomodoro,
+                        (source, from, to) -> transitions.add(to));
+
+                assertSame(pomodoro, actual.get(10, TimeUnit.SECONDS));
+            }
+
+            assertEquals(List.of(PomodoroState.CONCENTRATING, PomodoroState.BREAKING, PomodoroState.CONCENTRATING,
+                    PomodoroState.LONGER_BREAKING, PomodoroState.FINISHED), transitions);
+            assertFalse(pomodoro.performs());
+        }
+
+        @Test
+        void testWhenCancelled() throws Exception {
+            final Pomodoro pomodoro = PomodoroFactory.newInstance().getInstance();
+
+            try (PomodoroScheduler sut = PomodoroScheduler.newInstance(1)) {
+                final CompletableFuture<Pomodoro> actual = sut.schedule(pomodoro, (source, from, to) -> {
+                });
+
+                assertFalse(actual.isDone());
+                assertTrue(actual.cancel(false));
+                assertTrue(actual.isCancelled());
+            }
+        }
+
+        @Test
+        void testWhenPomodoroIsNull() {
+            try (PomodoroScheduler sut = PomodoroScheduler.newInstance()) {
+                assertThrows(NullPointerException.class, () -> sut.schedule(null, (source, from, to) -> {
+                }));
+            }
+        }
+    }
+
+    @Nested
+    class TestNewInstance {
+
+        @Test
+        void testWhenThreadsIsZero() {
+            assertThrows(IllegalArgumentException.class, () -> PomodoroScheduler.newInstance(0));
+        }
+
+        @Test
+        void testNewInstance() {
+            assertDoesNotThrow(() -> PomodoroScheduler.newInstance().close());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroSnapshotterTest {
+
+    @Nested
+    class TestRestore {
+
+        @Test
+        void testRestoreRunningSessions(@TempDir final Path directory) throws IOException {
+            final Path path = directory.resolve("pomodoro.snapshot");
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(1_000_000L);
+            final PomodoroImpl breaking = new PomodoroImpl(ConfigurationBuilder.newBuilder().build(), clock);
+            final PomodoroImpl concentrating = new PomodoroImpl(ConfigurationBuilder.newBuilder()
+                    .setConcentrationMinutes(20).build(), clock);
+
+            breaking.performs();
+            clock.advance(10, TimeUnit.MINUTES);
+            concentrating.performs();
+            clock.advance(25, TimeUnit.MINUTES);
+            breaking.startBreak();
+
+            try (PomodoroSnapshotter sut = PomodoroSnapshotter.newInstance(path, 4)) {
+                sut.register(1L, breaking);
+                sut.register(2L, concentrating);
+                assertEquals(2, sut.snapshot());
+            }
+
+            // The restart takes two minutes
+            final VirtualPomodoroClock restartedClock = VirtualPomodoroClock
+                    .newInstance(clock.currentTimeMillis() + TimeUnit.MINUTES.toMillis(2));
+            final Map<Long, Pomodoro> actual = PomodoroSnapshotter.restore(path, restartedClock);
+
+            assertEquals(List.of(1L, 2L), List.copyOf(actual.keySet()));
+
+            final Pomodoro restoredBreaking = actual.get(1L);
+            assertTrue(restoredBreaking.isBreaking());
+            assertEquals(1_000_000L, restoredBreaking.getStartMilliseconds());
+            assertEquals(TimeUnit.MINUTES.toMillis(37), restoredBreaking.getMilliseconds());
+            assertEquals(TimeUnit.MINUTES.toNanos(3), restoredBreaking.getNextDeadlineNanos());
+            assertFalse(restoredBreaking.shouldEndBreak());
+
+            restartedClock.advance(3, TimeUnit.MINUTES);
+            assertTrue(restoredBreaking.shouldEndBreak());
+            restoredBreaking.endBreak();
+            assertEquals(TimeUnit.MINUTES.toNanos(28), restoredBreaking.getNextDeadlineNanos());
+
+            final Pomodoro restoredConcentrating = actual.get(2L);
+            assertFalse(restoredConcentrating.isBreaking());
+            assertTrue(restoredConcentrating.shouldStartBreak());
+            restoredConcentrating.startBreak();
+            assertTrue(restoredConcentrating.isBreaking());
+        }
+
+        @Test
+        void testRestoreStoppedAndInitializedSessions(@TempDir final Path directory) throws IOException {
+            final Path path = directory.resolve("pomodoro.snapshot");
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final PomodoroImpl stopped = new PomodoroImpl(ConfigurationBuilder.newBuilder().build(), clock);
+            final PomodoroImpl initialized = new PomodoroImpl(ConfigurationBuilder.newBuilder().build(), clock);
+
+            stopped.performs();
+            clock.advance(7, TimeUnit.MINUTES);
+            stopped.stop();
+
+            try (PomodoroSnapshotter sut = PomodoroSnapshotter.newInstance(path, 2)) {
+                sut.register(1L, stopped);
+                sut.register(2L, initialized);
+                sut.snapshot();
+            }
+
+            final VirtualPomodoroClock restartedClock = VirtualPomodoroClock
+                    .newInstance(clock.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+            final Map<Long, Pomodoro> actual = PomodoroSnapshotter.restore(path, restartedClock);
+
+            assertEquals(TimeUnit.MINUTES.toMillis(7), actual.get(1L).getMilliseconds());
+            assertEquals(Pomodoro.NO_DEADLINE, actual.get(1L).getNextDeadlineNanos());
+            restartedClock.advance(1, TimeUnit.MINUTES);
+            assertEquals(TimeUnit.MINUTES.toMillis(7), actual.get(1L).getMilliseconds());
+            assertEquals(Pomodoro.NO_DEADLINE, actual.get(2L).getNextDeadlineNanos());
+            assertTrue(actual.get(2L).performs());
+        }
+
+        @Test
+        void testKeepLatestSnapshot(@TempDir final Path directory) throws IOException {
+            final Path path = directory.resolve("pomodoro.snapshot");
+            final Pomodoro pomodoro = PomodoroFactory.newInstance().getInstance();
+
+            try (PomodoroSnapshotter sut = PomodoroSnapshotter.newInstance(path, 2)) {
+                sut.register(1L, pomodoro);
+                sut.register(2L, pomodoro);
+                sut.snapshot();
+                assertTrue(sut.unregister(2L));
+                assertFalse(sut.unregister(2L));
+                sut.snapshot();
+            }
+
+            assertEquals(List.of(1L), List.copyOf(PomodoroSnapshotter.restore(path).keySet()));
+
+            // Reopening the file does not discard the snapshot until the next one
+            try (PomodoroSnapshotter sut = PomodoroSnapshotter.newInstance(path, 2)) {
+                assertEquals(List.of(1L), List.copyOf(PomodoroSnapshotter.restore(path).keySet()));
+                assertEquals(0, sut.snapshot());
+            }
+
+            assertTrue(PomodoroSnapshotter.restore(path).isEmpty());
+        }
+
+        @Test
+        void testWhenRecordIsCorrupted(@TempDir final Path directory) throws IOException {
+            final Path path = directory.resolve("pomodoro.snapshot");
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(1_000_000L);
+
+            try (PomodoroSnapshotter sut = PomodoroSnapshotter.newInstance(path, 2, clock)) {
+                sut.register(1L, new PomodoroImpl(ConfigurationBuilder.newBuilder().build(), clock));
+                sut.snapshot();
+            }
+
+            final byte[] bytes = Files.readAllBytes(path);
+
+            // The snapshot is stamped with the clock of the snapshotter
+            assertEquals(1_000_000L, ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getLong(24));
+            assertEquals(List.of(1L), List.copyOf(PomodoroSnapshotter.restore(path).keySet()));
+
+            // The first snapshot is written into the second region
+            bytes[64 + 2 * 64 + 8] ^= 1;
+            Files.write(path, bytes);
+            assertThrows(IOException.class, () -> PomodoroSnapshotter.restore(path));
+        }
+
+        @Test
+        void testWhenFileIsNotSnapshot(@TempDir final Path directory) throws IOException {
+            final Path path = Files.write(directory.resolve("other"), new byte[128]);
+            assertThrows(IOException.class, () -> PomodoroSnapshotter.restore(path));
+        }
+    }
+
+    @Nested
+    class TestSnapshot {
+
+        @Test
+        void testWhenCapacityIsExceeded(@TempDir final Path directory) throws IOException {
+            try (PomodoroSnapshotter sut = PomodoroSnapshotter.newInstance(directory.resolve("pomodoro.snapshot"),
+                    1)) {
+                sut.register(1L, PomodoroFactory.newInstance().getInstance());
+                sut.register(1L, PomodoroFactory.newInstance().getInstance());
+
+                assertThrows(IllegalStateException.class,
+                        () -> sut.register(2L, PomodoroFactory.newInstance().getInstance()));
+                assertEquals(1, sut.size());
+                assertEquals(1, sut.snapshot());
+            }
+        }
+
+        @Test
+        void testWhenPomodoroIsUnsupported(@TempDir final Path directory) throws IOException {
+            try (PomodoroSnapshotter sut = PomodoroSnapshotter.newInstance(directory.resolve("pomodoro.snapshot"),
+                    1)) {
+                assertThrows(IllegalArgumentException.class, () -> sut.register(1L,
+                        ConcurrentPomodoro.newInstance(ConfigurationBuilder.newBuilder().build())));
+            }
+        }
+
+        @Test
+        void testWhenCapacityIsZero(@TempDir final Path directory) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> PomodoroSnapshotter.newInstance(directory.resolve("pomodoro.snapshot"), 0));
+        }
+    }
+}
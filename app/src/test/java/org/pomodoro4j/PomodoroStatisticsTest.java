@@ -0,0 +1,187 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroStatisticsTest {
+
+    private static Pomodoro newPomodoro(final VirtualPomodoroClock clock) {
+        return PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder().setConcentrationMinutes(25)
+                .setBreakMinutes(5).setLongerBreakMinutes(15).setCountUntilLongerBreak(1).build(), clock)
+                .getInstance();
+    }
+
+    @Nested
+    class TestRecord {
+
+        @Test
+        void testFullCycle() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final Pomodoro pomodoro = newPomodoro(clock);
+            final PomodoroStatistics sut = PomodoroStatistics.newInstance();
+            sut.attach(pomodoro);
+
+            pomodoro.performs();
+            clock.advance(26, TimeUnit.MINUTES);
+            pomodoro.startBreak();
+            clock.advance(5, TimeUnit.MINUTES);
+            pomodoro.endBreak();
+            clock.advance(25, TimeUnit.MINUTES);
+            pomodoro.startBreak();
+            clock.advance(17, TimeUnit.MINUTES);
+            pomodoro.endBreak();
+
+            final PomodoroStatistics.Snapshot snapshot = sut.snapshot();
+            assertEquals(2L, snapshot.getTransitionCount(PomodoroState.CONCENTRATING));
+            assertEquals(1L, snapshot.getTransitionCount(PomodoroState.BREAKING));
+            assertEquals(1L, snapshot.getTransitionCount(PomodoroState.LONGER_BREAKING));
+            assertEquals(1L, snapshot.getTransitionCount(PomodoroState.FINISHED));
+            assertEquals(5L, snapshot.getTransitionCount());
+
+            final PomodoroHistogram.Snapshot concentrations = snapshot
+                    .getPhaseDurations(PomodoroState.CONCENTRATING);
+            assertEquals(2L, concentrations.getCount());
+            assertEquals(TimeUnit.MINUTES.toNanos(51), concentrations.getSum());
+            assertEquals(TimeUnit.MINUTES.toNanos(26), concentrations.getMax());
+            assertEquals(TimeUnit.MINUTES.toNanos(17),
+                    snapshot.getPhaseDurations(PomodoroState.LONGER_BREAKING).getMax());
+            assertEquals(0L, snapshot.getPhaseDurations(PomodoroState.INITIALIZED).getCount());
+
+            final PomodoroHistogram.Snapshot overruns = snapshot.getOverruns();
+            assertEquals(4L, overruns.getCount());
+            assertEquals(TimeUnit.MINUTES.toNanos(3), overruns.getSum());
+            assertEquals(TimeUnit.MINUTES.toNanos(2), overruns.getMax());
+        }
+
+        @Test
+        void testEarlyAndStopped() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final Pomodoro pomodoro = newPomodoro(clock);
+            final PomodoroStatistics sut = PomodoroStatistics.newInstance();
+            sut.attach(pomodoro);
+
+            pomodoro.performs();
+            clock.advance(20, TimeUnit.MINUTES);
+            pomodoro.startBreak();
+            clock.advance(1, TimeUnit.MINUTES);
+            pomodoro.stop();
+
+            final PomodoroStatistics.Snapshot snapshot = sut.snapshot();
+            assertEquals(1L, snapshot.getOverruns().getCount());
+            assertEquals(0L, snapshot.getOverruns().getMax());
+            assertEquals(TimeUnit.MINUTES.toNanos(1), snapshot.getPhaseDurations(PomodoroState.BREAKING).getMax());
+            assertEquals(1L, snapshot.getTransitionCount(PomodoroState.STOPPED));
+        }
+
+        @Test
+        void testAttachDuringPhase() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final Pomodoro pomodoro = newPomodoro(clock);
+            final PomodoroStatistics sut = PomodoroStatistics.newInstance();
+
+            pomodoro.performs();
+            clock.advance(10, TimeUnit.MINUTES);
+            sut.attach(pomodoro);
+            sut.attach(pomodoro);
+            clock.advance(15, TimeUnit.MINUTES);
+            pomodoro.startBreak();
+
+            final PomodoroStatistics.Snapshot snapshot = sut.snapshot();
+            assertEquals(1L, snapshot.getTransitionCount());
+            assertEquals(TimeUnit.MINUTES.toNanos(25),
+                    snapshot.getPhaseDurations(PomodoroState.CONCENTRATING).getMax());
+            assertEquals(0L, snapshot.getOverruns().getMax());
+        }
+
+        @Test
+        void testAggregateAndPerSession() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final PomodoroStatistics aggregate = PomodoroStatistics.newInstance();
+            final PomodoroStatistics session = PomodoroStatistics.newInstance();
+            final Pomodoro first = newPomodoro(clock);
+            final Pomodoro second = newPomodoro(clock);
+            aggregate.attach(first);
+            aggregate.attach(second);
+            session.attach(first);
+
+            first.performs();
+            second.performs();
+
+            assertEquals(2L, aggregate.snapshot().getTransitionCount(PomodoroState.CONCENTRATING));
+            assertEquals(1L, session.snapshot().getTransitionCount(PomodoroState.CONCENTRATING));
+        }
+
+        @Test
+        void testDetach() {
+            final Pomodoro pomodoro = newPomodoro(VirtualPomodoroClock.newInstance(0));
+            final PomodoroStatistics sut = PomodoroStatistics.newInstance();
+            sut.attach(pomodoro);
+
+            assertTrue(sut.detach(pomodoro));
+            assertFalse(sut.detach(pomodoro));
+            pomodoro.performs();
+            assertEquals(0L, sut.snapshot().getTransitionCount());
+        }
+
+        @Test
+        void testUnsupported() {
+            final PomodoroStatistics sut = PomodoroStatistics.newInstance();
+            final Pomodoro pomodoro = PomodoroFactory.newInstance().getConcurrentInstance();
+            assertThrows(IllegalArgumentException.class, () -> sut.attach(pomodoro));
+            assertFalse(sut.detach(pomodoro));
+        }
+    }
+
+    @Nested
+    class TestReset {
+
+        @Test
+        void testSnapshotAndReset() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+            final Pomodoro pomodoro = newPomodoro(clock);
+            final PomodoroStatistics sut = PomodoroStatistics.newInstance();
+            sut.attach(pomodoro);
+
+            pomodoro.performs();
+            clock.advance(25, TimeUnit.MINUTES);
+            pomodoro.startBreak();
+
+            assertEquals(2L, sut.snapshotAndReset().getTransitionCount());
+            assertEquals(0L, sut.snapshot().getTransitionCount());
+            assertEquals(0L, sut.snapshot().getPhaseDurations(PomodoroState.CONCENTRATING).getCount());
+
+            clock.advance(5, TimeUnit.MINUTES);
+            pomodoro.endBreak();
+            assertEquals(TimeUnit.MINUTES.toNanos(5),
+                    sut.snapshot().getPhaseDurations(PomodoroState.BREAKING).getMax());
+
+            sut.reset();
+            assertEquals(0L, sut.snapshot().getTransitionCount());
+        }
+    }
+}
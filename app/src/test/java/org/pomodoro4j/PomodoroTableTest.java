@@ -0,0 +1,242 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroTableTest {
+
+    @Nested
+    class TestAdd {
+
+        @Test
+        void testAddBeyondCapacity() {
+            final PomodoroTable sut = PomodoroTable.newInstance(PomodoroClock.system(), 2);
+            final int configurationId = sut.register(ConfigurationBuilder.newBuilder().build());
+
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i, sut.add(configurationId));
+            }
+
+            assertEquals(100, sut.size());
+            assertEquals(PomodoroState.INITIALIZED, sut.getState(99));
+        }
+
+        @Test
+        void testReuseRemovedHandle() {
+            final PomodoroTable sut = PomodoroTable.newInstance();
+            final int configurationId = sut.register(ConfigurationBuilder.newBuilder().build());
+            final int first = sut.add(configurationId);
+            final int second = sut.add(configurationId);
+
+            sut.performs(first);
+            sut.remove(first);
+
+            assertThrows(IllegalArgumentException.class, () -> sut.getState(first));
+            assertEquals(first, sut.add(configurationId));
+            assertEquals(PomodoroState.INITIALIZED, sut.getState(first));
+            assertEquals(2, sut.size());
+            assertFalse(first == second);
+        }
+
+        @Test
+        void testWhenConfigurationIsUnknown() {
+            final PomodoroTable sut = PomodoroTable.newInstance();
+            assertThrows(IllegalArgumentException.class, () -> sut.add(0));
+        }
+    }
+
+    @Nested
+    class TestTransitions {
+
+        @Test
+        void testStartBreakBeforeStart() {
+            final PomodoroTable sut = PomodoroTable.newInstance();
+            final int handle = sut.add(sut.register(ConfigurationBuilder.newBuilder().build()));
+
+            assertThrows(PomodoroException.class, () -> sut.startBreak(handle));
+            assertThrows(PomodoroException.class, () -> sut.endBreak(handle));
+            assertEquals(PomodoroState.INITIALIZED, sut.getState(handle));
+        }
+
+        @Test
+        void testStartLongerBreak() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final PomodoroTable sut = PomodoroTable.newInstance(clock, 1);
+            final int handle = sut.add(sut.register(ConfigurationBuilder.newBuilder().setCountUntilLongerBreak(1)
+                    .build()));
+
+            assertTrue(sut.performs(handle));
+            assertFalse(sut.shouldStartBreak(handle));
+
+            clock.advance(25, TimeUnit.MINUTES);
+            assertTrue(sut.shouldStartBreak(handle));
+
+            sut.startBreak(handle);
+            assertEquals(PomodoroState.BREAKING, sut.getState(handle));
+            assertTrue(sut.isBreaking(handle));
+            sut.endBreak(handle);
+            assertEquals(PomodoroState.CONCENTRATING, sut.getState(handle));
+            sut.startBreak(handle);
+            assertEquals(PomodoroState.LONGER_BREAKING, sut.getState(handle));
+            assertEquals(2, sut.getBreakCount(handle));
+            sut.endBreak(handle);
+            assertEquals(PomodoroState.FINISHED, sut.getState(handle));
+            assertFalse(sut.performs(handle));
+        }
+
+        @Test
+        void testStop() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final PomodoroTable sut = PomodoroTable.newInstance(clock, 1);
+            final int handle = sut.add(sut.register(ConfigurationBuilder.newBuilder().build()));
+
+            sut.performs(handle);
+            clock.advance(10, TimeUnit.MINUTES);
+            sut.stop(handle);
+
+            assertEquals(PomodoroState.STOPPED, sut.getState(handle));
+            assertEquals(clock.nanoTime(), sut.getPhaseStartNanoseconds(handle));
+        }
+
+        @Test
+        void testStopBeforeStart() {
+            final PomodoroTable sut = PomodoroTable.newInstance();
+            final int handle = sut.add(sut.register(ConfigurationBuilder.newBuilder().build()));
+
+            assertThrows(IllegalStateException.class, () -> sut.stop(handle));
+            assertEquals(PomodoroState.INITIALIZED, sut.getState(handle));
+        }
+
+        @Test
+        void testStopTwice() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final PomodoroTable sut = PomodoroTable.newInstance(clock, 1);
+            final int handle = sut.add(sut.register(ConfigurationBuilder.newBuilder().build()));
+
+            sut.performs(handle);
+            sut.stop(handle);
+            final long phaseStartNanos = sut.getPhaseStartNanoseconds(handle);
+            clock.advance(10, TimeUnit.MINUTES);
+
+            assertThrows(IllegalStateException.class, () -> sut.stop(handle));
+            assertEquals(phaseStartNanos, sut.getPhaseStartNanoseconds(handle));
+        }
+
+        @Test
+        void testStopAfterFinish() {
+            final PomodoroTable sut = PomodoroTable.newInstance();
+            final int handle = sut.add(sut.register(ConfigurationBuilder.newBuilder().setCountUntilLongerBreak(1)
+                    .build()));
+
+            sut.performs(handle);
+            sut.startBreak(handle);
+            sut.endBreak(handle);
+            sut.startBreak(handle);
+            sut.endBreak(handle);
+
+            assertEquals(PomodoroState.FINISHED, sut.getState(handle));
+            assertThrows(IllegalStateException.class, () -> sut.stop(handle));
+            assertEquals(PomodoroState.FINISHED, sut.getState(handle));
+        }
+    }
+
+    @Nested
+    class TestSweep {
+
+        @Test
+        void testFullDay() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final PomodoroTable sut = PomodoroTable.newInstance(clock, 16);
+            final int configurationId = sut.register(ConfigurationBuilder.newBuilder().build());
+            final List<PomodoroState> transitions = new ArrayList<>();
+
+            for (int i = 0; i < 1_000; i++) {
+                sut.performs(sut.add(configurationId));
+            }
+
+            // 5 concentrations of 25 minutes, 4 breaks of 5 minutes and a longer break of 15 minutes
+            for (int minutes = 0; minutes < 160; minutes++) {
+                clock.advance(1, TimeUnit.MINUTES);
+                sut.sweep(clock.nanoTime(), (handle, from, to) -> {
+                    if (handle == 0) {
+                        transitions.add(to);
+                    }
+                });
+            }
+
+            assertEquals(List.of(PomodoroState.BREAKING, PomodoroState.CONCENTRATING, PomodoroState.BREAKING,
+                    PomodoroState.CONCENTRATING, PomodoroState.BREAKING, PomodoroState.CONCENTRATING,
+                    PomodoroState.BREAKING, PomodoroState.CONCENTRATING, PomodoroState.LONGER_BREAKING,
+                    PomodoroState.FINISHED), transitions);
+            assertEquals(PomodoroState.FINISHED, sut.getState(999));
+            assertEquals(0, sut.sweep(clock.nanoTime(), (handle, from, to) -> {
+            }));
+        }
+
+        @Test
+        void testWithSchedule() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final PomodoroTable sut = PomodoroTable.newInstance(clock, 1);
+            final int handle = sut.add(sut.register(PhaseSchedule.newBuilder()
+                    .addConcentration(52, TimeUnit.MINUTES).addBreak(17, TimeUnit.MINUTES)
+                    .addConcentration(52, TimeUnit.MINUTES).addLongerBreak(30, TimeUnit.MINUTES)
+                    .addConcentration(52, TimeUnit.MINUTES).addLongerBreak(60, TimeUnit.MINUTES).build()));
+            final List<PomodoroState> transitions = new ArrayList<>();
+
+            sut.performs(handle);
+
+            for (int minutes = 0; minutes < 52 + 17 + 52 + 30 + 52 + 60; minutes++) {
+                clock.advance(1, TimeUnit.MINUTES);
+                sut.sweep(clock.nanoTime(), (source, from, to) -> transitions.add(to));
+            }
+
+            assertEquals(List.of(PomodoroState.BREAKING, PomodoroState.CONCENTRATING,
+                    PomodoroState.LONGER_BREAKING, PomodoroState.CONCENTRATING, PomodoroState.LONGER_BREAKING,
+                    PomodoroState.FINISHED), transitions);
+            assertEquals(0, sut.getBreakCount(handle));
+            assertEquals(6, sut.getPhase(handle));
+        }
+
+        @Test
+        void testWithoutDrift() {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final PomodoroTable sut = PomodoroTable.newInstance(clock, 1);
+            final int handle = sut.add(sut.register(ConfigurationBuilder.newBuilder().build()));
+
+            sut.performs(handle);
+            clock.advance(27, TimeUnit.MINUTES);
+
+            assertEquals(1, sut.sweep(clock.nanoTime(), (source, from, to) -> {
+            }));
+            assertEquals(TimeUnit.MINUTES.toNanos(25), sut.getPhaseStartNanoseconds(handle));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroTimingWheelTest {
+
+    /**
+     * The entry remembering its deadline
+     */
+    private static final class TestEntry extends PomodoroTimingWheel.Entry {
+
+        /**
+         * The deadline in nanoseconds
+         */
+        private final long deadlineNanos;
+
+        private TestEntry(final long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
+    @Nested
+    class TestInsert {
+
+        @Test
+        void testExpiresAtDeadline() {
+            final PomodoroTimingWheel<TestEntry> sut = new PomodoroTimingWheel<>(10, 2, 0);
+            final List<TestEntry> actual = new ArrayList<>();
+            final TestEntry entry = new TestEntry(35);
+
+            sut.insert(entry, entry.deadlineNanos);
+            assertEquals(1, sut.size());
+            assertTrue(entry.isLinked());
+
+            assertEquals(0, sut.advance(39, actual::add));
+            assertEquals(1, sut.advance(40, actual::add));
+            assertEquals(List.of(entry), actual);
+            assertEquals(0, sut.size());
+            assertFalse(entry.isLinked());
+        }
+
+        @Test
+        void testWhenAlreadyExpired() {
+            final PomodoroTimingWheel<TestEntry> sut = new PomodoroTimingWheel<>(10, 2, 0);
+            final List<TestEntry> actual = new ArrayList<>();
+            sut.advance(100, actual::add);
+
+            final TestEntry entry = new TestEntry(50);
+            sut.insert(entry, entry.deadlineNanos);
+
+            assertEquals(1, sut.advance(100, actual::add));
+            assertEquals(List.of(entry), actual);
+        }
+
+        @Test
+        void testWhenBeyondSpan() {
+            // Two levels of 256 slots span 65536 ticks
+            final PomodoroTimingWheel<TestEntry> sut = new PomodoroTimingWheel<>(1, 2, 0);
+            final List<TestEntry> actual = new ArrayList<>();
+            final TestEntry entry = new TestEntry(200_000);
+
+            sut.insert(entry, entry.deadlineNanos);
+
+            assertEquals(0, sut.advance(199_999, actual::add));
+            assertEquals(1, sut.advance(200_000, actual::add));
+        }
+
+        @Test
+        void testWhenTickIsNotPositive() {
+            assertThrows(IllegalArgumentException.class, () -> new PomodoroTimingWheel<>(0, 2, 0));
+        }
+    }
+
+    @Nested
+    class TestRemove {
+
+        @Test
+        void testRemove() {
+            final PomodoroTimingWheel<TestEntry> sut = new PomodoroTimingWheel<>(10, 2, 0);
+            final List<TestEntry> actual = new ArrayList<>();
+            final TestEntry first = new TestEntry(5_000);
+            final TestEntry second = new TestEntry(5_000);
+
+            sut.insert(first, first.deadlineNanos);
+            sut.insert(second, second.deadlineNanos);
+            sut.remove(first);
+            sut.remove(first);
+
+            assertEquals(1, sut.size());
+            assertEquals(1, sut.advance(5_000, actual::add));
+            assertEquals(List.of(second), actual);
+        }
+    }
+
+    @Nested
+    class TestAdvance {
+
+        @Test
+        void testRandomDeadlinesAcrossLevels() {
+            final PomodoroTimingWheel<TestEntry> sut = new PomodoroTimingWheel<>(1, 3, 0);
+            final Random random = new Random(42);
+            final List<TestEntry> expired = new ArrayList<>();
+
+            for (int i = 0; i < 10_000; i++) {
+                final TestEntry entry = new TestEntry(random.nextInt(20_000_000));
+                sut.insert(entry, entry.deadlineNanos);
+            }
+
+            long nowNanos = 0;
+
+            while (sut.size() > 0) {
+                final long previous = nowNanos;
+                nowNanos += random.nextInt(5_000);
+                final long now = nowNanos;
+
+                sut.advance(now, entry -> {
+                    // Never early, and never later than the tick in which the deadline falls
+                    assertTrue(entry.deadlineNanos <= now);
+                    assertTrue(entry.deadlineNanos > previous);
+                    expired.add(entry);
+                });
+            }
+
+            assertEquals(10_000, expired.size());
+        }
+
+        @Test
+        void testReinsertFromConsumer() {
+            final PomodoroTimingWheel<TestEntry> sut = new PomodoroTimingWheel<>(10, 2, 0);
+            final TestEntry entry = new TestEntry(100);
+            final List<Long> actual = new ArrayList<>();
+
+            sut.insert(entry, 100);
+            sut.advance(100, expired -> {
+                actual.add(100L);
+                sut.insert(expired, 3_000);
+            });
+
+            assertEquals(1, sut.size());
+            assertEquals(0, sut.advance(2_999, expired -> actual.add(2_999L)));
+            assertEquals(1, sut.advance(3_000, expired -> actual.add(3_000L)));
+            assertEquals(List.of(100L, 3_000L), actual);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroTransitionEventTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordTransitions() throws Exception {
+        final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance(0);
+        final Pomodoro first = PomodoroFactory
+                .newInstance(ConfigurationBuilder.newBuilder().setCountUntilLongerBreak(0).build(), clock)
+                .getInstance();
+        final Pomodoro second = PomodoroFactory.newInstance().getInstance();
+        final Path path = this.directory.resolve("transitions.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("org.pomodoro4j.Transition");
+            recording.start();
+
+            first.performs();
+            clock.advance(26, TimeUnit.MINUTES);
+            first.startBreak();
+            clock.advance(10, TimeUnit.MINUTES);
+            first.endBreak();
+            first.reset();
+            second.performs();
+            second.stop();
+
+            recording.stop();
+            recording.dump(path);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(path).stream()
+                .filter(event -> event.getEventType().getName().equals("org.pomodoro4j.Transition"))
+                .collect(Collectors.toList());
+        assertEquals(6, events.size());
+
+        final RecordedEvent startBreak = events.get(1);
+        assertEquals(PomodoroState.CONCENTRATING.name(), startBreak.getString("from"));
+        assertEquals(PomodoroState.LONGER_BREAKING.name(), startBreak.getString("to"));
+        assertEquals(1, startBreak.getInt("breakCount"));
+        assertEquals(Duration.ofMinutes(1), startBreak.getDuration("overrun"));
+
+        final RecordedEvent endBreak = events.get(2);
+        assertEquals(PomodoroState.FINISHED.name(), endBreak.getString("to"));
+        assertEquals(1, endBreak.getInt("breakCount"));
+        assertEquals(Duration.ofMinutes(-5), endBreak.getDuration("overrun"));
+
+        final RecordedEvent reset = events.get(3);
+        assertEquals(PomodoroState.INITIALIZED.name(), reset.getString("to"));
+        assertEquals(Duration.ZERO, reset.getDuration("overrun"));
+
+        final long firstId = events.get(0).getLong("sessionId");
+        assertTrue(firstId > 0);
+
+        for (int i = 1; i < 4; i++) {
+            assertEquals(firstId, events.get(i).getLong("sessionId"));
+        }
+
+        assertNotEquals(firstId, events.get(4).getLong("sessionId"));
+        assertEquals(PomodoroState.STOPPED.name(), events.get(5).getString("to"));
+    }
+
+    @Test
+    void testNotRecordedWhenDisabled() throws Exception {
+        final Pomodoro pomodoro = PomodoroFactory.newInstance().getInstance();
+        final Path path = this.directory.resolve("disabled.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.disable("org.pomodoro4j.Transition");
+            recording.start();
+            pomodoro.performs();
+            pomodoro.stop();
+            recording.stop();
+            recording.dump(path);
+        }
+
+        assertTrue(RecordingFile.readAllEvents(path).stream()
+                .noneMatch(event -> event.getEventType().getName().startsWith("org.pomodoro4j.")));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class PomodoroWheelEngineTest {
+
+    private static void awaitSize(final PomodoroWheelEngine sut, final int expected) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while (sut.size() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        assertEquals(expected, sut.size());
+    }
+
+    @Nested
+    class TestSchedule {
+
+        @Test
+        void testManyPomodoros() throws Exception {
+            final AtomicInteger transitions = new AtomicInteger();
+            final List<CompletableFuture<Pomodoro>> futures = new ArrayList<>();
+
+            try (PomodoroWheelEngine sut = PomodoroWheelEngine.newInstance(1, TimeUnit.MILLISECONDS)) {
+                for (int i = 0; i < 1_000; i++) {
+                    final Pomodoro pomodoro = PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder()
+                            .setConcentrationMinutes(0).setBreakMinutes(0).setLongerBreakMinutes(0)
+                            .setCountUntilLongerBreak(2).build()).getInstance();
+
+                    futures.add(sut.schedule(pomodoro, (source, from, to) -> transitions.incrementAndGet()));
+                }
+
+                for (final CompletableFuture<Pomodoro> future : futures) {
+                    assertSame(PomodoroImpl.class, future.get(10, TimeUnit.SECONDS).getClass());
+                }
+            }
+
+            // Started, three breaks started and three breaks ended per pomodoro
+            assertEquals(7_000, transitions.get());
+        }
+
+        @Test
+        void testVirtualClock() throws Exception {
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final CompletableFuture<PomodoroState> started = new CompletableFuture<>();
+            final CompletableFuture<PomodoroState> breakStarted = new CompletableFuture<>();
+
+            try (PomodoroWheelEngine sut = PomodoroWheelEngine.newInstance(1, TimeUnit.MILLISECONDS, clock)) {
+                sut.schedule(PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder().build(), clock)
+                        .getInstance(), (source, from, to) -> {
+                            (to == PomodoroState.BREAKING ? breakStarted : started).complete(to);
+                        });
+
+                started.get(10, TimeUnit.SECONDS);
+                clock.advance(25, TimeUnit.MINUTES);
+
+                assertSame(PomodoroState.BREAKING, breakStarted.get(10, TimeUnit.SECONDS));
+                assertThrows(IllegalArgumentException.class,
+                        () -> sut.schedule(PomodoroFactory.newInstance().getInstance(), (source, from, to) -> {
+                        }));
+            }
+        }
+
+        @Test
+        void testCancel() throws Exception {
+            final CompletableFuture<PomodoroState> started = new CompletableFuture<>();
+
+            try (PomodoroWheelEngine sut = PomodoroWheelEngine.newInstance()) {
+                final CompletableFuture<Pomodoro> actual = sut.schedule(PomodoroFactory.newInstance().getInstance(),
+                        (source, from, to) -> started.complete(to));
+
+                started.get(10, TimeUnit.SECONDS);
+                awaitSize(sut, 1);
+
+                actual.cancel(false);
+                awaitSize(sut, 0);
+            }
+        }
+
+        @Test
+        void testWhenClosed() throws Exception {
+            final PomodoroWheelEngine sut = PomodoroWheelEngine.newInstance();
+            final CompletableFuture<Pomodoro> actual = sut.schedule(PomodoroFactory.newInstance().getInstance(),
+                    (source, from, to) -> {
+                    });
+
+            sut.close();
+
+            assertThrows(IllegalStateException.class,
+                    () -> sut.schedule(PomodoroFactory.newInstance().getInstance(), (source, from, to) -> {
+                    }));
+            assertThrows(Exception.class, () -> actual.get(10, TimeUnit.SECONDS));
+            assertTrue(actual.isCancelled());
+        }
+    }
+}
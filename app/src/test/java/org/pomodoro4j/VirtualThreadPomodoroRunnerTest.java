@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021 Kato Shinya.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.pomodoro4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pomodoro4j.conf.ConfigurationBuilder;
+
+/**
+ * @author Kato Shinya
+ * @since 1.1.0
+ */
+public final class VirtualThreadPomodoroRunnerTest {
+
+    @Nested
+    class TestRun {
+
+        @Test
+        void testFullCycle() throws Exception {
+            final VirtualThreadPomodoroRunner sut = VirtualThreadPomodoroRunner.newInstance();
+            final Pomodoro pomodoro = PomodoroFactory.newInstance(ConfigurationBuilder.newBuilder()
+                    .setConcentrationMinutes(0).setBreakMinutes(0).setLongerBreakMinutes(0)
+                    .setCountUntilLongerBreak(1).build()).getInstance();
+            final List<PomodoroState> transitions = new CopyOnWriteArrayList<>();
+
+            final CompletableFuture<Pomodoro> actual = sut.run(pomodoro, (source, from, to) -> transitions.add(to));
+
+            assertSame(pomodoro, actual.get(10, TimeUnit.SECONDS));
+            assertEquals(List.of(PomodoroState.CONCENTRATING, PomodoroState.BREAKING, PomodoroState.CONCENTRATING,
+                    PomodoroState.LONGER_BREAKING, PomodoroState.FINISHED), transitions);
+        }
+
+        @Test
+        void testVirtualClock() throws Exception {
+            final VirtualThreadPomodoroRunner sut = VirtualThreadPomodoroRunner.newInstance();
+            final VirtualPomodoroClock clock = VirtualPomodoroClock.newInstance();
+            final Pomodoro pomodoro = PomodoroFactory
+                    .newInstance(ConfigurationBuilder.newBuilder().setCountUntilLongerBreak(1).build(), clock)
+                    .getInstance();
+
+            // Each phase is elapsed on the clock of the pomodoro as soon as it starts
+            final CompletableFuture<Pomodoro> actual = sut.run(pomodoro, (source, from, to) -> clock
+                    .advance(to == PomodoroState.CONCENTRATING ? 25 : to == PomodoroState.BREAKING ? 5 : 15,
+                            TimeUnit.MINUTES));
+
+            assertSame(pomodoro, actual.get(10, TimeUnit.SECONDS));
+        }
+
+        @Test
+        void testWhenCancelled() {
+            final VirtualThreadPomodoroRunner sut = VirtualThreadPomodoroRunner.newInstance();
+            final CompletableFuture<Pomodoro> actual = sut.run(PomodoroFactory.newInstance().getInstance(),
+                    (source, from, to) -> {
+                    });
+
+            assertFalse(actual.isDone());
+            assertTrue(actual.cancel(false));
+        }
+
+        @Test
+        void testIsVirtual() {
+            // Virtual threads are used only by the classes for Java 21 in the multi-release JAR
+            if (Runtime.version().feature() < 21) {
+                assertFalse(VirtualThreadPomodoroRunner.newInstance().isVirtual());
+            }
+        }
+    }
+}
@@ -17,8 +17,16 @@ package org.pomodoro4j.conf;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -122,4 +130,68 @@ public final class ConfigurationBuilderTest {
             assertEquals("Cannot use this builder any longer, build() has already been called.", actual.getMessage());
         }
     }
+
+    @Nested
+    class TestInterning {
+
+        @Test
+        void testSameValuesShareInstance() {
+            final Configuration first = ConfigurationBuilder.newBuilder().setBreakMinutes(7).build();
+            final Configuration second = ConfigurationBuilder.newBuilder().setBreakMinutes(7).build();
+
+            assertSame(first, second);
+            assertSame(ConfigurationContext.getInstance(), ConfigurationBuilder.newBuilder().build());
+        }
+
+        @Test
+        void testWithersDoNotModify() {
+            final Configuration sut = ConfigurationBuilder.newBuilder().build();
+            final Configuration actual = sut.withConcentrationMinutes(50).withBreakMinutes(10)
+                    .withLongerBreakMinutes(30).withCountUntilLongerBreak(2);
+
+            assertEquals(25, sut.getConcentrationMinutes());
+            assertEquals(5, sut.getBreakMinutes());
+            assertEquals(15, sut.getLongerBreakMinutes());
+            assertEquals(4, sut.getCountUntilLongerBreak());
+            assertSame(actual, ConfigurationBuilder.newBuilder().setConcentrationMinutes(50).setBreakMinutes(10)
+                    .setLongerBreakMinutes(30).setCountUntilLongerBreak(2).build());
+        }
+
+        @Test
+        @SuppressWarnings("deprecation")
+        void testSettersDoNotModify() {
+            final Configuration sut = ConfigurationBuilder.newBuilder().build();
+            final Configuration actual = sut.setConcentrationMinutes(50).setCountUntilLongerBreak(2);
+
+            assertEquals(25, sut.getConcentrationMinutes());
+            assertEquals(4, sut.getCountUntilLongerBreak());
+            assertEquals(50, actual.getConcentrationMinutes());
+            assertEquals(2, actual.getCountUntilLongerBreak());
+            assertSame(actual, ConfigurationBuilder.newBuilder().setConcentrationMinutes(50)
+                    .setCountUntilLongerBreak(2).build());
+        }
+
+        @Test
+        void testNanoseconds() {
+            final Configuration sut = ConfigurationBuilder.newBuilder().build();
+
+            assertEquals(TimeUnit.MINUTES.toNanos(25), sut.getConcentrationNanoseconds());
+            assertEquals(TimeUnit.MINUTES.toNanos(5), sut.getBreakNanoseconds());
+            assertEquals(TimeUnit.MINUTES.toNanos(15), sut.getLongerBreakNanoseconds());
+        }
+
+        @Test
+        void testDeserializedInstanceIsInterned() throws IOException, ClassNotFoundException {
+            final Configuration sut = ConfigurationBuilder.newBuilder().setLongerBreakMinutes(30).build();
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+            try (ObjectOutputStream stream = new ObjectOutputStream(bytes)) {
+                stream.writeObject(sut);
+            }
+
+            try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                assertSame(sut, stream.readObject());
+            }
+        }
+    }
 }